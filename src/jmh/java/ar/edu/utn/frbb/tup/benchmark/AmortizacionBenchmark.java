@@ -0,0 +1,61 @@
+package ar.edu.utn.frbb.tup.benchmark;
+
+import ar.edu.utn.frbb.tup.model.CuotaPrestamo;
+import ar.edu.utn.frbb.tup.model.MotorAmortizacion;
+import ar.edu.utn.frbb.tup.model.TablaAmortizacion;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cuota y cronograma de un préstamo: con el factor de anualidad cacheado contra Math.pow en
+ * cada llamada, y el cronograma en arreglos contra la lista de cuotas que se devuelve al cliente.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class AmortizacionBenchmark {
+
+    private static final double TASA = 0.05;
+
+    @Param({"3", "12", "60"})
+    public int plazoMeses;
+
+    /** $250.000 en centavos */
+    public long monto = 25_000_000;
+
+    @Benchmark
+    public long cuotaConMathPow() {
+        double tasaMensual = TASA / 12;
+        double factor = Math.pow(1 + tasaMensual, plazoMeses);
+        return Math.round(monto * (tasaMensual * factor) / (factor - 1));
+    }
+
+    @Benchmark
+    public long cuotaConFactorCacheado() {
+        return MotorAmortizacion.cuotaMensual(monto, TASA, plazoMeses);
+    }
+
+    @Benchmark
+    public TablaAmortizacion cronograma() {
+        return MotorAmortizacion.calcular(monto, TASA, plazoMeses);
+    }
+
+    @Benchmark
+    public List<CuotaPrestamo> planDePagos() {
+        return MotorAmortizacion.calcular(monto, TASA, plazoMeses).toCuotas();
+    }
+}
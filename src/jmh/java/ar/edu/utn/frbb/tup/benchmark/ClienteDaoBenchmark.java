@@ -0,0 +1,60 @@
+package ar.edu.utn.frbb.tup.benchmark;
+
+import ar.edu.utn.frbb.tup.model.Cliente;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Listado de clientes con sus cuentas: completo y por página.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ClienteDaoBenchmark {
+
+    private static final int TAMANIO_PAGINA = 100;
+
+    @Param({"100", "10000", "100000"})
+    public int clientes;
+
+    private EntornoBenchmark entorno;
+
+    @Setup(Level.Trial)
+    public void cargarDatos() {
+        entorno = new EntornoBenchmark();
+        entorno.cargarClientes(clientes, 1000);
+    }
+
+    @Benchmark
+    public List<Cliente> findAll() {
+        return entorno.clienteDao.findAll();
+    }
+
+    @Benchmark
+    public List<Cliente> findPagina() {
+        return entorno.clienteDao.findPagina(null, TAMANIO_PAGINA);
+    }
+
+    @Benchmark
+    @Threads(Threads.MAX)
+    public List<Cliente> findAllConcurrente() {
+        return entorno.clienteDao.findAll();
+    }
+}
@@ -0,0 +1,116 @@
+package ar.edu.utn.frbb.tup.benchmark;
+
+import ar.edu.utn.frbb.tup.model.Cuenta;
+import ar.edu.utn.frbb.tup.model.Movimiento;
+import ar.edu.utn.frbb.tup.model.TipoMoneda;
+import ar.edu.utn.frbb.tup.model.exception.CantidadNegativaException;
+import ar.edu.utn.frbb.tup.persistence.CuentaDao;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Lecturas y escrituras de {@code CuentaDao} sobre cuentas con historiales de distinto tamaño.
+ * Buscar y guardar una cuenta no deberían depender del largo del historial; leer el historial sí.
+ * {@code findSinCache} arma la cuenta desde la entidad en cada lectura, para comparar con el cache.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CuentaDaoBenchmark {
+
+    private static final int CLIENTES = 1024;
+
+    @Param({"0", "100", "10000"})
+    public int movimientosPorCuenta;
+
+    private EntornoBenchmark entorno;
+
+    private CuentaDao cuentaDaoSinCache;
+
+    @Setup(Level.Trial)
+    public void cargarDatos() throws CantidadNegativaException {
+        entorno = new EntornoBenchmark();
+        entorno.cargarClientes(CLIENTES, 0);
+        for (int i = 0; i < CLIENTES; i++) {
+            Cuenta cuenta = entorno.cuentaDao.find(EntornoBenchmark.numeroCuentaPesos(i));
+            for (int m = 0; m < movimientosPorCuenta; m++) {
+                cuenta.depositar(1);
+            }
+            entorno.cuentaDao.save(cuenta);
+        }
+        cuentaDaoSinCache = new CuentaDao(entorno.movimientoDao, 0);
+    }
+
+    @Benchmark
+    public Cuenta find() {
+        return entorno.cuentaDao.find(cuentaAlAzar());
+    }
+
+    @Benchmark
+    public Cuenta findSinCache() {
+        return cuentaDaoSinCache.find(cuentaAlAzar());
+    }
+
+    /**
+     * Guarda la cuenta sin movimientos nuevos, para que los historiales no crezcan durante la medición;
+     * el costo de agregar movimientos ya se ve en {@link OperacionServiceBenchmark}.
+     */
+    @Benchmark
+    public Cuenta save() {
+        Cuenta cuenta = EntornoBenchmark.crearCuenta(cuentaAlAzar(), EntornoBenchmark.PRIMER_DNI, TipoMoneda.PESOS,
+                ThreadLocalRandom.current().nextInt(1000));
+        entorno.cuentaDao.save(cuenta);
+        return cuenta;
+    }
+
+    @Benchmark
+    public List<Movimiento> findMovimientos() {
+        return entorno.cuentaDao.findMovimientos(cuentaAlAzar());
+    }
+
+    @Benchmark
+    public List<Cuenta> getCuentasByCliente() {
+        return entorno.cuentaDao.getCuentasByCliente(
+                EntornoBenchmark.PRIMER_DNI + ThreadLocalRandom.current().nextInt(CLIENTES));
+    }
+
+    @Benchmark
+    @Threads(Threads.MAX)
+    public Cuenta findConcurrente() {
+        return entorno.cuentaDao.find(cuentaAlAzar());
+    }
+
+    @Benchmark
+    @Threads(Threads.MAX)
+    public Cuenta saveConcurrente() {
+        return save();
+    }
+
+    @Benchmark
+    @Threads(Threads.MAX)
+    public List<Cuenta> getCuentasByClienteConcurrente() {
+        return getCuentasByCliente();
+    }
+
+    private long cuentaAlAzar() {
+        return EntornoBenchmark.numeroCuentaPesos(ThreadLocalRandom.current().nextInt(CLIENTES));
+    }
+}
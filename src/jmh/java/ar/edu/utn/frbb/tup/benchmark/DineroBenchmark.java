@@ -0,0 +1,82 @@
+package ar.edu.utn.frbb.tup.benchmark;
+
+import ar.edu.utn.frbb.tup.model.Dinero;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Sumar una tanda de movimientos y calcular un interés: centavos en long (con addExact)
+ * contra el double que se usaba antes para saldos y montos.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class DineroBenchmark {
+
+    private static final int MOVIMIENTOS = 1024;
+    private static final double TASA_MENSUAL = 0.05 / 12;
+
+    private long[] montosCentavos;
+    private double[] montosDecimales;
+
+    @Setup
+    public void preparar() {
+        montosCentavos = new long[MOVIMIENTOS];
+        montosDecimales = new double[MOVIMIENTOS];
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        for (int i = 0; i < MOVIMIENTOS; i++) {
+            montosCentavos[i] = random.nextLong(1, 10_000_000);
+            montosDecimales[i] = Dinero.aDecimal(montosCentavos[i]);
+        }
+    }
+
+    @Benchmark
+    public long saldoEnCentavos() {
+        long saldo = 0;
+        for (long monto : montosCentavos) {
+            saldo = Dinero.sumar(saldo, monto);
+        }
+        return saldo;
+    }
+
+    @Benchmark
+    public double saldoEnDouble() {
+        double saldo = 0;
+        for (double monto : montosDecimales) {
+            saldo += monto;
+        }
+        return saldo;
+    }
+
+    @Benchmark
+    public long interesEnCentavos() {
+        long total = 0;
+        for (long monto : montosCentavos) {
+            total += Dinero.multiplicar(monto, TASA_MENSUAL, Dinero.REDONDEO_INTERES);
+        }
+        return total;
+    }
+
+    @Benchmark
+    public double interesEnDouble() {
+        double total = 0;
+        for (double monto : montosDecimales) {
+            total += Math.round(monto * TASA_MENSUAL * 100) / 100.0;
+        }
+        return total;
+    }
+}
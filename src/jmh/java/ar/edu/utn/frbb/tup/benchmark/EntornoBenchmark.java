@@ -0,0 +1,109 @@
+package ar.edu.utn.frbb.tup.benchmark;
+
+import ar.edu.utn.frbb.tup.model.Cliente;
+import ar.edu.utn.frbb.tup.model.Cuenta;
+import ar.edu.utn.frbb.tup.model.TipoCuenta;
+import ar.edu.utn.frbb.tup.model.TipoMoneda;
+import ar.edu.utn.frbb.tup.model.TipoPersona;
+import ar.edu.utn.frbb.tup.persistence.ClienteDao;
+import ar.edu.utn.frbb.tup.persistence.CuentaDao;
+import ar.edu.utn.frbb.tup.persistence.MovimientoDao;
+import ar.edu.utn.frbb.tup.persistence.PrestamoDao;
+import ar.edu.utn.frbb.tup.service.AuditoriaConsultas;
+import ar.edu.utn.frbb.tup.service.ClienteScoreCrediticio;
+import ar.edu.utn.frbb.tup.service.ClienteService;
+import ar.edu.utn.frbb.tup.service.CuentaLockManager;
+import ar.edu.utn.frbb.tup.service.CuentaService;
+import ar.edu.utn.frbb.tup.service.OperacionService;
+import ar.edu.utn.frbb.tup.service.PrestamoService;
+import ar.edu.utn.frbb.tup.service.ScoreCrediticioService;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDate;
+
+/**
+ * Arma los DAOs y servicios a mano, igual que los tests de concurrencia, sin levantar el contexto
+ * de Spring: lo que se mide es el código de la aplicación y no el arranque.
+ * Las tablas en memoria son estáticas, así que cada benchmark corre en su propio fork (el default de JMH).
+ */
+class EntornoBenchmark {
+
+    static final long PRIMER_DNI = 20_000_000L;
+    static final long PRIMER_NUMERO_CUENTA = 500_000_000L;
+
+    final MovimientoDao movimientoDao = new MovimientoDao();
+    final CuentaDao cuentaDao = new CuentaDao(movimientoDao);
+    final ClienteDao clienteDao = new ClienteDao();
+    final PrestamoDao prestamoDao = new PrestamoDao();
+    final CuentaLockManager cuentaLockManager = new CuentaLockManager();
+    final ClienteService clienteService = new ClienteService(clienteDao);
+    final CuentaService cuentaService = new CuentaService();
+    final OperacionService operacionService = new OperacionService();
+    final PrestamoService prestamoService = new PrestamoService();
+
+    EntornoBenchmark() {
+        ReflectionTestUtils.setField(clienteDao, "cuentaDao", cuentaDao);
+
+        ReflectionTestUtils.setField(cuentaService, "cuentaDao", cuentaDao);
+        ReflectionTestUtils.setField(cuentaService, "clienteService", clienteService);
+        ReflectionTestUtils.setField(cuentaService, "cuentaLockManager", cuentaLockManager);
+        // Sin iniciar: las consultas se descartan al encolarlas y no se escribe nada a disco
+        ReflectionTestUtils.setField(cuentaService, "auditoriaConsultas",
+                new AuditoriaConsultas("auditoria-benchmark", 1, 1));
+
+        ReflectionTestUtils.setField(operacionService, "cuentaDao", cuentaDao);
+        ReflectionTestUtils.setField(operacionService, "cuentaService", cuentaService);
+        ReflectionTestUtils.setField(operacionService, "cuentaLockManager", cuentaLockManager);
+
+        ReflectionTestUtils.setField(prestamoService, "prestamoDao", prestamoDao);
+        ReflectionTestUtils.setField(prestamoService, "clienteService", clienteService);
+        ReflectionTestUtils.setField(prestamoService, "cuentaService", cuentaService);
+        // Bureau sin latencia simulada y sin cache, para medir el camino completo de cada solicitud
+        ReflectionTestUtils.setField(prestamoService, "clienteScoreCrediticio",
+                new ClienteScoreCrediticio(new ScoreCrediticioService(), 500, 1024, 0, 1));
+    }
+
+    /**
+     * Da de alta {@code cantidad} clientes, cada uno con una caja de ahorro en pesos y otra en dólares.
+     */
+    void cargarClientes(int cantidad, double balanceInicial) {
+        for (int i = 0; i < cantidad; i++) {
+            long dni = PRIMER_DNI + i;
+            clienteDao.save(crearCliente(dni));
+            cuentaDao.save(crearCuenta(numeroCuentaPesos(i), dni, TipoMoneda.PESOS, balanceInicial));
+            cuentaDao.save(crearCuenta(numeroCuentaDolares(i), dni, TipoMoneda.DOLARES, balanceInicial));
+        }
+    }
+
+    static long numeroCuentaPesos(int cliente) {
+        return PRIMER_NUMERO_CUENTA + 2L * cliente;
+    }
+
+    static long numeroCuentaDolares(int cliente) {
+        return PRIMER_NUMERO_CUENTA + 2L * cliente + 1;
+    }
+
+    static Cliente crearCliente(long dni) {
+        Cliente cliente = new Cliente();
+        cliente.setDni(dni);
+        cliente.setNombre("Cliente");
+        cliente.setApellido("Benchmark");
+        cliente.setTipoPersona(TipoPersona.PERSONA_FISICA);
+        cliente.setBanco("Banco");
+        cliente.setFechaNacimiento(LocalDate.of(1985, 3, 1));
+        cliente.setFechaAlta(LocalDate.of(2024, 1, 1));
+        return cliente;
+    }
+
+    static Cuenta crearCuenta(long numeroCuenta, long dni, TipoMoneda moneda, double balance) {
+        Cliente titular = new Cliente();
+        titular.setDni(dni);
+        Cuenta cuenta = new Cuenta();
+        cuenta.setNumeroCuenta(numeroCuenta);
+        cuenta.setTipoCuenta(TipoCuenta.CAJA_AHORRO);
+        cuenta.setMoneda(moneda);
+        cuenta.setBalance(balance);
+        cuenta.setTitular(titular);
+        return cuenta;
+    }
+}
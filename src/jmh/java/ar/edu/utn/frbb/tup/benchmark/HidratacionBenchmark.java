@@ -0,0 +1,83 @@
+package ar.edu.utn.frbb.tup.benchmark;
+
+import ar.edu.utn.frbb.tup.model.Cuenta;
+import ar.edu.utn.frbb.tup.model.Movimiento;
+import ar.edu.utn.frbb.tup.model.TipoCuenta;
+import ar.edu.utn.frbb.tup.model.TipoMoneda;
+import ar.edu.utn.frbb.tup.model.TipoOperacion;
+import ar.edu.utn.frbb.tup.persistence.entity.CuentaEntity;
+import ar.edu.utn.frbb.tup.persistence.entity.MovimientoEntity;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Paso de entidad a modelo: con los enums guardados como referencia contra el camino anterior,
+ * que los guardaba como texto y los resolvía con {@code valueOf} en cada lectura.
+ * Correr con {@code -prof gc} para ver las asignaciones por operación.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class HidratacionBenchmark {
+
+    private CuentaEntity cuenta;
+    private MovimientoEntity movimiento;
+    private String tipoCuentaTexto;
+    private String monedaTexto;
+    private String tipoOperacionTexto;
+
+    @Setup(Level.Trial)
+    public void crearEntidades() {
+        cuenta = new CuentaEntity(EntornoBenchmark.PRIMER_NUMERO_CUENTA, null, LocalDateTime.now(), 10_000,
+                TipoCuenta.CAJA_AHORRO, TipoMoneda.PESOS, EntornoBenchmark.PRIMER_DNI);
+        movimiento = new MovimientoEntity();
+        movimiento.setId(1L);
+        movimiento.setFechaHora(LocalDateTime.now());
+        movimiento.setTipoOperacion(TipoOperacion.TRANSFERENCIA_RECIBIDA);
+        movimiento.setMonto(100);
+        // Como quedaban en la entidad antes de guardar los enums
+        tipoCuentaTexto = new String(TipoCuenta.CAJA_AHORRO.name());
+        monedaTexto = new String(TipoMoneda.PESOS.name());
+        tipoOperacionTexto = new String(TipoOperacion.TRANSFERENCIA_RECIBIDA.name());
+    }
+
+    @Benchmark
+    public Cuenta cuenta() {
+        return cuenta.toCuenta();
+    }
+
+    @Benchmark
+    public Cuenta cuentaConValueOf() {
+        Cuenta hidratada = cuenta.toCuenta();
+        hidratada.setTipoCuenta(TipoCuenta.valueOf(tipoCuentaTexto));
+        hidratada.setMoneda(TipoMoneda.valueOf(monedaTexto));
+        return hidratada;
+    }
+
+    @Benchmark
+    public Movimiento movimiento() {
+        return movimiento.toMovimiento();
+    }
+
+    @Benchmark
+    public Movimiento movimientoConValueOf() {
+        Movimiento hidratado = movimiento.toMovimiento();
+        hidratado.setTipoOperacion(TipoOperacion.valueOf(tipoOperacionTexto));
+        return hidratado;
+    }
+}
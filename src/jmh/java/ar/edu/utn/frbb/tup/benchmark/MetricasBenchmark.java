@@ -0,0 +1,107 @@
+package ar.edu.utn.frbb.tup.benchmark;
+
+import ar.edu.utn.frbb.tup.metricas.MetricasInterceptor;
+import ar.edu.utn.frbb.tup.model.Cuenta;
+import ar.edu.utn.frbb.tup.model.exception.CantidadNegativaException;
+import ar.edu.utn.frbb.tup.persistence.CuentaDao;
+import ar.edu.utn.frbb.tup.service.OperacionService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.aop.framework.ProxyFactory;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Costo de las métricas: la misma operación y la misma lectura del DAO, directas y a través
+ * del proxy con el {@link MetricasInterceptor}, como quedan en la aplicación.
+ * La diferencia entre cada par es el overhead de medir.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MetricasBenchmark {
+
+    private static final int CLIENTES = 1024;
+
+    private EntornoBenchmark entorno;
+    private OperacionService operacionServiceMedido;
+    private CuentaDao cuentaDaoMedido;
+
+    @Setup(Level.Trial)
+    public void crearEntorno() {
+        entorno = new EntornoBenchmark();
+        MetricasInterceptor interceptor = new MetricasInterceptor(new SimpleMeterRegistry());
+        operacionServiceMedido = medir(entorno.operacionService, interceptor);
+        cuentaDaoMedido = medir(entorno.cuentaDao, interceptor);
+    }
+
+    @Setup(Level.Iteration)
+    public void cargarCuentas() {
+        for (int i = 0; i < CLIENTES; i++) {
+            entorno.movimientoDao.restaurarBorrado(EntornoBenchmark.numeroCuentaPesos(i));
+        }
+        entorno.cargarClientes(CLIENTES, 0);
+    }
+
+    @Benchmark
+    public Cuenta depositarSinMetricas() throws CantidadNegativaException {
+        return entorno.operacionService.depositar(cuentaAlAzar(), 10);
+    }
+
+    @Benchmark
+    public Cuenta depositarConMetricas() throws CantidadNegativaException {
+        return operacionServiceMedido.depositar(cuentaAlAzar(), 10);
+    }
+
+    @Benchmark
+    public Cuenta findSinMetricas() {
+        return entorno.cuentaDao.find(cuentaAlAzar());
+    }
+
+    @Benchmark
+    public Cuenta findConMetricas() {
+        return cuentaDaoMedido.find(cuentaAlAzar());
+    }
+
+    @Benchmark
+    @Threads(Threads.MAX)
+    public Cuenta depositarSinMetricasConcurrente() throws CantidadNegativaException {
+        return depositarSinMetricas();
+    }
+
+    @Benchmark
+    @Threads(Threads.MAX)
+    public Cuenta depositarConMetricasConcurrente() throws CantidadNegativaException {
+        return depositarConMetricas();
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T medir(T destino, MetricasInterceptor interceptor) {
+        ProxyFactory proxyFactory = new ProxyFactory(destino);
+        proxyFactory.setProxyTargetClass(true);
+        proxyFactory.addAdvice(interceptor);
+        // Misma configuración que MetricasAutoProxyCreator
+        proxyFactory.setFrozen(true);
+        proxyFactory.setOptimize(true);
+        return (T) proxyFactory.getProxy();
+    }
+
+    private long cuentaAlAzar() {
+        return EntornoBenchmark.numeroCuentaPesos(ThreadLocalRandom.current().nextInt(CLIENTES));
+    }
+}
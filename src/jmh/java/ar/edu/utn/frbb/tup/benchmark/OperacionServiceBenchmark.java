@@ -0,0 +1,116 @@
+package ar.edu.utn.frbb.tup.benchmark;
+
+import ar.edu.utn.frbb.tup.model.Cuenta;
+import ar.edu.utn.frbb.tup.model.exception.CantidadNegativaException;
+import ar.edu.utn.frbb.tup.model.exception.NoAlcanzaException;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Depósitos, retiros y transferencias a través de {@code OperacionService}, con un hilo y con
+ * todos los núcleos. Con dos clientes todos los hilos compiten por los mismos locks; con muchos
+ * se mide cuánto escala el striping de locks. Las consultas de saldo no toman locks.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class OperacionServiceBenchmark {
+
+    /** Saldo alto para que los retiros y transferencias no se queden sin fondos durante la medición */
+    private static final double BALANCE_INICIAL = 1e12;
+
+    @Param({"2", "1024"})
+    public int clientes;
+
+    private EntornoBenchmark entorno;
+
+    @Setup(Level.Trial)
+    public void crearEntorno() {
+        entorno = new EntornoBenchmark();
+    }
+
+    /**
+     * Vuelve a cargar las cuentas en cada iteración, así los historiales no crecen sin límite
+     * a lo largo de la medición.
+     */
+    @Setup(Level.Iteration)
+    public void cargarCuentas() {
+        for (int i = 0; i < clientes; i++) {
+            entorno.movimientoDao.restaurarBorrado(EntornoBenchmark.numeroCuentaPesos(i));
+            entorno.movimientoDao.restaurarBorrado(EntornoBenchmark.numeroCuentaDolares(i));
+        }
+        entorno.cargarClientes(clientes, BALANCE_INICIAL);
+    }
+
+    @Benchmark
+    public Cuenta depositar() throws CantidadNegativaException {
+        return entorno.operacionService.depositar(cuentaAlAzar(), 10);
+    }
+
+    @Benchmark
+    public Cuenta retirar() throws NoAlcanzaException, CantidadNegativaException {
+        return entorno.operacionService.retirar(cuentaAlAzar(), 10);
+    }
+
+    @Benchmark
+    public void transferir() throws NoAlcanzaException, CantidadNegativaException {
+        transferirEntreCuentasAlAzar();
+    }
+
+    @Benchmark
+    public double consultarSaldo() {
+        return entorno.cuentaService.consultarSaldo(cuentaAlAzar());
+    }
+
+    @Benchmark
+    @Threads(Threads.MAX)
+    public double consultarSaldoConcurrente() {
+        return entorno.cuentaService.consultarSaldo(cuentaAlAzar());
+    }
+
+    @Benchmark
+    @Threads(Threads.MAX)
+    public Cuenta depositarConcurrente() throws CantidadNegativaException {
+        return entorno.operacionService.depositar(cuentaAlAzar(), 10);
+    }
+
+    @Benchmark
+    @Threads(Threads.MAX)
+    public Cuenta retirarConcurrente() throws NoAlcanzaException, CantidadNegativaException {
+        return entorno.operacionService.retirar(cuentaAlAzar(), 10);
+    }
+
+    @Benchmark
+    @Threads(Threads.MAX)
+    public void transferirConcurrente() throws NoAlcanzaException, CantidadNegativaException {
+        transferirEntreCuentasAlAzar();
+    }
+
+    private void transferirEntreCuentasAlAzar() throws NoAlcanzaException, CantidadNegativaException {
+        // Entre las cuentas en pesos de dos clientes consecutivos
+        int cliente = ThreadLocalRandom.current().nextInt(clientes);
+        entorno.operacionService.transferir(EntornoBenchmark.numeroCuentaPesos(cliente),
+                EntornoBenchmark.numeroCuentaPesos((cliente + 1) % clientes), 10);
+    }
+
+    private long cuentaAlAzar() {
+        return EntornoBenchmark.numeroCuentaPesos(ThreadLocalRandom.current().nextInt(clientes));
+    }
+}
@@ -0,0 +1,63 @@
+package ar.edu.utn.frbb.tup.benchmark;
+
+import ar.edu.utn.frbb.tup.model.dto.PrestamoRequestDto;
+import ar.edu.utn.frbb.tup.model.dto.PrestamoResponseDto;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Solicitud de préstamo de punta a punta: búsqueda del cliente, cuentas, score, plan de pagos,
+ * acreditación y alta del préstamo. El score es aleatorio, así que se mezclan aprobados y rechazados.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PrestamoServiceBenchmark {
+
+    private static final int CLIENTES = 1024;
+
+    private EntornoBenchmark entorno;
+
+    @Setup(Level.Trial)
+    public void cargarDatos() {
+        entorno = new EntornoBenchmark();
+        entorno.cargarClientes(CLIENTES, 0);
+    }
+
+    @Benchmark
+    public PrestamoResponseDto solicitarPrestamo() {
+        return entorno.prestamoService.solicitarPrestamo(solicitudAlAzar());
+    }
+
+    @Benchmark
+    @Threads(Threads.MAX)
+    public PrestamoResponseDto solicitarPrestamoConcurrente() {
+        return entorno.prestamoService.solicitarPrestamo(solicitudAlAzar());
+    }
+
+    private PrestamoRequestDto solicitudAlAzar() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        PrestamoRequestDto solicitud = new PrestamoRequestDto();
+        solicitud.setNumeroCliente(EntornoBenchmark.PRIMER_DNI + random.nextInt(CLIENTES));
+        solicitud.setMontoPrestamo(10000 + random.nextInt(90000));
+        solicitud.setPlazoMeses(12);
+        solicitud.setMoneda(random.nextBoolean() ? "PESOS" : "DOLARES");
+        return solicitud;
+    }
+}
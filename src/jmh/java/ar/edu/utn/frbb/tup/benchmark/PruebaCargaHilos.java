@@ -0,0 +1,153 @@
+package ar.edu.utn.frbb.tup.benchmark;
+
+import ar.edu.utn.frbb.tup.Application;
+import ar.edu.utn.frbb.tup.model.TipoMoneda;
+import ar.edu.utn.frbb.tup.persistence.CuentaDao;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+/**
+ * Prueba de carga del REST con el pool de hilos de plataforma de Tomcat y con hilos virtuales.
+ * Levanta la aplicación dos veces (una por modo), con la persistencia activa y fsync en cada
+ * operación, que es donde un request pasa la mayor parte del tiempo bloqueado; muchos clientes
+ * concurrentes hacen depósitos por HTTP durante un tiempo fijo y se informan throughput y latencias.
+ * <p>
+ * Parámetros (propiedades del sistema): {@code carga.clientes} (500), {@code carga.segundos} (20),
+ * {@code carga.cuentas} (1000) y {@code carga.fsync} (SIEMPRE).
+ * Con {@code -Djdk.tracePinnedThreads=short} la JVM informa si algún hilo virtual queda fijado
+ * a su hilo portador mientras espera.
+ */
+public class PruebaCargaHilos {
+
+    private static final int CLIENTES = Integer.getInteger("carga.clientes", 500);
+    private static final int SEGUNDOS = Integer.getInteger("carga.segundos", 20);
+    private static final int CUENTAS = Integer.getInteger("carga.cuentas", 1000);
+    private static final String FSYNC = System.getProperty("carga.fsync", "SIEMPRE");
+
+    public static void main(String[] args) throws Exception {
+        String plataforma = ejecutar(false);
+        String virtuales = ejecutar(true);
+        System.out.println();
+        System.out.println("Clientes concurrentes: " + CLIENTES + ", duración: " + SEGUNDOS + " s, fsync: " + FSYNC);
+        System.out.println("Hilos de plataforma: " + plataforma);
+        System.out.println("Hilos virtuales:     " + virtuales);
+    }
+
+    private static String ejecutar(boolean hilosVirtuales) throws Exception {
+        Path directorio = Files.createTempDirectory("carga-wal");
+        ConfigurableApplicationContext contexto = new SpringApplicationBuilder(Application.class)
+                .properties(
+                        "server.port=0",
+                        "spring.threads.virtual.enabled=" + hilosVirtuales,
+                        "banco.persistencia.habilitada=true",
+                        "banco.persistencia.directorio=" + directorio,
+                        "banco.persistencia.fsync=" + FSYNC)
+                .run();
+        try {
+            CuentaDao cuentaDao = contexto.getBean(CuentaDao.class);
+            for (int i = 0; i < CUENTAS; i++) {
+                cuentaDao.save(EntornoBenchmark.crearCuenta(EntornoBenchmark.numeroCuentaPesos(i),
+                        EntornoBenchmark.PRIMER_DNI + i, TipoMoneda.PESOS, 0));
+            }
+            int puerto = ((WebServerApplicationContext) contexto).getWebServer().getPort();
+            // Calentamiento corto para que el JIT no cuente en la medición
+            cargar(puerto, Math.min(SEGUNDOS, 5));
+            return cargar(puerto, SEGUNDOS);
+        } finally {
+            contexto.close();
+            borrar(directorio);
+        }
+    }
+
+    private static String cargar(int puerto, int segundos) throws Exception {
+        ExecutorService ejecutorHttp = Executors.newFixedThreadPool(16);
+        HttpClient cliente = HttpClient.newBuilder()
+                .executor(ejecutorHttp)
+                .connectTimeout(Duration.ofSeconds(5))
+                .build();
+        URI uri = URI.create("http://localhost:" + puerto + "/operacion/deposito");
+        long fin = System.nanoTime() + TimeUnit.SECONDS.toNanos(segundos);
+        AtomicLong errores = new AtomicLong();
+
+        ExecutorService ejecutor = Executors.newFixedThreadPool(CLIENTES);
+        List<Future<long[]>> resultados = new ArrayList<>();
+        for (int c = 0; c < CLIENTES; c++) {
+            resultados.add(ejecutor.submit(() -> {
+                long[] latencias = new long[1024];
+                int cantidad = 0;
+                while (System.nanoTime() < fin) {
+                    long numeroCuenta = EntornoBenchmark.numeroCuentaPesos(ThreadLocalRandom.current().nextInt(CUENTAS));
+                    HttpRequest request = HttpRequest.newBuilder(uri)
+                            .header("Content-Type", "application/json")
+                            .POST(HttpRequest.BodyPublishers.ofString(
+                                    "{\"numeroCuenta\":" + numeroCuenta + ",\"monto\":10}"))
+                            .build();
+                    long inicio = System.nanoTime();
+                    try {
+                        HttpResponse<Void> respuesta = cliente.send(request, HttpResponse.BodyHandlers.discarding());
+                        if (respuesta.statusCode() != 200) {
+                            errores.incrementAndGet();
+                            continue;
+                        }
+                    } catch (IOException e) {
+                        errores.incrementAndGet();
+                        continue;
+                    }
+                    if (cantidad == latencias.length) {
+                        latencias = Arrays.copyOf(latencias, cantidad * 2);
+                    }
+                    latencias[cantidad++] = System.nanoTime() - inicio;
+                }
+                return Arrays.copyOf(latencias, cantidad);
+            }));
+        }
+
+        List<long[]> porCliente = new ArrayList<>();
+        for (Future<long[]> resultado : resultados) {
+            porCliente.add(resultado.get());
+        }
+        ejecutor.shutdown();
+        ejecutorHttp.shutdown();
+        long[] todas = porCliente.stream().flatMapToLong(Arrays::stream).sorted().toArray();
+        if (todas.length == 0) {
+            return "sin operaciones completadas, " + errores.get() + " errores";
+        }
+        return String.format("%.0f ops/s, p50 %.2f ms, p99 %.2f ms, máx %.2f ms, %d errores",
+                todas.length / (double) segundos,
+                milisegundos(todas[todas.length / 2]),
+                milisegundos(todas[(int) (todas.length * 0.99)]),
+                milisegundos(todas[todas.length - 1]),
+                errores.get());
+    }
+
+    private static double milisegundos(long nanos) {
+        return nanos / 1_000_000.0;
+    }
+
+    private static void borrar(Path directorio) throws IOException {
+        try (Stream<Path> archivos = Files.walk(directorio)) {
+            archivos.sorted(Comparator.reverseOrder()).forEach(archivo -> archivo.toFile().delete());
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package ar.edu.utn.frbb.tup.benchmark;
+
+import ar.edu.utn.frbb.tup.model.Cuenta;
+import ar.edu.utn.frbb.tup.model.exception.CantidadNegativaException;
+import ar.edu.utn.frbb.tup.persistence.wal.EstadisticasRecuperacion;
+import ar.edu.utn.frbb.tup.persistence.wal.MotorPersistencia;
+import ar.edu.utn.frbb.tup.persistence.wal.PoliticaFsync;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Tiempo de recuperación en función del tamaño del WAL: carga el snapshot (si se pidió uno)
+ * y reproduce los registros posteriores. Sirve para elegir el umbral de snapshot.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 10)
+@Fork(1)
+public class RecuperacionBenchmark {
+
+    private static final int CLIENTES = 1024;
+
+    @Param({"10000", "100000"})
+    public int operaciones;
+
+    /** Si se toma un snapshot al final: la recuperación lee el snapshot en lugar del WAL */
+    @Param({"false", "true"})
+    public boolean conSnapshot;
+
+    private EntornoBenchmark entorno;
+    private Path directorio;
+
+    @Setup(Level.Trial)
+    public void escribirWal() throws IOException, CantidadNegativaException {
+        entorno = new EntornoBenchmark();
+        directorio = Files.createTempDirectory("benchmark-wal");
+        MotorPersistencia motor = crearMotor();
+        motor.iniciar();
+        entorno.cargarClientes(CLIENTES, 0);
+        for (int i = 0; i < operaciones; i++) {
+            Cuenta cuenta = entorno.cuentaDao.find(
+                    EntornoBenchmark.numeroCuentaPesos(ThreadLocalRandom.current().nextInt(CLIENTES)));
+            cuenta.depositar(10);
+            entorno.cuentaDao.save(cuenta);
+        }
+        if (conSnapshot) {
+            motor.tomarSnapshot();
+        }
+        motor.detener();
+    }
+
+    @TearDown(Level.Trial)
+    public void borrarDirectorio() throws IOException {
+        try (Stream<Path> archivos = Files.walk(directorio)) {
+            archivos.sorted(Comparator.reverseOrder()).forEach(archivo -> archivo.toFile().delete());
+        }
+    }
+
+    /**
+     * Reproducir es idempotente, así que cada medición vuelve a recuperar sobre las mismas tablas.
+     */
+    @Benchmark
+    public EstadisticasRecuperacion recuperar() throws IOException {
+        return crearMotor().recuperar();
+    }
+
+    private MotorPersistencia crearMotor() {
+        // Sin fsync: la carga inicial mide escritura al WAL, no al disco
+        return new MotorPersistencia(entorno.clienteDao, entorno.cuentaDao, entorno.prestamoDao,
+                entorno.movimientoDao, directorio.toString(), PoliticaFsync.NUNCA, 10, 3600, 1024);
+    }
+}
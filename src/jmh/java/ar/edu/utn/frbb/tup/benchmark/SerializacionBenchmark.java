@@ -0,0 +1,62 @@
+package ar.edu.utn.frbb.tup.benchmark;
+
+import ar.edu.utn.frbb.tup.model.Cuenta;
+import ar.edu.utn.frbb.tup.model.TipoMoneda;
+import ar.edu.utn.frbb.tup.model.exception.CantidadNegativaException;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Serialización a JSON de una {@code Cuenta}, con el mismo ObjectMapper que arma Spring MVC.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SerializacionBenchmark {
+
+    @Param({"0", "100", "1000"})
+    public int movimientos;
+
+    private ObjectMapper objectMapper;
+    private Cuenta cuenta;
+
+    @Setup(Level.Trial)
+    public void crearCuenta() throws CantidadNegativaException {
+        objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        cuenta = EntornoBenchmark.crearCuenta(EntornoBenchmark.PRIMER_NUMERO_CUENTA, EntornoBenchmark.PRIMER_DNI,
+                TipoMoneda.PESOS, 0);
+        for (int i = 0; i < movimientos; i++) {
+            cuenta.depositar(100);
+        }
+    }
+
+    @Benchmark
+    public byte[] serializarCuenta() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(cuenta);
+    }
+
+    @Benchmark
+    @Threads(Threads.MAX)
+    public byte[] serializarCuentaConcurrente() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(cuenta);
+    }
+}
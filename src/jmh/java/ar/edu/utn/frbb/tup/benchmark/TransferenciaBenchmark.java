@@ -0,0 +1,109 @@
+package ar.edu.utn.frbb.tup.benchmark;
+
+import ar.edu.utn.frbb.tup.model.Cuenta;
+import ar.edu.utn.frbb.tup.model.exception.CantidadNegativaException;
+import ar.edu.utn.frbb.tup.model.exception.NoAlcanzaException;
+import ar.edu.utn.frbb.tup.persistence.wal.MotorPersistencia;
+import ar.edu.utn.frbb.tup.persistence.wal.PoliticaFsync;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+/**
+ * Transferencias con un hilo por núcleo, cada hilo entre su propio par de cuentas: no hay
+ * contención de locks, así que se mide el costo de guardar las dos patas.
+ * {@code asiento} guarda ambas cuentas en un único registro del WAL (lo que hace
+ * {@code OperacionService}); {@code dosGuardados} las guarda por separado, como antes, con dos
+ * registros y dos esperas. Con {@code fsync=SIEMPRE} cada espera es hasta el fsync del lote.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(Threads.MAX)
+public class TransferenciaBenchmark {
+
+    /** Pares de cuentas disponibles; alcanza para un hilo por núcleo */
+    private static final int PARES = 512;
+    private static final double BALANCE_INICIAL = 1e12;
+
+    @Param({"NUNCA", "SIEMPRE"})
+    public PoliticaFsync fsync;
+
+    private final AtomicInteger siguientePar = new AtomicInteger();
+    private EntornoBenchmark entorno;
+    private MotorPersistencia motor;
+    private Path directorio;
+
+    @Setup(Level.Trial)
+    public void iniciar() throws IOException {
+        entorno = new EntornoBenchmark();
+        directorio = Files.createTempDirectory("benchmark-transferencias");
+        motor = new MotorPersistencia(entorno.clienteDao, entorno.cuentaDao, entorno.prestamoDao,
+                entorno.movimientoDao, directorio.toString(), fsync, 10, 3600, 1024);
+        motor.iniciar();
+        entorno.cargarClientes(PARES * 2, BALANCE_INICIAL);
+    }
+
+    @TearDown(Level.Trial)
+    public void detener() throws IOException {
+        motor.detener();
+        try (Stream<Path> archivos = Files.walk(directorio)) {
+            archivos.sorted(Comparator.reverseOrder()).forEach(archivo -> archivo.toFile().delete());
+        }
+    }
+
+    /**
+     * Par de cuentas en pesos de un hilo, distinto al de los demás hilos.
+     */
+    @State(Scope.Thread)
+    public static class Par {
+        long origen;
+        long destino;
+
+        @Setup(Level.Trial)
+        public void elegir(TransferenciaBenchmark benchmark) {
+            int par = benchmark.siguientePar.getAndIncrement() % PARES;
+            origen = EntornoBenchmark.numeroCuentaPesos(2 * par);
+            destino = EntornoBenchmark.numeroCuentaPesos(2 * par + 1);
+        }
+    }
+
+    @Benchmark
+    public void asiento(Par par) throws NoAlcanzaException, CantidadNegativaException {
+        entorno.operacionService.transferir(par.origen, par.destino, 10);
+    }
+
+    @Benchmark
+    public void dosGuardados(Par par) throws NoAlcanzaException, CantidadNegativaException {
+        entorno.cuentaLockManager.conLock(par.origen, par.destino, () -> {
+            Cuenta origen = entorno.cuentaDao.find(par.origen);
+            Cuenta destino = entorno.cuentaDao.find(par.destino);
+            origen.transferirA(destino, 10);
+            entorno.cuentaDao.save(origen);
+            entorno.cuentaDao.save(destino);
+            return null;
+        });
+    }
+}
@@ -5,10 +5,12 @@ import ar.edu.utn.frbb.tup.model.Cliente;
 import ar.edu.utn.frbb.tup.model.dto.ClienteDto;
 import ar.edu.utn.frbb.tup.model.exception.ClienteAlreadyExistsException;
 import ar.edu.utn.frbb.tup.service.ClienteService;
+import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.io.IOException;
 import java.util.List;
 
 /**
@@ -19,12 +21,17 @@ import java.util.List;
 @RequestMapping("/cliente")
 public class ClienteController {
 
+    static final String HEADER_CURSOR_SIGUIENTE = "X-Cursor-Siguiente";
+
     @Autowired
     private ClienteService clienteService;
 
     @Autowired
     private ClienteValidator clienteValidator;
 
+    @Autowired
+    private EscritorJsonIncremental escritorJson;
+
     /**
      * Endpoint para crear un nuevo cliente en el sistema bancario.
      * Valida los datos del cliente antes de proceder con la creación.
@@ -63,16 +70,44 @@ public class ClienteController {
     }
 
     /**
-     * Endpoint para obtener la lista completa de clientes registrados.
+     * Endpoint para obtener todos los clientes registrados, ordenados por DNI.
+     * La respuesta se escribe a medida que se leen los clientes, sin armar la lista
+     * entera en memoria: sirve para listados de cualquier tamaño.
      * 
-     * @return ResponseEntity con la lista de todos los clientes
+     * @param despuesDe DNI a partir del cual listar, exclusivo (opcional)
+     * @param respuesta Respuesta donde se escribe el arreglo de clientes
      * 
      * GET /cliente
+     * GET /cliente?despuesDe=12345678
+     */
+    @GetMapping(params = "!limite")
+    public void obtenerTodosLosClientes(@RequestParam(required = false) Long despuesDe,
+                                        HttpServletResponse respuesta) throws IOException {
+        escritorJson.escribirArreglo(respuesta, destino -> clienteService.recorrerClientes(despuesDe, destino));
+    }
+
+    /**
+     * Endpoint para obtener una página de clientes ordenada por DNI.
+     * Si hay más resultados, el header {@code X-Cursor-Siguiente} trae el valor a usar
+     * como {@code despuesDe} en el próximo pedido.
+     * 
+     * @param despuesDe DNI del último cliente de la página anterior (opcional)
+     * @param limite    Cantidad máxima de clientes a devolver
+     * @return ResponseEntity con la lista de clientes
+     * 
+     * GET /cliente?limite=50
+     * GET /cliente?despuesDe=12345678&limite=50
      */
-    @GetMapping
-    public ResponseEntity<List<Cliente>> obtenerTodosLosClientes() {
-        List<Cliente> clientes = clienteService.obtenerTodosLosClientes();
-        return ResponseEntity.ok(clientes);
+    @GetMapping(params = "limite")
+    public ResponseEntity<List<Cliente>> obtenerClientes(
+            @RequestParam(required = false) Long despuesDe,
+            @RequestParam int limite) {
+        List<Cliente> clientes = clienteService.obtenerClientes(despuesDe, limite);
+        ResponseEntity.BodyBuilder respuesta = ResponseEntity.ok();
+        if (clientes.size() == limite) {
+            respuesta.header(HEADER_CURSOR_SIGUIENTE, String.valueOf(clientes.get(clientes.size() - 1).getDni()));
+        }
+        return respuesta.body(clientes);
     }
 
     /**
@@ -3,14 +3,18 @@ package ar.edu.utn.frbb.tup.controller;
 import ar.edu.utn.frbb.tup.controller.validator.CuentaValidator;
 import ar.edu.utn.frbb.tup.model.Cuenta;
 import ar.edu.utn.frbb.tup.model.Movimiento;
+import ar.edu.utn.frbb.tup.model.TipoOperacion;
 import ar.edu.utn.frbb.tup.model.dto.CuentaDto;
-import ar.edu.utn.frbb.tup.model.exception.CuentaAlreadyExistsException;
 import ar.edu.utn.frbb.tup.model.exception.TipoCuentaAlreadyExistsException;
 import ar.edu.utn.frbb.tup.service.CuentaService;
+import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.io.IOException;
+import java.time.LocalDateTime;
 import java.util.List;
 
 /**
@@ -21,12 +25,17 @@ import java.util.List;
 @RequestMapping("/cuenta")
 public class CuentaController {
 
+    static final String HEADER_CURSOR_SIGUIENTE = "X-Cursor-Siguiente";
+
     @Autowired
     private CuentaService cuentaService;
 
     @Autowired
     private CuentaValidator cuentaValidator;
 
+    @Autowired
+    private EscritorJsonIncremental escritorJson;
+
     /**
      * Endpoint para crear una nueva cuenta bancaria.
      * Valida que el cliente exista y que no tenga ya una cuenta del mismo tipo y
@@ -34,7 +43,6 @@ public class CuentaController {
      * 
      * @param cuentaDto Datos de la cuenta a crear
      * @return ResponseEntity con la cuenta creada o error si no se puede crear
-     * @throws CuentaAlreadyExistsException     si la cuenta ya existe
      * @throws TipoCuentaAlreadyExistsException si el cliente ya tiene una cuenta
      *                                          del mismo tipo
      * 
@@ -47,7 +55,7 @@ public class CuentaController {
 
             Cuenta cuenta = cuentaService.darDeAltaCuenta(cuentaDto);
             return ResponseEntity.ok(cuenta);
-        } catch (CuentaAlreadyExistsException | TipoCuentaAlreadyExistsException e) {
+        } catch (TipoCuentaAlreadyExistsException e) {
             return ResponseEntity.badRequest().build();
         } catch (IllegalArgumentException e) {
             return ResponseEntity.badRequest().build();
@@ -92,7 +100,7 @@ public class CuentaController {
 
     /**
      * Endpoint para consultar el saldo actual de una cuenta.
-     * Registra la consulta como un movimiento en el historial de la cuenta.
+     * La consulta queda en el registro de auditoría, no en el historial de la cuenta.
      * 
      * @param numeroCuenta Número de la cuenta a consultar
      * @return ResponseEntity con el saldo actual o 404 si la cuenta no existe
@@ -111,21 +119,75 @@ public class CuentaController {
 
     /**
      * Endpoint para obtener el historial de movimientos de una cuenta.
-     * Incluye todos los depósitos, retiros, transferencias y consultas realizadas.
+     * Incluye todos los depósitos, retiros y transferencias.
+     * Acepta filtros opcionales por rango de fechas y tipo de operación. Sin {@code limite}
+     * la respuesta se escribe a medida que se recorre el historial, sin armar la lista
+     * entera en memoria, así que sirve para historiales de cualquier largo.
      * 
      * @param numeroCuenta Número de la cuenta para obtener movimientos
+     * @param despuesDe    Id a partir del cual listar, exclusivo (opcional)
+     * @param desde        Fecha y hora mínima, ISO-8601 (opcional)
+     * @param hasta        Fecha y hora máxima, ISO-8601 (opcional)
+     * @param tipo         Tipo de operación (opcional)
+     * @param respuesta    Respuesta donde se escribe el arreglo de movimientos, o 404 si la
+     *                     cuenta no existe
+     * 
+     * GET /cuenta/{numeroCuenta}/movimientos
+     * GET /cuenta/{numeroCuenta}/movimientos?desde=2024-01-01T00:00:00&tipo=DEPOSITO
+     */
+    @GetMapping(value = "/{numeroCuenta}/movimientos", params = "!limite")
+    public void obtenerMovimientos(
+            @PathVariable long numeroCuenta,
+            @RequestParam(required = false) Long despuesDe,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime desde,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime hasta,
+            @RequestParam(required = false) TipoOperacion tipo,
+            HttpServletResponse respuesta) throws IOException {
+        // La existencia se valida antes de empezar a escribir la respuesta
+        if (cuentaService.find(numeroCuenta) == null) {
+            respuesta.setStatus(HttpServletResponse.SC_NOT_FOUND);
+            return;
+        }
+        escritorJson.escribirArreglo(respuesta,
+                destino -> cuentaService.recorrerMovimientos(numeroCuenta, despuesDe, desde, hasta, tipo, destino));
+    }
+
+    /**
+     * Endpoint para obtener una página del historial de movimientos de una cuenta, con los
+     * mismos filtros opcionales. Si la página está completa el header {@code X-Cursor-Siguiente}
+     * trae el id a usar como {@code despuesDe} en el próximo pedido.
+     * 
+     * @param numeroCuenta Número de la cuenta para obtener movimientos
+     * @param despuesDe    Id del último movimiento de la página anterior (opcional)
+     * @param desde        Fecha y hora mínima, ISO-8601 (opcional)
+     * @param hasta        Fecha y hora máxima, ISO-8601 (opcional)
+     * @param tipo         Tipo de operación (opcional)
+     * @param limite       Cantidad máxima de movimientos
      * @return ResponseEntity con la lista de movimientos o 404 si la cuenta no
      *         existe
      * 
-     * GET /cuenta/{numeroCuenta}/movimientos
+     * GET /cuenta/{numeroCuenta}/movimientos?desde=2024-01-01T00:00:00&tipo=DEPOSITO&limite=100
      */
-    @GetMapping("/{numeroCuenta}/movimientos")
-    public ResponseEntity<List<Movimiento>> obtenerMovimientos(@PathVariable long numeroCuenta) {
+    @GetMapping(value = "/{numeroCuenta}/movimientos", params = "limite")
+    public ResponseEntity<List<Movimiento>> obtenerPaginaMovimientos(
+            @PathVariable long numeroCuenta,
+            @RequestParam(required = false) Long despuesDe,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime desde,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime hasta,
+            @RequestParam(required = false) TipoOperacion tipo,
+            @RequestParam int limite) {
+        if (limite <= 0 || limite > CuentaService.LIMITE_MAXIMO_MOVIMIENTOS) {
+            return ResponseEntity.badRequest().build();
+        }
         try {
-            List<Movimiento> movimientos = cuentaService.obtenerMovimientos(numeroCuenta);
-            return ResponseEntity.ok(movimientos);
+            List<Movimiento> movimientos = cuentaService.obtenerMovimientos(numeroCuenta, despuesDe, desde, hasta, tipo, limite);
+            ResponseEntity.BodyBuilder respuesta = ResponseEntity.ok();
+            if (movimientos.size() == limite) {
+                respuesta.header(HEADER_CURSOR_SIGUIENTE, String.valueOf(movimientos.get(movimientos.size() - 1).getId()));
+            }
+            return respuesta.body(movimientos);
         } catch (IllegalArgumentException e) {
             return ResponseEntity.notFound().build();
         }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,63 @@
+package ar.edu.utn.frbb.tup.controller;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.function.Consumer;
+
+/**
+ * Escribe un arreglo JSON en la respuesta elemento por elemento, a medida que se leen de la base,
+ * en lugar de armar la lista entera y serializarla al final. Usa el {@link ObjectMapper} de la
+ * aplicación, así cada elemento sale igual que en una respuesta normal.
+ * La memoria no crece con la cantidad de elementos y el primero se envía apenas se escribe.
+ * Se escribe en el hilo del request, sin el timeout de las respuestas asíncronas.
+ * Como la respuesta ya está enviada, un error a mitad del recorrido corta la conexión en
+ * lugar de devolver un código de error.
+ */
+@Component
+public class EscritorJsonIncremental {
+
+    private final ObjectMapper objectMapper;
+
+    public EscritorJsonIncremental(ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * @param respuesta Respuesta HTTP donde se escribe el arreglo
+     * @param recorrido Recorre los elementos y le pasa cada uno al consumidor que recibe
+     */
+    public void escribirArreglo(HttpServletResponse respuesta, Consumer<Consumer<Object>> recorrido) throws IOException {
+        respuesta.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        try (JsonGenerator generador = objectMapper.getFactory().createGenerator(respuesta.getOutputStream())) {
+            generador.writeStartArray();
+            try {
+                recorrido.accept(new Consumer<>() {
+                    private boolean primero = true;
+
+                    @Override
+                    public void accept(Object elemento) {
+                        try {
+                            generador.writeObject(elemento);
+                            if (primero) {
+                                // El resto se envía a medida que se llenan los buffers
+                                generador.flush();
+                                primero = false;
+                            }
+                        } catch (IOException e) {
+                            throw new UncheckedIOException(e);
+                        }
+                    }
+                });
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+            generador.writeEndArray();
+        }
+    }
+}
@@ -2,7 +2,9 @@ package ar.edu.utn.frbb.tup.controller;
 
 import ar.edu.utn.frbb.tup.controller.validator.OperacionValidator;
 import ar.edu.utn.frbb.tup.model.Cuenta;
+import ar.edu.utn.frbb.tup.model.dto.OperacionBatchDto;
 import ar.edu.utn.frbb.tup.model.dto.OperacionDto;
+import ar.edu.utn.frbb.tup.model.dto.ResultadoOperacionDto;
 import ar.edu.utn.frbb.tup.model.exception.CantidadNegativaException;
 import ar.edu.utn.frbb.tup.model.exception.NoAlcanzaException;
 import ar.edu.utn.frbb.tup.service.OperacionService;
@@ -10,9 +12,13 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
 /**
  * Controlador REST para operaciones bancarias transaccionales.
- * Maneja depósitos, retiros y transferencias entre cuentas.
+ * Maneja depósitos, retiros y transferencias entre cuentas, sueltos o en lote.
  */
 @RestController
 @RequestMapping("/operacion")
@@ -24,52 +30,68 @@ public class OperacionController {
     @Autowired
     private OperacionValidator operacionValidator;
 
+    @Autowired
+    private RegistroIdempotencia registroIdempotencia;
+
     /**
      * Endpoint para realizar un depósito en una cuenta bancaria.
      * Valida que el monto sea positivo y que la cuenta exista.
      * 
+     * Con el header {@code Idempotency-Key}, un reintento con la misma clave recibe la respuesta
+     * original sin volver a depositar.
+     * 
      * @param operacionDto Datos de la operación de depósito (número de cuenta y monto)
+     * @param idempotencyKey Clave opcional para reintentos seguros
      * @return ResponseEntity con la cuenta actualizada o error si la operación falla
      * @throws CantidadNegativaException si el monto es negativo o cero
      * 
      * POST /operacion/deposito
      */
     @PostMapping("/deposito")
-    public ResponseEntity<Cuenta> depositar(@RequestBody OperacionDto operacionDto) {
-        try {
-            operacionValidator.validateDeposito(operacionDto);
-            Cuenta cuenta = operacionService.depositar(operacionDto.getNumeroCuenta(), operacionDto.getMonto());
-            return ResponseEntity.ok(cuenta);
-        } catch (CantidadNegativaException e) {
-            return ResponseEntity.badRequest().build();
-        } catch (IllegalArgumentException e) {
-            return ResponseEntity.notFound().build();
-        }
+    public ResponseEntity<Cuenta> depositar(@RequestBody OperacionDto operacionDto,
+            @RequestHeader(value = RegistroIdempotencia.HEADER, required = false) String idempotencyKey) {
+        return registroIdempotencia.ejecutar("deposito", idempotencyKey, huella(operacionDto), () -> {
+            try {
+                operacionValidator.validateDeposito(operacionDto);
+                Cuenta cuenta = operacionService.depositar(operacionDto.getNumeroCuenta(), operacionDto.getMonto());
+                return ResponseEntity.ok(cuenta);
+            } catch (CantidadNegativaException e) {
+                return ResponseEntity.badRequest().build();
+            } catch (IllegalArgumentException e) {
+                return ResponseEntity.notFound().build();
+            }
+        });
     }
 
     /**
      * Endpoint para realizar un retiro en una cuenta bancaria.
      * Valida que el monto sea positivo y que la cuenta exista.
      * 
+     * Acepta {@code Idempotency-Key} igual que el depósito.
+     * 
      * @param operacionDto Datos de la operación de retiro (número de cuenta y monto)
+     * @param idempotencyKey Clave opcional para reintentos seguros
      * @return ResponseEntity con la cuenta actualizada o error si la operación falla
      * @throws CantidadNegativaException si el monto es negativo o cero
      * 
      * POST /operacion/retiro
      */
     @PostMapping("/retiro")
-    public ResponseEntity<Cuenta> retirar(@RequestBody OperacionDto operacionDto) {
-        try {
-            operacionValidator.validateRetiro(operacionDto);
-            Cuenta cuenta = operacionService.retirar(operacionDto.getNumeroCuenta(), operacionDto.getMonto());
-            return ResponseEntity.ok(cuenta);
-        } catch (NoAlcanzaException e) {
-            return ResponseEntity.badRequest().build();
-        } catch (CantidadNegativaException e) {
-            return ResponseEntity.badRequest().build();
-        } catch (IllegalArgumentException e) {
-            return ResponseEntity.notFound().build();
-        }
+    public ResponseEntity<Cuenta> retirar(@RequestBody OperacionDto operacionDto,
+            @RequestHeader(value = RegistroIdempotencia.HEADER, required = false) String idempotencyKey) {
+        return registroIdempotencia.ejecutar("retiro", idempotencyKey, huella(operacionDto), () -> {
+            try {
+                operacionValidator.validateRetiro(operacionDto);
+                Cuenta cuenta = operacionService.retirar(operacionDto.getNumeroCuenta(), operacionDto.getMonto());
+                return ResponseEntity.ok(cuenta);
+            } catch (NoAlcanzaException e) {
+                return ResponseEntity.badRequest().build();
+            } catch (CantidadNegativaException e) {
+                return ResponseEntity.badRequest().build();
+            } catch (IllegalArgumentException e) {
+                return ResponseEntity.notFound().build();
+            }
+        });
     }
 
     /**
@@ -77,7 +99,10 @@ public class OperacionController {
      * Valida que ambas cuentas existan, sean de la misma moneda y que la cuenta
      * origen tenga saldo suficiente.
      * 
+     * Acepta {@code Idempotency-Key} igual que el depósito.
+     * 
      * @param operacionDto Datos completos de la transferencia (cuenta origen, destino y monto)
+     * @param idempotencyKey Clave opcional para reintentos seguros
      * @return ResponseEntity con mensaje de éxito o error descriptivo
      * @throws NoAlcanzaException        si el saldo de la cuenta origen es insuficiente
      * @throws CantidadNegativaException si el monto es negativo o cero
@@ -85,20 +110,86 @@ public class OperacionController {
      * POST /operacion/transferencia
      */
     @PostMapping("/transferencia")
-    public ResponseEntity<String> transferir(@RequestBody OperacionDto operacionDto) {
+    public ResponseEntity<String> transferir(@RequestBody OperacionDto operacionDto,
+            @RequestHeader(value = RegistroIdempotencia.HEADER, required = false) String idempotencyKey) {
+        return registroIdempotencia.ejecutar("transferencia", idempotencyKey, huella(operacionDto), () -> {
+            try {
+                operacionValidator.validateTransferencia(operacionDto);
+                operacionService.transferir(
+                        operacionDto.getNumeroCuenta(),
+                        operacionDto.getNumeroCuentaDestino(),
+                        operacionDto.getMonto());
+                return ResponseEntity.ok("Transferencia realizada exitosamente");
+            } catch (NoAlcanzaException e) {
+                return ResponseEntity.status(400).body("Saldo insuficiente");
+            } catch (CantidadNegativaException e) {
+                return ResponseEntity.status(400).body("El monto debe ser positivo");
+            } catch (IllegalArgumentException e) {
+                return ResponseEntity.status(404).body("Cuenta no encontrada");
+            }
+        });
+    }
+
+    /**
+     * Endpoint para ejecutar un lote de operaciones en un solo request.
+     * Cada operación indica su tipo (DEPOSITO, RETIRO o TRANSFERENCIA) y recibe su propio resultado.
+     * Con {@code atomica=true} el lote se aplica completo o no se aplica; si no, se aplican
+     * las operaciones válidas y las demás se informan con su error.
+     *
+     * @param operacionBatchDto Operaciones a ejecutar y modo del lote
+     * @return ResponseEntity con un resultado por operación, en el mismo orden del lote;
+     *         400 si el lote atómico no se aplicó
+     *
+     * POST /operacion/batch
+     */
+    @PostMapping("/batch")
+    public ResponseEntity<List<ResultadoOperacionDto>> ejecutarLote(@RequestBody OperacionBatchDto operacionBatchDto) {
         try {
-            operacionValidator.validateTransferencia(operacionDto);
-            operacionService.transferir(
-                    operacionDto.getNumeroCuenta(),
-                    operacionDto.getNumeroCuentaDestino(),
-                    operacionDto.getMonto());
-            return ResponseEntity.ok("Transferencia realizada exitosamente");
-        } catch (NoAlcanzaException e) {
-            return ResponseEntity.status(400).body("Saldo insuficiente");
-        } catch (CantidadNegativaException e) {
-            return ResponseEntity.status(400).body("El monto debe ser positivo");
+            operacionValidator.validateLote(operacionBatchDto);
         } catch (IllegalArgumentException e) {
-            return ResponseEntity.status(404).body("Cuenta no encontrada");
+            return ResponseEntity.badRequest().build();
+        }
+
+        List<OperacionDto> operaciones = operacionBatchDto.getOperaciones();
+        ResultadoOperacionDto[] resultados = new ResultadoOperacionDto[operaciones.size()];
+        List<OperacionDto> validas = new ArrayList<>(operaciones.size());
+        List<Integer> posiciones = new ArrayList<>(operaciones.size());
+        for (int i = 0; i < operaciones.size(); i++) {
+            try {
+                operacionValidator.validateOperacion(operaciones.get(i));
+                validas.add(operaciones.get(i));
+                posiciones.add(i);
+            } catch (IllegalArgumentException e) {
+                resultados[i] = new ResultadoOperacionDto(i, ResultadoOperacionDto.ERROR, e.getMessage());
+            }
+        }
+
+        if (operacionBatchDto.isAtomica() && validas.size() < operaciones.size()) {
+            for (int posicion : posiciones) {
+                resultados[posicion] = new ResultadoOperacionDto(posicion, ResultadoOperacionDto.NO_APLICADA, null);
+            }
+            return ResponseEntity.badRequest().body(Arrays.asList(resultados));
         }
+
+        boolean fallo = false;
+        for (ResultadoOperacionDto resultado : operacionService.ejecutarLote(validas, operacionBatchDto.isAtomica())) {
+            // El servicio numera sobre las operaciones válidas; se vuelve a la posición en el lote
+            int posicion = posiciones.get(resultado.getIndice());
+            resultado.setIndice(posicion);
+            resultados[posicion] = resultado;
+            fallo |= !ResultadoOperacionDto.OK.equals(resultado.getEstado());
+        }
+        if (operacionBatchDto.isAtomica() && fallo) {
+            return ResponseEntity.badRequest().body(Arrays.asList(resultados));
+        }
+        return ResponseEntity.ok(Arrays.asList(resultados));
+    }
+
+    /**
+     * Datos que identifican una operación suelta, para detectar una clave reusada con otro pedido.
+     */
+    private static String huella(OperacionDto operacionDto) {
+        return operacionDto.getNumeroCuenta() + ">" + operacionDto.getNumeroCuentaDestino()
+                + ":" + operacionDto.getMonto();
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,131 @@
+package ar.edu.utn.frbb.tup.controller;
+
+import ar.edu.utn.frbb.tup.persistence.CacheLru;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Registro de las respuestas a operaciones enviadas con el header {@code Idempotency-Key}.
+ * Si un cliente reintenta un depósito o una transferencia con la misma clave, se le devuelve
+ * la respuesta original sin volver a ejecutar la operación, así que el reintento no toma el
+ * lock de la cuenta ni mueve plata dos veces.
+ * <p>
+ * Las respuestas viven en un {@link CacheLru}: al llenarse se descartan las claves usadas
+ * hace más tiempo, con un máximo de claves y otro de memoria (estimada por entrada a partir
+ * del largo de la clave y de la huella). Cada clave además vence, así que una respuesta
+ * vencida se trata como si no estuviera.
+ * Mientras una clave se está ejecutando, otro pedido con la misma clave recibe 409 en lugar de
+ * esperarla. Reusar una clave con otros datos devuelve 422. Los errores 5xx y las excepciones
+ * no se guardan, para que el cliente pueda reintentar.
+ */
+@Component
+public class RegistroIdempotencia {
+
+    public static final String HEADER = "Idempotency-Key";
+
+    static final int LARGO_MAXIMO_CLAVE = 255;
+
+    /** Estimación de lo que ocupa una entrada sin contar los textos: nodos del mapa y la respuesta */
+    static final int BYTES_FIJOS_POR_ENTRADA = 512;
+
+    private final long ttlNanos;
+    private final CacheLru<String, Respuesta> respuestas;
+    private final Set<String> enCurso = ConcurrentHashMap.newKeySet();
+
+    /**
+     * @param ttlHoras  cuánto se recuerda cada clave
+     * @param maximo    cantidad máxima de claves recordadas; al superarla se descartan las
+     *                  usadas hace más tiempo
+     * @param maximoMb  memoria máxima estimada de las claves recordadas, en MB; al superarla
+     *                  también se descartan las usadas hace más tiempo
+     */
+    public RegistroIdempotencia(@Value("${banco.idempotencia.ttl-horas:24}") long ttlHoras,
+                                @Value("${banco.idempotencia.maximo:100000}") int maximo,
+                                @Value("${banco.idempotencia.maximo-mb:64}") long maximoMb) {
+        this.ttlNanos = Duration.ofHours(ttlHoras).toNanos();
+        this.respuestas = new CacheLru<>(maximo, maximoMb * 1024 * 1024, Respuesta::bytesEstimados);
+    }
+
+    /**
+     * Ejecuta la operación una sola vez por clave.
+     *
+     * @param operacion nombre del endpoint; la misma clave en endpoints distintos no se mezcla
+     * @param clave     valor del header, o null si el cliente no lo mandó
+     * @param huella    datos del pedido; un reintento tiene que traer los mismos
+     * @param accion    la operación, que devuelve la respuesta a guardar
+     */
+    @SuppressWarnings("unchecked")
+    public <T> ResponseEntity<T> ejecutar(String operacion, String clave, String huella,
+                                          Supplier<ResponseEntity<T>> accion) {
+        if (clave == null) {
+            return accion.get();
+        }
+        if (clave.isBlank() || clave.length() > LARGO_MAXIMO_CLAVE) {
+            return ResponseEntity.badRequest().build();
+        }
+
+        String id = operacion + ':' + clave;
+        Respuesta guardada = vigente(id);
+        if (guardada == null) {
+            if (!enCurso.add(id)) {
+                return ResponseEntity.status(HttpStatus.CONFLICT).build();
+            }
+            try {
+                // Quien terminó entre la consulta y el alta ya dejó guardada su respuesta
+                guardada = vigente(id);
+                if (guardada == null) {
+                    ResponseEntity<T> respuesta = accion.get();
+                    if (!respuesta.getStatusCode().is5xxServerError()) {
+                        respuestas.guardar(id, new Respuesta(id, huella, respuesta, System.nanoTime() + ttlNanos));
+                    }
+                    return respuesta;
+                }
+            } finally {
+                enCurso.remove(id);
+            }
+        }
+
+        if (!guardada.huella.equals(huella)) {
+            return ResponseEntity.unprocessableEntity().build();
+        }
+        return (ResponseEntity<T>) guardada.respuesta;
+    }
+
+    public int tamanio() {
+        return respuestas.tamanio();
+    }
+
+    /**
+     * Respuesta guardada para la clave, o null si no hay o ya venció. Una vencida queda en el
+     * cache hasta que la pise una nueva o se descarte por falta de uso.
+     */
+    private Respuesta vigente(String id) {
+        Respuesta guardada = respuestas.obtener(id);
+        return guardada != null && guardada.vence - System.nanoTime() > 0 ? guardada : null;
+    }
+
+    private static final class Respuesta {
+        private final String id;
+        private final String huella;
+        private final ResponseEntity<?> respuesta;
+        private final long vence;
+
+        private Respuesta(String id, String huella, ResponseEntity<?> respuesta, long vence) {
+            this.id = id;
+            this.huella = huella;
+            this.respuesta = respuesta;
+            this.vence = vence;
+        }
+
+        private long bytesEstimados() {
+            return BYTES_FIJOS_POR_ENTRADA + 2L * (id.length() + huella.length());
+        }
+    }
+}
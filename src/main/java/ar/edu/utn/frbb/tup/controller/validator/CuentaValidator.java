@@ -1,5 +1,6 @@
 package ar.edu.utn.frbb.tup.controller.validator;
 
+import ar.edu.utn.frbb.tup.model.Dinero;
 import ar.edu.utn.frbb.tup.model.TipoCuenta;
 import ar.edu.utn.frbb.tup.model.TipoMoneda;
 import ar.edu.utn.frbb.tup.model.dto.CuentaDto;
@@ -41,5 +42,8 @@ public class CuentaValidator {
         if (saldoInicial < 0) {
             throw new IllegalArgumentException("El saldo inicial no puede ser negativo");
         }
+        if (!Dinero.esMontoExacto(saldoInicial)) {
+            throw new IllegalArgumentException("El saldo inicial no puede tener fracciones de centavo");
+        }
     }
 }
\ No newline at end of file
@@ -1,11 +1,16 @@
 package ar.edu.utn.frbb.tup.controller.validator;
 
+import ar.edu.utn.frbb.tup.model.Dinero;
+import ar.edu.utn.frbb.tup.model.dto.OperacionBatchDto;
 import ar.edu.utn.frbb.tup.model.dto.OperacionDto;
 import org.springframework.stereotype.Component;
 
 @Component
 public class OperacionValidator {
 
+    /** Límite de operaciones por lote, para acotar cuánto tiempo un lote retiene los locks */
+    public static final int MAXIMO_OPERACIONES_LOTE = 10000;
+
     public void validateDeposito(OperacionDto operacionDto) {
         validateNumeroCuenta(operacionDto.getNumeroCuenta());
         validateMonto(operacionDto.getMonto());
@@ -23,6 +28,37 @@ public class OperacionValidator {
         validateCuentasDiferentes(operacionDto.getNumeroCuenta(), operacionDto.getNumeroCuentaDestino());
     }
 
+    public void validateLote(OperacionBatchDto operacionBatchDto) {
+        if (operacionBatchDto.getOperaciones() == null || operacionBatchDto.getOperaciones().isEmpty()) {
+            throw new IllegalArgumentException("El lote debe tener al menos una operación");
+        }
+        if (operacionBatchDto.getOperaciones().size() > MAXIMO_OPERACIONES_LOTE) {
+            throw new IllegalArgumentException("El lote no puede tener más de " + MAXIMO_OPERACIONES_LOTE + " operaciones");
+        }
+    }
+
+    /**
+     * Valida una operación de un lote según su tipo (DEPOSITO, RETIRO o TRANSFERENCIA).
+     */
+    public void validateOperacion(OperacionDto operacionDto) {
+        if (operacionDto == null || operacionDto.getTipoOperacion() == null) {
+            throw new IllegalArgumentException("El tipo de operación es obligatorio");
+        }
+        switch (operacionDto.getTipoOperacion().toUpperCase()) {
+            case "DEPOSITO":
+                validateDeposito(operacionDto);
+                break;
+            case "RETIRO":
+                validateRetiro(operacionDto);
+                break;
+            case "TRANSFERENCIA":
+                validateTransferencia(operacionDto);
+                break;
+            default:
+                throw new IllegalArgumentException("Tipo de operación no soportado: " + operacionDto.getTipoOperacion());
+        }
+    }
+
     private void validateNumeroCuenta(Long numeroCuenta) {
         if (numeroCuenta == null || numeroCuenta <= 0) {
             throw new IllegalArgumentException("El número de cuenta debe ser un número positivo");
@@ -39,6 +75,9 @@ public class OperacionValidator {
         if (monto <= 0) {
             throw new IllegalArgumentException("El monto debe ser mayor a cero");
         }
+        if (!Dinero.esMontoExacto(monto)) {
+            throw new IllegalArgumentException("El monto no puede tener fracciones de centavo");
+        }
     }
 
     private void validateCuentasDiferentes(Long cuentaOrigen, Long cuentaDestino) {
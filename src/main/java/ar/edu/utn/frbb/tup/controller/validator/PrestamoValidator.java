@@ -1,5 +1,6 @@
 package ar.edu.utn.frbb.tup.controller.validator;
 
+import ar.edu.utn.frbb.tup.model.Dinero;
 import ar.edu.utn.frbb.tup.model.dto.PrestamoRequestDto;
 import org.springframework.stereotype.Component;
 
@@ -33,6 +34,10 @@ public class PrestamoValidator {
         if (montoPrestamo < 1000) {
             throw new IllegalArgumentException("El monto del préstamo debe ser de al menos $1.000");
         }
+
+        if (!Dinero.esMontoExacto(montoPrestamo)) {
+            throw new IllegalArgumentException("El monto del préstamo no puede tener fracciones de centavo");
+        }
     }
 
     private void validatePlazoMeses(int plazoMeses) {
@@ -0,0 +1,37 @@
+package ar.edu.utn.frbb.tup.metricas;
+
+import ar.edu.utn.frbb.tup.service.AuditoriaConsultas;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.stereotype.Component;
+
+/**
+ * Estado de la auditoría de consultas de saldo: cuántas se escribieron, cuántas se descartaron
+ * (cola llena o error de escritura) y cuántas esperan en la cola.
+ */
+@Component
+public class MetricasAuditoria implements MeterBinder {
+
+    private final AuditoriaConsultas auditoriaConsultas;
+
+    public MetricasAuditoria(AuditoriaConsultas auditoriaConsultas) {
+        this.auditoriaConsultas = auditoriaConsultas;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("banco.auditoria.consultas", auditoriaConsultas, AuditoriaConsultas::getEscritas)
+                .description("Consultas de saldo escritas en el registro de auditoría")
+                .tag("resultado", "escrita")
+                .register(registry);
+        FunctionCounter.builder("banco.auditoria.consultas", auditoriaConsultas, AuditoriaConsultas::getDescartadas)
+                .description("Consultas de saldo que no llegaron al registro de auditoría")
+                .tag("resultado", "descartada")
+                .register(registry);
+        Gauge.builder("banco.auditoria.consultas.pendientes", auditoriaConsultas, AuditoriaConsultas::getPendientes)
+                .description("Consultas de saldo en cola para escribir")
+                .register(registry);
+    }
+}
@@ -0,0 +1,55 @@
+package ar.edu.utn.frbb.tup.metricas;
+
+import io.micrometer.core.instrument.Metrics;
+import org.springframework.aop.TargetSource;
+import org.springframework.aop.framework.autoproxy.AbstractAutoProxyCreator;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.EnvironmentAware;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+
+/**
+ * Envuelve los servicios y DAOs de la aplicación con el {@link MetricasInterceptor}.
+ * Alcanza con la convención de nombres (clases terminadas en Service o Dao dentro del paquete
+ * de la aplicación), así un servicio o DAO nuevo queda medido sin tocar nada.
+ * Los timers se registran en el registro global de Micrometer, al que Spring Boot
+ * agrega los registros de Actuator; así no hace falta inicializar el registro antes que este
+ * post-procesador. Se desactiva con {@code banco.metricas.habilitadas=false}.
+ * <p>
+ * Cada llamada medida cuesta del orden de 150 ns (dos lecturas del reloj y el registro en el timer).
+ * Frente a un request HTTP es despreciable, pero un DAO en memoria responde en pocos cientos
+ * de nanosegundos; con {@code banco.metricas.dao=false} se miden solo los servicios.
+ */
+@Component
+@ConditionalOnProperty(prefix = "banco.metricas", name = "habilitadas", havingValue = "true", matchIfMissing = true)
+public class MetricasAutoProxyCreator extends AbstractAutoProxyCreator implements EnvironmentAware {
+
+    private static final String PAQUETE_APLICACION = "ar.edu.utn.frbb.tup.";
+
+    private final Object[] interceptores = {new MetricasInterceptor(Metrics.globalRegistry)};
+
+    private boolean medirDaos = true;
+
+    public MetricasAutoProxyCreator() {
+        // Las clases no implementan interfaces: se proxean por subclase
+        setProxyTargetClass(true);
+        // La configuración no cambia después de crear el proxy: CGLIB puede fijar la cadena por método
+        setFrozen(true);
+        setOptimize(true);
+    }
+
+    @Override
+    public void setEnvironment(Environment environment) {
+        medirDaos = environment.getProperty("banco.metricas.dao", Boolean.class, true);
+    }
+
+    @Override
+    protected Object[] getAdvicesAndAdvisorsForBean(Class<?> beanClass, String beanName,
+                                                    TargetSource customTargetSource) {
+        String nombre = beanClass.getName();
+        if (nombre.startsWith(PAQUETE_APLICACION) && (nombre.endsWith("Service") || medirDaos && nombre.endsWith("Dao"))) {
+            return interceptores;
+        }
+        return DO_NOT_PROXY;
+    }
+}
@@ -0,0 +1,107 @@
+package ar.edu.utn.frbb.tup.metricas;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Mide cada llamada a un método público de un servicio o DAO con el timer {@value #NOMBRE}.
+ * Los tags son de baja cardinalidad: capa (servicio o dao), clase, método y resultado,
+ * que es {@code ok} o el nombre simple de la excepción (por ejemplo {@code NoAlcanzaException}),
+ * así el count de cada timer sirve también de contador de resultados.
+ * Los timers se crean una vez por método y resultado; una llamada medida solo paga
+ * dos lecturas del reloj y el registro en el timer.
+ */
+public class MetricasInterceptor implements MethodInterceptor {
+
+    public static final String NOMBRE = "banco.llamadas";
+    static final String RESULTADO_OK = "ok";
+
+    /** Marca de los métodos que no se miden, para no volver a evaluarlos en cada llamada */
+    private static final MetricasMetodo SIN_MEDIR = new MetricasMetodo(null, null, null, null);
+
+    private final MeterRegistry registry;
+    private final ConcurrentMap<Method, MetricasMetodo> metodos = new ConcurrentHashMap<>();
+
+    public MetricasInterceptor(MeterRegistry registry) {
+        this.registry = registry;
+    }
+
+    @Override
+    public Object invoke(MethodInvocation invocation) throws Throwable {
+        MetricasMetodo metricas = metodos.get(invocation.getMethod());
+        if (metricas == null) {
+            metricas = metodos.computeIfAbsent(invocation.getMethod(),
+                    metodo -> crearMetricas(metodo, invocation.getThis()));
+        }
+        if (metricas == SIN_MEDIR) {
+            return invocation.proceed();
+        }
+
+        long inicio = System.nanoTime();
+        try {
+            Object resultado = invocation.proceed();
+            metricas.ok.record(System.nanoTime() - inicio, TimeUnit.NANOSECONDS);
+            return resultado;
+        } catch (Throwable e) {
+            metricas.error(e.getClass()).record(System.nanoTime() - inicio, TimeUnit.NANOSECONDS);
+            throw e;
+        }
+    }
+
+    /**
+     * Solo se miden los métodos públicos que declara la propia clase del bean;
+     * los heredados de la infraestructura (por ejemplo, de AbstractBaseDao) quedan afuera.
+     */
+    private MetricasMetodo crearMetricas(Method metodo, Object destino) {
+        if (destino == null || !Modifier.isPublic(metodo.getModifiers())
+                || metodo.getDeclaringClass() != destino.getClass()
+                || metodo.isAnnotationPresent(SinMetricas.class)) {
+            return SIN_MEDIR;
+        }
+        String clase = destino.getClass().getSimpleName();
+        return new MetricasMetodo(registry, capa(clase), clase, metodo.getName());
+    }
+
+    static String capa(String clase) {
+        return clase.endsWith("Dao") ? "dao" : "servicio";
+    }
+
+    private static final class MetricasMetodo {
+        private final MeterRegistry registry;
+        private final String capa;
+        private final String clase;
+        private final String metodo;
+        private final Timer ok;
+        private final ConcurrentMap<Class<?>, Timer> errores = new ConcurrentHashMap<>();
+
+        private MetricasMetodo(MeterRegistry registry, String capa, String clase, String metodo) {
+            this.registry = registry;
+            this.capa = capa;
+            this.clase = clase;
+            this.metodo = metodo;
+            this.ok = registry != null ? timer(RESULTADO_OK) : null;
+        }
+
+        private Timer error(Class<?> excepcion) {
+            return errores.computeIfAbsent(excepcion, tipo -> timer(tipo.getSimpleName()));
+        }
+
+        private Timer timer(String resultado) {
+            return Timer.builder(NOMBRE)
+                    .description("Llamadas a servicios y DAOs")
+                    .tag("capa", capa)
+                    .tag("clase", clase)
+                    .tag("metodo", metodo)
+                    .tag("resultado", resultado)
+                    .register(registry);
+        }
+    }
+}
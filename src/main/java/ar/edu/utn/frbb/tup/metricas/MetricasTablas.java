@@ -0,0 +1,71 @@
+package ar.edu.utn.frbb.tup.metricas;
+
+import ar.edu.utn.frbb.tup.persistence.AbstractBaseDao;
+import ar.edu.utn.frbb.tup.persistence.ClienteDao;
+import ar.edu.utn.frbb.tup.persistence.CuentaDao;
+import ar.edu.utn.frbb.tup.persistence.MovimientoDao;
+import ar.edu.utn.frbb.tup.persistence.PrestamoDao;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.stereotype.Component;
+
+/**
+ * Gauges del tamaño de la base en memoria: registros por tabla y movimientos.
+ * También los aciertos y fallos del cache de cuentas de {@link CuentaDao}.
+ * Los movimientos se publican como total y como máximo por cuenta, no un gauge por cuenta:
+ * un tag con el número de cuenta tendría una serie por cuenta.
+ * Los valores se leen en cada scrape sin decodificar registros: los conteos de las tablas solo
+ * recorren ids y el total de movimientos es un contador que mantiene {@link MovimientoDao}.
+ */
+@Component
+public class MetricasTablas implements MeterBinder {
+
+    private final ClienteDao clienteDao;
+    private final CuentaDao cuentaDao;
+    private final PrestamoDao prestamoDao;
+    private final MovimientoDao movimientoDao;
+
+    public MetricasTablas(ClienteDao clienteDao, CuentaDao cuentaDao, PrestamoDao prestamoDao,
+                          MovimientoDao movimientoDao) {
+        this.clienteDao = clienteDao;
+        this.cuentaDao = cuentaDao;
+        this.prestamoDao = prestamoDao;
+        this.movimientoDao = movimientoDao;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        registrarTabla(registry, "cliente", clienteDao);
+        registrarTabla(registry, "cuenta", cuentaDao);
+        registrarTabla(registry, "prestamo", prestamoDao);
+        registrarTabla(registry, "historial_movimientos", movimientoDao);
+
+        Gauge.builder("banco.movimientos", movimientoDao, MovimientoDao::contarMovimientos)
+                .description("Movimientos guardados en todos los historiales")
+                .register(registry);
+        Gauge.builder("banco.movimientos.maximo.por.cuenta", movimientoDao, MovimientoDao::maximoMovimientosPorCuenta)
+                .description("Movimientos del historial más largo")
+                .register(registry);
+
+        FunctionCounter.builder("banco.cache.cuentas", cuentaDao, CuentaDao::getAciertosCache)
+                .description("Lecturas de cuentas resueltas desde el cache")
+                .tag("resultado", "acierto")
+                .register(registry);
+        FunctionCounter.builder("banco.cache.cuentas", cuentaDao, CuentaDao::getFallosCache)
+                .description("Lecturas de cuentas que tuvieron que armarse desde la entidad")
+                .tag("resultado", "fallo")
+                .register(registry);
+        Gauge.builder("banco.cache.cuentas.tamanio", cuentaDao, CuentaDao::getTamanioCache)
+                .description("Cuentas en el cache")
+                .register(registry);
+    }
+
+    private void registrarTabla(MeterRegistry registry, String tabla, AbstractBaseDao<?> dao) {
+        Gauge.builder("banco.tabla.registros", dao, AbstractBaseDao::contarRegistros)
+                .description("Registros de la tabla, incluidos los que siguen en disco")
+                .tag("tabla", tabla)
+                .register(registry);
+    }
+}
@@ -0,0 +1,16 @@
+package ar.edu.utn.frbb.tup.metricas;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Excluye un método público de la medición automática de servicios y DAOs.
+ * Pensado para caminos internos muy frecuentes que no son llamadas de negocio,
+ * como la reproducción del WAL al recuperar.
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface SinMetricas {
+}
@@ -1,6 +1,7 @@
 package ar.edu.utn.frbb.tup.model;
 
 import ar.edu.utn.frbb.tup.model.dto.ClienteDto;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 
 import java.time.LocalDate;
 import java.util.HashSet;
@@ -14,6 +15,8 @@ public class Cliente extends Persona{
     private String telefono;
     private LocalDate fechaAlta;
     private Set<Cuenta> cuentas = new HashSet<>();
+    @JsonIgnore
+    private long version;
 
     public Cliente() {
         super();
@@ -68,6 +71,18 @@ public class Cliente extends Persona{
         this.fechaAlta = fechaAlta;
     }
 
+    /**
+     * Versión con la que se leyó de la base; 0 si todavía no se guardó.
+     * {@code ClienteDao.saveSiNoCambio} solo guarda si sigue siendo la de la base.
+     */
+    public long getVersion() {
+        return version;
+    }
+
+    public void setVersion(long version) {
+        this.version = version;
+    }
+
     public Set<Cuenta> getCuentas() {
         return cuentas;
     }
@@ -3,29 +3,61 @@ package ar.edu.utn.frbb.tup.model;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.Random;
 
 import com.fasterxml.jackson.annotation.JsonIgnore;
 
 import ar.edu.utn.frbb.tup.model.exception.CantidadNegativaException;
 import ar.edu.utn.frbb.tup.model.exception.NoAlcanzaException;
 
+/**
+ * Cuenta bancaria.
+ * La lista de movimientos contiene solo los movimientos registrados desde que la cuenta
+ * se cargó; el historial completo se guarda aparte y se consulta por separado.
+ * El saldo se lleva en centavos ({@link Dinero}); los montos decimales de las operaciones se
+ * convierten una sola vez al entrar, así el saldo no acumula errores de redondeo.
+ * Una cuenta nueva no tiene número: lo asigna {@code CuentaDao} al darla de alta.
+ */
 public class Cuenta {
     private long numeroCuenta;
     private LocalDateTime fechaCreacion;
-    private double balance;
+    private long balance;
     private TipoCuenta tipoCuenta;
     @JsonIgnore
     private Cliente titular;
     private TipoMoneda moneda;
     private List<Movimiento> movimientos;  
+    @JsonIgnore
+    private int movimientosPersistidos;
+    @JsonIgnore
+    private long version;
 
     public Cuenta() {
-        this.numeroCuenta = Math.abs(new Random().nextLong());
         this.balance = 0;
         this.fechaCreacion = LocalDateTime.now();
         this.movimientos = new ArrayList<>();  
     }
+
+    private Cuenta(Cuenta original) {
+        this.numeroCuenta = original.numeroCuenta;
+        this.fechaCreacion = original.fechaCreacion;
+        this.balance = original.balance;
+        this.tipoCuenta = original.tipoCuenta;
+        this.moneda = original.moneda;
+        this.version = original.version;
+        this.movimientos = new ArrayList<>();
+        if (original.titular != null) {
+            this.titular = new Cliente();
+            this.titular.setDni(original.titular.getDni());
+        }
+    }
+
+    /**
+     * Copia la cuenta como queda al cargarla de la base: con el titular reducido a su DNI y
+     * sin movimientos nuevos. No toma la fecha actual, a diferencia de {@code new Cuenta()}.
+     */
+    public Cuenta copiar() {
+        return new Cuenta(this);
+    }
     
     //Getters y Setters
 
@@ -65,10 +97,20 @@ public class Cuenta {
     }
 
     public double getBalance() {
-        return balance;
+        return Dinero.aDecimal(balance);
     }
 
     public Cuenta setBalance(double balance) {
+        this.balance = Dinero.deDecimal(balance);
+        return this;
+    }
+
+    @JsonIgnore
+    public long getBalanceCentavos() {
+        return balance;
+    }
+
+    public Cuenta setBalanceCentavos(long balance) {
         this.balance = balance;
         return this;
     }
@@ -81,30 +123,67 @@ public class Cuenta {
         this.numeroCuenta = numeroCuenta;
     }
     
+    /**
+     * Versión con la que se leyó de la base; 0 si todavía no se guardó.
+     */
+    @JsonIgnore
+    public long getVersion() {
+        return version;
+    }
+
+    public void setVersion(long version) {
+        this.version = version;
+    }
+
     public List<Movimiento> getMovimientos() {
         return movimientos;
     }
 
     public void setMovimientos(List<Movimiento> movimientos) {
         this.movimientos = movimientos;
+        this.movimientosPersistidos = 0;
     }
 
     public void agregarMovimiento(Movimiento movimiento) {
         this.movimientos.add(movimiento);
     }
 
+    /**
+     * Movimientos agregados a la cuenta que todavía no se guardaron en el historial.
+     */
+    @JsonIgnore
+    public List<Movimiento> getMovimientosNuevos() {
+        return movimientos.subList(movimientosPersistidos, movimientos.size());
+    }
+
+    /**
+     * Marca todos los movimientos actuales como guardados, para no volver a agregarlos
+     * si la cuenta se guarda otra vez.
+     */
+    public void marcarMovimientosPersistidos() {
+        this.movimientosPersistidos = movimientos.size();
+    }
+
     public void depositar(double monto) throws CantidadNegativaException {
+        depositarCentavos(Dinero.deDecimal(monto));
+    }
+
+    public void depositarCentavos(long monto) throws CantidadNegativaException {
         if (monto <= 0) {
             throw new CantidadNegativaException();
         }
-        this.balance += monto;
+        this.balance = Dinero.sumar(this.balance, monto);
         
-        Movimiento movimiento = new Movimiento(TipoOperacion.DEPOSITO, monto, this.numeroCuenta);
+        Movimiento movimiento = Movimiento.deCentavos(TipoOperacion.DEPOSITO, monto, this.numeroCuenta, null);
         movimiento.setDescripcion("Depósito en cuenta");
         agregarMovimiento(movimiento);
     }
 
     public void debitarDeCuenta(double cantidadADebitar) throws NoAlcanzaException, CantidadNegativaException {
+        debitarCentavos(Dinero.deDecimal(cantidadADebitar));
+    }
+
+    public void debitarCentavos(long cantidadADebitar) throws NoAlcanzaException, CantidadNegativaException {
         if (cantidadADebitar <= 0) {
             throw new CantidadNegativaException();
         }
@@ -112,14 +191,18 @@ public class Cuenta {
         if (balance < cantidadADebitar) {
             throw new NoAlcanzaException();
         }
-        this.balance -= cantidadADebitar;
+        this.balance = Dinero.restar(this.balance, cantidadADebitar);
         
-        Movimiento movimiento = new Movimiento(TipoOperacion.RETIRO, cantidadADebitar, this.numeroCuenta);
+        Movimiento movimiento = Movimiento.deCentavos(TipoOperacion.RETIRO, cantidadADebitar, this.numeroCuenta, null);
         movimiento.setDescripcion("Retiro de cuenta");
         agregarMovimiento(movimiento);
     }
 
     public void transferirA(Cuenta cuentaDestino, double monto) throws NoAlcanzaException, CantidadNegativaException {
+        transferirCentavosA(cuentaDestino, Dinero.deDecimal(monto));
+    }
+
+    public void transferirCentavosA(Cuenta cuentaDestino, long monto) throws NoAlcanzaException, CantidadNegativaException {
         if (monto <= 0) {
             throw new CantidadNegativaException();
         }
@@ -128,13 +211,13 @@ public class Cuenta {
             throw new NoAlcanzaException();
         }
         
-        this.balance -= monto;
-        Movimiento movimientoEnvio = new Movimiento(TipoOperacion.TRANSFERENCIA_ENVIADA, monto, this.numeroCuenta, cuentaDestino.getNumeroCuenta());
+        this.balance = Dinero.restar(this.balance, monto);
+        Movimiento movimientoEnvio = Movimiento.deCentavos(TipoOperacion.TRANSFERENCIA_ENVIADA, monto, this.numeroCuenta, cuentaDestino.getNumeroCuenta());
         movimientoEnvio.setDescripcion("Transferencia enviada a cuenta " + cuentaDestino.getNumeroCuenta());
         this.agregarMovimiento(movimientoEnvio);
         
-        cuentaDestino.balance += monto;
-        Movimiento movimientoRecepcion = new Movimiento(TipoOperacion.TRANSFERENCIA_RECIBIDA, monto, this.numeroCuenta, cuentaDestino.getNumeroCuenta());
+        cuentaDestino.balance = Dinero.sumar(cuentaDestino.balance, monto);
+        Movimiento movimientoRecepcion = Movimiento.deCentavos(TipoOperacion.TRANSFERENCIA_RECIBIDA, monto, this.numeroCuenta, cuentaDestino.getNumeroCuenta());
         movimientoRecepcion.setDescripcion("Transferencia recibida de cuenta " + this.numeroCuenta);
         cuentaDestino.agregarMovimiento(movimientoRecepcion);
     }
@@ -144,7 +227,7 @@ public class Cuenta {
         return "Cuenta{" +
                 "numeroCuenta=" + numeroCuenta +
                 ", fechaCreacion=" + fechaCreacion +
-                ", balance=" + balance +
+                ", balance=" + Dinero.formatear(balance) +
                 ", tipoCuenta=" + tipoCuenta +
                 ", moneda=" + moneda +
                 '}';
@@ -3,6 +3,9 @@ package ar.edu.utn.frbb.tup.model;
 public class CuotaPrestamo {
     private int cuotaNro;
     private double monto;
+    private double capital;
+    private double interes;
+    private double saldo;
 
     public CuotaPrestamo() {}
 
@@ -11,10 +14,28 @@ public class CuotaPrestamo {
         this.monto = monto;
     }
 
+    public CuotaPrestamo(int cuotaNro, double monto, double capital, double interes, double saldo) {
+        this.cuotaNro = cuotaNro;
+        this.monto = monto;
+        this.capital = capital;
+        this.interes = interes;
+        this.saldo = saldo;
+    }
+
     // Getters y Setters
     public int getCuotaNro() { return cuotaNro; }
     public void setCuotaNro(int cuotaNro) { this.cuotaNro = cuotaNro; }
 
     public double getMonto() { return monto; }
     public void setMonto(double monto) { this.monto = monto; }
-}
\ No newline at end of file
+
+    public double getCapital() { return capital; }
+    public void setCapital(double capital) { this.capital = capital; }
+
+    public double getInteres() { return interes; }
+    public void setInteres(double interes) { this.interes = interes; }
+
+    /** Saldo de capital después de pagar la cuota */
+    public double getSaldo() { return saldo; }
+    public void setSaldo(double saldo) { this.saldo = saldo; }
+}
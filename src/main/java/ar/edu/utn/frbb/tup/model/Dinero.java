@@ -0,0 +1,117 @@
+package ar.edu.utn.frbb.tup.model;
+
+import java.math.RoundingMode;
+
+/**
+ * Aritmética de montos en punto fijo: un monto es un {@code long} en centavos (la unidad menor
+ * de PESOS y DOLARES) y la moneda la aporta la cuenta o el préstamo al que pertenece.
+ * Son métodos estáticos sobre primitivos para no crear un objeto por cada monto.
+ * <p>
+ * Las sumas y restas son exactas y fallan con ArithmeticException si se desbordan, en lugar de
+ * perder precisión como un double. El redondeo solo aparece al multiplicar por una tasa o al
+ * convertir desde un decimal, y siempre con un modo explícito.
+ */
+public final class Dinero {
+
+    public static final long CENTAVOS_POR_UNIDAD = 100;
+
+    /** Redondeo bancario (al par más cercano) para intereses: no acumula sesgo en un sentido */
+    public static final RoundingMode REDONDEO_INTERES = RoundingMode.HALF_EVEN;
+
+    private Dinero() {
+    }
+
+    /**
+     * Convierte un monto decimal (por ejemplo el que llega en un JSON) a centavos,
+     * redondeando al centavo más cercano.
+     */
+    public static long deDecimal(double monto) {
+        return redondear(monto * CENTAVOS_POR_UNIDAD, RoundingMode.HALF_UP);
+    }
+
+    /**
+     * Convierte centavos a un decimal para mostrarlo. El resultado es el double más cercano al
+     * monto y vuelve a los mismos centavos con {@link #deDecimal(double)}.
+     */
+    public static double aDecimal(long centavos) {
+        return (double) centavos / CENTAVOS_POR_UNIDAD;
+    }
+
+    /**
+     * @return true si el decimal no tiene fracciones de centavo
+     */
+    public static boolean esMontoExacto(double monto) {
+        double centavos = monto * CENTAVOS_POR_UNIDAD;
+        // Tolerancia para decimales como 0.29, que en binario quedan a un ulp de 29 centavos
+        return Math.abs(centavos - Math.rint(centavos)) <= Math.ulp(centavos) * 4;
+    }
+
+    public static long sumar(long a, long b) {
+        return Math.addExact(a, b);
+    }
+
+    public static long restar(long a, long b) {
+        return Math.subtractExact(a, b);
+    }
+
+    /**
+     * Multiplica un monto por un factor (una tasa, un factor de anualidad) y redondea a centavos.
+     */
+    public static long multiplicar(long centavos, double factor, RoundingMode modo) {
+        return redondear(centavos * factor, modo);
+    }
+
+    /**
+     * Redondea una cantidad fraccionaria de centavos a un centavo entero.
+     *
+     * @throws IllegalArgumentException si el modo es UNNECESSARY y hay fracción, o si no entra en un long
+     */
+    public static long redondear(double centavos, RoundingMode modo) {
+        if (Double.isNaN(centavos) || Math.abs(centavos) >= 0x1p63) {
+            throw new IllegalArgumentException("Monto fuera de rango: " + centavos);
+        }
+        double redondeado;
+        switch (modo) {
+            case HALF_EVEN:
+                redondeado = Math.rint(centavos);
+                break;
+            case HALF_UP:
+                redondeado = Math.copySign(Math.floor(Math.abs(centavos) + 0.5), centavos);
+                break;
+            case HALF_DOWN:
+                redondeado = Math.copySign(Math.ceil(Math.abs(centavos) - 0.5), centavos);
+                break;
+            case DOWN:
+                redondeado = centavos < 0 ? Math.ceil(centavos) : Math.floor(centavos);
+                break;
+            case UP:
+                redondeado = centavos < 0 ? Math.floor(centavos) : Math.ceil(centavos);
+                break;
+            case FLOOR:
+                redondeado = Math.floor(centavos);
+                break;
+            case CEILING:
+                redondeado = Math.ceil(centavos);
+                break;
+            case UNNECESSARY:
+                redondeado = Math.rint(centavos);
+                if (redondeado != centavos) {
+                    throw new IllegalArgumentException("El monto tiene fracciones de centavo: " + centavos);
+                }
+                break;
+            default:
+                throw new IllegalArgumentException("Modo de redondeo no soportado: " + modo);
+        }
+        return (long) redondeado;
+    }
+
+    /**
+     * Texto con dos decimales, por ejemplo {@code -1234.05}, sin pasar por double.
+     */
+    public static String formatear(long centavos) {
+        long absoluto = Math.abs(centavos);
+        long unidades = absoluto / CENTAVOS_POR_UNIDAD;
+        long resto = absoluto % CENTAVOS_POR_UNIDAD;
+        return (centavos < 0 ? "-" : "") + unidades + (resto < 10 ? ".0" : ".") + resto;
+    }
+}
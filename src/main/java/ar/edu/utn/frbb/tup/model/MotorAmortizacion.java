@@ -0,0 +1,92 @@
+package ar.edu.utn.frbb.tup.model;
+
+import java.math.RoundingMode;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Calcula cuotas y cronogramas de amortización con el sistema francés (cuota fija).
+ * El factor de anualidad r(1+r)^n / ((1+r)^n - 1) depende solo de la tasa y del plazo, así que
+ * se precalcula una vez por tasa para todos los plazos admitidos (3 a 60 meses) y después
+ * cada cuota es una multiplicación.
+ * Los montos están en centavos ({@link Dinero}). La cuota se redondea al centavo más cercano y el
+ * interés de cada mes con redondeo bancario.
+ */
+public final class MotorAmortizacion {
+
+    /** Plazo máximo que acepta PrestamoValidator; los factores se cachean hasta acá */
+    static final int PLAZO_MAXIMO = 60;
+
+    /** Tope de tasas distintas en cache; en la práctica el banco usa una sola */
+    private static final int MAXIMO_TASAS = 64;
+
+    private static final ConcurrentHashMap<Long, double[]> FACTORES_POR_TASA = new ConcurrentHashMap<>();
+
+    private MotorAmortizacion() {
+    }
+
+    /**
+     * Cuota mensual fija en centavos.
+     * PMT = P * [r(1+r)^n] / [(1+r)^n - 1], con r = tasa anual / 12 y n = plazo en meses
+     */
+    public static long cuotaMensual(long monto, double tasaInteresAnual, int plazoMeses) {
+        return Dinero.multiplicar(monto, factorAnualidad(tasaInteresAnual, plazoMeses), RoundingMode.HALF_UP);
+    }
+
+    /**
+     * Cronograma completo: para cada cuota, cuánto es interés sobre el saldo, cuánto amortiza
+     * capital y el saldo que queda. La última cuota absorbe la diferencia de redondeo para que
+     * el saldo termine exactamente en cero.
+     */
+    public static TablaAmortizacion calcular(long monto, double tasaInteresAnual, int plazoMeses) {
+        double tasaMensual = tasaInteresAnual / 12;
+        long cuotaFija = cuotaMensual(monto, tasaInteresAnual, plazoMeses);
+        long[] cuota = new long[plazoMeses];
+        long[] capital = new long[plazoMeses];
+        long[] interes = new long[plazoMeses];
+        long[] saldo = new long[plazoMeses];
+
+        long restante = monto;
+        for (int i = 0; i < plazoMeses; i++) {
+            interes[i] = Dinero.multiplicar(restante, tasaMensual, Dinero.REDONDEO_INTERES);
+            capital[i] = i == plazoMeses - 1 ? restante : Math.min(cuotaFija - interes[i], restante);
+            cuota[i] = capital[i] + interes[i];
+            restante -= capital[i];
+            saldo[i] = restante;
+        }
+        return new TablaAmortizacion(cuota, capital, interes, saldo);
+    }
+
+    static double factorAnualidad(double tasaInteresAnual, int plazoMeses) {
+        if (plazoMeses <= 0) {
+            throw new IllegalArgumentException("El plazo en meses debe ser positivo");
+        }
+        if (plazoMeses > PLAZO_MAXIMO) {
+            return calcularFactor(tasaInteresAnual / 12, plazoMeses);
+        }
+        long clave = Double.doubleToLongBits(tasaInteresAnual);
+        double[] factores = FACTORES_POR_TASA.get(clave);
+        if (factores == null) {
+            factores = calcularFactores(tasaInteresAnual / 12);
+            if (FACTORES_POR_TASA.size() < MAXIMO_TASAS) {
+                FACTORES_POR_TASA.putIfAbsent(clave, factores);
+            }
+        }
+        return factores[plazoMeses];
+    }
+
+    private static double[] calcularFactores(double tasaMensual) {
+        double[] factores = new double[PLAZO_MAXIMO + 1];
+        for (int n = 1; n <= PLAZO_MAXIMO; n++) {
+            factores[n] = calcularFactor(tasaMensual, n);
+        }
+        return factores;
+    }
+
+    private static double calcularFactor(double tasaMensual, int plazoMeses) {
+        if (tasaMensual == 0) {
+            return 1.0 / plazoMeses;
+        }
+        double potencia = Math.pow(1 + tasaMensual, plazoMeses);
+        return tasaMensual * potencia / (potencia - 1);
+    }
+}
@@ -3,13 +3,18 @@ package ar.edu.utn.frbb.tup.model;
 import java.time.LocalDateTime;
 import java.util.concurrent.atomic.AtomicLong;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
+/**
+ * Movimiento de una cuenta. El monto se guarda en centavos ({@link Dinero}).
+ */
 public class Movimiento {
     private static final AtomicLong contadorId = new AtomicLong(1L);
     
     private Long id;
     private LocalDateTime fechaHora;
     private TipoOperacion tipoOperacion;
-    private double monto;
+    private long monto;
     private Long cuentaOrigen;
     private Long cuentaDestino;
     private String descripcion;
@@ -19,9 +24,9 @@ public class Movimiento {
         this.fechaHora = LocalDateTime.now();
     }
 
-    // Constructor para la capa de persistencia
+    // Constructor para la capa de persistencia, con el monto en centavos
     public Movimiento(Long id, LocalDateTime fechaHora, TipoOperacion tipoOperacion, 
-                     double monto, Long cuentaOrigen, Long cuentaDestino, String descripcion) {
+                     long monto, Long cuentaOrigen, Long cuentaDestino, String descripcion) {
         this.id = id;
         this.fechaHora = fechaHora;
         this.tipoOperacion = tipoOperacion;
@@ -34,7 +39,7 @@ public class Movimiento {
     public Movimiento(TipoOperacion tipoOperacion, double monto, Long cuentaOrigen) {
         this();
         this.tipoOperacion = tipoOperacion;
-        this.monto = monto;
+        this.monto = Dinero.deDecimal(monto);
         this.cuentaOrigen = cuentaOrigen;
     }
 
@@ -43,6 +48,35 @@ public class Movimiento {
         this.cuentaDestino = cuentaDestino;
     }
 
+    /**
+     * Crea un movimiento nuevo con el monto ya en centavos.
+     */
+    public static Movimiento deCentavos(TipoOperacion tipoOperacion, long monto, Long cuentaOrigen,
+                                        Long cuentaDestino) {
+        Movimiento movimiento = new Movimiento();
+        movimiento.tipoOperacion = tipoOperacion;
+        movimiento.monto = monto;
+        movimiento.cuentaOrigen = cuentaOrigen;
+        movimiento.cuentaDestino = cuentaDestino;
+        return movimiento;
+    }
+
+    /**
+     * Mayor id de movimiento que ya se pudo haber entregado. Se guarda en el snapshot, porque
+     * borrar una cuenta borra sus movimientos y con ellos el rastro de esos ids.
+     */
+    public static long ultimoIdReservado() {
+        return contadorId.get() - 1;
+    }
+
+    /**
+     * Avanza el contador de ids para que los próximos movimientos tengan un id mayor al indicado.
+     * Se usa después de recuperar movimientos del disco.
+     */
+    public static void reservarIdsHasta(long ultimoId) {
+        contadorId.accumulateAndGet(ultimoId + 1, Math::max);
+    }
+
     // Getters y Setters
     public Long getId() {
         return id;
@@ -71,10 +105,19 @@ public class Movimiento {
     }
 
     public double getMonto() {
-        return monto;
+        return Dinero.aDecimal(monto);
     }
 
     public void setMonto(double monto) {
+        this.monto = Dinero.deDecimal(monto);
+    }
+
+    @JsonIgnore
+    public long getMontoCentavos() {
+        return monto;
+    }
+
+    public void setMontoCentavos(long monto) {
         this.monto = monto;
     }
 
@@ -108,7 +151,7 @@ public class Movimiento {
                 "id=" + id +
                 ", fechaHora=" + fechaHora +
                 ", tipoOperacion=" + tipoOperacion +
-                ", monto=" + monto +
+                ", monto=" + Dinero.formatear(monto) +
                 ", cuentaOrigen=" + cuentaOrigen +
                 ", cuentaDestino=" + cuentaDestino +
                 ", descripcion='" + descripcion + '\'' +
@@ -1,12 +1,17 @@
 package ar.edu.utn.frbb.tup.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
 import java.time.LocalDateTime;
 import java.util.List;
 
+/**
+ * Préstamo de un cliente. El monto y el saldo se llevan en centavos ({@link Dinero}).
+ */
 public class Prestamo {
     private Long id;
     private Long numeroCliente;
-    private double montoPrestamo;
+    private long montoPrestamo;
     private int plazoMeses;
     private String moneda;
     private double tasaInteresAnual; 
@@ -14,7 +19,9 @@ public class Prestamo {
     private EstadoPrestamo estado;
     private List<CuotaPrestamo> planPagos;
     private int pagosRealizados;
-    private double saldoRestante;
+    private long saldoRestante;
+    @JsonIgnore
+    private long version;
 
     public Prestamo() {
         this.fechaSolicitud = LocalDateTime.now();
@@ -29,8 +36,11 @@ public class Prestamo {
     public Long getNumeroCliente() { return numeroCliente; }
     public void setNumeroCliente(Long numeroCliente) { this.numeroCliente = numeroCliente; }
 
-    public double getMontoPrestamo() { return montoPrestamo; }
-    public void setMontoPrestamo(double montoPrestamo) { 
+    public double getMontoPrestamo() { return Dinero.aDecimal(montoPrestamo); }
+    public void setMontoPrestamo(double montoPrestamo) { setMontoPrestamoCentavos(Dinero.deDecimal(montoPrestamo)); }
+
+    public long getMontoPrestamoCentavos() { return montoPrestamo; }
+    public void setMontoPrestamoCentavos(long montoPrestamo) {
         this.montoPrestamo = montoPrestamo;
         this.saldoRestante = montoPrestamo;
     }
@@ -56,8 +66,16 @@ public class Prestamo {
     public int getPagosRealizados() { return pagosRealizados; }
     public void setPagosRealizados(int pagosRealizados) { this.pagosRealizados = pagosRealizados; }
 
-    public double getSaldoRestante() { return saldoRestante; }
-    public void setSaldoRestante(double saldoRestante) { this.saldoRestante = saldoRestante; }
+    public double getSaldoRestante() { return Dinero.aDecimal(saldoRestante); }
+    public void setSaldoRestante(double saldoRestante) { this.saldoRestante = Dinero.deDecimal(saldoRestante); }
+
+    public long getSaldoRestanteCentavos() { return saldoRestante; }
+    public void setSaldoRestanteCentavos(long saldoRestante) { this.saldoRestante = saldoRestante; }
+
+    /** Versión con la que se leyó de la base; 0 si todavía no se guardó */
+    @JsonIgnore
+    public long getVersion() { return version; }
+    public void setVersion(long version) { this.version = version; }
 
     /**
      * Calcula el monto de cuota mensual fija usando fórmula de amortización francesa
@@ -65,9 +83,14 @@ public class Prestamo {
      * Donde: P = monto principal, r = tasa mensual, n = número de cuotas
      */
     public double calcularCuotaMensual() {
-    double tasaMensual = tasaInteresAnual / 12;
-    double factor = Math.pow(1 + tasaMensual, plazoMeses);
-    double cuota = montoPrestamo * (tasaMensual * factor) / (factor - 1);        
-    return Math.round(cuota * 100.0) / 100.0;
+        return Dinero.aDecimal(MotorAmortizacion.cuotaMensual(montoPrestamo, tasaInteresAnual, plazoMeses));
+    }
+
+    /**
+     * Calcula el cronograma completo (capital, interés y saldo de cada cuota).
+     * No se guarda con el préstamo: se genera cada vez que se pide.
+     */
+    public TablaAmortizacion calcularAmortizacion() {
+        return MotorAmortizacion.calcular(montoPrestamo, tasaInteresAnual, plazoMeses);
+    }
 }
-}
\ No newline at end of file
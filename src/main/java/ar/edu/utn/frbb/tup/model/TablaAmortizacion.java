@@ -0,0 +1,52 @@
+package ar.edu.utn.frbb.tup.model;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Cronograma de un préstamo en arreglos primitivos de centavos, una posición por cuota.
+ * Los accesos son por número de cuota, de 1 al plazo.
+ */
+public final class TablaAmortizacion {
+
+    private final long[] cuota;
+    private final long[] capital;
+    private final long[] interes;
+    private final long[] saldo;
+
+    TablaAmortizacion(long[] cuota, long[] capital, long[] interes, long[] saldo) {
+        this.cuota = cuota;
+        this.capital = capital;
+        this.interes = interes;
+        this.saldo = saldo;
+    }
+
+    public int getPlazoMeses() { return cuota.length; }
+
+    public long getCuota(int cuotaNro) { return cuota[cuotaNro - 1]; }
+    public long getCapital(int cuotaNro) { return capital[cuotaNro - 1]; }
+    public long getInteres(int cuotaNro) { return interes[cuotaNro - 1]; }
+
+    /** Saldo de capital después de pagar la cuota */
+    public long getSaldo(int cuotaNro) { return saldo[cuotaNro - 1]; }
+
+    public long getTotalIntereses() {
+        long total = 0;
+        for (long valor : interes) {
+            total += valor;
+        }
+        return total;
+    }
+
+    /**
+     * Arma el plan de pagos para informarlo al cliente, con los montos en decimal.
+     */
+    public List<CuotaPrestamo> toCuotas() {
+        List<CuotaPrestamo> cuotas = new ArrayList<>(cuota.length);
+        for (int i = 0; i < cuota.length; i++) {
+            cuotas.add(new CuotaPrestamo(i + 1, Dinero.aDecimal(cuota[i]), Dinero.aDecimal(capital[i]),
+                    Dinero.aDecimal(interes[i]), Dinero.aDecimal(saldo[i])));
+        }
+        return cuotas;
+    }
+}
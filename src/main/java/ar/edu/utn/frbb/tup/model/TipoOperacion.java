@@ -1,19 +1,28 @@
 package ar.edu.utn.frbb.tup.model;
 
 public enum TipoOperacion {
-    DEPOSITO("Depósito"),
-    RETIRO("Retiro"),
-    TRANSFERENCIA_ENVIADA("Transferencia Enviada"),
-    TRANSFERENCIA_RECIBIDA("Transferencia Recibida"),
-    CONSULTA_SALDO("Consulta de Saldo");
+    DEPOSITO("Depósito", 1),
+    RETIRO("Retiro", -1),
+    TRANSFERENCIA_ENVIADA("Transferencia Enviada", -1),
+    TRANSFERENCIA_RECIBIDA("Transferencia Recibida", 1),
+    CONSULTA_SALDO("Consulta de Saldo", 0);
 
     private final String descripcion;
+    private final int signo;
 
-    TipoOperacion(String descripcion) {
+    TipoOperacion(String descripcion, int signo) {
         this.descripcion = descripcion;
+        this.signo = signo;
     }
 
     public String getDescripcion() {
         return descripcion;
     }
-}
\ No newline at end of file
+
+    /**
+     * Cuánto cambia el saldo de la cuenta un movimiento de este tipo por el monto indicado.
+     */
+    public long efectoEnSaldo(long monto) {
+        return signo * monto;
+    }
+}
@@ -1,5 +1,8 @@
 package ar.edu.utn.frbb.tup.model.dto;
 
+import ar.edu.utn.frbb.tup.model.Dinero;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
 public class CuentaDto {
     private String tipoCuenta;
     private String tipoMoneda;
@@ -37,4 +40,9 @@ public class CuentaDto {
     public void setSaldoInicial(double saldoInicial) {
         this.saldoInicial = saldoInicial;
     }
+
+    @JsonIgnore
+    public long getSaldoInicialCentavos() {
+        return Dinero.deDecimal(saldoInicial);
+    }
 }
\ No newline at end of file
@@ -0,0 +1,24 @@
+package ar.edu.utn.frbb.tup.model.dto;
+
+import java.util.List;
+
+public class OperacionBatchDto {
+    private List<OperacionDto> operaciones;
+    private boolean atomica;
+
+    public List<OperacionDto> getOperaciones() {
+        return operaciones;
+    }
+
+    public void setOperaciones(List<OperacionDto> operaciones) {
+        this.operaciones = operaciones;
+    }
+
+    public boolean isAtomica() {
+        return atomica;
+    }
+
+    public void setAtomica(boolean atomica) {
+        this.atomica = atomica;
+    }
+}
@@ -1,5 +1,8 @@
 package ar.edu.utn.frbb.tup.model.dto;
 
+import ar.edu.utn.frbb.tup.model.Dinero;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
 public class OperacionDto {
     private Long numeroCuenta;
     private double monto;
@@ -22,6 +25,11 @@ public class OperacionDto {
         this.monto = monto;
     }
 
+    @JsonIgnore
+    public long getMontoCentavos() {
+        return Dinero.deDecimal(monto);
+    }
+
     public String getTipoOperacion() {
         return tipoOperacion;
     }
@@ -1,5 +1,8 @@
 package ar.edu.utn.frbb.tup.model.dto;
 
+import ar.edu.utn.frbb.tup.model.Dinero;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
 public class PrestamoRequestDto {
     private long numeroCliente;
     private int plazoMeses;
@@ -16,6 +19,9 @@ public class PrestamoRequestDto {
     public double getMontoPrestamo() { return montoPrestamo; }
     public void setMontoPrestamo(double montoPrestamo) { this.montoPrestamo = montoPrestamo; }
 
+    @JsonIgnore
+    public long getMontoPrestamoCentavos() { return Dinero.deDecimal(montoPrestamo); }
+
     public String getMoneda() { return moneda; }
     public void setMoneda(String moneda) { this.moneda = moneda; }
 }
\ No newline at end of file
@@ -0,0 +1,30 @@
+package ar.edu.utn.frbb.tup.model.dto;
+
+public class ResultadoOperacionDto {
+    public static final String OK = "OK";
+    public static final String ERROR = "ERROR";
+    /** La operación era válida pero no se aplicó porque el lote atómico falló */
+    public static final String NO_APLICADA = "NO_APLICADA";
+
+    private int indice;
+    private String estado;
+    private String mensaje;
+
+    public ResultadoOperacionDto() {}
+
+    public ResultadoOperacionDto(int indice, String estado, String mensaje) {
+        this.indice = indice;
+        this.estado = estado;
+        this.mensaje = mensaje;
+    }
+
+    // Getters y Setters
+    public int getIndice() { return indice; }
+    public void setIndice(int indice) { this.indice = indice; }
+
+    public String getEstado() { return estado; }
+    public void setEstado(String estado) { this.estado = estado; }
+
+    public String getMensaje() { return mensaje; }
+    public void setMensaje(String mensaje) { this.mensaje = mensaje; }
+}
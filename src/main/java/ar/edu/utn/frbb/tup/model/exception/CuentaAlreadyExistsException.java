@@ -1,7 +0,0 @@
-package ar.edu.utn.frbb.tup.model.exception;
-
-public class CuentaAlreadyExistsException extends Throwable{
-    public CuentaAlreadyExistsException(String message) {
-        super(message);
-    }
-}
@@ -0,0 +1,11 @@
+package ar.edu.utn.frbb.tup.model.exception;
+
+/**
+ * Otra operación siguió modificando el mismo registro y no se pudo guardar el cambio
+ * después de reintentarlo. El cliente puede volver a intentarlo más tarde.
+ */
+public class ModificacionConcurrenteException extends IllegalStateException {
+    public ModificacionConcurrenteException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,15 @@
+package ar.edu.utn.frbb.tup.model.exception;
+
+/**
+ * El cambio no se pudo hacer durable (por ejemplo, el WAL se cerró después de una falla de
+ * disco) y se deshizo. No es un error del pedido: el cliente puede reintentarlo más tarde.
+ */
+public class PersistenciaNoDisponibleException extends IllegalStateException {
+    public PersistenciaNoDisponibleException(String message) {
+        super(message);
+    }
+
+    public PersistenciaNoDisponibleException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
@@ -1,16 +1,608 @@
 package ar.edu.utn.frbb.tup.persistence;
 
-import java.util.HashMap;
+import ar.edu.utn.frbb.tup.persistence.entity.BaseEntity;
+import jakarta.annotation.PostConstruct;
+
+import java.util.AbstractCollection;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * Base de los DAOs en memoria.
+ * Cada entidad vive en su propia tabla concurrente, tipada por entidad, dentro de un
+ * registro estático compartido. Las tablas se crean de forma atómica la primera vez que
+ * se usan, así que varios requests concurrentes nunca ven dos tablas distintas.
+ * Los índices secundarios se mantienen dentro de la misma actualización atómica de la fila.
+ * Los locks de escritura también son por tabla, compartidos por todas las instancias del DAO.
+ * Si hay un {@link DiarioCambios} configurado, cada escritura se registra en él después de
+ * aplicarse, con el lock de escritura de la clave tomado para que el orden se mantenga, y se
+ * espera a que sea durable sin soltarlo: si el diario falla, el cambio se deshace en memoria
+ * antes de que otra escritura sobre la clave lo tome como base.
+ * Una tabla puede tener además una capa fría ({@link AlmacenFrio}): registros que siguen en
+ * disco y se decodifican al leerlos. La tabla en memoria tiene prioridad sobre la capa fría;
+ * escribir un registro frío lo pasa a memoria y borrarlo lo marca como borrado.
+ *
+ * @param <E> tipo de entidad que guarda la tabla
+ */
+public abstract class AbstractBaseDao<E extends BaseEntity> {
+
+    /** Capacidad inicial de cada tabla, para evitar rehashes en la carga inicial */
+    private static final int CAPACIDAD_INICIAL = 1024;
+
+    protected static final ConcurrentMap<String, ConcurrentMap<Long, ? extends BaseEntity>> poorMansDatabase =
+            new ConcurrentHashMap<>();
+
+    private static final ConcurrentMap<String, IndiceSecundario<?>> indices = new ConcurrentHashMap<>();
+
+    private static final ConcurrentMap<String, CapaFria<?>> capasFrias = new ConcurrentHashMap<>();
+
+    private static final ConcurrentMap<String, SecuenciaIds> secuencias = new ConcurrentHashMap<>();
+
+    /** Locks de escritura de cada tabla; compartidos como la tabla, así dos DAOs de la misma entidad se excluyen */
+    private static final ConcurrentMap<String, ReentrantLock[]> locksPorTabla = new ConcurrentHashMap<>();
+
+    /** Cantidad de locks de escritura, potencia de 2 para poder usar máscara */
+    static final int STRIPES_ESCRITURA = 256;
+
+    private volatile ReentrantLock[] locksEscritura;
+
+    private volatile DiarioCambios diario = DiarioCambios.NINGUNO;
 
-public abstract class AbstractBaseDao {
-    protected static Map<String, Map<Long, Object>> poorMansDatabase = new HashMap<>();
     protected abstract String getEntityName();
 
-    protected Map<Long, Object> getInMemoryDatabase() {
-        if (poorMansDatabase.get(getEntityName()) == null) {
-            poorMansDatabase.put(getEntityName(),new HashMap<>());
+    /**
+     * Crea la tabla de la entidad. Las subclases pueden sobreescribirlo
+     * si necesitan otra implementación concurrente (por ejemplo, ordenada).
+     */
+    protected ConcurrentMap<Long, E> crearTabla() {
+        return new ConcurrentHashMap<>(CAPACIDAD_INICIAL);
+    }
+
+    @SuppressWarnings("unchecked")
+    protected ConcurrentMap<Long, E> getInMemoryDatabase() {
+        return (ConcurrentMap<Long, E>) poorMansDatabase.computeIfAbsent(getEntityName(), nombre -> crearTabla());
+    }
+
+    protected E buscarEntidad(long id) {
+        E entidad = getInMemoryDatabase().get(id);
+        return entidad != null ? entidad : buscarFria(id);
+    }
+
+    protected void guardarEntidad(E entidad) {
+        ReentrantLock lock = lockEscritura(entidad.getId());
+        lock.lock();
+        try {
+            EstadoClave<E> previo = leerEstado(entidad.getId());
+            aplicarGuardado(entidad);
+            registrarODeshacer(entidad.getId(), previo, () -> diario.registrarGuardado(getEntityName(), entidad));
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Guarda la entidad solo si la tabla todavía tiene la versión que se leyó, como un
+     * compare-and-set: si otra escritura la cambió en el medio, no guarda nada. Una versión
+     * leída 0 indica una entidad nueva, que solo se guarda si no existe.
+     *
+     * @return true si se guardó; false si la versión ya no es la leída
+     */
+    protected boolean guardarEntidadSiVersion(E entidad, long versionLeida) {
+        ReentrantLock lock = lockEscritura(entidad.getId());
+        lock.lock();
+        try {
+            E actual = buscarEntidad(entidad.getId());
+            if ((actual != null ? actual.getVersion() : 0) != versionLeida) {
+                return false;
+            }
+            EstadoClave<E> previo = leerEstado(entidad.getId());
+            aplicarGuardado(entidad);
+            registrarODeshacer(entidad.getId(), previo, () -> diario.registrarGuardado(getEntityName(), entidad));
+        } finally {
+            lock.unlock();
+        }
+        return true;
+    }
+
+    /**
+     * Elimina la entidad con el id indicado.
+     *
+     * @return la entidad eliminada o null si no existía
+     */
+    protected E eliminarEntidad(long id) {
+        ReentrantLock lock = lockEscritura(id);
+        lock.lock();
+        try {
+            EstadoClave<E> previo = leerEstado(id);
+            E eliminada = aplicarBorrado(id);
+            if (eliminada != null) {
+                registrarODeshacer(id, previo, () -> diario.registrarBorrado(getEntityName(), id));
+            }
+            return eliminada;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Registra en el diario un cambio ya aplicado y espera a que sea durable, con el lock de
+     * escritura de la clave tomado. Si el diario lo rechaza (por ejemplo, porque el WAL se
+     * cerró después de una falla) o el cambio no llega a disco, lo deshace en memoria antes de
+     * soltar el lock y relanza el error: la tabla queda como estaba.
+     */
+    private void registrarODeshacer(long id, EstadoClave<E> previo, Supplier<DiarioCambios.Confirmacion> registrar) {
+        try {
+            registrar.get().esperar();
+        } catch (RuntimeException e) {
+            restaurarEstado(id, previo);
+            throw e;
+        }
+    }
+
+    /**
+     * Estado de una clave antes de cambiarla, para poder deshacer el cambio.
+     * Se llama con el lock de escritura de la clave tomado.
+     */
+    protected EstadoClave<E> leerEstado(long id) {
+        CapaFria<E> capa = getCapaFria();
+        return new EstadoClave<>(getInMemoryDatabase().get(id), capa != null && capa.borrados.contains(id));
+    }
+
+    /**
+     * Vuelve la clave al estado leído con {@link #leerEstado(long)}, índices incluidos, sin
+     * registrarlo en el diario. Se llama con el mismo lock de escritura tomado.
+     */
+    protected void restaurarEstado(long id, EstadoClave<E> previo) {
+        CapaFria<E> capa = getCapaFria();
+        getInMemoryDatabase().compute(id, (clave, actual) -> {
+            E visibleAhora = actual != null ? actual : buscarFria(id);
+            if (capa != null) {
+                if (previo.borradaFria) {
+                    capa.borrados.add(id);
+                } else {
+                    capa.borrados.remove(id);
+                }
+            }
+            E visibleAntes = previo.enMemoria != null ? previo.enMemoria : buscarFria(id);
+            actualizarIndices(visibleAhora, visibleAntes);
+            return previo.enMemoria;
+        });
+    }
+
+    /**
+     * Aplica el alta o modificación en memoria, sin registrarla en el diario, y le asigna
+     * a la entidad la versión siguiente a la que reemplaza.
+     * Se llama con el lock de escritura de la clave tomado.
+     */
+    protected void aplicarGuardado(E entidad) {
+        getInMemoryDatabase().compute(entidad.getId(), (id, anterior) -> {
+            E reemplazada = anterior != null ? anterior : buscarFria(id);
+            actualizarIndices(reemplazada, entidad);
+            entidad.setVersion(reemplazada != null ? reemplazada.getVersion() + 1 : BaseEntity.VERSION_INICIAL);
+            return entidad;
+        });
+        CapaFria<E> capa = getCapaFria();
+        if (capa != null) {
+            capa.borrados.remove(entidad.getId());
+        }
+    }
+
+    private E aplicarBorrado(long id) {
+        // Primero marca el registro frío como borrado, así una lectura que no lo encuentre
+        // en memoria tampoco lo encuentra en disco
+        E fria = null;
+        CapaFria<E> capa = getCapaFria();
+        if (capa != null && !capa.borrados.contains(id)) {
+            fria = capa.almacen.leer(id);
+            if (fria != null) {
+                capa.borrados.add(id);
+            }
+        }
+
+        List<E> eliminada = new ArrayList<>(1);
+        getInMemoryDatabase().computeIfPresent(id, (clave, anterior) -> {
+            actualizarIndices(anterior, null);
+            eliminada.add(anterior);
+            return null;
+        });
+        if (!eliminada.isEmpty()) {
+            return eliminada.get(0);
+        }
+        if (fria != null) {
+            actualizarIndices(fria, null);
+        }
+        return fria;
+    }
+
+    private E buscarFria(long id) {
+        CapaFria<E> capa = getCapaFria();
+        if (capa == null || capa.borrados.contains(id)) {
+            return null;
+        }
+        return capa.almacen.leer(id);
+    }
+
+    /**
+     * Lock que serializa las escrituras sobre una clave mientras se aplican y se registran en el diario.
+     */
+    protected ReentrantLock lockEscritura(long id) {
+        return getLocksEscritura()[indiceLockEscritura(id)];
+    }
+
+    private ReentrantLock[] getLocksEscritura() {
+        ReentrantLock[] locks = locksEscritura;
+        if (locks == null) {
+            locks = locksPorTabla.computeIfAbsent(getEntityName(), nombre -> crearLocksEscritura());
+            locksEscritura = locks;
+        }
+        return locks;
+    }
+
+    /**
+     * Ejecuta la acción con los locks de escritura de todas las claves indicadas, para aplicar
+     * y registrar juntos los cambios de varias claves. Los locks se toman en orden creciente
+     * y cada uno una sola vez, así dos llamadas con claves en común no se bloquean mutuamente.
+     */
+    protected <T> T conLocksEscritura(long[] ids, Supplier<T> accion) {
+        BitSet indicesLock = new BitSet(STRIPES_ESCRITURA);
+        for (long id : ids) {
+            indicesLock.set(indiceLockEscritura(id));
+        }
+
+        ReentrantLock[] locks = getLocksEscritura();
+        int tomados = 0;
+        int[] orden = new int[indicesLock.cardinality()];
+        try {
+            for (int i = indicesLock.nextSetBit(0); i >= 0; i = indicesLock.nextSetBit(i + 1)) {
+                locks[i].lock();
+                orden[tomados++] = i;
+            }
+            return accion.get();
+        } finally {
+            while (tomados > 0) {
+                locks[orden[--tomados]].unlock();
+            }
+        }
+    }
+
+    /** Franja de locks de escritura de la clave; es la misma en todas las tablas */
+    static int indiceLockEscritura(long id) {
+        long h = id * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32)) & (STRIPES_ESCRITURA - 1);
+    }
+
+    protected DiarioCambios getDiario() {
+        return diario;
+    }
+
+    /**
+     * Configura el diario donde se registran las escrituras de ahora en adelante.
+     */
+    public void setDiario(DiarioCambios diario) {
+        this.diario = diario != null ? diario : DiarioCambios.NINGUNO;
+    }
+
+    /**
+     * Id nuevo para la tabla. La secuencia es compartida por todas las instancias del DAO,
+     * como la tabla.
+     */
+    protected long siguienteId() {
+        return secuencias.computeIfAbsent(getEntityName(), nombre -> new SecuenciaIds()).siguiente();
+    }
+
+    /**
+     * Mayor id de la tabla que ya se pudo haber entregado, aunque la entidad se haya borrado.
+     * Se guarda en el snapshot para no reusarlo al recuperar.
+     */
+    public long ultimoIdReservado() {
+        return secuencias.computeIfAbsent(getEntityName(), nombre -> new SecuenciaIds()).ultimoReservado();
+    }
+
+    /**
+     * Hace que los próximos ids de la tabla sean mayores al indicado.
+     * Se usa después de recuperar la tabla del disco.
+     */
+    public void reservarIdsHasta(long ultimoId) {
+        secuencias.computeIfAbsent(getEntityName(), nombre -> new SecuenciaIds()).reservarHasta(ultimoId);
+    }
+
+    /**
+     * Aplica un alta o modificación recuperada del disco, sin volver a registrarla en el diario.
+     */
+    @SuppressWarnings("unchecked")
+    public void restaurarGuardado(BaseEntity entidad) {
+        aplicarGuardado((E) entidad);
+    }
+
+    /**
+     * Aplica una baja recuperada del disco, sin volver a registrarla en el diario.
+     */
+    public void restaurarBorrado(long id) {
+        aplicarBorrado(id);
+    }
+
+    /**
+     * Configura los registros fríos de la tabla (o los quita, con null) e indexa su contenido.
+     * Se usa al recuperar, antes de reproducir el WAL y de atender requests.
+     */
+    @SuppressWarnings("unchecked")
+    public void setAlmacenFrio(AlmacenFrio<? extends BaseEntity> almacen) {
+        if (almacen == null) {
+            capasFrias.remove(getEntityName());
+            return;
+        }
+        capasFrias.put(getEntityName(), new CapaFria<>((AlmacenFrio<E>) almacen));
+        if (mantieneIndices()) {
+            for (int posicion = 0; posicion < almacen.cantidad(); posicion++) {
+                actualizarIndices(null, (E) almacen.leerEn(posicion));
+            }
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private CapaFria<E> getCapaFria() {
+        return (CapaFria<E>) capasFrias.get(getEntityName());
+    }
+
+    /**
+     * Vista de solo lectura de todas las entidades de la tabla, incluidas las frías.
+     * La iteración es débilmente consistente: no falla ante escrituras concurrentes.
+     */
+    protected Collection<E> entidades() {
+        ConcurrentMap<Long, E> tabla = getInMemoryDatabase();
+        CapaFria<E> capa = getCapaFria();
+        if (capa == null) {
+            return tabla.values();
+        }
+        return new AbstractCollection<E>() {
+            @Override
+            public Iterator<E> iterator() {
+                return new IteradorConFrias<>(tabla.values().iterator(), tabla, capa);
+            }
+
+            @Override
+            public int size() {
+                return contarConFrias(tabla, capa);
+            }
+        };
+    }
+
+    /**
+     * Registros en memoria más los fríos visibles. Recorre solo los ids de la capa fría,
+     * sin decodificar ningún registro.
+     */
+    private static int contarConFrias(Map<Long, ?> tabla, CapaFria<?> capa) {
+        int cantidad = tabla.size();
+        for (int posicion = 0; posicion < capa.almacen.cantidad(); posicion++) {
+            if (capa.visible(capa.almacen.idEn(posicion), tabla)) {
+                cantidad++;
+            }
+        }
+        return cantidad;
+    }
+
+    /**
+     * Entidades en orden de id, empezando después del id indicado (o desde el principio con null).
+     * Requiere que la tabla en memoria sea ordenada; intercala en orden los registros fríos.
+     */
+    protected Iterator<E> entidadesOrdenadasDesde(Long despuesDeId) {
+        ConcurrentNavigableMap<Long, E> tabla = (ConcurrentNavigableMap<Long, E>) getInMemoryDatabase();
+        ConcurrentNavigableMap<Long, E> desde = despuesDeId != null ? tabla.tailMap(despuesDeId, false) : tabla;
+        CapaFria<E> capa = getCapaFria();
+        if (capa == null) {
+            return desde.values().iterator();
+        }
+        int inicio = despuesDeId != null ? capa.almacen.primeraPosicionMayorA(despuesDeId) : 0;
+        return new IteradorOrdenadoConFrias<>(desde.entrySet().iterator(), tabla, capa, inicio);
+    }
+
+    /**
+     * Cantidad de registros de la tabla. Sin capa fría es inmediato; con capa fría recorre
+     * los ids de los registros fríos, pero no los decodifica.
+     */
+    public int contarRegistros() {
+        ConcurrentMap<Long, E> tabla = getInMemoryDatabase();
+        CapaFria<E> capa = getCapaFria();
+        return capa != null ? contarConFrias(tabla, capa) : tabla.size();
+    }
+
+    /**
+     * Todas las entidades de la tabla, para exportarlas (por ejemplo, a un snapshot).
+     */
+    public Collection<E> exportarEntidades() {
+        return Collections.unmodifiableCollection(entidades());
+    }
+
+    /**
+     * Índice secundario de esta entidad con el nombre indicado. Se crea vacío la primera vez.
+     */
+    @SuppressWarnings("unchecked")
+    protected <K> IndiceSecundario<K> getIndice(String nombre) {
+        return (IndiceSecundario<K>) indices.computeIfAbsent(getEntityName() + "." + nombre,
+                clave -> new IndiceSecundario<>());
+    }
+
+    /**
+     * Indica si la entidad tiene índices secundarios. Sin índices no hace falta recorrer
+     * la tabla (ni decodificar los registros fríos) para reconstruirlos.
+     */
+    protected boolean mantieneIndices() {
+        return false;
+    }
+
+    /**
+     * Mantiene los índices secundarios cuando cambia una fila. Se ejecuta dentro del
+     * compute de la tabla, con la fila bloqueada.
+     *
+     * @param anterior versión anterior de la entidad o null si es un alta
+     * @param nueva    versión nueva de la entidad o null si es una baja
+     */
+    protected void actualizarIndices(E anterior, E nueva) {
+    }
+
+    /**
+     * Reconstruye los índices secundarios a partir del contenido de la tabla.
+     * Se ejecuta al levantar la aplicación, después de cargar los datos.
+     */
+    @PostConstruct
+    public void reconstruirIndices() {
+        if (!mantieneIndices()) {
+            return;
+        }
+        String prefijo = getEntityName() + ".";
+        for (String nombre : indices.keySet()) {
+            if (nombre.startsWith(prefijo)) {
+                indices.get(nombre).limpiar();
+            }
+        }
+        for (E entidad : entidades()) {
+            actualizarIndices(null, entidad);
+        }
+    }
+
+    private static ReentrantLock[] crearLocksEscritura() {
+        ReentrantLock[] locks = new ReentrantLock[STRIPES_ESCRITURA];
+        for (int i = 0; i < locks.length; i++) {
+            locks[i] = new ReentrantLock();
+        }
+        return locks;
+    }
+
+    /**
+     * Lo que había en una clave antes de un cambio: la entidad en memoria (o null) y si su
+     * registro frío estaba marcado como borrado.
+     */
+    protected static final class EstadoClave<E extends BaseEntity> {
+        private final E enMemoria;
+        private final boolean borradaFria;
+
+        private EstadoClave(E enMemoria, boolean borradaFria) {
+            this.enMemoria = enMemoria;
+            this.borradaFria = borradaFria;
+        }
+    }
+
+    /**
+     * Registros fríos de una tabla y los ids de esos registros que ya se borraron.
+     */
+    private static final class CapaFria<E extends BaseEntity> {
+        private final AlmacenFrio<E> almacen;
+        private final Set<Long> borrados = ConcurrentHashMap.newKeySet();
+
+        private CapaFria(AlmacenFrio<E> almacen) {
+            this.almacen = almacen;
+        }
+
+        /** Un registro frío es visible si no fue borrado ni reemplazado por uno en memoria */
+        private boolean visible(long id, Map<Long, ?> tabla) {
+            return !borrados.contains(id) && !tabla.containsKey(id);
+        }
+    }
+
+    /**
+     * Recorre primero la tabla en memoria y después los registros fríos visibles.
+     */
+    private static final class IteradorConFrias<E extends BaseEntity> implements Iterator<E> {
+        private final Iterator<E> calientes;
+        private final Map<Long, E> tabla;
+        private final CapaFria<E> capa;
+        private int posicion;
+        private E siguiente;
+
+        private IteradorConFrias(Iterator<E> calientes, Map<Long, E> tabla, CapaFria<E> capa) {
+            this.calientes = calientes;
+            this.tabla = tabla;
+            this.capa = capa;
+        }
+
+        @Override
+        public boolean hasNext() {
+            if (siguiente != null) {
+                return true;
+            }
+            if (calientes.hasNext()) {
+                siguiente = calientes.next();
+                return true;
+            }
+            while (posicion < capa.almacen.cantidad()) {
+                int actual = posicion++;
+                if (capa.visible(capa.almacen.idEn(actual), tabla)) {
+                    siguiente = capa.almacen.leerEn(actual);
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        @Override
+        public E next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            E resultado = siguiente;
+            siguiente = null;
+            return resultado;
+        }
+    }
+
+    /**
+     * Intercala en orden de id la tabla en memoria (ordenada) con los registros fríos visibles.
+     */
+    private static final class IteradorOrdenadoConFrias<E extends BaseEntity> implements Iterator<E> {
+        private final Iterator<Map.Entry<Long, E>> calientes;
+        private final Map<Long, E> tabla;
+        private final CapaFria<E> capa;
+        private int posicion;
+        private Map.Entry<Long, E> caliente;
+        private int fria = -1;
+
+        private IteradorOrdenadoConFrias(Iterator<Map.Entry<Long, E>> calientes, Map<Long, E> tabla,
+                                         CapaFria<E> capa, int posicion) {
+            this.calientes = calientes;
+            this.tabla = tabla;
+            this.capa = capa;
+            this.posicion = posicion;
+        }
+
+        @Override
+        public boolean hasNext() {
+            if (caliente == null && calientes.hasNext()) {
+                caliente = calientes.next();
+            }
+            while (fria < 0 && posicion < capa.almacen.cantidad()) {
+                int actual = posicion++;
+                if (capa.visible(capa.almacen.idEn(actual), tabla)) {
+                    fria = actual;
+                }
+            }
+            return caliente != null || fria >= 0;
+        }
+
+        @Override
+        public E next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            if (fria < 0 || (caliente != null && caliente.getKey() < capa.almacen.idEn(fria))) {
+                E resultado = caliente.getValue();
+                caliente = null;
+                return resultado;
+            }
+            E resultado = capa.almacen.leerEn(fria);
+            fria = -1;
+            return resultado;
         }
-        return poorMansDatabase.get(getEntityName());
     }
 }
@@ -0,0 +1,36 @@
+package ar.edu.utn.frbb.tup.persistence;
+
+import ar.edu.utn.frbb.tup.persistence.entity.BaseEntity;
+
+/**
+ * Registros de una tabla que siguen solo en disco, por ejemplo en un snapshot mapeado en memoria.
+ * Están ordenados por id y cada uno se decodifica recién cuando se pide, sin quedar en el heap.
+ *
+ * @param <E> tipo de entidad de la tabla
+ */
+public interface AlmacenFrio<E extends BaseEntity> {
+
+    int cantidad();
+
+    long idEn(int posicion);
+
+    E leerEn(int posicion);
+
+    /**
+     * Posición del id, o un número negativo si no está.
+     */
+    int buscar(long id);
+
+    /**
+     * Primera posición cuyo id es mayor al indicado (o {@link #cantidad()} si no hay).
+     */
+    default int primeraPosicionMayorA(long id) {
+        int posicion = buscar(id);
+        return posicion >= 0 ? posicion + 1 : -(posicion + 1);
+    }
+
+    default E leer(long id) {
+        int posicion = buscar(id);
+        return posicion >= 0 ? leerEn(posicion) : null;
+    }
+}
@@ -0,0 +1,44 @@
+package ar.edu.utn.frbb.tup.persistence;
+
+import ar.edu.utn.frbb.tup.persistence.entity.CuentaEntity;
+import ar.edu.utn.frbb.tup.persistence.entity.MovimientoEntity;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Cambio sobre varias cuentas que se registra como uno solo, por ejemplo las dos patas
+ * de una transferencia: el débito en la cuenta origen y el crédito en la destino.
+ * Cada pata lleva el estado final de la cuenta y los movimientos que lo explican.
+ */
+public final class Asiento {
+
+    private final List<Pata> patas;
+
+    public Asiento(List<Pata> patas) {
+        this.patas = Collections.unmodifiableList(patas);
+    }
+
+    public List<Pata> getPatas() {
+        return patas;
+    }
+
+    public static final class Pata {
+        private final CuentaEntity cuenta;
+        private final List<MovimientoEntity> movimientos;
+
+        public Pata(CuentaEntity cuenta, List<MovimientoEntity> movimientos) {
+            this.cuenta = cuenta;
+            this.movimientos = movimientos;
+        }
+
+        public CuentaEntity getCuenta() {
+            return cuenta;
+        }
+
+        /** Movimientos nuevos de la cuenta, en orden cronológico */
+        public List<MovimientoEntity> getMovimientos() {
+            return movimientos;
+        }
+    }
+}
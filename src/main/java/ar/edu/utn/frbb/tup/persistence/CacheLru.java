@@ -0,0 +1,174 @@
+package ar.edu.utn.frbb.tup.persistence;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.ToLongFunction;
+
+/**
+ * Cache en memoria de tamaño acotado que descarta las entradas usadas hace más tiempo (LRU).
+ * Las lecturas no toman locks: cada acceso solo anota en la entrada el momento en que se usó.
+ * Cuando se supera el máximo se ordena por último acceso y se descarta hasta quedar en tres
+ * cuartos del máximo, así el costo de ordenar se reparte entre muchas altas.
+ * Opcionalmente cada valor tiene un peso (por ejemplo, los bytes que ocupa aproximadamente)
+ * y el peso total también tiene un máximo, que se respeta de la misma forma.
+ * Cuenta aciertos y fallos para publicarlos como métricas.
+ *
+ * @param <K> tipo de la clave
+ * @param <V> tipo del valor
+ */
+public final class CacheLru<K, V> {
+
+    private final ConcurrentHashMap<K, Entrada<V>> entradas = new ConcurrentHashMap<>();
+    private final int maximo;
+    private final long maximoPeso;
+    private final ToLongFunction<? super V> peso;
+    private final AtomicLong pesoTotal = new AtomicLong();
+    private final ReentrantLock lockPurga = new ReentrantLock();
+    private final LongAdder aciertos = new LongAdder();
+    private final LongAdder fallos = new LongAdder();
+
+    /**
+     * @param maximo cantidad de entradas a partir de la cual se descartan las menos usadas;
+     *               cero deshabilita el cache
+     */
+    public CacheLru(int maximo) {
+        this(maximo, Long.MAX_VALUE, valor -> 0);
+    }
+
+    /**
+     * @param maximo     cantidad de entradas a partir de la cual se descartan las menos usadas;
+     *                   cero deshabilita el cache
+     * @param maximoPeso peso total a partir del cual se descartan las menos usadas
+     * @param peso       peso de un valor; se calcula una vez, al guardarlo
+     */
+    public CacheLru(int maximo, long maximoPeso, ToLongFunction<? super V> peso) {
+        if (maximo < 0 || maximoPeso < 0) {
+            throw new IllegalArgumentException("El tamaño máximo del cache no puede ser negativo");
+        }
+        this.maximo = maximo;
+        this.maximoPeso = maximoPeso;
+        this.peso = peso;
+    }
+
+    /**
+     * @return el valor guardado, o null si no está. No cuenta como acierto ni fallo:
+     *         quien llama decide con {@link #registrarAcierto()} y {@link #registrarFallo()}
+     *         si el valor le sirve.
+     */
+    public V obtener(K clave) {
+        Entrada<V> entrada = entradas.get(clave);
+        if (entrada == null) {
+            return null;
+        }
+        entrada.ultimoAcceso = System.nanoTime();
+        return entrada.valor;
+    }
+
+    public void guardar(K clave, V valor) {
+        if (maximo == 0) {
+            return;
+        }
+        Entrada<V> nueva = new Entrada<>(valor, peso.applyAsLong(valor), System.nanoTime());
+        Entrada<V> anterior = entradas.put(clave, nueva);
+        long total = pesoTotal.addAndGet(anterior != null ? nueva.peso - anterior.peso : nueva.peso);
+        if (entradas.size() > maximo || total > maximoPeso) {
+            purgar();
+        }
+    }
+
+    public void invalidar(K clave) {
+        Entrada<V> anterior = entradas.remove(clave);
+        if (anterior != null) {
+            pesoTotal.addAndGet(-anterior.peso);
+        }
+    }
+
+    public void registrarAcierto() {
+        aciertos.increment();
+    }
+
+    public void registrarFallo() {
+        fallos.increment();
+    }
+
+    public long getAciertos() {
+        return aciertos.sum();
+    }
+
+    public long getFallos() {
+        return fallos.sum();
+    }
+
+    public int tamanio() {
+        return entradas.size();
+    }
+
+    /** Suma de los pesos de las entradas; cero si el cache no tiene función de peso */
+    public long getPeso() {
+        return pesoTotal.get();
+    }
+
+    /**
+     * Si otro hilo ya está purgando no se espera: el cache puede pasarse del máximo un momento.
+     */
+    private void purgar() {
+        if (!lockPurga.tryLock()) {
+            return;
+        }
+        try {
+            if (dentroDelObjetivo()) {
+                return;
+            }
+            // Se copia el último acceso antes de ordenar: las lecturas lo siguen cambiando
+            List<Candidata<K, V>> menosUsadas = new ArrayList<>(entradas.size());
+            for (Map.Entry<K, Entrada<V>> entrada : entradas.entrySet()) {
+                menosUsadas.add(new Candidata<>(entrada.getKey(), entrada.getValue()));
+            }
+            menosUsadas.sort((a, b) -> Long.compare(a.ultimoAcceso, b.ultimoAcceso));
+            for (Candidata<K, V> candidata : menosUsadas) {
+                if (dentroDelObjetivo()) {
+                    break;
+                }
+                if (entradas.remove(candidata.clave, candidata.entrada)) {
+                    pesoTotal.addAndGet(-candidata.entrada.peso);
+                }
+            }
+        } finally {
+            lockPurga.unlock();
+        }
+    }
+
+    /** Si la cantidad de entradas y el peso total ya están en tres cuartos de sus máximos */
+    private boolean dentroDelObjetivo() {
+        return entradas.size() <= maximo * 3 / 4 && pesoTotal.get() <= maximoPeso / 4 * 3;
+    }
+
+    private static final class Entrada<V> {
+        private final V valor;
+        private final long peso;
+        private volatile long ultimoAcceso;
+
+        private Entrada(V valor, long peso, long ultimoAcceso) {
+            this.valor = valor;
+            this.peso = peso;
+            this.ultimoAcceso = ultimoAcceso;
+        }
+    }
+
+    private static final class Candidata<K, V> {
+        private final K clave;
+        private final Entrada<V> entrada;
+        private final long ultimoAcceso;
+
+        private Candidata(K clave, Entrada<V> entrada) {
+            this.clave = clave;
+            this.entrada = entrada;
+            this.ultimoAcceso = entrada.ultimoAcceso;
+        }
+    }
+}
@@ -7,18 +7,25 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.function.Consumer;
 
 @Service
-public class ClienteDao extends AbstractBaseDao{
+public class ClienteDao extends AbstractBaseDao<ClienteEntity> {
 
     @Autowired
     CuentaDao cuentaDao;
 
     public Cliente find(long dni, boolean loadComplete) {
-        if (getInMemoryDatabase().get(dni) == null)
+        ClienteEntity entity = buscarEntidad(dni);
+        if (entity == null)
             return null;
-        Cliente cliente = ((ClienteEntity) getInMemoryDatabase().get(dni)).toCliente();
+        Cliente cliente = entity.toCliente();
         if (loadComplete) {
             for (Cuenta cuenta : cuentaDao.getCuentasByCliente(dni)) {
                 cliente.addCuenta(cuenta);
@@ -29,21 +36,74 @@ public class ClienteDao extends AbstractBaseDao{
 
     public void save(Cliente cliente) {
         ClienteEntity entity = new ClienteEntity(cliente);
-        getInMemoryDatabase().put(entity.getId(), entity);
+        guardarEntidad(entity);
+        cliente.setVersion(entity.getVersion());
+    }
+
+    /**
+     * Guarda el cliente solo si nadie lo modificó desde que se leyó, es decir, si la base
+     * sigue en {@link Cliente#getVersion()}. Un cliente nuevo (versión 0) solo se guarda si
+     * el DNI no existe. Si se guarda, el cliente queda con la versión nueva.
+     *
+     * @return false si otra escritura se adelantó; hay que volver a leerlo y reintentar
+     */
+    public boolean saveSiNoCambio(Cliente cliente) {
+        ClienteEntity entity = new ClienteEntity(cliente);
+        if (!guardarEntidadSiVersion(entity, cliente.getVersion())) {
+            return false;
+        }
+        cliente.setVersion(entity.getVersion());
+        return true;
+    }
+
+    /**
+     * Si la cuenta figura entre las cuentas guardadas con el cliente. A diferencia de
+     * {@link #find(long, boolean)}, que arma las cuentas con el índice por titular, no la
+     * encuentra hasta que el cliente se guarda con ella.
+     */
+    public boolean tieneCuentaGuardada(long dni, long numeroCuenta) {
+        ClienteEntity entity = buscarEntidad(dni);
+        return entity != null && entity.getCuentas() != null && entity.getCuentas().contains(numeroCuenta);
     }
 
     public void delete(long dni) {
-        if (getInMemoryDatabase().get(dni) == null) {
+        if (eliminarEntidad(dni) == null) {
             throw new IllegalArgumentException("El cliente no existe");
         }
-        getInMemoryDatabase().remove(dni);
     }
 
+    /**
+     * Devuelve todos los clientes con sus cuentas.
+     * Las cuentas se agrupan por titular en una sola pasada sobre la tabla de cuentas,
+     * en lugar de hacer una búsqueda por cliente.
+     */
     public List<Cliente> findAll() {
+        Map<Long, List<Cuenta>> cuentasPorTitular = cuentaDao.getCuentasAgrupadasPorTitular();
         List<Cliente> clientes = new ArrayList<>();
-        for (Object object : getInMemoryDatabase().values()) {
-            ClienteEntity clienteEntity = (ClienteEntity) object;
-            Cliente cliente = clienteEntity.toCliente();            
+        for (ClienteEntity clienteEntity : entidades()) {
+            Cliente cliente = clienteEntity.toCliente();
+            for (Cuenta cuenta : cuentasPorTitular.getOrDefault(cliente.getDni(), Collections.emptyList())) {
+                cliente.addCuenta(cuenta);
+            }
+            clientes.add(cliente);
+        }
+        return clientes;
+    }
+
+    /**
+     * Devuelve una página de clientes ordenados por DNI, con sus cuentas.
+     * La paginación es por cursor: la página siguiente empieza después del último DNI devuelto,
+     * así que no se ve afectada por altas o bajas entre una página y otra.
+     *
+     * @param despuesDeDni DNI a partir del cual empezar (exclusivo), o null para la primera página
+     * @param limite       Cantidad máxima de clientes a devolver
+     * @return Clientes de la página, con sus cuentas cargadas desde el índice por titular
+     */
+    public List<Cliente> findPagina(Long despuesDeDni, int limite) {
+        Iterator<ClienteEntity> desde = entidadesOrdenadasDesde(despuesDeDni);
+        List<Cliente> clientes = new ArrayList<>(Math.min(limite, 256));
+        while (clientes.size() < limite && desde.hasNext()) {
+            Cliente cliente = desde.next().toCliente();
             for (Cuenta cuenta : cuentaDao.getCuentasByCliente(cliente.getDni())) {
                 cliente.addCuenta(cuenta);
             }
@@ -52,8 +112,39 @@ public class ClienteDao extends AbstractBaseDao{
         return clientes;
     }
 
+    /**
+     * Recorre los clientes ordenados por DNI, con sus cuentas, y le pasa cada uno a
+     * {@code destino} a medida que lo arma. A diferencia de {@link #findAll()}, no junta
+     * los clientes en una lista ni agrupa antes todas las cuentas: las de cada cliente
+     * salen del índice por titular, así la memoria no crece con la cantidad de clientes.
+     *
+     * @param despuesDeDni DNI a partir del cual empezar (exclusivo), o null para empezar desde el principio
+     * @return Cantidad de clientes entregados
+     */
+    public int recorrer(Long despuesDeDni, Consumer<? super Cliente> destino) {
+        Iterator<ClienteEntity> desde = entidadesOrdenadasDesde(despuesDeDni);
+        int entregados = 0;
+        while (desde.hasNext()) {
+            Cliente cliente = desde.next().toCliente();
+            for (Cuenta cuenta : cuentaDao.getCuentasByCliente(cliente.getDni())) {
+                cliente.addCuenta(cuenta);
+            }
+            destino.accept(cliente);
+            entregados++;
+        }
+        return entregados;
+    }
+
     @Override
     protected String getEntityName() {
         return "CLIENTE";
     }
-}
\ No newline at end of file
+
+    /**
+     * La tabla de clientes se mantiene ordenada por DNI para poder paginar por cursor.
+     */
+    @Override
+    protected ConcurrentMap<Long, ClienteEntity> crearTabla() {
+        return new ConcurrentSkipListMap<>();
+    }
+}
@@ -1,41 +1,366 @@
 package ar.edu.utn.frbb.tup.persistence;
 
+import ar.edu.utn.frbb.tup.metricas.SinMetricas;
 import ar.edu.utn.frbb.tup.model.Cuenta;
+import ar.edu.utn.frbb.tup.model.Movimiento;
+import ar.edu.utn.frbb.tup.model.TipoOperacion;
 import ar.edu.utn.frbb.tup.persistence.entity.CuentaEntity;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
+import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.Consumer;
 
+/**
+ * DAO de cuentas.
+ * Delante de la tabla hay un cache de cuentas ya armadas, para no reconstruir cada
+ * {@link Cuenta} desde su entidad en cada lectura. Como las cuentas se modifican, el cache
+ * nunca entrega su instancia sino una copia ({@link Cuenta#copiar()}). Cada entrada recuerda
+ * la entidad de la que salió y solo se usa si la tabla todavía tiene esa misma entidad, así
+ * que cualquier escritura (un save, una baja, la recuperación desde disco) la deja sin efecto
+ * sin tener que invalidarla. Los registros fríos no se cachean hasta que se vuelven a escribir.
+ * <p>
+ * Las lecturas sin lock ({@link #find(long)}, {@link #findBalanceCentavos(long)}) ven las
+ * patas de un asiento todas juntas: {@link #saveAll(List)} marca las franjas de sus cuentas
+ * mientras las aplica (un contador por franja que queda impar), y la lectura espera a que la
+ * franja esté par y sin cambios antes y después de leer.
+ */
 @Component
-public class CuentaDao  extends AbstractBaseDao{
+public class CuentaDao extends AbstractBaseDao<CuentaEntity> {
+
+    private static final String INDICE_TITULAR = "titular";
+
+    /** Tamaño del cache por defecto, con Spring y fuera de Spring (tests, benchmarks) */
+    static final int MAXIMO_CACHE = 100_000;
+
+    /**
+     * Contador por franja de locks de escritura, impar mientras un asiento está aplicando sus
+     * patas. Solo lo cambia quien tiene el lock de la franja.
+     */
+    private static final AtomicLongArray publicacionesPorFranja = new AtomicLongArray(STRIPES_ESCRITURA);
+
+    private final MovimientoDao movimientoDao;
+
+    private final CacheLru<Long, CuentaCacheada> cache;
+
+    public CuentaDao(MovimientoDao movimientoDao) {
+        this(movimientoDao, MAXIMO_CACHE);
+    }
+
+    /**
+     * @param maximoCache cantidad de cuentas en cache; cero lo deshabilita
+     */
+    @Autowired
+    public CuentaDao(MovimientoDao movimientoDao,
+                     @Value("${banco.cache.cuentas-maximo:" + MAXIMO_CACHE + "}") int maximoCache) {
+        this.movimientoDao = movimientoDao;
+        this.cache = new CacheLru<>(maximoCache);
+    }
+
     @Override
     protected String getEntityName() {
         return "CUENTA";
     }
 
+    /**
+     * Número para una cuenta nueva. Nunca repite uno ya entregado, así que no hace falta
+     * buscarlo antes de dar de alta la cuenta.
+     */
+    public long siguienteNumeroCuenta() {
+        return siguienteId();
+    }
+
+    /**
+     * Guarda la cuenta y agrega al historial solo los movimientos nuevos;
+     * los que ya estaban guardados no se vuelven a copiar.
+     */
     public void save(Cuenta cuenta) {
+        long numeroCuenta = cuenta.getNumeroCuenta();
         CuentaEntity entity = new CuentaEntity(cuenta);
-        getInMemoryDatabase().put(entity.getId(), entity);
+        // Con el lock de la cuenta tomado (primero cuentas, después historiales, como saveAll),
+        // si la cuenta no llega al diario también se descartan sus movimientos nuevos
+        conLocksEscritura(new long[]{numeroCuenta}, () -> {
+            int movimientosPrevios = movimientoDao.contarPorCuenta(numeroCuenta);
+            movimientoDao.agregar(numeroCuenta, cuenta.getMovimientosNuevos());
+            try {
+                guardarEntidad(entity);
+            } catch (RuntimeException e) {
+                movimientoDao.conLocksEscritura(new long[]{numeroCuenta}, () -> {
+                    movimientoDao.descartarMovimientos(numeroCuenta, movimientosPrevios);
+                    return null;
+                });
+                throw e;
+            }
+            return null;
+        });
+        cuenta.marcarMovimientosPersistidos();
+        cuenta.setVersion(entity.getVersion());
+        // La próxima lectura sale del cache sin volver a armar la cuenta
+        cache.guardar(entity.getId(), new CuentaCacheada(entity, cuenta.copiar()));
+    }
+
+    /**
+     * Guarda varias cuentas como un único cambio, por ejemplo las dos patas de una transferencia.
+     * Los cambios se aplican y se registran en el diario con los locks de escritura de todas
+     * las cuentas tomados, en un solo asiento: al recuperar se aplican todos o ninguno, y
+     * hay una sola espera hasta que son durables en lugar de una por cuenta. La espera se hace
+     * con los locks tomados: si el asiento no llega al diario, las cuentas y sus historiales
+     * vuelven a como estaban antes de soltarlos.
+     * Las patas se publican juntas para las lecturas sin lock: mientras se aplican (o se
+     * deshacen) las franjas de las cuentas quedan marcadas y esas lecturas esperan, así nunca
+     * ven el débito de una transferencia sin el crédito. La marca no incluye la espera del
+     * diario, solo la aplicación en memoria.
+     */
+    public void saveAll(List<Cuenta> cuentas) {
+        if (cuentas.size() == 1) {
+            save(cuentas.get(0));
+            return;
+        }
+        long[] numerosCuenta = new long[cuentas.size()];
+        List<Asiento.Pata> patas = new ArrayList<>(cuentas.size());
+        for (int i = 0; i < cuentas.size(); i++) {
+            Cuenta cuenta = cuentas.get(i);
+            numerosCuenta[i] = cuenta.getNumeroCuenta();
+            patas.add(new Asiento.Pata(new CuentaEntity(cuenta), MovimientoDao.aEntidades(cuenta.getMovimientosNuevos())));
+        }
+        Asiento asiento = new Asiento(patas);
+
+        // Igual que save: siempre primero las franjas de las cuentas y después las de los historiales,
+        // así dos escrituras que tocan las mismas cuentas nunca se bloquean mutuamente
+        conLocksEscritura(numerosCuenta, () -> movimientoDao.conLocksEscritura(numerosCuenta, () -> {
+            List<EstadoClave<CuentaEntity>> cuentasPrevias = new ArrayList<>(numerosCuenta.length);
+            int[] movimientosPrevios = new int[numerosCuenta.length];
+            for (int i = 0; i < numerosCuenta.length; i++) {
+                cuentasPrevias.add(leerEstado(numerosCuenta[i]));
+                movimientosPrevios[i] = movimientoDao.contarPorCuenta(numerosCuenta[i]);
+            }
+            BitSet franjas = franjas(numerosCuenta);
+            marcarFranjas(franjas);
+            try {
+                for (Asiento.Pata pata : asiento.getPatas()) {
+                    movimientoDao.aplicarMovimientos(pata.getCuenta().getId(), pata.getMovimientos());
+                    aplicarGuardado(pata.getCuenta());
+                }
+            } finally {
+                marcarFranjas(franjas);
+            }
+            try {
+                getDiario().registrarAsiento(asiento).esperar();
+            } catch (RuntimeException e) {
+                marcarFranjas(franjas);
+                try {
+                    // En orden inverso, por si una cuenta aparece en más de una pata
+                    for (int i = numerosCuenta.length - 1; i >= 0; i--) {
+                        restaurarEstado(numerosCuenta[i], cuentasPrevias.get(i));
+                        movimientoDao.descartarMovimientos(numerosCuenta[i], movimientosPrevios[i]);
+                    }
+                } finally {
+                    marcarFranjas(franjas);
+                }
+                throw e;
+            }
+            return null;
+        }));
+
+        for (int i = 0; i < cuentas.size(); i++) {
+            Cuenta cuenta = cuentas.get(i);
+            cuenta.marcarMovimientosPersistidos();
+            CuentaEntity entity = asiento.getPatas().get(i).getCuenta();
+            cuenta.setVersion(entity.getVersion());
+            cache.guardar(entity.getId(), new CuentaCacheada(entity, cuenta.copiar()));
+        }
     }
 
     public Cuenta find(long id) {
-        if (getInMemoryDatabase().get(id) == null) {
+        CuentaEntity entity = buscarEntidadPublicada(id);
+        if (entity == null) {
             return null;
         }
-        return ((CuentaEntity) getInMemoryDatabase().get(id)).toCuenta();
+        return hidratar(entity);
+    }
+
+    /**
+     * Saldo en centavos tal como está en la tabla, sin armar la cuenta ni tomar locks.
+     * Cada escritura reemplaza la entidad entera, así que se lee el saldo de la última
+     * operación terminada; si la cuenta es parte de un asiento que se está aplicando, se
+     * espera a que estén todas sus patas (ver {@link #saveAll(List)}).
+     *
+     * @return null si la cuenta no existe
+     */
+    public Long findBalanceCentavos(long numeroCuenta) {
+        CuentaEntity entity = buscarEntidadPublicada(numeroCuenta);
+        return entity != null ? entity.getBalance() : null;
+    }
+
+    /**
+     * Lee la entidad sin lock, pero no en medio de un asiento que toca su franja: reintenta
+     * hasta leerla con el contador de la franja par y sin cambios.
+     */
+    private CuentaEntity buscarEntidadPublicada(long numeroCuenta) {
+        int franja = indiceLockEscritura(numeroCuenta);
+        while (true) {
+            long antes = publicacionesPorFranja.get(franja);
+            if ((antes & 1) == 0) {
+                CuentaEntity entity = buscarEntidad(numeroCuenta);
+                if (publicacionesPorFranja.get(franja) == antes) {
+                    return entity;
+                }
+            }
+            // Un asiento tarda lo que lleva aplicar sus patas en memoria
+            Thread.onSpinWait();
+        }
+    }
+
+    private static BitSet franjas(long[] numerosCuenta) {
+        BitSet franjas = new BitSet(STRIPES_ESCRITURA);
+        for (long numeroCuenta : numerosCuenta) {
+            franjas.set(indiceLockEscritura(numeroCuenta));
+        }
+        return franjas;
+    }
+
+    /** Abre o cierra la marca de las franjas; se llama con sus locks de escritura tomados */
+    private static void marcarFranjas(BitSet franjas) {
+        for (int franja = franjas.nextSetBit(0); franja >= 0; franja = franjas.nextSetBit(franja + 1)) {
+            publicacionesPorFranja.incrementAndGet(franja);
+        }
+    }
+
+    public void delete(long numeroCuenta) {
+        if (eliminarEntidad(numeroCuenta) == null) {
+            throw new IllegalArgumentException("La cuenta no existe");
+        }
+        cache.invalidar(numeroCuenta);
+        movimientoDao.deleteByCuenta(numeroCuenta);
+    }
+
+    /**
+     * Arma la cuenta de la entidad, o la copia del cache si la entidad es la misma de la que
+     * salió la entrada. Solo se cachean las entidades que están en memoria: las frías se
+     * decodifican en cada lectura y nunca serían la misma instancia.
+     */
+    private Cuenta hidratar(CuentaEntity entity) {
+        CuentaCacheada cacheada = cache.obtener(entity.getId());
+        if (cacheada != null && cacheada.entity == entity) {
+            cache.registrarAcierto();
+            return cacheada.cuenta.copiar();
+        }
+        cache.registrarFallo();
+        Cuenta cuenta = entity.toCuenta();
+        if (getInMemoryDatabase().get(entity.getId()) == entity) {
+            cache.guardar(entity.getId(), new CuentaCacheada(entity, cuenta.copiar()));
+        }
+        return cuenta;
+    }
+
+    /**
+     * Lecturas resueltas desde el cache, para métricas.
+     */
+    @SinMetricas
+    public long getAciertosCache() {
+        return cache.getAciertos();
+    }
+
+    /**
+     * Lecturas que tuvieron que armar la cuenta desde la entidad, para métricas.
+     */
+    @SinMetricas
+    public long getFallosCache() {
+        return cache.getFallos();
+    }
+
+    @SinMetricas
+    public int getTamanioCache() {
+        return cache.tamanio();
+    }
+
+    /**
+     * Historial completo de movimientos de la cuenta, en orden cronológico.
+     */
+    public List<Movimiento> findMovimientos(long numeroCuenta) {
+        return movimientoDao.findByCuenta(numeroCuenta);
+    }
+
+    /**
+     * Movimientos de la cuenta filtrados por cursor, rango de fechas y tipo, resueltos con
+     * los índices del historial. Ver {@link MovimientoDao#findByCuenta(long, Long, LocalDateTime, LocalDateTime, TipoOperacion, int)}.
+     */
+    public List<Movimiento> findMovimientos(long numeroCuenta, Long despuesDeId, LocalDateTime desde,
+                                            LocalDateTime hasta, TipoOperacion tipo, int limite) {
+        return movimientoDao.findByCuenta(numeroCuenta, despuesDeId, desde, hasta, tipo, limite);
+    }
+
+    /**
+     * Recorre los movimientos filtrados sin armar una lista. Ver
+     * {@link MovimientoDao#recorrerPorCuenta(long, Long, LocalDateTime, LocalDateTime, TipoOperacion, int, Consumer)}.
+     */
+    public int recorrerMovimientos(long numeroCuenta, Long despuesDeId, LocalDateTime desde, LocalDateTime hasta,
+                                   TipoOperacion tipo, Consumer<? super Movimiento> destino) {
+        return movimientoDao.recorrerPorCuenta(numeroCuenta, despuesDeId, desde, hasta, tipo, Integer.MAX_VALUE, destino);
     }
 
     public List<Cuenta> getCuentasByCliente(long dni) {
-    List<Cuenta> cuentasDelCliente = new ArrayList<>();
-    for (Object object : getInMemoryDatabase().values()) {
-        CuentaEntity cuenta = ((CuentaEntity) object);
-        
-        // Chequea que el titular no sea null
-        if (cuenta.getTitular() != null && cuenta.getTitular().equals(dni)) {
-            cuentasDelCliente.add(cuenta.toCuenta());
+        List<Cuenta> cuentasDelCliente = new ArrayList<>();
+        // Usa el índice por titular en lugar de recorrer toda la tabla
+        for (Long numeroCuenta : indicePorTitular().buscar(dni)) {
+            CuentaEntity cuenta = buscarEntidad(numeroCuenta);
+            if (cuenta != null) {
+                cuentasDelCliente.add(hidratar(cuenta));
+            }
+        }
+        return cuentasDelCliente;
+    }
+
+    /**
+     * Agrupa todas las cuentas por DNI del titular en una sola pasada sobre la tabla.
+     * Pensado para cargas masivas, como el listado completo de clientes.
+     */
+    public Map<Long, List<Cuenta>> getCuentasAgrupadasPorTitular() {
+        Map<Long, List<Cuenta>> cuentasPorTitular = new HashMap<>();
+        for (CuentaEntity cuenta : entidades()) {
+            if (cuenta.getTitular() != null) {
+                cuentasPorTitular.computeIfAbsent(cuenta.getTitular(), dni -> new ArrayList<>())
+                        .add(cuenta.toCuenta());
+            }
+        }
+        return cuentasPorTitular;
+    }
+
+    @Override
+    protected boolean mantieneIndices() {
+        return true;
+    }
+
+    @Override
+    protected void actualizarIndices(CuentaEntity anterior, CuentaEntity nueva) {
+        long numeroCuenta = anterior != null ? anterior.getId() : nueva.getId();
+        indicePorTitular().actualizar(
+                anterior != null ? anterior.getTitular() : null,
+                nueva != null ? nueva.getTitular() : null,
+                numeroCuenta);
+    }
+
+    private IndiceSecundario<Long> indicePorTitular() {
+        return getIndice(INDICE_TITULAR);
+    }
+
+    /**
+     * Cuenta armada junto con la entidad de la que salió.
+     */
+    private static final class CuentaCacheada {
+        private final CuentaEntity entity;
+        private final Cuenta cuenta;
+
+        private CuentaCacheada(CuentaEntity entity, Cuenta cuenta) {
+            this.entity = entity;
+            this.cuenta = cuenta;
         }
     }
-    return cuentasDelCliente;
-}
 }
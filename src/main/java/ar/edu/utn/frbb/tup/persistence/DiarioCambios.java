@@ -0,0 +1,63 @@
+package ar.edu.utn.frbb.tup.persistence;
+
+import ar.edu.utn.frbb.tup.persistence.entity.BaseEntity;
+import ar.edu.utn.frbb.tup.persistence.entity.MovimientoEntity;
+
+import java.util.List;
+
+/**
+ * Destino de las mutaciones de los DAOs para hacerlas durables (por ejemplo, un write-ahead log).
+ * Los DAOs registran cada cambio después de aplicarlo en memoria y con la fila bloqueada,
+ * así el orden del diario coincide con el orden de las escrituras sobre una misma clave.
+ * Registrar no bloquea: la espera hasta que el cambio es durable se hace con la
+ * confirmación devuelta, todavía con la fila bloqueada, para que el DAO pueda deshacer el
+ * cambio en memoria si el diario falla (al registrar o al esperar) sin que otra escritura
+ * lo haya usado.
+ */
+public interface DiarioCambios {
+
+    /** Diario que no persiste nada, usado mientras no haya uno configurado */
+    DiarioCambios NINGUNO = new DiarioCambios() {
+        @Override
+        public Confirmacion registrarGuardado(String tabla, BaseEntity entidad) {
+            return Confirmacion.INMEDIATA;
+        }
+
+        @Override
+        public Confirmacion registrarBorrado(String tabla, long id) {
+            return Confirmacion.INMEDIATA;
+        }
+
+        @Override
+        public Confirmacion registrarMovimientos(long numeroCuenta, List<MovimientoEntity> movimientos) {
+            return Confirmacion.INMEDIATA;
+        }
+
+        @Override
+        public Confirmacion registrarAsiento(Asiento asiento) {
+            return Confirmacion.INMEDIATA;
+        }
+    };
+
+    Confirmacion registrarGuardado(String tabla, BaseEntity entidad);
+
+    Confirmacion registrarBorrado(String tabla, long id);
+
+    Confirmacion registrarMovimientos(long numeroCuenta, List<MovimientoEntity> movimientos);
+
+    /**
+     * Registra los cambios de varias cuentas como un único cambio: al recuperar se aplican
+     * todos o ninguno.
+     */
+    Confirmacion registrarAsiento(Asiento asiento);
+
+    /**
+     * Permite esperar a que un cambio registrado sea durable según la política del diario.
+     */
+    @FunctionalInterface
+    interface Confirmacion {
+        Confirmacion INMEDIATA = () -> { };
+
+        void esperar();
+    }
+}
@@ -0,0 +1,62 @@
+package ar.edu.utn.frbb.tup.persistence;
+
+import java.util.Collections;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Índice secundario en memoria: de un valor de clave al conjunto de ids de entidades que lo tienen.
+ * Cada clave se actualiza de forma atómica con compute, así que altas y bajas concurrentes
+ * sobre la misma clave no se pisan y los conjuntos vacíos se eliminan sin carreras.
+ *
+ * @param <K> tipo de la clave indexada
+ */
+public class IndiceSecundario<K> {
+
+    private final ConcurrentMap<K, Set<Long>> entradas = new ConcurrentHashMap<>();
+
+    public void agregar(K clave, long id) {
+        if (clave == null) {
+            return;
+        }
+        entradas.compute(clave, (k, ids) -> {
+            Set<Long> resultado = ids != null ? ids : ConcurrentHashMap.newKeySet();
+            resultado.add(id);
+            return resultado;
+        });
+    }
+
+    public void quitar(K clave, long id) {
+        if (clave == null) {
+            return;
+        }
+        entradas.computeIfPresent(clave, (k, ids) -> {
+            ids.remove(id);
+            return ids.isEmpty() ? null : ids;
+        });
+    }
+
+    /**
+     * Mueve el id de una clave a otra. No hace nada si la clave no cambió.
+     */
+    public void actualizar(K claveAnterior, K claveNueva, long id) {
+        if (claveAnterior != null && claveAnterior.equals(claveNueva)) {
+            return;
+        }
+        quitar(claveAnterior, id);
+        agregar(claveNueva, id);
+    }
+
+    /**
+     * Ids asociados a la clave. La vista es de solo lectura y débilmente consistente.
+     */
+    public Set<Long> buscar(K clave) {
+        Set<Long> ids = clave != null ? entradas.get(clave) : null;
+        return ids != null ? Collections.unmodifiableSet(ids) : Collections.emptySet();
+    }
+
+    public void limpiar() {
+        entradas.clear();
+    }
+}
@@ -0,0 +1,257 @@
+package ar.edu.utn.frbb.tup.persistence;
+
+import ar.edu.utn.frbb.tup.metricas.SinMetricas;
+import ar.edu.utn.frbb.tup.model.Movimiento;
+import ar.edu.utn.frbb.tup.model.TipoOperacion;
+import ar.edu.utn.frbb.tup.persistence.entity.HistorialMovimientosEntity;
+import ar.edu.utn.frbb.tup.persistence.entity.MovimientoEntity;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+
+/**
+ * Guarda los movimientos de cada cuenta en un historial propio, separado de la cuenta.
+ * El historial es de solo agregado: guardar una cuenta agrega únicamente sus movimientos nuevos
+ * y cargar una cuenta no necesita leer su historial.
+ */
+@Component
+public class MovimientoDao extends AbstractBaseDao<HistorialMovimientosEntity> {
+
+    /** Movimientos de todos los historiales; compartido como la tabla, para leerlo sin recorrerla */
+    private static final AtomicLong totalMovimientos = new AtomicLong();
+
+    @Override
+    protected String getEntityName() {
+        return "MOVIMIENTO";
+    }
+
+    /**
+     * Agrega movimientos al final del historial de la cuenta.
+     *
+     * @param numeroCuenta Cuenta dueña de los movimientos
+     * @param nuevos       Movimientos todavía no persistidos, en orden cronológico
+     */
+    public void agregar(long numeroCuenta, List<Movimiento> nuevos) {
+        if (nuevos.isEmpty()) {
+            return;
+        }
+        List<MovimientoEntity> entidades = aEntidades(nuevos);
+        ReentrantLock lock = lockEscritura(numeroCuenta);
+        lock.lock();
+        try {
+            int cantidadPrevia = contarPorCuenta(numeroCuenta);
+            aplicarMovimientos(numeroCuenta, entidades);
+            try {
+                getDiario().registrarMovimientos(numeroCuenta, entidades).esperar();
+            } catch (RuntimeException e) {
+                // Sin registro en el diario, el historial no puede quedar con los movimientos
+                descartarMovimientos(numeroCuenta, cantidadPrevia);
+                throw e;
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    static List<MovimientoEntity> aEntidades(List<Movimiento> movimientos) {
+        List<MovimientoEntity> entidades = new ArrayList<>(movimientos.size());
+        for (Movimiento movimiento : movimientos) {
+            entidades.add(new MovimientoEntity(movimiento));
+        }
+        return entidades;
+    }
+
+    /**
+     * Agrega los movimientos al historial en memoria, sin registrarlos en el diario.
+     * Se llama con el lock de escritura de la cuenta tomado.
+     */
+    void aplicarMovimientos(long numeroCuenta, List<MovimientoEntity> entidades) {
+        if (entidades.isEmpty()) {
+            return;
+        }
+        getInMemoryDatabase()
+                .computeIfAbsent(numeroCuenta, HistorialMovimientosEntity::new)
+                .agregar(entidades);
+        totalMovimientos.addAndGet(entidades.size());
+    }
+
+    /**
+     * Deja el historial de la cuenta con sus primeros {@code cantidad} movimientos, para
+     * deshacer un agregado que no llegó al diario.
+     * Se llama con el lock de escritura de la cuenta tomado.
+     */
+    void descartarMovimientos(long numeroCuenta, int cantidad) {
+        HistorialMovimientosEntity historial = getInMemoryDatabase().get(numeroCuenta);
+        if (historial != null) {
+            int previa = historial.getCantidad();
+            historial.descartarDesde(cantidad);
+            totalMovimientos.addAndGet(historial.getCantidad() - previa);
+        }
+    }
+
+    /**
+     * Agrega movimientos recuperados del disco, sin volver a registrarlos en el diario.
+     * Ignora los que el historial ya tiene (id menor o igual al último), así reaplicar
+     * un tramo del log que ya estaba incluido en un snapshot no duplica movimientos.
+     */
+    @SinMetricas
+    public void restaurarMovimientos(long numeroCuenta, List<MovimientoEntity> movimientos) {
+        HistorialMovimientosEntity historial =
+                getInMemoryDatabase().computeIfAbsent(numeroCuenta, HistorialMovimientosEntity::new);
+        int cantidad = historial.getCantidad();
+        long ultimoId = cantidad > 0 ? historial.getMovimiento(cantidad - 1).getId() : Long.MIN_VALUE;
+        List<MovimientoEntity> faltantes = new ArrayList<>(movimientos.size());
+        for (MovimientoEntity movimiento : movimientos) {
+            if (movimiento.getId() > ultimoId) {
+                faltantes.add(movimiento);
+            }
+        }
+        historial.agregar(faltantes);
+        totalMovimientos.addAndGet(faltantes.size());
+    }
+
+    public List<Movimiento> findByCuenta(long numeroCuenta) {
+        HistorialMovimientosEntity historial = buscarEntidad(numeroCuenta);
+        if (historial == null) {
+            return Collections.emptyList();
+        }
+        List<Movimiento> movimientos = new ArrayList<>(historial.getCantidad());
+        for (MovimientoEntity entity : historial.getMovimientos()) {
+            movimientos.add(entity.toMovimiento());
+        }
+        return movimientos;
+    }
+
+    /**
+     * Busca movimientos de una cuenta usando los índices del historial, sin recorrerlo entero.
+     * Los resultados vienen en orden cronológico. Todos los filtros son opcionales.
+     *
+     * @param numeroCuenta Cuenta a consultar
+     * @param despuesDeId  Cursor: id del último movimiento ya leído (exclusivo)
+     * @param desde        Fecha mínima (inclusiva)
+     * @param hasta        Fecha máxima (inclusiva)
+     * @param tipo         Tipo de operación buscado
+     * @param limite       Cantidad máxima de movimientos a devolver
+     * @return Movimientos que cumplen todos los filtros
+     */
+    public List<Movimiento> findByCuenta(long numeroCuenta, Long despuesDeId, LocalDateTime desde,
+                                         LocalDateTime hasta, TipoOperacion tipo, int limite) {
+        List<Movimiento> movimientos = new ArrayList<>(Math.min(Math.max(limite, 0), 1024));
+        recorrerPorCuenta(numeroCuenta, despuesDeId, desde, hasta, tipo, limite, movimientos::add);
+        return movimientos;
+    }
+
+    /**
+     * Como {@link #findByCuenta(long, Long, LocalDateTime, LocalDateTime, TipoOperacion, int)},
+     * pero le pasa cada movimiento a {@code destino} a medida que lo lee, sin armar una lista:
+     * sirve para recorrer historiales largos con memoria constante. Recorre el historial hasta
+     * la cantidad publicada al empezar; lo que se agregue mientras tanto no se incluye.
+     *
+     * @return Cantidad de movimientos entregados
+     */
+    public int recorrerPorCuenta(long numeroCuenta, Long despuesDeId, LocalDateTime desde, LocalDateTime hasta,
+                                 TipoOperacion tipo, int limite, Consumer<? super Movimiento> destino) {
+        HistorialMovimientosEntity historial = buscarEntidad(numeroCuenta);
+        if (historial == null || limite <= 0) {
+            return 0;
+        }
+
+        // Acota el rango de posiciones con búsquedas binarias sobre la cantidad publicada
+        int cantidad = historial.getCantidad();
+        int inicio = 0;
+        if (despuesDeId != null) {
+            inicio = historial.primeraPosicionConIdMayorA(despuesDeId, cantidad);
+        }
+        if (desde != null) {
+            inicio = Math.max(inicio, historial.primeraPosicionDesde(desde, true, cantidad));
+        }
+        int fin = hasta != null ? historial.primeraPosicionDesde(hasta, false, cantidad) : cantidad;
+
+        int entregados = 0;
+        if (tipo == null) {
+            for (int posicion = inicio; posicion < fin && entregados < limite; posicion++, entregados++) {
+                destino.accept(historial.getMovimiento(posicion).toMovimiento());
+            }
+            return entregados;
+        }
+
+        // Con filtro por tipo recorre solo las posiciones de ese tipo
+        int cantidadTipo = historial.getCantidadDeTipo(tipo);
+        for (int i = historial.primerIndiceDeTipoDesde(tipo, inicio); i < cantidadTipo && entregados < limite; i++, entregados++) {
+            int posicion = historial.getPosicionDeTipo(tipo, i);
+            if (posicion >= fin) {
+                break;
+            }
+            destino.accept(historial.getMovimiento(posicion).toMovimiento());
+        }
+        return entregados;
+    }
+
+    public int contarPorCuenta(long numeroCuenta) {
+        HistorialMovimientosEntity historial = buscarEntidad(numeroCuenta);
+        return historial != null ? historial.getCantidad() : 0;
+    }
+
+    /**
+     * Saldo en centavos que resulta del historial de la cuenta, partiendo del último checkpoint.
+     * Sin historial es 0.
+     */
+    public long saldoSegunMovimientos(long numeroCuenta) {
+        HistorialMovimientosEntity historial = buscarEntidad(numeroCuenta);
+        return historial != null ? historial.saldoHasta(historial.getCantidad()) : 0;
+    }
+
+    /**
+     * Saldo en centavos que resulta de recorrer el historial entero, sin checkpoints.
+     * Sin historial es 0.
+     */
+    public long recalcularSaldo(long numeroCuenta) {
+        HistorialMovimientosEntity historial = buscarEntidad(numeroCuenta);
+        return historial != null ? historial.recalcularSaldo(historial.getCantidad()) : 0;
+    }
+
+    public void deleteByCuenta(long numeroCuenta) {
+        eliminarEntidad(numeroCuenta);
+    }
+
+    /**
+     * Mantiene el total de movimientos cuando un historial entero entra o sale de la tabla:
+     * al borrar la cuenta, al deshacer ese borrado o al reaplicarlo desde el diario.
+     */
+    @Override
+    protected void actualizarIndices(HistorialMovimientosEntity anterior, HistorialMovimientosEntity nueva) {
+        long diferencia = (nueva != null ? nueva.getCantidad() : 0) - (anterior != null ? anterior.getCantidad() : 0);
+        if (diferencia != 0) {
+            totalMovimientos.addAndGet(diferencia);
+        }
+    }
+
+    /**
+     * Total de movimientos de todos los historiales. Es un contador que se actualiza en cada
+     * escritura, así que leerlo no recorre la tabla.
+     */
+    @SinMetricas
+    public long contarMovimientos() {
+        return totalMovimientos.get();
+    }
+
+    /**
+     * Cantidad de movimientos del historial más largo. Recorre la tabla, pero solo lee la
+     * cantidad publicada de cada historial: los historiales siempre están en memoria (el
+     * snapshot los guarda como registros sueltos, no en una capa fría).
+     */
+    @SinMetricas
+    public int maximoMovimientosPorCuenta() {
+        int maximo = 0;
+        for (HistorialMovimientosEntity historial : getInMemoryDatabase().values()) {
+            maximo = Math.max(maximo, historial.getCantidad());
+        }
+        return maximo;
+    }
+}
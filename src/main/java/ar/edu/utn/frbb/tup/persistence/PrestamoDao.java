@@ -1,15 +1,19 @@
 package ar.edu.utn.frbb.tup.persistence;
 
+import ar.edu.utn.frbb.tup.model.EstadoPrestamo;
 import ar.edu.utn.frbb.tup.model.Prestamo;
 import ar.edu.utn.frbb.tup.persistence.entity.PrestamoEntity;
 import org.springframework.stereotype.Component;
 
 import java.util.ArrayList;
 import java.util.List;
-import java.util.Random;
+import java.util.Set;
 
 @Component
-public class PrestamoDao extends AbstractBaseDao {
+public class PrestamoDao extends AbstractBaseDao<PrestamoEntity> {
+
+    private static final String INDICE_CLIENTE = "numeroCliente";
+    private static final String INDICE_ESTADO = "estado";
 
     @Override
     protected String getEntityName() {
@@ -18,36 +22,109 @@ public class PrestamoDao extends AbstractBaseDao {
 
     public void save(Prestamo prestamo) {
         if (prestamo.getId() == null) {
-            prestamo.setId(Math.abs(new Random().nextLong()));
+            prestamo.setId(siguienteId());
         }
         PrestamoEntity entity = new PrestamoEntity(prestamo);
-        getInMemoryDatabase().put(entity.getId(), entity);
+        guardarEntidad(entity);
+        prestamo.setVersion(entity.getVersion());
     }
 
     public Prestamo find(long id) {
-        if (getInMemoryDatabase().get(id) == null) {
+        PrestamoEntity entity = buscarEntidad(id);
+        if (entity == null) {
             return null;
         }
-        return ((PrestamoEntity) getInMemoryDatabase().get(id)).toPrestamo();
+        return entity.toPrestamo();
     }
 
     public List<Prestamo> findByNumeroCliente(long numeroCliente) {
         List<Prestamo> prestamosDelCliente = new ArrayList<>();
-        for (Object object : getInMemoryDatabase().values()) {
-            PrestamoEntity prestamo = ((PrestamoEntity) object);
-            if (prestamo.getNumeroCliente().equals(numeroCliente)) {
+        for (Long id : indicePorCliente().buscar(numeroCliente)) {
+            PrestamoEntity prestamo = buscarEntidad(id);
+            if (prestamo != null) {
                 prestamosDelCliente.add(prestamo.toPrestamo());
             }
         }
         return prestamosDelCliente;
     }
 
+    /**
+     * Busca los préstamos de un cliente que estén en alguno de los estados indicados.
+     * Cruza el índice por cliente con el índice por estado y no reconstruye el plan de pagos,
+     * así que sirve para consultas de resumen.
+     *
+     * @param numeroCliente DNI del cliente
+     * @param estados       Estados buscados
+     * @return Préstamos que cumplen ambos criterios, sin plan de pagos
+     */
+    public List<Prestamo> findByNumeroClienteYEstados(long numeroCliente, Set<EstadoPrestamo> estados) {
+        List<Prestamo> prestamos = new ArrayList<>();
+        for (Long id : indicePorCliente().buscar(numeroCliente)) {
+            if (!tieneAlgunEstado(id, estados)) {
+                continue;
+            }
+            PrestamoEntity prestamo = buscarEntidad(id);
+            if (prestamo != null) {
+                prestamos.add(prestamo.toPrestamo());
+            }
+        }
+        return prestamos;
+    }
+
+    /**
+     * Busca todos los préstamos en un estado, usando el índice por estado.
+     */
+    public List<Prestamo> findByEstado(EstadoPrestamo estado) {
+        List<Prestamo> prestamos = new ArrayList<>();
+        for (Long id : indicePorEstado().buscar(estado)) {
+            PrestamoEntity prestamo = buscarEntidad(id);
+            if (prestamo != null) {
+                prestamos.add(prestamo.toPrestamo());
+            }
+        }
+        return prestamos;
+    }
+
     public List<Prestamo> findAll() {
         List<Prestamo> prestamos = new ArrayList<>();
-        for (Object object : getInMemoryDatabase().values()) {
-            PrestamoEntity prestamoEntity = (PrestamoEntity) object;
+        for (PrestamoEntity prestamoEntity : entidades()) {
             prestamos.add(prestamoEntity.toPrestamo());
         }
         return prestamos;
     }
-}
\ No newline at end of file
+
+    @Override
+    protected boolean mantieneIndices() {
+        return true;
+    }
+
+    @Override
+    protected void actualizarIndices(PrestamoEntity anterior, PrestamoEntity nuevo) {
+        long id = anterior != null ? anterior.getId() : nuevo.getId();
+        indicePorCliente().actualizar(
+                anterior != null ? anterior.getNumeroCliente() : null,
+                nuevo != null ? nuevo.getNumeroCliente() : null,
+                id);
+        indicePorEstado().actualizar(
+                anterior != null ? anterior.getEstado() : null,
+                nuevo != null ? nuevo.getEstado() : null,
+                id);
+    }
+
+    private boolean tieneAlgunEstado(long id, Set<EstadoPrestamo> estados) {
+        for (EstadoPrestamo estado : estados) {
+            if (indicePorEstado().buscar(estado).contains(id)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private IndiceSecundario<Long> indicePorCliente() {
+        return getIndice(INDICE_CLIENTE);
+    }
+
+    private IndiceSecundario<EstadoPrestamo> indicePorEstado() {
+        return getIndice(INDICE_ESTADO);
+    }
+}
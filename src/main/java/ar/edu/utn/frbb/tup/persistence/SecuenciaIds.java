@@ -0,0 +1,84 @@
+package ar.edu.utn.frbb.tup.persistence;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Genera ids crecientes para una tabla, sin colisiones y sin un punto de contención único.
+ * Los ids se reservan de a bloques contra un contador compartido; cada franja (elegida al
+ * azar una vez por hilo, que después sigue usando la misma) reparte su bloque con su propio
+ * lock, así que el contador se toca una vez cada {@link #TAMANIO_BLOQUE} ids por franja.
+ * <p>
+ * Los ids quedan densos: los huecos se limitan a lo que quedó sin usar en los bloques de
+ * cada franja. La secuencia no se guarda aparte en cada bloque: cada snapshot lleva el
+ * último id reservado ({@link #ultimoReservado()}) y al recuperar la base se avanza con
+ * {@link #reservarHasta(long)} hasta ese valor o el mayor id del WAL, así no se vuelve a
+ * entregar el id de una entidad borrada.
+ */
+final class SecuenciaIds {
+
+    static final int TAMANIO_BLOQUE = 32;
+
+    /** Valor al azar fijo por hilo, para que cada hilo tome siempre la misma franja */
+    private static final ThreadLocal<Integer> SONDA = ThreadLocal.withInitial(() -> ThreadLocalRandom.current().nextInt());
+
+    private final AtomicLong siguienteLibre = new AtomicLong(1);
+    private final Franja[] franjas;
+
+    SecuenciaIds() {
+        // Dos franjas por procesador, redondeado a potencia de 2 para elegirla con máscara
+        int procesadores = Runtime.getRuntime().availableProcessors();
+        int cantidad = Integer.highestOneBit(procesadores * 2 - 1) * 2;
+        franjas = new Franja[cantidad];
+        for (int i = 0; i < cantidad; i++) {
+            franjas[i] = new Franja();
+        }
+    }
+
+    long siguiente() {
+        Franja franja = franjas[SONDA.get() & (franjas.length - 1)];
+        franja.lock.lock();
+        try {
+            if (franja.siguiente == franja.fin) {
+                franja.siguiente = siguienteLibre.getAndAdd(TAMANIO_BLOQUE);
+                franja.fin = franja.siguiente + TAMANIO_BLOQUE;
+            }
+            return franja.siguiente++;
+        } finally {
+            franja.lock.unlock();
+        }
+    }
+
+    /**
+     * Mayor id que ya se pudo haber entregado: incluye lo que queda sin usar en los bloques
+     * de las franjas.
+     */
+    long ultimoReservado() {
+        return siguienteLibre.get() - 1;
+    }
+
+    /**
+     * Hace que los próximos ids sean mayores al indicado. Descarta lo que quedaba de los
+     * bloques ya reservados, que podrían estar por debajo.
+     */
+    void reservarHasta(long ultimoId) {
+        siguienteLibre.accumulateAndGet(ultimoId + 1, Math::max);
+        for (Franja franja : franjas) {
+            franja.lock.lock();
+            try {
+                if (franja.siguiente <= ultimoId) {
+                    franja.siguiente = franja.fin;
+                }
+            } finally {
+                franja.lock.unlock();
+            }
+        }
+    }
+
+    private static final class Franja {
+        private final ReentrantLock lock = new ReentrantLock();
+        private long siguiente;
+        private long fin;
+    }
+}
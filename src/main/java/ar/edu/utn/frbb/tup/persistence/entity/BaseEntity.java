@@ -1,7 +1,20 @@
 package ar.edu.utn.frbb.tup.persistence.entity;
 
+/**
+ * Entidad de una tabla, identificada por su id.
+ * La versión cuenta las escrituras de la entidad: el DAO la asigna al guardarla (la de la
+ * entidad anterior más uno), así que permite guardar con compare-and-set. No se guarda en
+ * disco, así que solo sirve para comparar dentro de una misma ejecución: un registro que se
+ * lee de un snapshot está en {@link #VERSION_INICIAL}, y cada guardado del WAL que se
+ * reproduce al recuperar pasa por el DAO como cualquier otro y le suma uno.
+ */
 public class BaseEntity {
+
+    /** Versión de una entidad que se guarda por primera vez o que se lee de un snapshot */
+    public static final long VERSION_INICIAL = 1;
+
     private final Long Id;
+    private long version = VERSION_INICIAL;
 
     public BaseEntity(long id) {
         Id = id;
@@ -11,4 +24,14 @@ public class BaseEntity {
         return Id;
     }
 
+    public long getVersion() {
+        return version;
+    }
+
+    /**
+     * La asigna el DAO al guardar, antes de publicar la entidad en la tabla.
+     */
+    public void setVersion(long version) {
+        this.version = version;
+    }
 }
@@ -10,7 +10,7 @@ import java.util.List;
 
 public class ClienteEntity extends BaseEntity {
 
-    private final String tipoPersona;
+    private final TipoPersona tipoPersona;
     private final String nombre;
     private final String apellido;
     private final String direccion;
@@ -22,7 +22,7 @@ public class ClienteEntity extends BaseEntity {
 
     public ClienteEntity(Cliente cliente) {
         super(cliente.getDni());
-        this.tipoPersona = cliente.getTipoPersona() != null ? cliente.getTipoPersona().getDescripcion() : null;
+        this.tipoPersona = cliente.getTipoPersona();
         this.nombre = cliente.getNombre();
         this.apellido = cliente.getApellido();
         this.direccion = cliente.getDireccion();
@@ -38,6 +38,22 @@ public class ClienteEntity extends BaseEntity {
         }
     }
 
+    // Constructor para la capa de persistencia
+    public ClienteEntity(long dni, TipoPersona tipoPersona, String nombre, String apellido, String direccion,
+                         String telefono, String banco, LocalDate fechaAlta, LocalDate fechaNacimiento,
+                         List<Long> cuentas) {
+        super(dni);
+        this.tipoPersona = tipoPersona;
+        this.nombre = nombre;
+        this.apellido = apellido;
+        this.direccion = direccion;
+        this.telefono = telefono;
+        this.banco = banco;
+        this.fechaAlta = fechaAlta;
+        this.fechaNacimiento = fechaNacimiento;
+        this.cuentas = cuentas;
+    }
+
     public Cliente toCliente() {
         Cliente cliente = new Cliente();
         cliente.setDni(this.getId());
@@ -46,13 +62,14 @@ public class ClienteEntity extends BaseEntity {
         cliente.setDireccion(this.direccion);
         cliente.setTelefono(this.telefono);
         cliente.setBanco(this.banco);
-        cliente.setTipoPersona(this.tipoPersona != null ? TipoPersona.fromString(this.tipoPersona) : null);
+        cliente.setTipoPersona(this.tipoPersona);
         cliente.setFechaAlta(this.fechaAlta);
         cliente.setFechaNacimiento(this.fechaNacimiento);
+        cliente.setVersion(this.getVersion());
         return cliente;
     }
 
-    public String getTipoPersona() {
+    public TipoPersona getTipoPersona() {
         return tipoPersona;
     }
 
@@ -3,52 +3,58 @@ package ar.edu.utn.frbb.tup.persistence.entity;
 import ar.edu.utn.frbb.tup.model.*;
 
 import java.time.LocalDateTime;
-import java.util.ArrayList;
-import java.util.List;
 
+/**
+ * Cuenta guardada; el balance está en centavos y el tipo y la moneda se guardan como enums,
+ * así armar la cuenta no tiene que convertir texto.
+ */
 public class CuentaEntity extends BaseEntity{
     String nombre;
     LocalDateTime fechaCreacion;
-    double balance;
-    String tipoCuenta;
-    String tipoMoneda;
+    long balance;
+    TipoCuenta tipoCuenta;
+    TipoMoneda tipoMoneda;
     Long titular;
     long numeroCuenta;
-    List<MovimientoEntity> movimientos;
 
     public CuentaEntity(Cuenta cuenta) {
         super(cuenta.getNumeroCuenta());
-        this.balance = cuenta.getBalance();
-        this.tipoCuenta = cuenta.getTipoCuenta().toString();
-        this.tipoMoneda = cuenta.getMoneda().toString();
+        this.balance = cuenta.getBalanceCentavos();
+        this.tipoCuenta = cuenta.getTipoCuenta();
+        this.tipoMoneda = cuenta.getMoneda();
         this.titular = cuenta.getTitular() != null ? cuenta.getTitular().getDni() : null;
         this.fechaCreacion = cuenta.getFechaCreacion();
         this.numeroCuenta = cuenta.getNumeroCuenta();
-        this.movimientos = new ArrayList<>();
-        
-        if (cuenta.getMovimientos() != null) {
-            for (Movimiento m : cuenta.getMovimientos()) {
-                this.movimientos.add(new MovimientoEntity(m));
-            }
-        }
+    }
+
+    // Constructor para la capa de persistencia
+    public CuentaEntity(long numeroCuenta, String nombre, LocalDateTime fechaCreacion, long balance,
+                        TipoCuenta tipoCuenta, TipoMoneda tipoMoneda, Long titular) {
+        super(numeroCuenta);
+        this.nombre = nombre;
+        this.fechaCreacion = fechaCreacion;
+        this.balance = balance;
+        this.tipoCuenta = tipoCuenta;
+        this.tipoMoneda = tipoMoneda;
+        this.titular = titular;
+        this.numeroCuenta = numeroCuenta;
     }
 
     public Cuenta toCuenta() {
         Cuenta cuenta = new Cuenta();
-        cuenta.setBalance(this.balance);
+        cuenta.setBalanceCentavos(this.balance);
         cuenta.setNumeroCuenta(this.numeroCuenta);
-        cuenta.setTipoCuenta(TipoCuenta.valueOf(this.tipoCuenta));
-        cuenta.setMoneda(TipoMoneda.valueOf(this.tipoMoneda));
+        cuenta.setTipoCuenta(this.tipoCuenta);
+        cuenta.setMoneda(this.tipoMoneda);
         cuenta.setFechaCreacion(this.fechaCreacion);
-                
-        List<Movimiento> movimientosList = new ArrayList<>();
-        if (this.movimientos != null) {
-            for (MovimientoEntity me : this.movimientos) {
-                movimientosList.add(me.toMovimiento());
-            }
+        cuenta.setVersion(this.getVersion());
+        if (this.titular != null) {
+            // Solo el DNI: alcanza para volver a guardar la cuenta sin perder el titular
+            Cliente titular = new Cliente();
+            titular.setDni(this.titular);
+            cuenta.setTitular(titular);
         }
-        cuenta.setMovimientos(movimientosList);
-        
+        // El historial de movimientos vive aparte (MovimientoDao) y no se carga con la cuenta
         return cuenta;
     }
 
@@ -69,27 +75,27 @@ public class CuentaEntity extends BaseEntity{
         this.fechaCreacion = fechaCreacion;
     }
 
-    public double getBalance() {
+    public long getBalance() {
         return balance;
     }
 
-    public void setBalance(double balance) {
+    public void setBalance(long balance) {
         this.balance = balance;
     }
 
-    public String getTipoCuenta() {
+    public TipoCuenta getTipoCuenta() {
         return tipoCuenta;
     }
 
-    public void setTipoCuenta(String tipoCuenta) {
+    public void setTipoCuenta(TipoCuenta tipoCuenta) {
         this.tipoCuenta = tipoCuenta;
     }
 
-    public String getTipoMoneda() {
+    public TipoMoneda getTipoMoneda() {
         return tipoMoneda;
     }
 
-    public void setTipoMoneda(String tipoMoneda) {
+    public void setTipoMoneda(TipoMoneda tipoMoneda) {
         this.tipoMoneda = tipoMoneda;
     }
 
@@ -108,12 +114,4 @@ public class CuentaEntity extends BaseEntity{
     public void setNumeroCuenta(long numeroCuenta) {
         this.numeroCuenta = numeroCuenta;
     }
-
-    public List<MovimientoEntity> getMovimientos() {
-        return movimientos;
-    }
-
-    public void setMovimientos(List<MovimientoEntity> movimientos) {
-        this.movimientos = movimientos;
-    }
 }
\ No newline at end of file
@@ -0,0 +1,287 @@
+package ar.edu.utn.frbb.tup.persistence.entity;
+
+import ar.edu.utn.frbb.tup.model.TipoOperacion;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Historial de movimientos de una cuenta, de solo agregado.
+ * Las escrituras agregan al final bajo un lock; las lecturas no toman lock:
+ * primero leen la cantidad publicada y después el arreglo, que siempre tiene
+ * al menos esa cantidad de elementos visibles.
+ * Los movimientos se agregan en orden cronológico, así que el historial queda ordenado
+ * por id y por fecha, y se puede buscar por posición con búsqueda binaria.
+ * Además mantiene, por tipo de operación, la lista de posiciones de ese tipo.
+ * <p>
+ * El historial es la fuente del saldo: cada movimiento lo cambia según su tipo
+ * ({@link TipoOperacion#efectoEnSaldo(long)}). Cada {@link #INTERVALO_CHECKPOINT} movimientos se
+ * guarda el saldo acumulado hasta ahí, así el saldo en cualquier posición se obtiene desde el
+ * checkpoint anterior sin recorrer todo el historial.
+ */
+public class HistorialMovimientosEntity extends BaseEntity {
+
+    private static final int CAPACIDAD_INICIAL = 8;
+
+    /** Cada cuántos movimientos se guarda el saldo acumulado */
+    public static final int INTERVALO_CHECKPOINT = 1024;
+
+    private final ReentrantLock lockEscritura = new ReentrantLock();
+    private final ListaPosiciones[] posicionesPorTipo;
+    private volatile MovimientoEntity[] movimientos = new MovimientoEntity[CAPACIDAD_INICIAL];
+    private volatile int cantidad;
+    /** checkpoints[k]: saldo después de los primeros (k + 1) * INTERVALO_CHECKPOINT movimientos */
+    private volatile long[] checkpoints = new long[0];
+    /** Saldo después de todos los movimientos; solo se usa con el lock de escritura tomado */
+    private long saldoAcumulado;
+
+    public HistorialMovimientosEntity(long numeroCuenta) {
+        super(numeroCuenta);
+        this.posicionesPorTipo = new ListaPosiciones[TipoOperacion.values().length];
+        for (int i = 0; i < posicionesPorTipo.length; i++) {
+            posicionesPorTipo[i] = new ListaPosiciones();
+        }
+    }
+
+    /**
+     * Agrega los movimientos al final del historial.
+     */
+    public void agregar(List<MovimientoEntity> nuevos) {
+        if (nuevos.isEmpty()) {
+            return;
+        }
+        lockEscritura.lock();
+        try {
+            int actual = cantidad;
+            MovimientoEntity[] destino = movimientos;
+            if (actual + nuevos.size() > destino.length) {
+                MovimientoEntity[] ampliado = new MovimientoEntity[Math.max(destino.length * 2, actual + nuevos.size())];
+                System.arraycopy(destino, 0, ampliado, 0, actual);
+                movimientos = ampliado;
+                destino = ampliado;
+            }
+            for (MovimientoEntity nuevo : nuevos) {
+                posicionesPorTipo[nuevo.getTipoOperacion().ordinal()].agregar(actual);
+                destino[actual++] = nuevo;
+                saldoAcumulado = Math.addExact(saldoAcumulado, efecto(nuevo));
+                if (actual % INTERVALO_CHECKPOINT == 0) {
+                    agregarCheckpoint(actual / INTERVALO_CHECKPOINT - 1);
+                }
+            }
+            // Publica los nuevos elementos recién después de escribirlos y de indexarlos
+            cantidad = actual;
+        } finally {
+            lockEscritura.unlock();
+        }
+    }
+
+    /**
+     * Descarta los movimientos a partir de la posición indicada, para deshacer un agregado
+     * que no se pudo registrar en el diario. Solo se usa con el lock de escritura de la
+     * cuenta tomado, antes de que otra escritura agregue algo encima.
+     * Las posiciones descartadas no se limpian: una lectura que ya había leído la cantidad
+     * anterior puede terminar de leerlas.
+     */
+    public void descartarDesde(int nuevaCantidad) {
+        lockEscritura.lock();
+        try {
+            if (nuevaCantidad >= cantidad) {
+                return;
+            }
+            // Deja de publicarlos primero, como el agregado los publica al final
+            cantidad = nuevaCantidad;
+            for (ListaPosiciones lista : posicionesPorTipo) {
+                lista.descartarDesde(nuevaCantidad);
+            }
+            saldoAcumulado = saldoHasta(nuevaCantidad);
+        } finally {
+            lockEscritura.unlock();
+        }
+    }
+
+    public int getCantidad() {
+        return cantidad;
+    }
+
+    /**
+     * Saldo que resulta de los primeros {@code cantidad} movimientos. Parte del checkpoint
+     * anterior, así que recorre menos de {@link #INTERVALO_CHECKPOINT} movimientos.
+     * La cantidad debe ser menor o igual a una leída antes.
+     */
+    public long saldoHasta(int cantidad) {
+        int checkpoint = cantidad / INTERVALO_CHECKPOINT;
+        long saldo = checkpoint > 0 ? checkpoints[checkpoint - 1] : 0;
+        MovimientoEntity[] vista = movimientos;
+        for (int i = checkpoint * INTERVALO_CHECKPOINT; i < cantidad; i++) {
+            saldo = Math.addExact(saldo, efecto(vista[i]));
+        }
+        return saldo;
+    }
+
+    /**
+     * Saldo de los primeros {@code cantidad} movimientos recorriéndolos todos, sin usar los
+     * checkpoints. Sirve para verificarlos.
+     */
+    public long recalcularSaldo(int cantidad) {
+        MovimientoEntity[] vista = movimientos;
+        long saldo = 0;
+        for (int i = 0; i < cantidad; i++) {
+            saldo = Math.addExact(saldo, efecto(vista[i]));
+        }
+        return saldo;
+    }
+
+    /**
+     * Movimiento en la posición indicada. La posición debe ser menor a una cantidad leída antes.
+     */
+    public MovimientoEntity getMovimiento(int posicion) {
+        return movimientos[posicion];
+    }
+
+    /**
+     * Copia de los movimientos en el rango [desde, hasta).
+     */
+    public List<MovimientoEntity> getMovimientos(int desde, int hasta) {
+        int limite = Math.min(hasta, cantidad);
+        if (desde >= limite) {
+            return Collections.emptyList();
+        }
+        MovimientoEntity[] vista = movimientos;
+        List<MovimientoEntity> resultado = new ArrayList<>(limite - desde);
+        for (int i = desde; i < limite; i++) {
+            resultado.add(vista[i]);
+        }
+        return resultado;
+    }
+
+    public List<MovimientoEntity> getMovimientos() {
+        return getMovimientos(0, cantidad);
+    }
+
+    /**
+     * Primera posición, dentro de las primeras {@code cantidad}, cuyo id es mayor al indicado.
+     */
+    public int primeraPosicionConIdMayorA(long id, int cantidad) {
+        MovimientoEntity[] vista = movimientos;
+        int bajo = 0;
+        int alto = cantidad;
+        while (bajo < alto) {
+            int medio = (bajo + alto) >>> 1;
+            if (vista[medio].getId() <= id) {
+                bajo = medio + 1;
+            } else {
+                alto = medio;
+            }
+        }
+        return bajo;
+    }
+
+    /**
+     * Primera posición, dentro de las primeras {@code cantidad}, con fecha igual o posterior a la indicada
+     * (si {@code inclusive}) o estrictamente posterior (si no).
+     */
+    public int primeraPosicionDesde(LocalDateTime fecha, boolean inclusive, int cantidad) {
+        MovimientoEntity[] vista = movimientos;
+        int bajo = 0;
+        int alto = cantidad;
+        while (bajo < alto) {
+            int medio = (bajo + alto) >>> 1;
+            int comparacion = vista[medio].getFechaHora().compareTo(fecha);
+            if (comparacion < 0 || (!inclusive && comparacion == 0)) {
+                bajo = medio + 1;
+            } else {
+                alto = medio;
+            }
+        }
+        return bajo;
+    }
+
+    /**
+     * Cantidad de movimientos del tipo indicado que ya fueron indexados.
+     */
+    public int getCantidadDeTipo(TipoOperacion tipo) {
+        return posicionesPorTipo[tipo.ordinal()].cantidad;
+    }
+
+    /**
+     * Posición en el historial del i-ésimo movimiento del tipo indicado.
+     */
+    public int getPosicionDeTipo(TipoOperacion tipo, int indice) {
+        return posicionesPorTipo[tipo.ordinal()].posiciones[indice];
+    }
+
+    /**
+     * Primer índice, dentro de las posiciones del tipo indicado, cuya posición es mayor o igual a la dada.
+     */
+    public int primerIndiceDeTipoDesde(TipoOperacion tipo, int posicion) {
+        ListaPosiciones lista = posicionesPorTipo[tipo.ordinal()];
+        int cantidadTipo = lista.cantidad;
+        int[] vista = lista.posiciones;
+        int bajo = 0;
+        int alto = cantidadTipo;
+        while (bajo < alto) {
+            int medio = (bajo + alto) >>> 1;
+            if (vista[medio] < posicion) {
+                bajo = medio + 1;
+            } else {
+                alto = medio;
+            }
+        }
+        return bajo;
+    }
+
+    public long getNumeroCuenta() {
+        return getId();
+    }
+
+    private void agregarCheckpoint(int indice) {
+        long[] destino = checkpoints;
+        if (indice == destino.length) {
+            long[] ampliado = new long[Math.max(4, destino.length * 2)];
+            System.arraycopy(destino, 0, ampliado, 0, indice);
+            destino = ampliado;
+        }
+        destino[indice] = saldoAcumulado;
+        // Se publica antes que la cantidad, igual que el arreglo de movimientos
+        checkpoints = destino;
+    }
+
+    private static long efecto(MovimientoEntity movimiento) {
+        return movimiento.getTipoOperacion().efectoEnSaldo(movimiento.getMonto());
+    }
+
+    /**
+     * Lista creciente de posiciones, de solo agregado, con la misma publicación que el historial.
+     * Solo se escribe con el lock del historial tomado.
+     */
+    private static class ListaPosiciones {
+        private volatile int[] posiciones = new int[0];
+        private volatile int cantidad;
+
+        private void agregar(int posicion) {
+            int actual = cantidad;
+            int[] destino = posiciones;
+            if (actual == destino.length) {
+                int[] ampliado = new int[Math.max(4, destino.length * 2)];
+                System.arraycopy(destino, 0, ampliado, 0, actual);
+                posiciones = ampliado;
+                destino = ampliado;
+            }
+            destino[actual] = posicion;
+            cantidad = actual + 1;
+        }
+
+        /** Quita las posiciones iguales o mayores a la indicada, que siempre están al final */
+        private void descartarDesde(int posicion) {
+            int actual = cantidad;
+            int[] vista = posiciones;
+            while (actual > 0 && vista[actual - 1] >= posicion) {
+                actual--;
+            }
+            cantidad = actual;
+        }
+    }
+}
@@ -5,11 +5,14 @@ import ar.edu.utn.frbb.tup.model.TipoOperacion;
 
 import java.time.LocalDateTime;
 
+/**
+ * Movimiento guardado; el monto está en centavos y el tipo de operación es el enum.
+ */
 public class MovimientoEntity {
     private Long id;
     private LocalDateTime fechaHora;
-    private String tipoOperacion;
-    private double monto;
+    private TipoOperacion tipoOperacion;
+    private long monto;
     private Long cuentaOrigen;
     private Long cuentaDestino;
     private String descripcion;
@@ -19,8 +22,8 @@ public class MovimientoEntity {
     public MovimientoEntity(Movimiento movimiento) {
         this.id = movimiento.getId();
         this.fechaHora = movimiento.getFechaHora();
-        this.tipoOperacion = movimiento.getTipoOperacion().toString();
-        this.monto = movimiento.getMonto();
+        this.tipoOperacion = movimiento.getTipoOperacion();
+        this.monto = movimiento.getMontoCentavos();
         this.cuentaOrigen = movimiento.getCuentaOrigen();
         this.cuentaDestino = movimiento.getCuentaDestino();
         this.descripcion = movimiento.getDescripcion();
@@ -30,7 +33,7 @@ public class MovimientoEntity {
         return new Movimiento(
             this.id,
             this.fechaHora,
-            TipoOperacion.valueOf(this.tipoOperacion),
+            this.tipoOperacion,
             this.monto,
             this.cuentaOrigen,
             this.cuentaDestino,
@@ -55,19 +58,19 @@ public class MovimientoEntity {
         this.fechaHora = fechaHora;
     }
 
-    public String getTipoOperacion() {
+    public TipoOperacion getTipoOperacion() {
         return tipoOperacion;
     }
 
-    public void setTipoOperacion(String tipoOperacion) {
+    public void setTipoOperacion(TipoOperacion tipoOperacion) {
         this.tipoOperacion = tipoOperacion;
     }
 
-    public double getMonto() {
+    public long getMonto() {
         return monto;
     }
 
-    public void setMonto(double monto) {
+    public void setMonto(long monto) {
         this.monto = monto;
     }
 
@@ -100,7 +103,7 @@ public class MovimientoEntity {
         return "MovimientoEntity{" +
                 "id=" + id +
                 ", fechaHora=" + fechaHora +
-                ", tipoOperacion='" + tipoOperacion + '\'' +
+                ", tipoOperacion=" + tipoOperacion +
                 ", monto=" + monto +
                 ", cuentaOrigen=" + cuentaOrigen +
                 ", cuentaDestino=" + cuentaDestino +
@@ -2,70 +2,77 @@ package ar.edu.utn.frbb.tup.persistence.entity;
 
 import ar.edu.utn.frbb.tup.model.*;
 import java.time.LocalDateTime;
-import java.util.List;
-import java.util.stream.Collectors;
 
+/**
+ * Préstamo guardado, con los montos en centavos y la moneda y el estado como enums.
+ * El plan de pagos no se guarda: se deduce del monto, la tasa y el plazo con
+ * {@link Prestamo#calcularAmortizacion()} cuando alguien lo pide.
+ */
 public class PrestamoEntity extends BaseEntity {
     private final Long numeroCliente;
-    private final double montoPrestamo;
+    private final long montoPrestamo;
     private final int plazoMeses;
-    private final String moneda;
+    private final TipoMoneda moneda;
     private final double tasaInteresAnual;
     private final LocalDateTime fechaSolicitud;
-    private final String estado;
-    private final List<CuotaPrestamoEntity> planPagos;
+    private final EstadoPrestamo estado;
     private final int pagosRealizados;
-    private final double saldoRestante;
+    private final long saldoRestante;
 
     public PrestamoEntity(Prestamo prestamo) {
-        super(prestamo.getId() != null ? prestamo.getId() : System.currentTimeMillis());
+        super(prestamo.getId());
         this.numeroCliente = prestamo.getNumeroCliente();
-        this.montoPrestamo = prestamo.getMontoPrestamo();
+        this.montoPrestamo = prestamo.getMontoPrestamoCentavos();
         this.plazoMeses = prestamo.getPlazoMeses();
-        this.moneda = prestamo.getMoneda();
+        // El préstamo lleva la moneda como texto, tal como llegó validada en la solicitud
+        this.moneda = prestamo.getMoneda() != null ? TipoMoneda.valueOf(prestamo.getMoneda().toUpperCase()) : null;
         this.tasaInteresAnual = prestamo.getTasaInteresAnual();
         this.fechaSolicitud = prestamo.getFechaSolicitud();
-        this.estado = prestamo.getEstado() != null ? prestamo.getEstado().name() : null;
+        this.estado = prestamo.getEstado();
         this.pagosRealizados = prestamo.getPagosRealizados();
-        this.saldoRestante = prestamo.getSaldoRestante();        
-        this.planPagos = prestamo.getPlanPagos() != null ? 
-            prestamo.getPlanPagos().stream()
-                .map(CuotaPrestamoEntity::new)
-                .collect(Collectors.toList()) : null;
+        this.saldoRestante = prestamo.getSaldoRestanteCentavos();
+    }
+
+    // Constructor para la capa de persistencia
+    public PrestamoEntity(long id, Long numeroCliente, long montoPrestamo, int plazoMeses, TipoMoneda moneda,
+                          double tasaInteresAnual, LocalDateTime fechaSolicitud, EstadoPrestamo estado,
+                          int pagosRealizados, long saldoRestante) {
+        super(id);
+        this.numeroCliente = numeroCliente;
+        this.montoPrestamo = montoPrestamo;
+        this.plazoMeses = plazoMeses;
+        this.moneda = moneda;
+        this.tasaInteresAnual = tasaInteresAnual;
+        this.fechaSolicitud = fechaSolicitud;
+        this.estado = estado;
+        this.pagosRealizados = pagosRealizados;
+        this.saldoRestante = saldoRestante;
     }
 
     public Prestamo toPrestamo() {
         Prestamo prestamo = new Prestamo();
         prestamo.setId(this.getId());
         prestamo.setNumeroCliente(this.numeroCliente);
-        prestamo.setMontoPrestamo(this.montoPrestamo);
+        prestamo.setMontoPrestamoCentavos(this.montoPrestamo);
         prestamo.setPlazoMeses(this.plazoMeses);
-        prestamo.setMoneda(this.moneda);
+        prestamo.setMoneda(this.moneda != null ? this.moneda.name() : null);
         prestamo.setTasaInteresAnual(this.tasaInteresAnual);
         prestamo.setFechaSolicitud(this.fechaSolicitud);
-        prestamo.setEstado(this.estado != null ? EstadoPrestamo.valueOf(this.estado) : null);
+        prestamo.setEstado(this.estado);
         prestamo.setPagosRealizados(this.pagosRealizados);
-        prestamo.setSaldoRestante(this.saldoRestante);
-        
-        if (this.planPagos != null) {
-            List<CuotaPrestamo> cuotas = this.planPagos.stream()
-                .map(CuotaPrestamoEntity::toCuotaPrestamo)
-                .collect(Collectors.toList());
-            prestamo.setPlanPagos(cuotas);
-        }
-        
+        prestamo.setSaldoRestanteCentavos(this.saldoRestante);
+        prestamo.setVersion(this.getVersion());
         return prestamo;
     }
 
     // Getters
     public Long getNumeroCliente() { return numeroCliente; }
-    public double getMontoPrestamo() { return montoPrestamo; }
+    public long getMontoPrestamo() { return montoPrestamo; }
     public int getPlazoMeses() { return plazoMeses; }
-    public String getMoneda() { return moneda; }
+    public TipoMoneda getMoneda() { return moneda; }
     public double getTasaInteresAnual() { return tasaInteresAnual; }
     public LocalDateTime getFechaSolicitud() { return fechaSolicitud; }
-    public String getEstado() { return estado; }
-    public List<CuotaPrestamoEntity> getPlanPagos() { return planPagos; }
+    public EstadoPrestamo getEstado() { return estado; }
     public int getPagosRealizados() { return pagosRealizados; }
-    public double getSaldoRestante() { return saldoRestante; }
+    public long getSaldoRestante() { return saldoRestante; }
 }
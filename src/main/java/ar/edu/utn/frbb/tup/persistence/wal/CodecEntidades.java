@@ -0,0 +1,336 @@
+package ar.edu.utn.frbb.tup.persistence.wal;
+
+import ar.edu.utn.frbb.tup.model.Dinero;
+import ar.edu.utn.frbb.tup.model.EstadoPrestamo;
+import ar.edu.utn.frbb.tup.model.TipoCuenta;
+import ar.edu.utn.frbb.tup.model.TipoMoneda;
+import ar.edu.utn.frbb.tup.model.TipoOperacion;
+import ar.edu.utn.frbb.tup.model.TipoPersona;
+import ar.edu.utn.frbb.tup.persistence.entity.BaseEntity;
+import ar.edu.utn.frbb.tup.persistence.entity.ClienteEntity;
+import ar.edu.utn.frbb.tup.persistence.entity.CuentaEntity;
+import ar.edu.utn.frbb.tup.persistence.entity.MovimientoEntity;
+import ar.edu.utn.frbb.tup.persistence.entity.PrestamoEntity;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Codificación binaria compacta de las entidades, compartida por el WAL y los snapshots.
+ * Cada tabla tiene un código de un byte; los campos se escriben en orden fijo,
+ * con un byte de presencia delante de los que pueden ser null.
+ * <p>
+ * Siempre se escribe en {@link #FORMATO_COMPACTO}: cada enum es un byte con su posición
+ * ({@code ordinal() + 1}, 0 para null) y los montos son centavos. Por eso las constantes de
+ * los enums guardados solo se pueden agregar al final. Los archivos anteriores, con los enums
+ * como texto y los montos como decimal ({@link #FORMATO_TEXTO}), se siguen leyendo: el WAL y el
+ * snapshot indican en su versión con qué formato se escribieron.
+ */
+final class CodecEntidades {
+
+    static final byte TABLA_CLIENTE = 1;
+    static final byte TABLA_CUENTA = 2;
+    static final byte TABLA_PRESTAMO = 3;
+    static final byte TABLA_MOVIMIENTO = 4;
+
+    /** WAL versión 1 y snapshots versiones 1 y 2 */
+    static final int FORMATO_TEXTO = 1;
+    static final int FORMATO_COMPACTO = 2;
+
+    // values() crea un arreglo nuevo en cada llamada
+    private static final TipoPersona[] TIPOS_PERSONA = TipoPersona.values();
+    private static final TipoCuenta[] TIPOS_CUENTA = TipoCuenta.values();
+    private static final TipoMoneda[] MONEDAS = TipoMoneda.values();
+    private static final TipoOperacion[] TIPOS_OPERACION = TipoOperacion.values();
+    private static final EstadoPrestamo[] ESTADOS_PRESTAMO = EstadoPrestamo.values();
+
+    private CodecEntidades() {
+    }
+
+    static byte codigoTabla(String tabla) {
+        switch (tabla) {
+            case "CLIENTE":
+                return TABLA_CLIENTE;
+            case "CUENTA":
+                return TABLA_CUENTA;
+            case "PRESTAMO":
+                return TABLA_PRESTAMO;
+            case "MOVIMIENTO":
+                return TABLA_MOVIMIENTO;
+            default:
+                throw new IllegalArgumentException("Tabla sin codificación binaria: " + tabla);
+        }
+    }
+
+    static void escribirEntidad(DataOutput out, byte tabla, BaseEntity entidad) throws IOException {
+        switch (tabla) {
+            case TABLA_CLIENTE:
+                escribirCliente(out, (ClienteEntity) entidad);
+                break;
+            case TABLA_CUENTA:
+                escribirCuenta(out, (CuentaEntity) entidad);
+                break;
+            case TABLA_PRESTAMO:
+                escribirPrestamo(out, (PrestamoEntity) entidad);
+                break;
+            default:
+                throw new IllegalArgumentException("Tabla desconocida: " + tabla);
+        }
+    }
+
+    static BaseEntity leerEntidad(DataInput in, byte tabla, int formato) throws IOException {
+        switch (tabla) {
+            case TABLA_CLIENTE:
+                return leerCliente(in, formato);
+            case TABLA_CUENTA:
+                return leerCuenta(in, formato);
+            case TABLA_PRESTAMO:
+                return leerPrestamo(in, formato);
+            default:
+                throw new IOException("Tabla desconocida: " + tabla);
+        }
+    }
+
+    static void escribirMovimientos(DataOutput out, List<MovimientoEntity> movimientos) throws IOException {
+        out.writeInt(movimientos.size());
+        for (MovimientoEntity movimiento : movimientos) {
+            escribirMovimiento(out, movimiento);
+        }
+    }
+
+    static List<MovimientoEntity> leerMovimientos(DataInput in, int formato) throws IOException {
+        int cantidad = in.readInt();
+        List<MovimientoEntity> movimientos = new ArrayList<>(cantidad);
+        for (int i = 0; i < cantidad; i++) {
+            movimientos.add(leerMovimiento(in, formato));
+        }
+        return movimientos;
+    }
+
+    static void escribirMovimiento(DataOutput out, MovimientoEntity movimiento) throws IOException {
+        out.writeLong(movimiento.getId());
+        escribirFechaHora(out, movimiento.getFechaHora());
+        escribirEnum(out, movimiento.getTipoOperacion());
+        out.writeLong(movimiento.getMonto());
+        escribirLong(out, movimiento.getCuentaOrigen());
+        escribirLong(out, movimiento.getCuentaDestino());
+        escribirTexto(out, movimiento.getDescripcion());
+    }
+
+    static MovimientoEntity leerMovimiento(DataInput in, int formato) throws IOException {
+        MovimientoEntity movimiento = new MovimientoEntity();
+        movimiento.setId(in.readLong());
+        movimiento.setFechaHora(leerFechaHora(in));
+        if (formato == FORMATO_TEXTO) {
+            String tipoOperacion = leerTexto(in);
+            movimiento.setTipoOperacion(tipoOperacion != null ? TipoOperacion.valueOf(tipoOperacion) : null);
+        } else {
+            movimiento.setTipoOperacion(leerEnum(in, TIPOS_OPERACION));
+        }
+        movimiento.setMonto(leerMonto(in, formato));
+        movimiento.setCuentaOrigen(leerLong(in));
+        movimiento.setCuentaDestino(leerLong(in));
+        movimiento.setDescripcion(leerTexto(in));
+        return movimiento;
+    }
+
+    private static void escribirCliente(DataOutput out, ClienteEntity cliente) throws IOException {
+        out.writeLong(cliente.getId());
+        escribirEnum(out, cliente.getTipoPersona());
+        escribirTexto(out, cliente.getNombre());
+        escribirTexto(out, cliente.getApellido());
+        escribirTexto(out, cliente.getDireccion());
+        escribirTexto(out, cliente.getTelefono());
+        escribirTexto(out, cliente.getBanco());
+        escribirFecha(out, cliente.getFechaAlta());
+        escribirFecha(out, cliente.getFechaNacimiento());
+        List<Long> cuentas = cliente.getCuentas();
+        out.writeInt(cuentas != null ? cuentas.size() : 0);
+        if (cuentas != null) {
+            for (Long cuenta : cuentas) {
+                out.writeLong(cuenta);
+            }
+        }
+    }
+
+    private static ClienteEntity leerCliente(DataInput in, int formato) throws IOException {
+        long dni = in.readLong();
+        TipoPersona tipoPersona;
+        if (formato == FORMATO_TEXTO) {
+            // El formato de texto guardaba la descripción ("F" o "J"), no el nombre
+            String descripcion = leerTexto(in);
+            tipoPersona = descripcion != null ? TipoPersona.fromString(descripcion) : null;
+        } else {
+            tipoPersona = leerEnum(in, TIPOS_PERSONA);
+        }
+        String nombre = leerTexto(in);
+        String apellido = leerTexto(in);
+        String direccion = leerTexto(in);
+        String telefono = leerTexto(in);
+        String banco = leerTexto(in);
+        LocalDate fechaAlta = leerFecha(in);
+        LocalDate fechaNacimiento = leerFecha(in);
+        int cantidadCuentas = in.readInt();
+        List<Long> cuentas = new ArrayList<>(cantidadCuentas);
+        for (int i = 0; i < cantidadCuentas; i++) {
+            cuentas.add(in.readLong());
+        }
+        return new ClienteEntity(dni, tipoPersona, nombre, apellido, direccion, telefono, banco,
+                fechaAlta, fechaNacimiento, cuentas);
+    }
+
+    private static void escribirCuenta(DataOutput out, CuentaEntity cuenta) throws IOException {
+        out.writeLong(cuenta.getNumeroCuenta());
+        escribirTexto(out, cuenta.getNombre());
+        escribirFechaHora(out, cuenta.getFechaCreacion());
+        out.writeLong(cuenta.getBalance());
+        escribirEnum(out, cuenta.getTipoCuenta());
+        escribirEnum(out, cuenta.getTipoMoneda());
+        escribirLong(out, cuenta.getTitular());
+    }
+
+    private static CuentaEntity leerCuenta(DataInput in, int formato) throws IOException {
+        long numeroCuenta = in.readLong();
+        String nombre = leerTexto(in);
+        LocalDateTime fechaCreacion = leerFechaHora(in);
+        long balance = leerMonto(in, formato);
+        TipoCuenta tipoCuenta;
+        TipoMoneda tipoMoneda;
+        if (formato == FORMATO_TEXTO) {
+            String tipo = leerTexto(in);
+            String moneda = leerTexto(in);
+            tipoCuenta = tipo != null ? TipoCuenta.valueOf(tipo) : null;
+            tipoMoneda = moneda != null ? TipoMoneda.valueOf(moneda) : null;
+        } else {
+            tipoCuenta = leerEnum(in, TIPOS_CUENTA);
+            tipoMoneda = leerEnum(in, MONEDAS);
+        }
+        Long titular = leerLong(in);
+        return new CuentaEntity(numeroCuenta, nombre, fechaCreacion, balance, tipoCuenta, tipoMoneda, titular);
+    }
+
+    private static void escribirPrestamo(DataOutput out, PrestamoEntity prestamo) throws IOException {
+        out.writeLong(prestamo.getId());
+        escribirLong(out, prestamo.getNumeroCliente());
+        out.writeLong(prestamo.getMontoPrestamo());
+        out.writeInt(prestamo.getPlazoMeses());
+        escribirEnum(out, prestamo.getMoneda());
+        out.writeDouble(prestamo.getTasaInteresAnual());
+        escribirFechaHora(out, prestamo.getFechaSolicitud());
+        escribirEnum(out, prestamo.getEstado());
+        out.writeInt(prestamo.getPagosRealizados());
+        out.writeLong(prestamo.getSaldoRestante());
+    }
+
+    private static PrestamoEntity leerPrestamo(DataInput in, int formato) throws IOException {
+        long id = in.readLong();
+        Long numeroCliente = leerLong(in);
+        long montoPrestamo = leerMonto(in, formato);
+        int plazoMeses = in.readInt();
+        TipoMoneda moneda;
+        if (formato == FORMATO_TEXTO) {
+            String texto = leerTexto(in);
+            moneda = texto != null ? TipoMoneda.valueOf(texto.toUpperCase()) : null;
+        } else {
+            moneda = leerEnum(in, MONEDAS);
+        }
+        double tasaInteresAnual = in.readDouble();
+        LocalDateTime fechaSolicitud = leerFechaHora(in);
+        EstadoPrestamo estado;
+        if (formato == FORMATO_TEXTO) {
+            String texto = leerTexto(in);
+            estado = texto != null ? EstadoPrestamo.valueOf(texto) : null;
+            // Registros viejos traen el plan de pagos guardado (o -1); se saltea porque se recalcula
+            int cantidadCuotas = in.readInt();
+            for (int i = 0; i < cantidadCuotas; i++) {
+                in.readInt();
+                in.readDouble();
+            }
+        } else {
+            estado = leerEnum(in, ESTADOS_PRESTAMO);
+        }
+        int pagosRealizados = in.readInt();
+        long saldoRestante = leerMonto(in, formato);
+        return new PrestamoEntity(id, numeroCliente, montoPrestamo, plazoMeses, moneda, tasaInteresAnual,
+                fechaSolicitud, estado, pagosRealizados, saldoRestante);
+    }
+
+    /**
+     * El formato de texto guardaba los montos como decimal; la conversión a centavos es exacta.
+     */
+    private static long leerMonto(DataInput in, int formato) throws IOException {
+        return formato == FORMATO_TEXTO ? Dinero.deDecimal(in.readDouble()) : in.readLong();
+    }
+
+    private static void escribirEnum(DataOutput out, Enum<?> valor) throws IOException {
+        out.writeByte(valor != null ? valor.ordinal() + 1 : 0);
+    }
+
+    private static <T extends Enum<T>> T leerEnum(DataInput in, T[] valores) throws IOException {
+        int codigo = in.readUnsignedByte();
+        if (codigo == 0) {
+            return null;
+        }
+        if (codigo > valores.length) {
+            throw new IOException("Código desconocido para " + valores.getClass().getComponentType().getSimpleName()
+                    + ": " + codigo);
+        }
+        return valores[codigo - 1];
+    }
+
+    private static void escribirTexto(DataOutput out, String texto) throws IOException {
+        out.writeBoolean(texto != null);
+        if (texto != null) {
+            out.writeUTF(texto);
+        }
+    }
+
+    private static String leerTexto(DataInput in) throws IOException {
+        return in.readBoolean() ? in.readUTF() : null;
+    }
+
+    private static void escribirLong(DataOutput out, Long valor) throws IOException {
+        out.writeBoolean(valor != null);
+        if (valor != null) {
+            out.writeLong(valor);
+        }
+    }
+
+    private static Long leerLong(DataInput in) throws IOException {
+        return in.readBoolean() ? in.readLong() : null;
+    }
+
+    private static void escribirFecha(DataOutput out, LocalDate fecha) throws IOException {
+        out.writeBoolean(fecha != null);
+        if (fecha != null) {
+            out.writeLong(fecha.toEpochDay());
+        }
+    }
+
+    private static LocalDate leerFecha(DataInput in) throws IOException {
+        return in.readBoolean() ? LocalDate.ofEpochDay(in.readLong()) : null;
+    }
+
+    private static void escribirFechaHora(DataOutput out, LocalDateTime fechaHora) throws IOException {
+        out.writeBoolean(fechaHora != null);
+        if (fechaHora != null) {
+            out.writeLong(fechaHora.toEpochSecond(ZoneOffset.UTC));
+            out.writeInt(fechaHora.getNano());
+        }
+    }
+
+    private static LocalDateTime leerFechaHora(DataInput in) throws IOException {
+        if (!in.readBoolean()) {
+            return null;
+        }
+        long segundos = in.readLong();
+        int nanos = in.readInt();
+        return LocalDateTime.ofEpochSecond(segundos, nanos, ZoneOffset.UTC);
+    }
+}
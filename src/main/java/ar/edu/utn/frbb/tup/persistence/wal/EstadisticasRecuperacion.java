@@ -0,0 +1,44 @@
+package ar.edu.utn.frbb.tup.persistence.wal;
+
+/**
+ * Resultado de una recuperación: cuánto se leyó y cuánto tardó.
+ */
+public class EstadisticasRecuperacion {
+
+    private final long snapshot;
+    private final long entidadesSnapshot;
+    private final int segmentosReproducidos;
+    private final long registrosReproducidos;
+    private final long bytesWal;
+    private final long milisegundos;
+    private final long siguienteSegmento;
+
+    EstadisticasRecuperacion(long snapshot, long entidadesSnapshot, int segmentosReproducidos,
+                             long registrosReproducidos, long bytesWal, long milisegundos,
+                             long siguienteSegmento) {
+        this.snapshot = snapshot;
+        this.entidadesSnapshot = entidadesSnapshot;
+        this.segmentosReproducidos = segmentosReproducidos;
+        this.registrosReproducidos = registrosReproducidos;
+        this.bytesWal = bytesWal;
+        this.milisegundos = milisegundos;
+        this.siguienteSegmento = siguienteSegmento;
+    }
+
+    /** Número del snapshot cargado, o 0 si no había ninguno */
+    public long getSnapshot() { return snapshot; }
+    public long getEntidadesSnapshot() { return entidadesSnapshot; }
+    public int getSegmentosReproducidos() { return segmentosReproducidos; }
+    public long getRegistrosReproducidos() { return registrosReproducidos; }
+    public long getBytesWal() { return bytesWal; }
+    public long getMilisegundos() { return milisegundos; }
+
+    long getSiguienteSegmento() { return siguienteSegmento; }
+
+    @Override
+    public String toString() {
+        return "snapshot=" + snapshot + " (" + entidadesSnapshot + " entidades), "
+                + segmentosReproducidos + " segmentos de WAL, " + registrosReproducidos + " registros, "
+                + bytesWal + " bytes, " + milisegundos + " ms";
+    }
+}
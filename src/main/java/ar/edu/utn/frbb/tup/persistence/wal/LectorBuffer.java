@@ -0,0 +1,134 @@
+package ar.edu.utn.frbb.tup.persistence.wal;
+
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+/**
+ * DataInput sobre un ByteBuffer (por ejemplo, un archivo mapeado) usando solo lecturas absolutas.
+ * Cada lector tiene su propia posición, así varios hilos pueden leer el mismo buffer a la vez.
+ */
+final class LectorBuffer implements DataInput {
+
+    private final ByteBuffer buffer;
+    private int posicion;
+
+    LectorBuffer(ByteBuffer buffer, int posicion) {
+        this.buffer = buffer;
+        this.posicion = posicion;
+    }
+
+    private int avanzar(int bytes) throws EOFException {
+        if (posicion + bytes > buffer.limit()) {
+            throw new EOFException();
+        }
+        int actual = posicion;
+        posicion += bytes;
+        return actual;
+    }
+
+    @Override
+    public void readFully(byte[] destino) throws IOException {
+        readFully(destino, 0, destino.length);
+    }
+
+    @Override
+    public void readFully(byte[] destino, int desde, int cantidad) throws IOException {
+        int inicio = avanzar(cantidad);
+        for (int i = 0; i < cantidad; i++) {
+            destino[desde + i] = buffer.get(inicio + i);
+        }
+    }
+
+    @Override
+    public int skipBytes(int cantidad) throws IOException {
+        int salto = Math.min(cantidad, buffer.limit() - posicion);
+        posicion += salto;
+        return salto;
+    }
+
+    @Override
+    public boolean readBoolean() throws IOException {
+        return buffer.get(avanzar(1)) != 0;
+    }
+
+    @Override
+    public byte readByte() throws IOException {
+        return buffer.get(avanzar(1));
+    }
+
+    @Override
+    public int readUnsignedByte() throws IOException {
+        return buffer.get(avanzar(1)) & 0xFF;
+    }
+
+    @Override
+    public short readShort() throws IOException {
+        return buffer.getShort(avanzar(2));
+    }
+
+    @Override
+    public int readUnsignedShort() throws IOException {
+        return buffer.getShort(avanzar(2)) & 0xFFFF;
+    }
+
+    @Override
+    public char readChar() throws IOException {
+        return buffer.getChar(avanzar(2));
+    }
+
+    @Override
+    public int readInt() throws IOException {
+        return buffer.getInt(avanzar(4));
+    }
+
+    @Override
+    public long readLong() throws IOException {
+        return buffer.getLong(avanzar(8));
+    }
+
+    @Override
+    public float readFloat() throws IOException {
+        return buffer.getFloat(avanzar(4));
+    }
+
+    @Override
+    public double readDouble() throws IOException {
+        return buffer.getDouble(avanzar(8));
+    }
+
+    /**
+     * Lee bytes hasta un fin de línea ({@code \n}, {@code \r} o {@code \r\n}), cada uno como un
+     * carácter, igual que {@link DataInputStream#readLine()}. El formato binario no lo usa.
+     *
+     * @return la línea sin el fin de línea, o null si no quedaban bytes
+     */
+    @Override
+    public String readLine() {
+        if (posicion >= buffer.limit()) {
+            return null;
+        }
+        StringBuilder linea = new StringBuilder();
+        while (posicion < buffer.limit()) {
+            int caracter = buffer.get(posicion++) & 0xFF;
+            if (caracter == '\n') {
+                break;
+            }
+            if (caracter == '\r') {
+                if (posicion < buffer.limit() && buffer.get(posicion) == '\n') {
+                    posicion++;
+                }
+                break;
+            }
+            linea.append((char) caracter);
+        }
+        return linea.toString();
+    }
+
+    @Override
+    public String readUTF() throws IOException {
+        return DataInputStream.readUTF(this);
+    }
+}
@@ -0,0 +1,157 @@
+package ar.edu.utn.frbb.tup.persistence.wal;
+
+import ar.edu.utn.frbb.tup.persistence.AlmacenFrio;
+import ar.edu.utn.frbb.tup.persistence.entity.BaseEntity;
+import ar.edu.utn.frbb.tup.persistence.entity.MovimientoEntity;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.zip.CRC32;
+
+/**
+ * Lee los segmentos del WAL y entrega cada registro válido a un receptor.
+ * Un registro incompleto o con CRC inválido marca el final del segmento: es lo que queda
+ * de una escritura cortada por una caída. El segmento se trunca ahí para que no quede basura.
+ */
+final class LectorWal {
+
+    private static final Logger log = LoggerFactory.getLogger(LectorWal.class);
+
+    /** Tamaño máximo razonable de un registro; algo mayor indica una longitud corrupta */
+    private static final int MAXIMO_REGISTRO = 64 * 1024 * 1024;
+
+    /**
+     * Recibe los cambios leídos del WAL o de un snapshot.
+     */
+    interface Receptor {
+        void guardado(byte tabla, BaseEntity entidad);
+
+        void borrado(byte tabla, long id);
+
+        void movimientos(long numeroCuenta, List<MovimientoEntity> movimientos);
+
+        /** Tabla de un snapshot que se sirve desde disco en lugar de cargarse entera */
+        void almacenFrio(byte tabla, AlmacenFrio<? extends BaseEntity> almacen);
+
+        /** Último id que la secuencia de la tabla ya había reservado al tomar el snapshot */
+        void idReservado(byte tabla, long ultimoId);
+    }
+
+    private LectorWal() {
+    }
+
+    /**
+     * Reproduce todos los registros válidos del segmento.
+     *
+     * @return cantidad de registros reproducidos
+     */
+    static long reproducir(Path segmento, Receptor receptor) throws IOException {
+        long registros = 0;
+        long posicionValida;
+        boolean cortado = false;
+        CRC32 crc = new CRC32();
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(segmento), 1 << 16))) {
+            if (in.readInt() != WriteAheadLog.MAGICO) {
+                throw new IOException("El archivo no es un segmento del WAL: " + segmento);
+            }
+            int version = in.readInt();
+            int formato;
+            if (version == WriteAheadLog.VERSION) {
+                formato = CodecEntidades.FORMATO_COMPACTO;
+            } else if (version == 1) {
+                // Segmento escrito antes del formato compacto; se reproduce igual
+                formato = CodecEntidades.FORMATO_TEXTO;
+            } else {
+                throw new IOException("Versión de WAL no soportada: " + version);
+            }
+            posicionValida = WriteAheadLog.LONGITUD_ENCABEZADO;
+
+            byte[] payload = new byte[256];
+            while (true) {
+                int longitud;
+                try {
+                    longitud = in.readInt();
+                } catch (EOFException e) {
+                    break;
+                }
+                try {
+                    int crcEsperado = in.readInt();
+                    if (longitud <= 0 || longitud > MAXIMO_REGISTRO) {
+                        cortado = true;
+                        break;
+                    }
+                    if (payload.length < longitud) {
+                        payload = new byte[Math.max(longitud, payload.length * 2)];
+                    }
+                    in.readFully(payload, 0, longitud);
+                    crc.reset();
+                    crc.update(payload, 0, longitud);
+                    if ((int) crc.getValue() != crcEsperado) {
+                        cortado = true;
+                        break;
+                    }
+                } catch (EOFException e) {
+                    cortado = true;
+                    break;
+                }
+                aplicar(new DataInputStream(new ByteArrayInputStream(payload, 0, longitud)), formato, receptor);
+                registros++;
+                posicionValida += 8 + longitud;
+            }
+        }
+
+        if (cortado || Files.size(segmento) > posicionValida) {
+            log.warn("Segmento {} con final incompleto; se trunca en el byte {}", segmento, posicionValida);
+            try (FileChannel canal = FileChannel.open(segmento, StandardOpenOption.WRITE)) {
+                canal.truncate(posicionValida);
+            }
+        }
+        return registros;
+    }
+
+    private static void aplicar(DataInputStream in, int formato, Receptor receptor) throws IOException {
+        byte tipo = in.readByte();
+        switch (tipo) {
+            case WriteAheadLog.REGISTRO_GUARDADO: {
+                byte tabla = in.readByte();
+                receptor.guardado(tabla, CodecEntidades.leerEntidad(in, tabla, formato));
+                break;
+            }
+            case WriteAheadLog.REGISTRO_BORRADO: {
+                byte tabla = in.readByte();
+                receptor.borrado(tabla, in.readLong());
+                break;
+            }
+            case WriteAheadLog.REGISTRO_MOVIMIENTOS: {
+                long numeroCuenta = in.readLong();
+                receptor.movimientos(numeroCuenta, CodecEntidades.leerMovimientos(in, formato));
+                break;
+            }
+            case WriteAheadLog.REGISTRO_ASIENTO: {
+                // El registro ya pasó el CRC: se aplican todas las patas
+                int patas = in.readInt();
+                for (int i = 0; i < patas; i++) {
+                    List<MovimientoEntity> movimientos = CodecEntidades.leerMovimientos(in, formato);
+                    BaseEntity cuenta = CodecEntidades.leerEntidad(in, CodecEntidades.TABLA_CUENTA, formato);
+                    if (!movimientos.isEmpty()) {
+                        receptor.movimientos(cuenta.getId(), movimientos);
+                    }
+                    receptor.guardado(CodecEntidades.TABLA_CUENTA, cuenta);
+                }
+                break;
+            }
+            default:
+                throw new IOException("Tipo de registro desconocido en el WAL: " + tipo);
+        }
+    }
+}
@@ -0,0 +1,290 @@
+package ar.edu.utn.frbb.tup.persistence.wal;
+
+import ar.edu.utn.frbb.tup.model.Movimiento;
+import ar.edu.utn.frbb.tup.persistence.AbstractBaseDao;
+import ar.edu.utn.frbb.tup.persistence.AlmacenFrio;
+import ar.edu.utn.frbb.tup.persistence.ClienteDao;
+import ar.edu.utn.frbb.tup.persistence.CuentaDao;
+import ar.edu.utn.frbb.tup.persistence.DiarioCambios;
+import ar.edu.utn.frbb.tup.persistence.MovimientoDao;
+import ar.edu.utn.frbb.tup.persistence.PrestamoDao;
+import ar.edu.utn.frbb.tup.persistence.entity.BaseEntity;
+import ar.edu.utn.frbb.tup.persistence.entity.MovimientoEntity;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Hace durable la base en memoria con un write-ahead log y snapshots periódicos.
+ * Al levantar carga el último snapshot y reproduce los segmentos del WAL posteriores;
+ * después engancha el WAL en los DAOs para registrar cada mutación.
+ * Las tablas del snapshot no se cargan al heap: quedan mapeadas como capa fría de cada DAO,
+ * y un registro pasa a memoria recién cuando se escribe.
+ * Cada tanto (por tiempo o por tamaño del WAL) toma un snapshot y borra los segmentos
+ * que ya quedaron incluidos, así el tiempo de recuperación queda acotado.
+ * Se activa con {@code banco.persistencia.habilitada=true}; sin eso la base es solo en memoria.
+ */
+@Component
+@ConditionalOnProperty(prefix = "banco.persistencia", name = "habilitada", havingValue = "true")
+public class MotorPersistencia {
+
+    private static final Logger log = LoggerFactory.getLogger(MotorPersistencia.class);
+
+    private static final Pattern ARCHIVO_SEGMENTO = Pattern.compile("wal-(\\d+)\\.log");
+    private static final Pattern ARCHIVO_SNAPSHOT = Pattern.compile("snapshot-(\\d+)\\.bin");
+
+    /** Cada cuánto se revisa si corresponde tomar un snapshot */
+    private static final long SEGUNDOS_ENTRE_REVISIONES = 10;
+
+    private final ClienteDao clienteDao;
+    private final CuentaDao cuentaDao;
+    private final PrestamoDao prestamoDao;
+    private final MovimientoDao movimientoDao;
+    private final Path directorio;
+    private final PoliticaFsync politicaFsync;
+    private final long intervaloFsyncMs;
+    private final long intervaloSnapshotNanos;
+    private final long umbralSnapshotBytes;
+    private final ReentrantLock lockSnapshot = new ReentrantLock();
+
+    private volatile WriteAheadLog wal;
+    private volatile long ultimoSnapshot = System.nanoTime();
+    private ScheduledExecutorService programador;
+
+    public MotorPersistencia(ClienteDao clienteDao, CuentaDao cuentaDao, PrestamoDao prestamoDao,
+                             MovimientoDao movimientoDao,
+                             @Value("${banco.persistencia.directorio:datos}") String directorio,
+                             @Value("${banco.persistencia.fsync:SIEMPRE}") PoliticaFsync politicaFsync,
+                             @Value("${banco.persistencia.fsync-intervalo-ms:10}") long intervaloFsyncMs,
+                             @Value("${banco.persistencia.snapshot-intervalo-segundos:300}") long intervaloSnapshotSegundos,
+                             @Value("${banco.persistencia.snapshot-umbral-wal-mb:64}") long umbralSnapshotMb) {
+        this.clienteDao = clienteDao;
+        this.cuentaDao = cuentaDao;
+        this.prestamoDao = prestamoDao;
+        this.movimientoDao = movimientoDao;
+        this.directorio = Paths.get(directorio);
+        this.politicaFsync = politicaFsync;
+        this.intervaloFsyncMs = intervaloFsyncMs;
+        this.intervaloSnapshotNanos = TimeUnit.SECONDS.toNanos(intervaloSnapshotSegundos);
+        this.umbralSnapshotBytes = umbralSnapshotMb * 1024 * 1024;
+    }
+
+    @PostConstruct
+    public void iniciar() throws IOException {
+        Files.createDirectories(directorio);
+        EstadisticasRecuperacion estadisticas = recuperar();
+        log.info("Base recuperada desde {}: {}", directorio.toAbsolutePath(), estadisticas);
+
+        wal = new WriteAheadLog(directorio, politicaFsync, intervaloFsyncMs, estadisticas.getSiguienteSegmento());
+        for (AbstractBaseDao<?> dao : daos()) {
+            dao.setDiario(wal);
+        }
+
+        programador = Executors.newSingleThreadScheduledExecutor(tarea -> {
+            Thread hilo = new Thread(tarea, "snapshot-persistencia");
+            hilo.setDaemon(true);
+            return hilo;
+        });
+        programador.scheduleWithFixedDelay(this::snapshotSiCorresponde,
+                SEGUNDOS_ENTRE_REVISIONES, SEGUNDOS_ENTRE_REVISIONES, TimeUnit.SECONDS);
+    }
+
+    @PreDestroy
+    public void detener() throws IOException {
+        if (programador != null) {
+            programador.shutdownNow();
+        }
+        for (AbstractBaseDao<?> dao : daos()) {
+            dao.setDiario(DiarioCambios.NINGUNO);
+        }
+        if (wal != null) {
+            wal.close();
+        }
+    }
+
+    /**
+     * Carga el último snapshot y reproduce los segmentos del WAL que le siguen.
+     * Reproducir es idempotente: aplicar dos veces un mismo registro deja el mismo estado.
+     */
+    public EstadisticasRecuperacion recuperar() throws IOException {
+        long inicio = System.nanoTime();
+        TreeMap<Long, Path> snapshots = listar(ARCHIVO_SNAPSHOT);
+        TreeMap<Long, Path> segmentos = listar(ARCHIVO_SEGMENTO);
+        ReceptorDaos receptor = new ReceptorDaos();
+
+        long snapshot = 0;
+        long entidadesSnapshot = 0;
+        if (!snapshots.isEmpty()) {
+            snapshot = snapshots.lastKey();
+            entidadesSnapshot = Snapshot.leer(snapshots.lastEntry().getValue(), receptor);
+        }
+
+        int segmentosReproducidos = 0;
+        long registros = 0;
+        long bytes = 0;
+        for (Path segmento : segmentos.tailMap(snapshot, true).values()) {
+            registros += LectorWal.reproducir(segmento, receptor);
+            bytes += Files.size(segmento);
+            segmentosReproducidos++;
+        }
+        Movimiento.reservarIdsHasta(receptor.ultimoIdMovimiento);
+        cuentaDao.reservarIdsHasta(receptor.ultimoNumeroCuenta);
+        prestamoDao.reservarIdsHasta(receptor.ultimoIdPrestamo);
+
+        long ultimoSegmento = segmentos.isEmpty() ? 0 : segmentos.lastKey();
+        long siguienteSegmento = Math.max(ultimoSegmento, snapshot) + 1;
+        return new EstadisticasRecuperacion(snapshot, entidadesSnapshot, segmentosReproducidos, registros, bytes,
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - inicio), siguienteSegmento);
+    }
+
+    /**
+     * Toma un snapshot de todas las tablas y borra los segmentos y snapshots que ya no hacen falta.
+     */
+    public void tomarSnapshot() throws IOException {
+        lockSnapshot.lock();
+        try {
+            long segmento = wal.rotar();
+            // Antes de recorrer las tablas: cubre todo lo entregado hasta el segmento nuevo
+            Map<Byte, Long> ultimosIds = new LinkedHashMap<>();
+            ultimosIds.put(CodecEntidades.TABLA_CUENTA, cuentaDao.ultimoIdReservado());
+            ultimosIds.put(CodecEntidades.TABLA_PRESTAMO, prestamoDao.ultimoIdReservado());
+            ultimosIds.put(CodecEntidades.TABLA_MOVIMIENTO, Movimiento.ultimoIdReservado());
+            Snapshot.escribir(Snapshot.archivoSnapshot(directorio, segmento), ultimosIds,
+                    clienteDao.exportarEntidades(), cuentaDao.exportarEntidades(),
+                    prestamoDao.exportarEntidades(), movimientoDao.exportarEntidades());
+            ultimoSnapshot = System.nanoTime();
+
+            // Snapshot.escribir ya sincronizó el directorio: el snapshot sobrevive a un corte
+            for (Path viejo : listar(ARCHIVO_SEGMENTO).headMap(segmento, false).values()) {
+                Files.deleteIfExists(viejo);
+            }
+            // Un snapshot viejo puede seguir mapeado como capa fría; borrarlo no invalida el mapeo
+            for (Path viejo : listar(ARCHIVO_SNAPSHOT).headMap(segmento, false).values()) {
+                Files.deleteIfExists(viejo);
+            }
+        } finally {
+            lockSnapshot.unlock();
+        }
+    }
+
+    private void snapshotSiCorresponde() {
+        try {
+            if (wal.getBytesSegmentoActual() >= umbralSnapshotBytes
+                    || System.nanoTime() - ultimoSnapshot >= intervaloSnapshotNanos) {
+                tomarSnapshot();
+            }
+        } catch (IOException | RuntimeException e) {
+            log.error("No se pudo tomar el snapshot de la base", e);
+        }
+    }
+
+    private TreeMap<Long, Path> listar(Pattern patron) throws IOException {
+        TreeMap<Long, Path> archivos = new TreeMap<>();
+        try (DirectoryStream<Path> contenido = Files.newDirectoryStream(directorio)) {
+            for (Path archivo : contenido) {
+                Matcher matcher = patron.matcher(archivo.getFileName().toString());
+                if (matcher.matches()) {
+                    archivos.put(Long.parseLong(matcher.group(1)), archivo);
+                }
+            }
+        }
+        return archivos;
+    }
+
+    private List<AbstractBaseDao<?>> daos() {
+        return List.of(clienteDao, cuentaDao, prestamoDao, movimientoDao);
+    }
+
+    /**
+     * Aplica lo leído del disco directamente sobre las tablas, sin pasar por el diario.
+     */
+    private class ReceptorDaos implements LectorWal.Receptor {
+
+        private long ultimoIdMovimiento;
+        // Incluye las cuentas borradas, para no volver a entregar su número
+        private long ultimoNumeroCuenta;
+        private long ultimoIdPrestamo;
+
+        @Override
+        public void guardado(byte tabla, BaseEntity entidad) {
+            dao(tabla).restaurarGuardado(entidad);
+            registrarId(tabla, entidad.getId());
+        }
+
+        @Override
+        public void borrado(byte tabla, long id) {
+            dao(tabla).restaurarBorrado(id);
+            registrarId(tabla, id);
+        }
+
+        @Override
+        public void movimientos(long numeroCuenta, List<MovimientoEntity> movimientos) {
+            movimientoDao.restaurarMovimientos(numeroCuenta, movimientos);
+            ultimoNumeroCuenta = Math.max(ultimoNumeroCuenta, numeroCuenta);
+            if (!movimientos.isEmpty()) {
+                ultimoIdMovimiento = Math.max(ultimoIdMovimiento, movimientos.get(movimientos.size() - 1).getId());
+            }
+        }
+
+        @Override
+        public void almacenFrio(byte tabla, AlmacenFrio<? extends BaseEntity> almacen) {
+            dao(tabla).setAlmacenFrio(almacen);
+            if (almacen.cantidad() > 0) {
+                // Los registros están ordenados por id
+                registrarId(tabla, almacen.idEn(almacen.cantidad() - 1));
+            }
+        }
+
+        @Override
+        public void idReservado(byte tabla, long ultimoId) {
+            if (tabla == CodecEntidades.TABLA_MOVIMIENTO) {
+                ultimoIdMovimiento = Math.max(ultimoIdMovimiento, ultimoId);
+            } else {
+                registrarId(tabla, ultimoId);
+            }
+        }
+
+        private void registrarId(byte tabla, long id) {
+            if (tabla == CodecEntidades.TABLA_CUENTA) {
+                ultimoNumeroCuenta = Math.max(ultimoNumeroCuenta, id);
+            } else if (tabla == CodecEntidades.TABLA_PRESTAMO) {
+                ultimoIdPrestamo = Math.max(ultimoIdPrestamo, id);
+            }
+        }
+
+        private AbstractBaseDao<?> dao(byte tabla) {
+            switch (tabla) {
+                case CodecEntidades.TABLA_CLIENTE:
+                    return clienteDao;
+                case CodecEntidades.TABLA_CUENTA:
+                    return cuentaDao;
+                case CodecEntidades.TABLA_PRESTAMO:
+                    return prestamoDao;
+                case CodecEntidades.TABLA_MOVIMIENTO:
+                    return movimientoDao;
+                default:
+                    throw new IllegalArgumentException("Tabla desconocida: " + tabla);
+            }
+        }
+    }
+}
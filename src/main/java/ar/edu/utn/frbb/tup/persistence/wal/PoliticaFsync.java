@@ -0,0 +1,13 @@
+package ar.edu.utn.frbb.tup.persistence.wal;
+
+/**
+ * Cuándo se fuerza a disco (fsync) lo escrito en el WAL.
+ */
+public enum PoliticaFsync {
+    /** Cada lote se fuerza a disco antes de confirmar las escrituras que contiene */
+    SIEMPRE,
+    /** Se fuerza a disco cada cierto intervalo; un corte puede perder las escrituras de ese intervalo */
+    INTERVALO,
+    /** Nunca se fuerza: el sistema operativo decide cuándo bajar los datos a disco */
+    NUNCA
+}
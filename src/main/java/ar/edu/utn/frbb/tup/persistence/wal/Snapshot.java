@@ -0,0 +1,277 @@
+package ar.edu.utn.frbb.tup.persistence.wal;
+
+import ar.edu.utn.frbb.tup.persistence.entity.BaseEntity;
+import ar.edu.utn.frbb.tup.persistence.entity.HistorialMovimientosEntity;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.FileOutputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Imagen compacta de todas las tablas, en archivos {@code snapshot-N.bin}.
+ * Un snapshot N contiene el estado hasta el segmento N del WAL (exclusive): para recuperar
+ * alcanza con cargarlo y reproducir los segmentos N en adelante.
+ * Se escribe en un archivo temporal que se renombra al terminar, así un snapshot
+ * presente en el directorio siempre está completo.
+ * <p>
+ * Desde la versión 2 cada tabla es una sección con sus registros ordenados por id y un índice
+ * id → desplazamiento al final; al recuperar la sección se mapea en memoria ({@link TablaMapeada})
+ * en lugar de decodificarse entera. Un directorio al final del archivo indica dónde empieza
+ * cada sección. Los historiales de movimientos se siguen cargando completos: en memoria se
+ * les agrega al final y se indexan por tipo y con checkpoints de saldo, así que no se
+ * pueden servir desde el archivo como las tablas. Con historiales largos son la mayor parte
+ * del heap después de recuperar.
+ * Los snapshots de la versión 1 (un único flujo de registros) se siguen pudiendo leer.
+ * La versión 3 tiene las mismas secciones que la 2 con los registros en
+ * {@link CodecEntidades#FORMATO_COMPACTO}; las anteriores están en formato de texto.
+ * La versión 4 agrega al encabezado el último id reservado de cada secuencia, que el
+ * snapshot necesita porque las entidades borradas ya no están en él.
+ */
+final class Snapshot {
+
+    static final int MAGICO = 0x534E4150;
+    static final int VERSION = 4;
+
+    private static final int VERSION_FLUJO = 1;
+    private static final int VERSION_SECCIONES_TEXTO = 2;
+    private static final int VERSION_SECCIONES_COMPACTO = 3;
+    private static final byte FIN = 0;
+    private static final int LONGITUD_COLA = Long.BYTES + Integer.BYTES;
+
+    private Snapshot() {
+    }
+
+    static Path archivoSnapshot(Path directorio, long segmento) {
+        return directorio.resolve(String.format("snapshot-%010d.bin", segmento));
+    }
+
+    /**
+     * Escribe el snapshot recorriendo las tablas en memoria.
+     * El recorrido es débilmente consistente; lo que cambie mientras tanto también
+     * está en el segmento nuevo del WAL y se reaplica al recuperar.
+     *
+     * @param ultimosIds último id reservado por tabla, leído antes de recorrer las tablas
+     */
+    static void escribir(Path archivo, Map<Byte, Long> ultimosIds, Collection<? extends BaseEntity> clientes,
+                         Collection<? extends BaseEntity> cuentas,
+                         Collection<? extends BaseEntity> prestamos,
+                         Collection<HistorialMovimientosEntity> historiales) throws IOException {
+        Path temporal = archivo.resolveSibling(archivo.getFileName() + ".tmp");
+        try (FileOutputStream archivoSalida = new FileOutputStream(temporal.toFile())) {
+            SalidaContada contador = new SalidaContada(new BufferedOutputStream(archivoSalida, 1 << 16));
+            DataOutputStream out = new DataOutputStream(contador);
+            out.writeInt(MAGICO);
+            out.writeInt(VERSION);
+            out.writeInt(ultimosIds.size());
+            for (Map.Entry<Byte, Long> ultimoId : ultimosIds.entrySet()) {
+                out.writeByte(ultimoId.getKey());
+                out.writeLong(ultimoId.getValue());
+            }
+
+            long[] clientesSeccion = escribirSeccion(out, contador, CodecEntidades.TABLA_CLIENTE, clientes);
+            long[] cuentasSeccion = escribirSeccion(out, contador, CodecEntidades.TABLA_CUENTA, cuentas);
+            long[] prestamosSeccion = escribirSeccion(out, contador, CodecEntidades.TABLA_PRESTAMO, prestamos);
+
+            long posicionMovimientos = contador.posicion;
+            for (HistorialMovimientosEntity historial : historiales) {
+                // Solo lo publicado hasta este momento; lo que se agregue después está en el WAL
+                int cantidad = historial.getCantidad();
+                out.writeByte(CodecEntidades.TABLA_MOVIMIENTO);
+                out.writeLong(historial.getNumeroCuenta());
+                out.writeInt(cantidad);
+                for (int i = 0; i < cantidad; i++) {
+                    CodecEntidades.escribirMovimiento(out, historial.getMovimiento(i));
+                }
+            }
+            out.writeByte(FIN);
+
+            long posicionDirectorio = contador.posicion;
+            out.writeInt(3);
+            escribirEntradaDirectorio(out, CodecEntidades.TABLA_CLIENTE, clientesSeccion);
+            escribirEntradaDirectorio(out, CodecEntidades.TABLA_CUENTA, cuentasSeccion);
+            escribirEntradaDirectorio(out, CodecEntidades.TABLA_PRESTAMO, prestamosSeccion);
+            out.writeLong(posicionMovimientos);
+            out.writeLong(posicionDirectorio);
+            out.writeInt(MAGICO);
+            out.flush();
+            archivoSalida.getFD().sync();
+        }
+        Files.move(temporal, archivo, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        // El renombre tiene que ser durable antes de que se borren los segmentos que reemplaza
+        WriteAheadLog.sincronizarDirectorio(archivo.getParent());
+    }
+
+    /**
+     * Carga el snapshot: las tablas se entregan mapeadas y los historiales decodificados.
+     *
+     * @return cantidad de entidades del snapshot
+     */
+    static long leer(Path archivo, LectorWal.Receptor receptor) throws IOException {
+        try (FileChannel canal = FileChannel.open(archivo, StandardOpenOption.READ)) {
+            ByteBuffer encabezado = ByteBuffer.allocate(8);
+            leerCompleto(canal, encabezado, 0);
+            if (encabezado.getInt(0) != MAGICO) {
+                throw new IOException("El archivo no es un snapshot: " + archivo);
+            }
+            int version = encabezado.getInt(4);
+            if (version == VERSION_FLUJO) {
+                canal.position(8);
+                return leerRegistros(flujo(canal), CodecEntidades.FORMATO_TEXTO, receptor);
+            }
+            if (version != VERSION && version != VERSION_SECCIONES_COMPACTO && version != VERSION_SECCIONES_TEXTO) {
+                throw new IOException("Versión de snapshot no soportada: " + version);
+            }
+            int formato = version == VERSION_SECCIONES_TEXTO
+                    ? CodecEntidades.FORMATO_TEXTO : CodecEntidades.FORMATO_COMPACTO;
+            if (version == VERSION) {
+                canal.position(8);
+                DataInputStream ids = flujo(canal);
+                int secuencias = ids.readInt();
+                for (int i = 0; i < secuencias; i++) {
+                    receptor.idReservado(ids.readByte(), ids.readLong());
+                }
+            }
+
+            ByteBuffer cola = ByteBuffer.allocate(LONGITUD_COLA);
+            leerCompleto(canal, cola, canal.size() - LONGITUD_COLA);
+            if (cola.getInt(Long.BYTES) != MAGICO) {
+                throw new IOException("Snapshot incompleto: " + archivo);
+            }
+            canal.position(cola.getLong(0));
+            DataInputStream directorio = flujo(canal);
+            long entidades = 0;
+            int tablas = directorio.readInt();
+            for (int i = 0; i < tablas; i++) {
+                byte tabla = directorio.readByte();
+                long inicio = directorio.readLong();
+                long posicionIds = directorio.readLong();
+                int cantidad = directorio.readInt();
+                long longitud = posicionIds - inicio + (long) cantidad * (Long.BYTES + Integer.BYTES);
+                ByteBuffer seccion = canal.map(FileChannel.MapMode.READ_ONLY, inicio, longitud);
+                receptor.almacenFrio(tabla,
+                        new TablaMapeada<>(tabla, formato, seccion, (int) (posicionIds - inicio), cantidad));
+                entidades += cantidad;
+            }
+            canal.position(directorio.readLong());
+            return entidades + leerRegistros(flujo(canal), formato, receptor);
+        }
+    }
+
+    /**
+     * Escribe una tabla como sección mapeable.
+     *
+     * @return inicio de la sección, posición del índice de ids y cantidad de registros
+     */
+    private static long[] escribirSeccion(DataOutputStream out, SalidaContada contador, byte tabla,
+                                          Collection<? extends BaseEntity> entidades) throws IOException {
+        // Una sola pasada: con capa fría, size() también recorre la tabla
+        List<BaseEntity> ordenadas = new ArrayList<>();
+        for (BaseEntity entidad : entidades) {
+            ordenadas.add(entidad);
+        }
+        ordenadas.sort(Comparator.comparingLong(BaseEntity::getId));
+
+        long inicio = contador.posicion;
+        int[] desplazamientos = new int[ordenadas.size()];
+        for (int i = 0; i < ordenadas.size(); i++) {
+            long desplazamiento = contador.posicion - inicio;
+            if (desplazamiento > Integer.MAX_VALUE) {
+                throw new IOException("La tabla " + tabla + " no entra en una sección mapeable de 2 GB");
+            }
+            desplazamientos[i] = (int) desplazamiento;
+            CodecEntidades.escribirEntidad(out, tabla, ordenadas.get(i));
+        }
+
+        long posicionIds = contador.posicion;
+        for (BaseEntity entidad : ordenadas) {
+            out.writeLong(entidad.getId());
+        }
+        for (int desplazamiento : desplazamientos) {
+            out.writeInt(desplazamiento);
+        }
+        return new long[]{inicio, posicionIds, ordenadas.size()};
+    }
+
+    private static void escribirEntradaDirectorio(DataOutputStream out, byte tabla, long[] seccion)
+            throws IOException {
+        out.writeByte(tabla);
+        out.writeLong(seccion[0]);
+        out.writeLong(seccion[1]);
+        out.writeInt((int) seccion[2]);
+    }
+
+    /**
+     * Lee registros sueltos hasta la marca de fin: las tablas de un snapshot de la versión 1
+     * y los historiales de movimientos de cualquier versión.
+     */
+    private static long leerRegistros(DataInput in, int formato, LectorWal.Receptor receptor) throws IOException {
+        long entidades = 0;
+        byte tabla;
+        while ((tabla = in.readByte()) != FIN) {
+            if (tabla == CodecEntidades.TABLA_MOVIMIENTO) {
+                long numeroCuenta = in.readLong();
+                receptor.movimientos(numeroCuenta, CodecEntidades.leerMovimientos(in, formato));
+            } else {
+                receptor.guardado(tabla, CodecEntidades.leerEntidad(in, tabla, formato));
+            }
+            entidades++;
+        }
+        return entidades;
+    }
+
+    /**
+     * Flujo que lee desde la posición actual del canal. No se cierra: el canal lo cierra leer().
+     */
+    private static DataInputStream flujo(FileChannel canal) {
+        return new DataInputStream(new BufferedInputStream(Channels.newInputStream(canal), 1 << 16));
+    }
+
+    private static void leerCompleto(FileChannel canal, ByteBuffer destino, long posicion) throws IOException {
+        while (destino.hasRemaining()) {
+            if (canal.read(destino, posicion + destino.position()) < 0) {
+                throw new IOException("Snapshot incompleto");
+            }
+        }
+    }
+
+    /**
+     * Cuenta los bytes escritos con un long; DataOutputStream.size() se satura en 2 GB.
+     */
+    private static final class SalidaContada extends FilterOutputStream {
+        private long posicion;
+
+        private SalidaContada(OutputStream out) {
+            super(out);
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            out.write(b);
+            posicion++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            out.write(b, off, len);
+            posicion += len;
+        }
+    }
+}
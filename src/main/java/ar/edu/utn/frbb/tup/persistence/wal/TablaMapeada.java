@@ -0,0 +1,73 @@
+package ar.edu.utn.frbb.tup.persistence.wal;
+
+import ar.edu.utn.frbb.tup.persistence.AlmacenFrio;
+import ar.edu.utn.frbb.tup.persistence.entity.BaseEntity;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+
+/**
+ * Tabla de un snapshot leída a través de un archivo mapeado en memoria.
+ * La sección tiene los registros uno detrás de otro, seguidos de los ids ordenados (long)
+ * y del desplazamiento de cada registro dentro de la sección (int).
+ * Buscar un id es una búsqueda binaria sobre el mapa, y el registro se decodifica
+ * recién cuando se pide: nada de la tabla queda como objeto en el heap.
+ */
+final class TablaMapeada<E extends BaseEntity> implements AlmacenFrio<E> {
+
+    private final byte tabla;
+    private final int formato;
+    private final ByteBuffer seccion;
+    private final int posicionIds;
+    private final int posicionDesplazamientos;
+    private final int cantidad;
+
+    TablaMapeada(byte tabla, int formato, ByteBuffer seccion, int posicionIds, int cantidad) {
+        this.tabla = tabla;
+        this.formato = formato;
+        this.seccion = seccion;
+        this.posicionIds = posicionIds;
+        this.posicionDesplazamientos = posicionIds + cantidad * Long.BYTES;
+        this.cantidad = cantidad;
+    }
+
+    @Override
+    public int cantidad() {
+        return cantidad;
+    }
+
+    @Override
+    public long idEn(int posicion) {
+        return seccion.getLong(posicionIds + posicion * Long.BYTES);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public E leerEn(int posicion) {
+        int desplazamiento = seccion.getInt(posicionDesplazamientos + posicion * Integer.BYTES);
+        try {
+            return (E) CodecEntidades.leerEntidad(new LectorBuffer(seccion, desplazamiento), tabla, formato);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Registro corrupto en el snapshot mapeado", e);
+        }
+    }
+
+    @Override
+    public int buscar(long id) {
+        int desde = 0;
+        int hasta = cantidad - 1;
+        while (desde <= hasta) {
+            int medio = (desde + hasta) >>> 1;
+            long actual = idEn(medio);
+            if (actual < id) {
+                desde = medio + 1;
+            } else if (actual > id) {
+                hasta = medio - 1;
+            } else {
+                return medio;
+            }
+        }
+        return -(desde + 1);
+    }
+}
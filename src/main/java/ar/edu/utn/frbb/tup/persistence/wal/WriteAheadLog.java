@@ -0,0 +1,415 @@
+package ar.edu.utn.frbb.tup.persistence.wal;
+
+import ar.edu.utn.frbb.tup.model.exception.PersistenciaNoDisponibleException;
+import ar.edu.utn.frbb.tup.persistence.Asiento;
+import ar.edu.utn.frbb.tup.persistence.DiarioCambios;
+import ar.edu.utn.frbb.tup.persistence.entity.BaseEntity;
+import ar.edu.utn.frbb.tup.persistence.entity.MovimientoEntity;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.zip.CRC32;
+
+/**
+ * Write-ahead log de las mutaciones de los DAOs, en segmentos {@code wal-N.log}.
+ * Los DAOs encolan cada cambio y un único hilo escritor los codifica y los escribe en lotes
+ * (group commit): todo lo encolado mientras se escribía el lote anterior sale en una sola
+ * escritura y, según la política, en un solo fsync.
+ * Cada registro va precedido por su longitud y su CRC32, así un final cortado se detecta al leer.
+ * Un asiento (los cambios de varias cuentas juntos) va en un único registro, así que al
+ * recuperar se aplica entero o, si quedó cortado, no se aplica.
+ */
+public class WriteAheadLog implements DiarioCambios, Closeable {
+
+    private static final Logger log = LoggerFactory.getLogger(WriteAheadLog.class);
+
+    static final int MAGICO = 0x57414C31;
+    /** Desde la versión 2 los registros usan {@link CodecEntidades#FORMATO_COMPACTO} */
+    static final int VERSION = 2;
+    static final int LONGITUD_ENCABEZADO = 8;
+
+    static final byte REGISTRO_GUARDADO = 1;
+    static final byte REGISTRO_BORRADO = 2;
+    static final byte REGISTRO_MOVIMIENTOS = 3;
+    static final byte REGISTRO_ASIENTO = 4;
+
+    private static final byte CONTROL_ROTAR = -1;
+    private static final byte CONTROL_CERRAR = -2;
+
+    /** Máximo de registros por lote, para acotar la memoria del buffer */
+    private static final int MAXIMO_LOTE = 4096;
+
+    private final Path directorio;
+    private final PoliticaFsync politica;
+    private final long intervaloFsyncNanos;
+    private final BlockingQueue<Registro> cola = new LinkedBlockingQueue<>();
+    private final ReentrantLock lockConfirmacion = new ReentrantLock();
+    private final Condition confirmados = lockConfirmacion.newCondition();
+    private final Thread escritor;
+
+    private volatile boolean cerrado;
+    private volatile IOException falla;
+    private volatile long bytesSegmentoActual;
+
+    // Estado del hilo escritor
+    private final BufferLote lote = new BufferLote();
+    private final BufferLote payload = new BufferLote();
+    private final DataOutputStream salidaPayload = new DataOutputStream(payload);
+    private final CRC32 crc = new CRC32();
+    private final List<Registro> sinConfirmar = new ArrayList<>();
+    private FileChannel canal;
+    private long segmentoActual;
+    private long ultimoFsync;
+    private boolean pendienteFsync;
+
+    /**
+     * Abre el segmento indicado (que no debe existir) y arranca el hilo escritor.
+     */
+    public WriteAheadLog(Path directorio, PoliticaFsync politica, long intervaloFsyncMs, long segmentoInicial)
+            throws IOException {
+        this.directorio = directorio;
+        this.politica = politica;
+        this.intervaloFsyncNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(1, intervaloFsyncMs));
+        abrirSegmento(segmentoInicial);
+        this.escritor = new Thread(this::escribirLotes, "wal-escritor");
+        this.escritor.setDaemon(true);
+        this.escritor.start();
+    }
+
+    /**
+     * Hace durables las altas, renombres y bajas de archivos del directorio. Un fsync del
+     * archivo no alcanza: la entrada del directorio se persiste aparte.
+     */
+    static void sincronizarDirectorio(Path directorio) throws IOException {
+        try (FileChannel canalDirectorio = FileChannel.open(directorio, StandardOpenOption.READ)) {
+            canalDirectorio.force(true);
+        }
+    }
+
+    static Path archivoSegmento(Path directorio, long segmento) {
+        return directorio.resolve(String.format("wal-%010d.log", segmento));
+    }
+
+    @Override
+    public Confirmacion registrarGuardado(String tabla, BaseEntity entidad) {
+        Registro registro = new Registro(REGISTRO_GUARDADO);
+        registro.tabla = CodecEntidades.codigoTabla(tabla);
+        registro.entidad = entidad;
+        return encolar(registro);
+    }
+
+    @Override
+    public Confirmacion registrarBorrado(String tabla, long id) {
+        Registro registro = new Registro(REGISTRO_BORRADO);
+        registro.tabla = CodecEntidades.codigoTabla(tabla);
+        registro.id = id;
+        return encolar(registro);
+    }
+
+    @Override
+    public Confirmacion registrarMovimientos(long numeroCuenta, List<MovimientoEntity> movimientos) {
+        Registro registro = new Registro(REGISTRO_MOVIMIENTOS);
+        registro.id = numeroCuenta;
+        registro.movimientos = movimientos;
+        return encolar(registro);
+    }
+
+    @Override
+    public Confirmacion registrarAsiento(Asiento asiento) {
+        Registro registro = new Registro(REGISTRO_ASIENTO);
+        registro.asiento = asiento;
+        return encolar(registro);
+    }
+
+    /**
+     * Cierra el segmento actual y empieza uno nuevo. Todo lo registrado antes de la llamada
+     * queda en los segmentos anteriores, ya forzado a disco.
+     *
+     * @return número del segmento nuevo
+     */
+    public long rotar() throws IOException {
+        Registro control = new Registro(CONTROL_ROTAR);
+        control.resultado = new CompletableFuture<>();
+        encolar(control);
+        try {
+            return control.resultado.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrumpido esperando la rotación del WAL", e);
+        } catch (ExecutionException e) {
+            throw new IOException("No se pudo rotar el WAL", e.getCause());
+        }
+    }
+
+    /**
+     * Bytes escritos en el segmento actual, para decidir cuándo tomar un snapshot.
+     */
+    public long getBytesSegmentoActual() {
+        return bytesSegmentoActual;
+    }
+
+    /**
+     * Escribe y fuerza a disco lo pendiente y detiene el hilo escritor.
+     */
+    @Override
+    public void close() throws IOException {
+        if (cerrado) {
+            return;
+        }
+        cola.add(new Registro(CONTROL_CERRAR));
+        cerrado = true;
+        try {
+            escritor.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (falla != null) {
+            throw falla;
+        }
+    }
+
+    private Registro encolar(Registro registro) {
+        if (cerrado) {
+            throw new PersistenciaNoDisponibleException("El WAL está cerrado");
+        }
+        cola.add(registro);
+        return registro;
+    }
+
+    private void escribirLotes() {
+        List<Registro> pendientes = new ArrayList<>(MAXIMO_LOTE);
+        try {
+            while (true) {
+                Registro primero;
+                if (pendienteFsync && politica == PoliticaFsync.INTERVALO) {
+                    long espera = intervaloFsyncNanos - (System.nanoTime() - ultimoFsync);
+                    primero = cola.poll(Math.max(0, espera), TimeUnit.NANOSECONDS);
+                } else {
+                    primero = cola.take();
+                }
+                if (primero == null) {
+                    volcar(true);
+                    continue;
+                }
+                pendientes.add(primero);
+                cola.drainTo(pendientes, MAXIMO_LOTE - 1);
+                boolean seguir = procesar(pendientes);
+                pendientes.clear();
+                if (!seguir) {
+                    return;
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (IOException e) {
+            log.error("Falló la escritura del WAL; las escrituras siguientes no son durables", e);
+            falla = e;
+            cerrado = true;
+        } finally {
+            // Despierta a los que esperan: o ya quedaron confirmados o ven la falla o el cierre
+            confirmar(sinConfirmar);
+            lockConfirmacion.lock();
+            try {
+                confirmados.signalAll();
+            } finally {
+                lockConfirmacion.unlock();
+            }
+        }
+    }
+
+    /**
+     * Escribe un lote respetando el orden de la cola.
+     *
+     * @return false si el lote incluía el cierre
+     */
+    private boolean procesar(List<Registro> pendientes) throws IOException {
+        for (Registro registro : pendientes) {
+            if (registro.tipo == CONTROL_ROTAR) {
+                volcar(true);
+                try {
+                    canal.close();
+                    abrirSegmento(segmentoActual + 1);
+                    registro.resultado.complete(segmentoActual);
+                } catch (IOException e) {
+                    registro.resultado.completeExceptionally(e);
+                    throw e;
+                }
+            } else if (registro.tipo == CONTROL_CERRAR) {
+                volcar(true);
+                canal.close();
+                return false;
+            } else {
+                codificar(registro);
+                sinConfirmar.add(registro);
+            }
+        }
+        boolean forzar = politica == PoliticaFsync.SIEMPRE
+                || (politica == PoliticaFsync.INTERVALO && System.nanoTime() - ultimoFsync >= intervaloFsyncNanos);
+        volcar(forzar);
+        return true;
+    }
+
+    private void codificar(Registro registro) throws IOException {
+        payload.reset();
+        salidaPayload.writeByte(registro.tipo);
+        switch (registro.tipo) {
+            case REGISTRO_GUARDADO:
+                salidaPayload.writeByte(registro.tabla);
+                CodecEntidades.escribirEntidad(salidaPayload, registro.tabla, registro.entidad);
+                break;
+            case REGISTRO_BORRADO:
+                salidaPayload.writeByte(registro.tabla);
+                salidaPayload.writeLong(registro.id);
+                break;
+            case REGISTRO_MOVIMIENTOS:
+                salidaPayload.writeLong(registro.id);
+                CodecEntidades.escribirMovimientos(salidaPayload, registro.movimientos);
+                break;
+            case REGISTRO_ASIENTO:
+                salidaPayload.writeInt(registro.asiento.getPatas().size());
+                for (Asiento.Pata pata : registro.asiento.getPatas()) {
+                    CodecEntidades.escribirMovimientos(salidaPayload, pata.getMovimientos());
+                    CodecEntidades.escribirEntidad(salidaPayload, CodecEntidades.TABLA_CUENTA, pata.getCuenta());
+                }
+                break;
+            default:
+                throw new IllegalStateException("Tipo de registro desconocido: " + registro.tipo);
+        }
+        crc.reset();
+        crc.update(payload.buffer(), 0, payload.size());
+        lote.escribirInt(payload.size());
+        lote.escribirInt((int) crc.getValue());
+        lote.write(payload.buffer(), 0, payload.size());
+    }
+
+    /**
+     * Escribe el lote acumulado en el canal y, si corresponde, lo fuerza a disco.
+     * Confirma las escrituras que ya cumplen la política.
+     */
+    private void volcar(boolean forzar) throws IOException {
+        if (lote.size() > 0) {
+            ByteBuffer datos = ByteBuffer.wrap(lote.buffer(), 0, lote.size());
+            while (datos.hasRemaining()) {
+                canal.write(datos);
+            }
+            bytesSegmentoActual += lote.size();
+            lote.reset();
+            pendienteFsync = politica != PoliticaFsync.NUNCA;
+        }
+        if (forzar && pendienteFsync) {
+            canal.force(false);
+            pendienteFsync = false;
+        }
+        if (forzar) {
+            ultimoFsync = System.nanoTime();
+        }
+        if (politica != PoliticaFsync.SIEMPRE || !pendienteFsync) {
+            confirmar(sinConfirmar);
+        }
+    }
+
+    private void confirmar(List<Registro> registros) {
+        if (registros.isEmpty()) {
+            return;
+        }
+        for (Registro registro : registros) {
+            registro.confirmado = true;
+        }
+        registros.clear();
+        if (politica == PoliticaFsync.SIEMPRE) {
+            lockConfirmacion.lock();
+            try {
+                confirmados.signalAll();
+            } finally {
+                lockConfirmacion.unlock();
+            }
+        }
+    }
+
+    private void abrirSegmento(long segmento) throws IOException {
+        canal = FileChannel.open(archivoSegmento(directorio, segmento),
+                StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE);
+        // Sin esto, después de un corte el archivo nuevo puede no existir aunque sí sus fsync
+        sincronizarDirectorio(directorio);
+        segmentoActual = segmento;
+        ByteBuffer encabezado = ByteBuffer.allocate(LONGITUD_ENCABEZADO);
+        encabezado.putInt(MAGICO).putInt(VERSION).flip();
+        while (encabezado.hasRemaining()) {
+            canal.write(encabezado);
+        }
+        bytesSegmentoActual = LONGITUD_ENCABEZADO;
+    }
+
+    /**
+     * Cambio encolado. Con política SIEMPRE, esperar bloquea hasta que su lote está en disco.
+     */
+    private final class Registro implements Confirmacion {
+        private final byte tipo;
+        private byte tabla;
+        private long id;
+        private BaseEntity entidad;
+        private List<MovimientoEntity> movimientos;
+        private Asiento asiento;
+        private CompletableFuture<Long> resultado;
+        private volatile boolean confirmado;
+
+        private Registro(byte tipo) {
+            this.tipo = tipo;
+        }
+
+        @Override
+        public void esperar() {
+            if (politica != PoliticaFsync.SIEMPRE || confirmado) {
+                return;
+            }
+            lockConfirmacion.lock();
+            try {
+                while (!confirmado && escritor.isAlive()) {
+                    confirmados.awaitUninterruptibly();
+                }
+            } finally {
+                lockConfirmacion.unlock();
+            }
+            if (!confirmado || falla != null) {
+                throw new PersistenciaNoDisponibleException("No se pudo persistir la operación en el WAL", falla);
+            }
+        }
+    }
+
+    /**
+     * ByteArrayOutputStream que expone su buffer para escribirlo sin copiarlo.
+     */
+    private static final class BufferLote extends ByteArrayOutputStream {
+        private BufferLote() {
+            super(64 * 1024);
+        }
+
+        private byte[] buffer() {
+            return buf;
+        }
+
+        private void escribirInt(int valor) {
+            write(valor >>> 24);
+            write(valor >>> 16);
+            write(valor >>> 8);
+            write(valor);
+        }
+    }
+}
@@ -0,0 +1,177 @@
+package ar.edu.utn.frbb.tup.service;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Registro de auditoría de las consultas de saldo, separado del historial de las cuentas.
+ * Registrar no bloquea ni escribe: deja la consulta en una cola acotada y un hilo aparte la
+ * escribe junto con las demás pendientes, en un archivo por día ({@code consultas-AAAA-MM-DD.log},
+ * una línea {@code fechaHora;numeroCuenta} por consulta). Si la cola está llena la consulta se
+ * descarta y se cuenta, para que la auditoría nunca frene una lectura.
+ * Los archivos con más de {@code banco.auditoria.retencion-dias} días se borran.
+ */
+@Component
+public class AuditoriaConsultas {
+
+    private static final Logger log = LoggerFactory.getLogger(AuditoriaConsultas.class);
+
+    /** Máximo de consultas que se escriben juntas */
+    static final int MAXIMO_LOTE = 1024;
+
+    private static final Pattern ARCHIVO = Pattern.compile("consultas-(\\d{4}-\\d{2}-\\d{2})\\.log");
+    private static final long ESPERA_MS = 200;
+
+    private final Path directorio;
+    private final int retencionDias;
+    private final BlockingQueue<Consulta> pendientes;
+    private final LongAdder escritas = new LongAdder();
+    private final LongAdder descartadas = new LongAdder();
+
+    private volatile boolean activa;
+    private Thread escritor;
+    private LocalDate ultimaLimpieza;
+
+    public AuditoriaConsultas(@Value("${banco.auditoria.directorio:auditoria}") String directorio,
+                              @Value("${banco.auditoria.retencion-dias:90}") int retencionDias,
+                              @Value("${banco.auditoria.capacidad:65536}") int capacidad) {
+        this.directorio = Paths.get(directorio);
+        this.retencionDias = retencionDias;
+        this.pendientes = new ArrayBlockingQueue<>(capacidad);
+    }
+
+    @PostConstruct
+    public void iniciar() throws IOException {
+        Files.createDirectories(directorio);
+        activa = true;
+        escritor = new Thread(this::escribirPendientes, "auditoria-consultas");
+        escritor.setDaemon(true);
+        escritor.start();
+    }
+
+    /**
+     * Deja de aceptar consultas y espera a que se escriban las que quedaban en la cola.
+     */
+    @PreDestroy
+    public void detener() throws InterruptedException {
+        activa = false;
+        if (escritor != null) {
+            escritor.join();
+        }
+    }
+
+    /**
+     * Anota una consulta de saldo. No bloquea.
+     */
+    public void registrar(long numeroCuenta) {
+        if (!activa || !pendientes.offer(new Consulta(LocalDateTime.now(), numeroCuenta))) {
+            descartadas.increment();
+        }
+    }
+
+    public long getEscritas() {
+        return escritas.sum();
+    }
+
+    public long getDescartadas() {
+        return descartadas.sum();
+    }
+
+    public int getPendientes() {
+        return pendientes.size();
+    }
+
+    static Path archivoDelDia(Path directorio, LocalDate dia) {
+        return directorio.resolve("consultas-" + dia + ".log");
+    }
+
+    private void escribirPendientes() {
+        List<Consulta> lote = new ArrayList<>(MAXIMO_LOTE);
+        while (activa || !pendientes.isEmpty()) {
+            try {
+                Consulta primera = pendientes.poll(ESPERA_MS, TimeUnit.MILLISECONDS);
+                if (primera == null) {
+                    continue;
+                }
+                lote.add(primera);
+                pendientes.drainTo(lote, MAXIMO_LOTE - 1);
+                escribir(lote);
+                escritas.add(lote.size());
+                limpiarSiCorresponde(primera.fechaHora.toLocalDate());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (IOException | RuntimeException e) {
+                descartadas.add(lote.size());
+                log.error("No se pudieron escribir {} consultas de auditoría", lote.size(), e);
+            } finally {
+                lote.clear();
+            }
+        }
+    }
+
+    private void escribir(List<Consulta> lote) throws IOException {
+        int desde = 0;
+        while (desde < lote.size()) {
+            // Un lote que cruza la medianoche va a dos archivos
+            LocalDate dia = lote.get(desde).fechaHora.toLocalDate();
+            try (BufferedWriter out = Files.newBufferedWriter(archivoDelDia(directorio, dia), StandardCharsets.UTF_8,
+                    StandardOpenOption.CREATE, StandardOpenOption.APPEND)) {
+                while (desde < lote.size() && lote.get(desde).fechaHora.toLocalDate().equals(dia)) {
+                    Consulta consulta = lote.get(desde++);
+                    out.write(consulta.fechaHora + ";" + consulta.numeroCuenta);
+                    out.newLine();
+                }
+            }
+        }
+    }
+
+    private void limpiarSiCorresponde(LocalDate hoy) throws IOException {
+        if (hoy.equals(ultimaLimpieza)) {
+            return;
+        }
+        LocalDate limite = hoy.minusDays(retencionDias);
+        try (DirectoryStream<Path> archivos = Files.newDirectoryStream(directorio)) {
+            for (Path archivo : archivos) {
+                Matcher matcher = ARCHIVO.matcher(archivo.getFileName().toString());
+                if (matcher.matches() && LocalDate.parse(matcher.group(1)).isBefore(limite)) {
+                    Files.deleteIfExists(archivo);
+                }
+            }
+        }
+        ultimaLimpieza = hoy;
+    }
+
+    private static final class Consulta {
+        private final LocalDateTime fechaHora;
+        private final long numeroCuenta;
+
+        private Consulta(LocalDateTime fechaHora, long numeroCuenta) {
+            this.fechaHora = fechaHora;
+            this.numeroCuenta = numeroCuenta;
+        }
+    }
+}
@@ -0,0 +1,116 @@
+package ar.edu.utn.frbb.tup.service;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.LongSupplier;
+
+/**
+ * Cache en memoria donde cada valor vence un tiempo fijo después de guardarse.
+ * Las lecturas no toman locks. Cuando se supera la cantidad máxima de entradas se descartan
+ * primero las vencidas y, si no alcanza, las guardadas hace más tiempo.
+ *
+ * @param <K> tipo de la clave
+ * @param <V> tipo del valor
+ */
+public final class CacheTtl<K, V> {
+
+    private final ConcurrentHashMap<K, Entrada<V>> entradas = new ConcurrentHashMap<>();
+    private final long ttlNanos;
+    private final int maximo;
+    private final LongSupplier reloj;
+    private final ReentrantLock lockPurga = new ReentrantLock();
+
+    /**
+     * @param ttl    cuánto vive cada valor; cero o negativo deshabilita el cache
+     * @param maximo cantidad de entradas a partir de la cual se purga
+     */
+    public CacheTtl(Duration ttl, int maximo) {
+        this(ttl, maximo, System::nanoTime);
+    }
+
+    CacheTtl(Duration ttl, int maximo, LongSupplier reloj) {
+        if (maximo <= 0) {
+            throw new IllegalArgumentException("El tamaño máximo del cache debe ser positivo");
+        }
+        this.ttlNanos = ttl.toNanos();
+        this.maximo = maximo;
+        this.reloj = reloj;
+    }
+
+    /**
+     * @return el valor guardado, o null si no está o ya venció
+     */
+    public V obtener(K clave) {
+        Entrada<V> entrada = entradas.get(clave);
+        if (entrada == null) {
+            return null;
+        }
+        if (entrada.vencida(reloj.getAsLong())) {
+            entradas.remove(clave, entrada);
+            return null;
+        }
+        return entrada.valor;
+    }
+
+    public void guardar(K clave, V valor) {
+        if (ttlNanos <= 0) {
+            return;
+        }
+        entradas.put(clave, new Entrada<>(valor, reloj.getAsLong() + ttlNanos));
+        if (entradas.size() > maximo) {
+            purgar();
+        }
+    }
+
+    public void invalidar(K clave) {
+        entradas.remove(clave);
+    }
+
+    public int tamanio() {
+        return entradas.size();
+    }
+
+    /**
+     * Deja el cache en tres cuartos del máximo para no purgar en cada alta.
+     * Si otro hilo ya está purgando no se espera: el cache puede pasarse del máximo un momento.
+     */
+    private void purgar() {
+        if (!lockPurga.tryLock()) {
+            return;
+        }
+        try {
+            long ahora = reloj.getAsLong();
+            entradas.entrySet().removeIf(e -> e.getValue().vencida(ahora));
+            int sobrantes = entradas.size() - maximo * 3 / 4;
+            if (sobrantes <= 0) {
+                return;
+            }
+            List<Map.Entry<K, Entrada<V>>> masViejas = new ArrayList<>(entradas.entrySet());
+            masViejas.sort((a, b) -> Long.compare(a.getValue().vence, b.getValue().vence));
+            for (int i = 0; i < sobrantes && i < masViejas.size(); i++) {
+                Map.Entry<K, Entrada<V>> entrada = masViejas.get(i);
+                entradas.remove(entrada.getKey(), entrada.getValue());
+            }
+        } finally {
+            lockPurga.unlock();
+        }
+    }
+
+    private static final class Entrada<V> {
+        private final V valor;
+        private final long vence;
+
+        private Entrada(V valor, long vence) {
+            this.valor = valor;
+            this.vence = vence;
+        }
+
+        private boolean vencida(long ahora) {
+            return ahora - vence >= 0;
+        }
+    }
+}
@@ -0,0 +1,100 @@
+package ar.edu.utn.frbb.tup.service;
+
+import ar.edu.utn.frbb.tup.service.ScoreCrediticioService.ScoreResultado;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cliente asincrónico del bureau de calificación crediticia.
+ * <ul>
+ *   <li>Cada consulta tiene un tiempo máximo; si el bureau no responde a tiempo falla con TimeoutException.</li>
+ *   <li>Hay un máximo de consultas en curso (bulkhead); las que lo superan fallan en el acto con
+ *       RejectedExecutionException en lugar de encolarse detrás de un bureau lento.</li>
+ *   <li>Los resultados se guardan por DNI durante {@code banco.score.cache-ttl-segundos}, y las consultas
+ *       simultáneas por un mismo DNI comparten la misma llamada al bureau.</li>
+ * </ul>
+ */
+@Component
+public class ClienteScoreCrediticio {
+
+    private final ScoreCrediticioService bureau;
+    private final long timeoutMs;
+    private final Semaphore consultasDisponibles;
+    private final CacheTtl<Long, ScoreResultado> cache;
+    private final ConcurrentHashMap<Long, CompletableFuture<ScoreResultado>> enCurso = new ConcurrentHashMap<>();
+
+    public ClienteScoreCrediticio(ScoreCrediticioService bureau,
+                                  @Value("${banco.score.timeout-ms:500}") long timeoutMs,
+                                  @Value("${banco.score.maximo-concurrente:64}") int maximoConcurrente,
+                                  @Value("${banco.score.cache-ttl-segundos:300}") long cacheTtlSegundos,
+                                  @Value("${banco.score.cache-maximo:100000}") int cacheMaximo) {
+        this.bureau = bureau;
+        this.timeoutMs = timeoutMs;
+        this.consultasDisponibles = new Semaphore(maximoConcurrente);
+        this.cache = new CacheTtl<>(Duration.ofSeconds(cacheTtlSegundos), cacheMaximo);
+    }
+
+    /**
+     * Obtiene el score del cliente, desde el cache si hay uno vigente.
+     *
+     * @param dni DNI del cliente
+     * @return Score, o un futuro que falla si el bureau no responde a tiempo o está saturado
+     */
+    public CompletableFuture<ScoreResultado> evaluarScore(long dni) {
+        ScoreResultado cacheado = cache.obtener(dni);
+        if (cacheado != null) {
+            return CompletableFuture.completedFuture(cacheado);
+        }
+        CompletableFuture<ScoreResultado> nueva = new CompletableFuture<>();
+        CompletableFuture<ScoreResultado> existente = enCurso.putIfAbsent(dni, nueva);
+        if (existente == null) {
+            consultarBureau(dni, nueva);
+            existente = nueva;
+        }
+        // Una copia, para que quien la reciba no pueda completar la consulta compartida
+        return existente.copy();
+    }
+
+    private void consultarBureau(long dni, CompletableFuture<ScoreResultado> resultado) {
+        if (!consultasDisponibles.tryAcquire()) {
+            enCurso.remove(dni, resultado);
+            resultado.completeExceptionally(
+                    new RejectedExecutionException("Demasiadas consultas de score crediticio en curso"));
+            return;
+        }
+        CompletableFuture<ScoreResultado> consulta;
+        try {
+            consulta = bureau.consultarScore(dni);
+        } catch (RuntimeException e) {
+            consulta = CompletableFuture.failedFuture(e);
+        }
+        // El timeout va sobre la llamada al bureau: así el permiso se libera aunque no responda nunca
+        consulta.orTimeout(timeoutMs, TimeUnit.MILLISECONDS).whenComplete((score, error) -> {
+            consultasDisponibles.release();
+            if (error == null) {
+                // Primero al cache y después fuera de "en curso", para que no haya un hueco sin ninguno
+                cache.guardar(dni, score);
+            }
+            enCurso.remove(dni, resultado);
+            if (error == null) {
+                resultado.complete(score);
+            } else {
+                resultado.completeExceptionally(error);
+            }
+        });
+    }
+
+    /**
+     * Descarta el score guardado de un cliente, para que la próxima consulta vaya al bureau.
+     */
+    public void invalidar(long dni) {
+        cache.invalidar(dni);
+    }
+}
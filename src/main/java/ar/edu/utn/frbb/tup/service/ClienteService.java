@@ -5,12 +5,14 @@ import ar.edu.utn.frbb.tup.model.Cuenta;
 import ar.edu.utn.frbb.tup.model.TipoPersona;
 import ar.edu.utn.frbb.tup.model.dto.ClienteDto;
 import ar.edu.utn.frbb.tup.model.exception.ClienteAlreadyExistsException;
+import ar.edu.utn.frbb.tup.model.exception.ModificacionConcurrenteException;
 import ar.edu.utn.frbb.tup.persistence.ClienteDao;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDate;
 import java.time.Period;
 import java.util.List;
+import java.util.function.Consumer;
 
 /**
  * Servicio para la gestión integral de clientes bancarios.
@@ -20,6 +22,9 @@ import java.util.List;
 @Service
 public class ClienteService {
 
+    /** Máximo de clientes que se devuelven en una página */
+    static final int LIMITE_MAXIMO_PAGINA = 1000;
+
     ClienteDao clienteDao;
 
     /**
@@ -52,39 +57,71 @@ public class ClienteService {
         // Crea el cliente después de las validaciones
         Cliente cliente = new Cliente(clienteDto);
 
-        clienteDao.save(cliente);
+        // Un cliente nuevo solo se guarda si el DNI sigue libre: dos altas simultáneas no se pisan
+        if (!clienteDao.saveSiNoCambio(cliente)) {
+            throw new ClienteAlreadyExistsException("Ya existe un cliente con DNI " + clienteDto.getDni());
+        }
         return cliente;
     }
 
     /**
      * Actualiza los datos de un cliente existente.
      * Mantiene las validaciones de negocio como la edad mínima.
+     * Si otra operación guarda el cliente al mismo tiempo (por ejemplo, el alta de una cuenta),
+     * se vuelve a leer y se aplican los datos sobre la versión nueva, sin pisar ese cambio.
      * 
      * @param dni        DNI del cliente a actualizar
      * @param clienteDto Nuevos datos del cliente
      * @return Cliente con los datos actualizados
-     * @throws IllegalArgumentException si el cliente no existe o los datos no son válidos
+     * @throws IllegalArgumentException          si el cliente no existe o los datos no son válidos
+     * @throws ModificacionConcurrenteException si no se pudo guardar por modificaciones simultáneas
      */
     public Cliente actualizarCliente(long dni, ClienteDto clienteDto) {
-        Cliente clienteExistente = buscarClientePorDni(dni);
-
-        // Actualiza campos del cliente
-        clienteExistente.setNombre(clienteDto.getNombre());
-        clienteExistente.setApellido(clienteDto.getApellido());
-        clienteExistente.setDireccion(clienteDto.getDireccion());
-        clienteExistente.setTelefono(clienteDto.getTelefono());
-        clienteExistente.setBanco(clienteDto.getBanco());
-        clienteExistente.setTipoPersona(TipoPersona.fromString(clienteDto.getTipoPersona()));
-
-        // Actualiza fecha de nacimiento si se proporciona
+        // Valida edad antes de actualizar
         if (clienteDto.getFechaNacimiento() != null) {
-            // Valida edad antes de actualizar
             validateEdadMinima(clienteDto.getFechaNacimiento());
-            clienteExistente.setFechaNacimiento(LocalDate.parse(clienteDto.getFechaNacimiento()));
         }
 
-        clienteDao.save(clienteExistente);
-        return clienteExistente;
+        return ReintentoOptimista.actualizar("el cliente " + dni, () -> buscarClientePorDni(dni), clienteExistente -> {
+            // Actualiza campos del cliente
+            clienteExistente.setNombre(clienteDto.getNombre());
+            clienteExistente.setApellido(clienteDto.getApellido());
+            clienteExistente.setDireccion(clienteDto.getDireccion());
+            clienteExistente.setTelefono(clienteDto.getTelefono());
+            clienteExistente.setBanco(clienteDto.getBanco());
+            clienteExistente.setTipoPersona(TipoPersona.fromString(clienteDto.getTipoPersona()));
+
+            // Actualiza fecha de nacimiento si se proporciona
+            if (clienteDto.getFechaNacimiento() != null) {
+                clienteExistente.setFechaNacimiento(LocalDate.parse(clienteDto.getFechaNacimiento()));
+            }
+        }, clienteDao::saveSiNoCambio);
+    }
+
+    /**
+     * Agrega una cuenta ya guardada a las cuentas guardadas con su titular.
+     * Si ya figura (por ejemplo, porque una actualización del cliente la tomó del índice por
+     * titular) no se vuelve a guardar. Si no, se guarda con control de versión: si el cliente
+     * se modifica al mismo tiempo, se vuelve a leer y se reintenta, así ni la cuenta ni el
+     * otro cambio se pierden.
+     * 
+     * @param dni    DNI del titular
+     * @param cuenta Cuenta a asociar
+     * @return Titular con la cuenta asociada
+     * @throws IllegalArgumentException          si el cliente no existe
+     * @throws ModificacionConcurrenteException si no se pudo guardar por modificaciones simultáneas
+     */
+    public Cliente asociarCuenta(long dni, Cuenta cuenta) {
+        return ReintentoOptimista.actualizar("el cliente " + dni, () -> buscarClientePorDni(dni), titular -> {
+            // Las cuentas leídas salen del índice por titular, que ya tiene la cuenta si se guardó
+            for (Cuenta existente : titular.getCuentas()) {
+                if (existente.getNumeroCuenta() == cuenta.getNumeroCuenta()) {
+                    return;
+                }
+            }
+            titular.addCuenta(cuenta);
+        }, titular -> clienteDao.tieneCuentaGuardada(dni, cuenta.getNumeroCuenta())
+                || clienteDao.saveSiNoCambio(titular));
     }
 
     /**
@@ -119,6 +156,32 @@ public class ClienteService {
         return clienteDao.findAll();
     }
 
+    /**
+     * Obtiene una página de clientes ordenados por DNI, con sus cuentas.
+     * 
+     * @param despuesDeDni DNI del último cliente de la página anterior, o null para empezar desde el principio
+     * @param limite       Cantidad máxima de clientes de la página
+     * @return Lista de clientes de la página
+     * @throws IllegalArgumentException si el límite está fuera de rango
+     */
+    public List<Cliente> obtenerClientes(Long despuesDeDni, int limite) {
+        if (limite <= 0 || limite > LIMITE_MAXIMO_PAGINA) {
+            throw new IllegalArgumentException("El límite debe estar entre 1 y " + LIMITE_MAXIMO_PAGINA);
+        }
+        return clienteDao.findPagina(despuesDeDni, limite);
+    }
+
+    /**
+     * Recorre los clientes ordenados por DNI, con sus cuentas, entregándolos de a uno.
+     * Para escribir listados largos sin tenerlos todos en memoria.
+     * 
+     * @param despuesDeDni DNI a partir del cual empezar (exclusivo), o null para empezar desde el principio
+     * @param destino      Recibe cada cliente a medida que se lee
+     */
+    public void recorrerClientes(Long despuesDeDni, Consumer<? super Cliente> destino) {
+        clienteDao.recorrer(despuesDeDni, destino);
+    }
+
     /**
      * Busca un cliente específico por su DNI.
      * Carga todas las cuentas asociadas al cliente.
@@ -136,7 +199,9 @@ public class ClienteService {
     }
 
     /**
-     * Guarda un cliente en la base de datos.
+     * Guarda un cliente en la base de datos, sin controlar la versión: pisa cualquier
+     * cambio guardado desde que se leyó. Para modificar un cliente existente conviene
+     * {@link #actualizarCliente} o {@link #asociarCuenta}.
      * Método auxiliar para que otros servicios puedan guardar cambios.
      */
     public void guardarCliente(Cliente cliente) {
@@ -0,0 +1,130 @@
+package ar.edu.utn.frbb.tup.service;
+
+import ar.edu.utn.frbb.tup.model.exception.CantidadNegativaException;
+import ar.edu.utn.frbb.tup.model.exception.NoAlcanzaException;
+import org.springframework.stereotype.Component;
+
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Serializa las operaciones que modifican el saldo de una misma cuenta.
+ * Usa un conjunto fijo de locks (striping) indexado por número de cuenta:
+ * operaciones sobre cuentas distintas casi nunca comparten lock y escalan con los núcleos,
+ * mientras que dos operaciones sobre la misma cuenta siempre se ejecutan una detrás de otra.
+ */
+@Component
+public class CuentaLockManager {
+
+    /** Cantidad de stripes, potencia de 2 para poder usar máscara en lugar de módulo */
+    private static final int CANTIDAD_STRIPES = 1024;
+
+    private final ReentrantLock[] stripes;
+
+    public CuentaLockManager() {
+        this.stripes = new ReentrantLock[CANTIDAD_STRIPES];
+        for (int i = 0; i < CANTIDAD_STRIPES; i++) {
+            stripes[i] = new ReentrantLock();
+        }
+    }
+
+    /**
+     * Operación a ejecutar mientras se mantiene el lock de una o más cuentas.
+     */
+    @FunctionalInterface
+    public interface OperacionBloqueada<T> {
+        T ejecutar() throws NoAlcanzaException, CantidadNegativaException;
+    }
+
+    /**
+     * Ejecuta la operación con el lock exclusivo de la cuenta indicada.
+     *
+     * @param numeroCuenta Cuenta a bloquear
+     * @param operacion    Operación de lectura-modificación-escritura sobre la cuenta
+     * @return Resultado de la operación
+     */
+    public <T> T conLock(long numeroCuenta, OperacionBloqueada<T> operacion)
+            throws NoAlcanzaException, CantidadNegativaException {
+        ReentrantLock lock = stripes[indiceStripe(numeroCuenta)];
+        lock.lock();
+        try {
+            return operacion.ejecutar();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Ejecuta la operación con el lock de ambas cuentas.
+     * Los locks se toman siempre en orden creciente de stripe, así dos transferencias
+     * cruzadas (A->B y B->A) nunca pueden bloquearse mutuamente.
+     *
+     * @param numeroCuentaA Primera cuenta a bloquear
+     * @param numeroCuentaB Segunda cuenta a bloquear
+     * @param operacion     Operación sobre ambas cuentas
+     * @return Resultado de la operación
+     */
+    public <T> T conLock(long numeroCuentaA, long numeroCuentaB, OperacionBloqueada<T> operacion)
+            throws NoAlcanzaException, CantidadNegativaException {
+        int indiceA = indiceStripe(numeroCuentaA);
+        int indiceB = indiceStripe(numeroCuentaB);
+        if (indiceA == indiceB) {
+            return conLock(numeroCuentaA, operacion);
+        }
+
+        ReentrantLock primero = stripes[Math.min(indiceA, indiceB)];
+        ReentrantLock segundo = stripes[Math.max(indiceA, indiceB)];
+        primero.lock();
+        try {
+            segundo.lock();
+            try {
+                return operacion.ejecutar();
+            } finally {
+                segundo.unlock();
+            }
+        } finally {
+            primero.unlock();
+        }
+    }
+
+    /**
+     * Ejecuta la operación con el lock de todas las cuentas indicadas.
+     * Igual que con dos cuentas, los stripes se toman en orden creciente y cada uno una sola vez,
+     * así dos lotes que comparten cuentas no pueden bloquearse mutuamente.
+     *
+     * @param numerosCuenta Cuentas a bloquear
+     * @param operacion     Operación sobre todas las cuentas
+     * @return Resultado de la operación
+     */
+    public <T> T conLock(Collection<Long> numerosCuenta, OperacionBloqueada<T> operacion)
+            throws NoAlcanzaException, CantidadNegativaException {
+        BitSet indices = new BitSet(CANTIDAD_STRIPES);
+        for (Long numeroCuenta : numerosCuenta) {
+            indices.set(indiceStripe(numeroCuenta));
+        }
+
+        int tomados = 0;
+        int[] orden = new int[indices.cardinality()];
+        try {
+            for (int i = indices.nextSetBit(0); i >= 0; i = indices.nextSetBit(i + 1)) {
+                stripes[i].lock();
+                orden[tomados++] = i;
+            }
+            return operacion.ejecutar();
+        } finally {
+            while (tomados > 0) {
+                stripes[orden[--tomados]].unlock();
+            }
+        }
+    }
+
+    /**
+     * Distribuye los números de cuenta entre los stripes.
+     * Mezcla los bits altos para que números consecutivos o aleatorios se repartan parejo.
+     */
+    private int indiceStripe(long numeroCuenta) {
+        long h = numeroCuenta * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32)) & (CANTIDAD_STRIPES - 1);
+    }
+}
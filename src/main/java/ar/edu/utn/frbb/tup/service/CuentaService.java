@@ -2,13 +2,16 @@ package ar.edu.utn.frbb.tup.service;
 
 import ar.edu.utn.frbb.tup.model.*;
 import ar.edu.utn.frbb.tup.model.dto.CuentaDto;
-import ar.edu.utn.frbb.tup.model.exception.CuentaAlreadyExistsException;
+import ar.edu.utn.frbb.tup.model.exception.CantidadNegativaException;
+import ar.edu.utn.frbb.tup.model.exception.NoAlcanzaException;
 import ar.edu.utn.frbb.tup.model.exception.TipoCuentaAlreadyExistsException;
 import ar.edu.utn.frbb.tup.persistence.CuentaDao;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.function.Consumer;
 
 /**
  * Servicio para la gestión integral de cuentas bancarias.
@@ -18,57 +21,78 @@ import java.util.List;
 @Component
 public class CuentaService {
 
+    /** Máximo de movimientos que se devuelven en una página */
+    public static final int LIMITE_MAXIMO_MOVIMIENTOS = 1000;
+
     @Autowired
     CuentaDao cuentaDao;
 
     @Autowired
     ClienteService clienteService;
 
+    @Autowired
+    CuentaLockManager cuentaLockManager;
+
+    @Autowired
+    AuditoriaConsultas auditoriaConsultas;
+
     /**
      * Crea una nueva cuenta bancaria para un cliente existente.
      * Valida que el tipo de cuenta esté soportado y que el cliente no tenga ya una cuenta del mismo tipo y moneda.
+     * La validación y el guardado se hacen con el lock del DNI del titular, así dos altas
+     * simultáneas del mismo tipo no pueden pasar las dos la validación.
      * 
      * @param cuentaDto Datos de la cuenta a crear
      * @return Cuenta creada exitosamente
-     * @throws CuentaAlreadyExistsException     si la cuenta ya existe
      * @throws TipoCuentaAlreadyExistsException si el cliente ya tiene una cuenta del mismo tipo
      * @throws IllegalArgumentException         si el tipo de cuenta no está soportado
      */
     public Cuenta darDeAltaCuenta(CuentaDto cuentaDto)
-            throws CuentaAlreadyExistsException, TipoCuentaAlreadyExistsException {
+            throws TipoCuentaAlreadyExistsException {
         // Crea la cuenta con los datos básicos
         Cuenta cuenta = new Cuenta();
+        cuenta.setNumeroCuenta(cuentaDao.siguienteNumeroCuenta());
         cuenta.setTipoCuenta(TipoCuenta.valueOf(cuentaDto.getTipoCuenta().toUpperCase()));
         cuenta.setMoneda(TipoMoneda.valueOf(cuentaDto.getTipoMoneda().toUpperCase()));
-        cuenta.setBalance(cuentaDto.getSaldoInicial());
+        cuenta.setBalanceCentavos(cuentaDto.getSaldoInicialCentavos());
 
         // Validaciones de la cuenta
-        if (cuentaDao.find(cuenta.getNumeroCuenta()) != null) {
-            throw new CuentaAlreadyExistsException("La cuenta " + cuenta.getNumeroCuenta() + " ya existe.");
-        }
-
         if (!tipoCuentaEstaSoportada(cuenta)) {
             throw new IllegalArgumentException("Tipo de cuenta no soportado");
         }
 
-        // Busca el cliente y valida su existencia
-        Cliente titular = clienteService.buscarClientePorDni(cuentaDto.getDniTitular());
+        Cliente titular;
+        try {
+            titular = cuentaLockManager.conLock(cuentaDto.getDniTitular(), () -> {
+                // Busca el cliente y valida su existencia; sus cuentas salen del índice por titular
+                Cliente cliente = clienteService.buscarClientePorDni(cuentaDto.getDniTitular());
 
-        // Valida que el cliente no tenga ya una cuenta igual
-        if (clienteYaTieneCuentaDelTipo(titular, cuenta.getTipoCuenta(), cuenta.getMoneda())) {
-            throw new TipoCuentaAlreadyExistsException("El cliente ya posee una cuenta de ese tipo y moneda");
-        }
+                // Valida que el cliente no tenga ya una cuenta igual
+                if (clienteYaTieneCuentaDelTipo(cliente, cuenta.getTipoCuenta(), cuenta.getMoneda())) {
+                    return null;
+                }
 
-        // Asocia la cuenta al cliente
-        cuenta.setTitular(titular);
-        titular.addCuenta(cuenta);
+                // Asocia la cuenta al cliente
+                cuenta.setTitular(cliente);
+                cliente.addCuenta(cuenta);
 
-        // Persiste los cambios
-        cuentaDao.save(cuenta);
-        clienteService.guardarCliente(titular);
+                // Registra depósito inicial si corresponde, antes de que la cuenta sea visible
+                registrarDepositoInicial(cuenta, cuentaDto.getSaldoInicial());
 
-        // Registra depósito inicial si corresponde
-        registrarDepositoInicial(cuenta, cuentaDto.getSaldoInicial());
+                // Al guardarla entra al índice por titular: la próxima validación ya la ve
+                cuentaDao.save(cuenta);
+                return cliente;
+            });
+        } catch (NoAlcanzaException | CantidadNegativaException e) {
+            // El alta no opera sobre el saldo, así que nunca las lanza
+            throw new IllegalStateException(e);
+        }
+        if (titular == null) {
+            throw new TipoCuentaAlreadyExistsException("El cliente ya posee una cuenta de ese tipo y moneda");
+        }
+
+        // El titular se vuelve a leer si cambió desde la validación
+        clienteService.asociarCuenta(titular.getDni(), cuenta);
 
         return cuenta;
     }
@@ -98,25 +122,52 @@ public class CuentaService {
 
     /**
      * Consulta el saldo actual de una cuenta bancaria.
-     * Registra la consulta como un movimiento en el historial.
+     * Lee el saldo de la tabla sin tomar el lock de la cuenta ni escribir nada: la consulta
+     * se anota en {@link AuditoriaConsultas}, no en el historial de movimientos.
      * 
      * @param numeroCuenta Número de la cuenta a consultar
      * @return Saldo actual de la cuenta
      * @throws IllegalArgumentException si la cuenta no existe
      */
     public double consultarSaldo(long numeroCuenta) {
-        Cuenta cuenta = find(numeroCuenta);
-        if (cuenta == null) {
+        Long saldo = cuentaDao.findBalanceCentavos(numeroCuenta);
+        if (saldo == null) {
             throw new IllegalArgumentException("La cuenta no existe");
         }
+        auditoriaConsultas.registrar(numeroCuenta);
+        return Dinero.aDecimal(saldo);
+    }
 
-        // Registra consulta de saldo como movimiento
-        Movimiento consulta = new Movimiento(TipoOperacion.CONSULTA_SALDO, 0, numeroCuenta);
-        consulta.setDescripcion("Consulta de saldo");
-        cuenta.agregarMovimiento(consulta);
-        cuentaDao.save(cuenta);
+    /**
+     * Acredita un monto en una cuenta con el lock de la cuenta tomado.
+     * Lo usan otros servicios (por ejemplo, la acreditación de préstamos) para no pisar
+     * operaciones concurrentes sobre la misma cuenta.
+     * 
+     * @param numeroCuenta Número de la cuenta a acreditar
+     * @param monto        Monto a acreditar
+     * @param descripcion  Descripción del movimiento registrado
+     * @return Cuenta con el saldo actualizado
+     * @throws CantidadNegativaException si el monto es negativo o cero
+     * @throws IllegalArgumentException  si la cuenta no existe
+     */
+    public Cuenta acreditar(long numeroCuenta, double monto, String descripcion) throws CantidadNegativaException {
+        try {
+            return cuentaLockManager.conLock(numeroCuenta, () -> {
+                Cuenta cuenta = find(numeroCuenta);
+                if (cuenta == null) {
+                    throw new IllegalArgumentException("La cuenta no existe");
+                }
 
-        return cuenta.getBalance();
+                cuenta.depositar(monto);
+                List<Movimiento> movimientos = cuenta.getMovimientos();
+                movimientos.get(movimientos.size() - 1).setDescripcion(descripcion);
+                cuentaDao.save(cuenta);
+                return cuenta;
+            });
+        } catch (NoAlcanzaException e) {
+            // Una acreditación nunca debita la cuenta
+            throw new IllegalStateException(e);
+        }
     }
 
     /**
@@ -132,7 +183,49 @@ public class CuentaService {
         if (cuenta == null) {
             throw new IllegalArgumentException("La cuenta no existe");
         }
-        return cuenta.getMovimientos();
+        return cuentaDao.findMovimientos(numeroCuenta);
+    }
+
+    /**
+     * Obtiene los movimientos de una cuenta filtrados y paginados.
+     * Los filtros se resuelven con los índices del historial de movimientos.
+     * 
+     * @param numeroCuenta Número de la cuenta
+     * @param despuesDeId  Id del último movimiento de la página anterior, o null para empezar del principio
+     * @param desde        Fecha y hora mínima (inclusiva), o null
+     * @param hasta        Fecha y hora máxima (inclusiva), o null
+     * @param tipo         Tipo de operación, o null para todos
+     * @param limite       Cantidad máxima de movimientos, o null para traer todos los que cumplan los filtros
+     * @return Lista de movimientos ordenados cronológicamente
+     * @throws IllegalArgumentException si la cuenta no existe o el límite está fuera de rango
+     */
+    public List<Movimiento> obtenerMovimientos(long numeroCuenta, Long despuesDeId, LocalDateTime desde,
+                                               LocalDateTime hasta, TipoOperacion tipo, Integer limite) {
+        if (limite != null && (limite <= 0 || limite > LIMITE_MAXIMO_MOVIMIENTOS)) {
+            throw new IllegalArgumentException("El límite debe estar entre 1 y " + LIMITE_MAXIMO_MOVIMIENTOS);
+        }
+        if (find(numeroCuenta) == null) {
+            throw new IllegalArgumentException("La cuenta no existe");
+        }
+        return cuentaDao.findMovimientos(numeroCuenta, despuesDeId, desde, hasta, tipo,
+                limite != null ? limite : Integer.MAX_VALUE);
+    }
+
+    /**
+     * Recorre los movimientos de una cuenta que cumplen los filtros, entregándolos de a uno
+     * en orden cronológico. Para escribir historiales largos sin tenerlos enteros en memoria.
+     * La existencia de la cuenta se valida con {@link #find(long)} antes de empezar a escribir.
+     * 
+     * @param numeroCuenta Número de la cuenta
+     * @param despuesDeId  Id del último movimiento ya leído, o null para empezar del principio
+     * @param desde        Fecha y hora mínima (inclusiva), o null
+     * @param hasta        Fecha y hora máxima (inclusiva), o null
+     * @param tipo         Tipo de operación, o null para todos
+     * @param destino      Recibe cada movimiento a medida que se lee
+     */
+    public void recorrerMovimientos(long numeroCuenta, Long despuesDeId, LocalDateTime desde,
+                                    LocalDateTime hasta, TipoOperacion tipo, Consumer<? super Movimiento> destino) {
+        cuentaDao.recorrerMovimientos(numeroCuenta, despuesDeId, desde, hasta, tipo, destino);
     }
 
     /**
@@ -169,7 +262,6 @@ public class CuentaService {
                         cuenta.getNumeroCuenta());
                 movimientoInicial.setDescripcion("Depósito inicial");
                 cuenta.agregarMovimiento(movimientoInicial);
-                cuentaDao.save(cuenta);
             } catch (Exception e) {
 
             }
@@ -1,16 +1,27 @@
 package ar.edu.utn.frbb.tup.service;
 
 import ar.edu.utn.frbb.tup.model.*;
+import ar.edu.utn.frbb.tup.model.dto.OperacionDto;
+import ar.edu.utn.frbb.tup.model.dto.ResultadoOperacionDto;
 import ar.edu.utn.frbb.tup.model.exception.CantidadNegativaException;
 import ar.edu.utn.frbb.tup.model.exception.NoAlcanzaException;
 import ar.edu.utn.frbb.tup.persistence.CuentaDao;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
 /**
  * Servicio para operaciones bancarias transaccionales.
  * Maneja todas las operaciones que modifican el saldo de las cuentas:
  * depósitos, retiros y transferencias entre cuentas.
+ * Cada operación lee, modifica y guarda la cuenta con el lock de esa cuenta tomado,
+ * para que dos operaciones concurrentes sobre la misma cuenta no pisen sus saldos.
  */
 @Service
 public class OperacionService {
@@ -21,6 +32,9 @@ public class OperacionService {
     @Autowired
     private CuentaService cuentaService;
 
+    @Autowired
+    private CuentaLockManager cuentaLockManager;
+
     /**
      * Realiza un depósito de dinero en una cuenta bancaria.
      * Incrementa el saldo de la cuenta y registra el movimiento.
@@ -32,15 +46,22 @@ public class OperacionService {
      * @throws IllegalArgumentException  si la cuenta no existe
      */
     public Cuenta depositar(Long numeroCuenta, double monto) throws CantidadNegativaException {
-        Cuenta cuenta = cuentaService.find(numeroCuenta);
-        if (cuenta == null) {
-            throw new IllegalArgumentException("La cuenta no existe");
-        }
+        try {
+            return cuentaLockManager.conLock(numeroCuenta, () -> {
+                Cuenta cuenta = cuentaService.find(numeroCuenta);
+                if (cuenta == null) {
+                    throw new IllegalArgumentException("La cuenta no existe");
+                }
 
-        // Realiza depósito y registrar movimiento
-        cuenta.depositar(monto);
-        cuentaDao.save(cuenta);
-        return cuenta;
+                // Realiza depósito y registrar movimiento
+                cuenta.depositar(monto);
+                cuentaDao.save(cuenta);
+                return cuenta;
+            });
+        } catch (NoAlcanzaException e) {
+            // Un depósito nunca debita la cuenta
+            throw new IllegalStateException(e);
+        }
     }
 
     /**
@@ -55,14 +76,16 @@ public class OperacionService {
      * @throws IllegalArgumentException  si la cuenta no existe
      */
     public Cuenta retirar(Long numeroCuenta, double monto) throws NoAlcanzaException, CantidadNegativaException {
-        Cuenta cuenta = cuentaService.find(numeroCuenta);
-        if (cuenta == null) {
-            throw new IllegalArgumentException("La cuenta no existe");
-        }
-        // Realiza retiro y registrar movimiento
-        cuenta.debitarDeCuenta(monto);
-        cuentaDao.save(cuenta);
-        return cuenta;
+        return cuentaLockManager.conLock(numeroCuenta, () -> {
+            Cuenta cuenta = cuentaService.find(numeroCuenta);
+            if (cuenta == null) {
+                throw new IllegalArgumentException("La cuenta no existe");
+            }
+            // Realiza retiro y registrar movimiento
+            cuenta.debitarDeCuenta(monto);
+            cuentaDao.save(cuenta);
+            return cuenta;
+        });
     }
 
     /**
@@ -81,27 +104,148 @@ public class OperacionService {
     public void transferir(Long numeroCuentaOrigen, Long numeroCuentaDestino, double monto)
             throws NoAlcanzaException, CantidadNegativaException {
 
-        // Verifica que ambas cuentas existan
-        Cuenta cuentaOrigen = cuentaService.find(numeroCuentaOrigen);
-        if (cuentaOrigen == null) {
-            throw new IllegalArgumentException("La cuenta origen no existe");
+        // Toma ambos locks en orden fijo para evitar deadlocks entre transferencias cruzadas
+        cuentaLockManager.conLock(numeroCuentaOrigen, numeroCuentaDestino, () -> {
+            // Verifica que ambas cuentas existan
+            Cuenta cuentaOrigen = cuentaService.find(numeroCuentaOrigen);
+            if (cuentaOrigen == null) {
+                throw new IllegalArgumentException("La cuenta origen no existe");
+            }
+
+            Cuenta cuentaDestino = cuentaService.find(numeroCuentaDestino);
+            if (cuentaDestino == null) {
+                throw new IllegalArgumentException("La cuenta destino no existe");
+            }
+
+            // Valida que las cuentas sean de la misma moneda
+            if (!cuentaOrigen.getMoneda().equals(cuentaDestino.getMoneda())) {
+                throw new IllegalArgumentException("No se pueden transferir entre cuentas de diferentes monedas");
+            }
+
+            // Realiza la transferencia
+            cuentaOrigen.transferirA(cuentaDestino, monto);
+
+            // Guarda el débito y el crédito como un único cambio
+            cuentaDao.saveAll(List.of(cuentaOrigen, cuentaDestino));
+            return null;
+        });
+    }
+
+    /**
+     * Ejecuta un lote de operaciones con una sola lectura y una sola escritura por cuenta.
+     * Se toman los locks de todas las cuentas del lote, se cargan una vez, se aplican las
+     * operaciones en orden sobre esas copias y al final se guardan juntas las cuentas modificadas.
+     * En un lote atómico la primera operación que falla descarta todas las modificaciones
+     * (las copias no se guardan); si no es atómico, cada operación fallida se informa y el resto se aplica.
+     * Ninguna operación modifica la cuenta antes de validar que puede completarse, así que
+     * una operación fallida nunca deja cambios a medias.
+     *
+     * @param operaciones Operaciones ya validadas (tipo DEPOSITO, RETIRO o TRANSFERENCIA)
+     * @param atomica     Si el lote se aplica completo o no se aplica
+     * @return Un resultado por operación, con el índice de la operación en la lista
+     */
+    public List<ResultadoOperacionDto> ejecutarLote(List<OperacionDto> operaciones, boolean atomica) {
+        Set<Long> numerosCuenta = new LinkedHashSet<>();
+        for (OperacionDto operacion : operaciones) {
+            numerosCuenta.add(operacion.getNumeroCuenta());
+            if (operacion.getNumeroCuentaDestino() != null) {
+                numerosCuenta.add(operacion.getNumeroCuentaDestino());
+            }
+        }
+
+        try {
+            return cuentaLockManager.conLock(numerosCuenta, () -> aplicarLote(operaciones, atomica, numerosCuenta));
+        } catch (NoAlcanzaException | CantidadNegativaException e) {
+            // aplicarLote convierte los errores de cada operación en resultados
+            throw new IllegalStateException(e);
         }
+    }
 
-        Cuenta cuentaDestino = cuentaService.find(numeroCuentaDestino);
-        if (cuentaDestino == null) {
-            throw new IllegalArgumentException("La cuenta destino no existe");
+    private List<ResultadoOperacionDto> aplicarLote(List<OperacionDto> operaciones, boolean atomica,
+                                                    Set<Long> numerosCuenta) {
+        Map<Long, Cuenta> cuentas = new HashMap<>();
+        for (Long numeroCuenta : numerosCuenta) {
+            Cuenta cuenta = cuentaService.find(numeroCuenta);
+            if (cuenta != null) {
+                cuentas.put(numeroCuenta, cuenta);
+            }
         }
 
-        // Valida que las cuentas sean de la misma moneda
-        if (!cuentaOrigen.getMoneda().equals(cuentaDestino.getMoneda())) {
-            throw new IllegalArgumentException("No se pueden transferir entre cuentas de diferentes monedas");
+        Set<Long> modificadas = new LinkedHashSet<>();
+        List<ResultadoOperacionDto> resultados = new ArrayList<>(operaciones.size());
+        for (int i = 0; i < operaciones.size(); i++) {
+            String error;
+            try {
+                aplicar(operaciones.get(i), cuentas, modificadas);
+                resultados.add(new ResultadoOperacionDto(i, ResultadoOperacionDto.OK, null));
+                continue;
+            } catch (NoAlcanzaException e) {
+                error = "Saldo insuficiente";
+            } catch (CantidadNegativaException e) {
+                error = "El monto debe ser positivo";
+            } catch (IllegalArgumentException e) {
+                error = e.getMessage();
+            }
+
+            if (atomica) {
+                return loteRechazado(operaciones.size(), i, error);
+            }
+            resultados.add(new ResultadoOperacionDto(i, ResultadoOperacionDto.ERROR, error));
         }
 
-        // Realiza la transferencia
-        cuentaOrigen.transferirA(cuentaDestino, monto);
+        List<Cuenta> aGuardar = new ArrayList<>(modificadas.size());
+        for (Long numeroCuenta : modificadas) {
+            aGuardar.add(cuentas.get(numeroCuenta));
+        }
+        if (!aGuardar.isEmpty()) {
+            cuentaDao.saveAll(aGuardar);
+        }
+        return resultados;
+    }
+
+    private void aplicar(OperacionDto operacion, Map<Long, Cuenta> cuentas, Set<Long> modificadas)
+            throws NoAlcanzaException, CantidadNegativaException {
+        Cuenta cuenta = cuentas.get(operacion.getNumeroCuenta());
+        switch (operacion.getTipoOperacion().toUpperCase()) {
+            case "DEPOSITO":
+                if (cuenta == null) {
+                    throw new IllegalArgumentException("La cuenta no existe");
+                }
+                cuenta.depositarCentavos(operacion.getMontoCentavos());
+                break;
+            case "RETIRO":
+                if (cuenta == null) {
+                    throw new IllegalArgumentException("La cuenta no existe");
+                }
+                cuenta.debitarCentavos(operacion.getMontoCentavos());
+                break;
+            case "TRANSFERENCIA":
+                if (cuenta == null) {
+                    throw new IllegalArgumentException("La cuenta origen no existe");
+                }
+                Cuenta cuentaDestino = cuentas.get(operacion.getNumeroCuentaDestino());
+                if (cuentaDestino == null) {
+                    throw new IllegalArgumentException("La cuenta destino no existe");
+                }
+                if (!cuenta.getMoneda().equals(cuentaDestino.getMoneda())) {
+                    throw new IllegalArgumentException("No se pueden transferir entre cuentas de diferentes monedas");
+                }
+                cuenta.transferirCentavosA(cuentaDestino, operacion.getMontoCentavos());
+                modificadas.add(cuentaDestino.getNumeroCuenta());
+                break;
+            default:
+                throw new IllegalArgumentException("Tipo de operación no soportado: " + operacion.getTipoOperacion());
+        }
+        modificadas.add(cuenta.getNumeroCuenta());
+    }
 
-        // Guarda ambas cuentas actualizadas
-        cuentaDao.save(cuentaOrigen);
-        cuentaDao.save(cuentaDestino);
+    private List<ResultadoOperacionDto> loteRechazado(int cantidad, int indiceFallido, String error) {
+        List<ResultadoOperacionDto> resultados = new ArrayList<>(cantidad);
+        for (int i = 0; i < cantidad; i++) {
+            resultados.add(i == indiceFallido
+                    ? new ResultadoOperacionDto(i, ResultadoOperacionDto.ERROR, error)
+                    : new ResultadoOperacionDto(i, ResultadoOperacionDto.NO_APLICADA, null));
+        }
+        return resultados;
     }
-}
\ No newline at end of file
+}
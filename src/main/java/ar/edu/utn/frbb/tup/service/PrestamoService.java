@@ -4,11 +4,16 @@ import ar.edu.utn.frbb.tup.model.*;
 import ar.edu.utn.frbb.tup.model.dto.*;
 import ar.edu.utn.frbb.tup.model.exception.CantidadNegativaException;
 import ar.edu.utn.frbb.tup.persistence.PrestamoDao;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Metrics;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
-import java.util.ArrayList;
+import java.util.EnumSet;
 import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.stream.Collectors;
 
 /**
@@ -19,6 +24,13 @@ import java.util.stream.Collectors;
 @Service
 public class PrestamoService {
 
+    /** Estados de los préstamos que se informan en la consulta de un cliente */
+    private static final Set<EstadoPrestamo> ESTADOS_VIGENTES = EnumSet.of(EstadoPrestamo.APROBADO, EstadoPrestamo.ACTIVO);
+
+    /** Solicitudes por resultado; la duración y las excepciones ya las mide el interceptor de métricas */
+    private final Counter solicitudesAprobadas = contadorSolicitudes("APROBADO");
+    private final Counter solicitudesRechazadas = contadorSolicitudes("RECHAZADO");
+
     @Autowired
     private PrestamoDao prestamoDao;
 
@@ -29,7 +41,7 @@ public class PrestamoService {
     private CuentaService cuentaService;
 
     @Autowired
-    private ScoreCrediticioService scoreCrediticioService;
+    private ClienteScoreCrediticio clienteScoreCrediticio;
 
     /**
      * Procesa una solicitud de préstamo bancario.
@@ -40,15 +52,33 @@ public class PrestamoService {
      * @return Respuesta con el estado del préstamo y plan de pagos si es aprobado
      */
     public PrestamoResponseDto solicitarPrestamo(PrestamoRequestDto request) {
+        PrestamoResponseDto respuesta = procesarSolicitud(request);
+        ("APROBADO".equals(respuesta.getEstado()) ? solicitudesAprobadas : solicitudesRechazadas).increment();
+        return respuesta;
+    }
+
+    private PrestamoResponseDto procesarSolicitud(PrestamoRequestDto request) {
         try {
             // Verifica que el cliente existe
             Cliente cliente = clienteService.buscarClientePorDni(request.getNumeroCliente());
 
+            // Pide el score al bureau y, mientras responde, verifica las cuentas
+            CompletableFuture<ScoreCrediticioService.ScoreResultado> score =
+                    clienteScoreCrediticio.evaluarScore(cliente.getDni());
+
             // Verifica que el cliente tenga una cuenta en la moneda solicitada
             verificarCuentaEnMoneda(request.getNumeroCliente(), request.getMoneda());
 
-            // Consulta score crediticio
-            boolean buenoScore = scoreCrediticioService.evaluarScore(cliente.getDni()).isElegible();
+            // Espera el score crediticio; el cliente del bureau acota la espera
+            boolean buenoScore;
+            try {
+                buenoScore = score.join().isElegible();
+            } catch (CompletionException e) {
+                return new PrestamoResponseDto(
+                        "RECHAZADO",
+                        "No se pudo consultar su calificación crediticia, intente nuevamente más tarde",
+                        null);
+            }
             if (!buenoScore) {
                 return new PrestamoResponseDto(
                         "RECHAZADO",
@@ -95,12 +125,11 @@ public class PrestamoService {
         // Verifica que el cliente existe
         clienteService.buscarClientePorDni(numeroCliente);
 
-        // Obtener préstamos del cliente
-        List<Prestamo> prestamos = prestamoDao.findByNumeroCliente(numeroCliente);
+        // Obtener préstamos vigentes del cliente, resueltos por los índices del DAO
+        List<Prestamo> prestamos = prestamoDao.findByNumeroClienteYEstados(numeroCliente, ESTADOS_VIGENTES);
 
         // Convertir a DTOs
         List<PrestamoInfoDto> prestamosInfo = prestamos.stream()
-                .filter(p -> p.getEstado() == EstadoPrestamo.APROBADO || p.getEstado() == EstadoPrestamo.ACTIVO)
                 .map(this::convertirAPrestamoInfo)
                 .collect(Collectors.toList());
 
@@ -111,6 +140,13 @@ public class PrestamoService {
         return response;
     }
 
+    private static Counter contadorSolicitudes(String estado) {
+        return Counter.builder("banco.prestamos.solicitudes")
+                .description("Solicitudes de préstamo por resultado")
+                .tag("estado", estado)
+                .register(Metrics.globalRegistry);
+    }
+
     /**
      * Verifica que el cliente tenga al menos una cuenta en la moneda solicitada.
      * 
@@ -155,7 +191,7 @@ public class PrestamoService {
     private Prestamo crearPrestamo(PrestamoRequestDto request) {
         Prestamo prestamo = new Prestamo();
         prestamo.setNumeroCliente(request.getNumeroCliente());
-        prestamo.setMontoPrestamo(request.getMontoPrestamo());
+        prestamo.setMontoPrestamoCentavos(request.getMontoPrestamoCentavos());
         prestamo.setPlazoMeses(request.getPlazoMeses());
         prestamo.setMoneda(request.getMoneda());
         prestamo.setEstado(EstadoPrestamo.PENDIENTE);
@@ -167,18 +203,10 @@ public class PrestamoService {
      * Utiliza la fórmula de amortización francesa para distribuir capital e intereses.
      * 
      * @param prestamo Préstamo para calcular las cuotas
-     * @return Lista de cuotas mensuales con monto fijo
+     * @return Lista de cuotas mensuales con monto fijo, capital, interés y saldo
      */
     private List<CuotaPrestamo> calcularPlanPagos(Prestamo prestamo) {
-        List<CuotaPrestamo> planPagos = new ArrayList<>();
-        double cuotaMensual = prestamo.calcularCuotaMensual();
-
-        // Genera cuotas numeradas del 1 al plazo en meses
-        for (int i = 1; i <= prestamo.getPlazoMeses(); i++) {
-            planPagos.add(new CuotaPrestamo(i, cuotaMensual));
-        }
-
-        return planPagos;
+        return prestamo.calcularAmortizacion().toCuotas();
     }
 
     /**
@@ -200,16 +228,9 @@ public class PrestamoService {
                 .findFirst()
                 .orElseThrow(() -> new IllegalArgumentException("No se encontró cuenta en " + moneda));
 
-        // Acredita el monto (similar a un depósito)
+        // Acredita el monto (similar a un depósito) con el lock de la cuenta tomado
         try {
-            cuenta.depositar(monto);
-            // Actualiza descripción del último movimiento
-            if (!cuenta.getMovimientos().isEmpty()) {
-                Movimiento ultimoMov = cuenta.getMovimientos().get(cuenta.getMovimientos().size() - 1);
-                ultimoMov.setDescripcion("Acreditación de préstamo");
-            }
-            // Guarda la cuenta actualizada
-            cuentaService.save(cuenta);
+            cuentaService.acreditar(cuenta.getNumeroCuenta(), monto, "Acreditación de préstamo");
         } catch (CantidadNegativaException e) {
             throw new IllegalArgumentException("Error al acreditar préstamo");
         }
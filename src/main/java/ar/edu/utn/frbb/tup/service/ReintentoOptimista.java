@@ -0,0 +1,53 @@
+package ar.edu.utn.frbb.tup.service;
+
+import ar.edu.utn.frbb.tup.model.exception.ModificacionConcurrenteException;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+/**
+ * Ciclo leer-modificar-guardar con control de concurrencia optimista: se lee el registro
+ * (con su versión), se le aplica el cambio y se guarda con compare-and-set. Si otra
+ * escritura se adelantó, se vuelve a leer y se aplica el cambio sobre lo nuevo, en lugar
+ * de pisarlo. Sirve para registros que no tienen un lock propio, como los clientes.
+ * Entre intentos se espera un tiempo al azar que se duplica en cada fallo, para que las
+ * escrituras que chocaron no vuelvan a chocar en el mismo instante.
+ */
+final class ReintentoOptimista {
+
+    /** Intentos antes de rendirse; con poca contención casi siempre alcanza el primero */
+    static final int MAXIMO_INTENTOS = 10;
+
+    private static final long ESPERA_INICIAL_NANOS = TimeUnit.MICROSECONDS.toNanos(10);
+    private static final long ESPERA_MAXIMA_NANOS = TimeUnit.MILLISECONDS.toNanos(5);
+
+    private ReintentoOptimista() {
+    }
+
+    /**
+     * @param registro  descripción para el mensaje de error, por ejemplo "el cliente 123"
+     * @param leer      lee el estado actual, con su versión
+     * @param modificar aplica el cambio sobre lo leído; se repite en cada intento
+     * @param guardar   guarda si la versión no cambió; false si hay que reintentar
+     * @return el registro guardado
+     * @throws ModificacionConcurrenteException si se agotaron los intentos
+     */
+    static <T> T actualizar(String registro, Supplier<T> leer, Consumer<T> modificar, Predicate<T> guardar) {
+        long espera = ESPERA_INICIAL_NANOS;
+        for (int intento = 0; intento < MAXIMO_INTENTOS; intento++) {
+            T actual = leer.get();
+            modificar.accept(actual);
+            if (guardar.test(actual)) {
+                return actual;
+            }
+            LockSupport.parkNanos(ThreadLocalRandom.current().nextLong(espera / 2, espera + 1));
+            espera = Math.min(espera * 2, ESPERA_MAXIMA_NANOS);
+        }
+        throw new ModificacionConcurrenteException(
+                "No se pudo guardar " + registro + ": se modificó al mismo tiempo, intente nuevamente");
+    }
+}
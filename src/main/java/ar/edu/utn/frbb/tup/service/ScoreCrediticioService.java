@@ -1,11 +1,18 @@
 package ar.edu.utn.frbb.tup.service;
 
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
+
 import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
 
 /**
  * Servicio que simula la consulta a un servicio externo de calificación crediticia.
  * Genera un score numérico del 1 al 10, donde valores >= 6 permiten acceso a préstamos.
+ * La consulta asincrónica simula además la demora de la red con
+ * {@code banco.score.latencia-simulada-ms}; los préstamos la usan a través de {@link ClienteScoreCrediticio}.
  */
 @Service
 public class ScoreCrediticioService {
@@ -16,6 +23,10 @@ public class ScoreCrediticioService {
 
     private final Random random = new Random();
 
+    /** Demora media de la respuesta simulada; cada consulta varía entre la mitad y una vez y media */
+    @Value("${banco.score.latencia-simulada-ms:50}")
+    private long latenciaSimuladaMs;
+
     /**
      * Consulta el score crediticio de un cliente y evalúa su elegibilidad.
      * 
@@ -29,6 +40,22 @@ public class ScoreCrediticioService {
         return new ScoreResultado(score, esElegible, mensaje);
     }
 
+    /**
+     * Consulta el score como lo haría un bureau remoto: la respuesta llega después de la
+     * latencia simulada sin ocupar un hilo mientras tanto.
+     *
+     * @param dni DNI del cliente
+     * @return Score que se completa cuando "responde" el bureau
+     */
+    public CompletableFuture<ScoreResultado> consultarScore(long dni) {
+        if (latenciaSimuladaMs <= 0) {
+            return CompletableFuture.completedFuture(evaluarScore(dni));
+        }
+        long demora = ThreadLocalRandom.current().nextLong(latenciaSimuladaMs / 2, latenciaSimuladaMs * 3 / 2 + 1);
+        return CompletableFuture.supplyAsync(() -> evaluarScore(dni),
+                CompletableFuture.delayedExecutor(demora, TimeUnit.MILLISECONDS));
+    }
+
     /**
      * Genera un score crediticio aleatorio entre 1 y 10.
      */
@@ -0,0 +1,181 @@
+package ar.edu.utn.frbb.tup.service;
+
+import ar.edu.utn.frbb.tup.model.exception.CantidadNegativaException;
+import ar.edu.utn.frbb.tup.model.exception.NoAlcanzaException;
+import ar.edu.utn.frbb.tup.persistence.CuentaDao;
+import ar.edu.utn.frbb.tup.persistence.MovimientoDao;
+import ar.edu.utn.frbb.tup.persistence.entity.CuentaEntity;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Verifica que el saldo guardado de cada cuenta coincida con el que resulta de su historial.
+ * Los movimientos son la fuente del saldo y el saldo de la cuenta es una proyección que se
+ * mantiene al escribir; esto la reconstruye desde los movimientos (recorriendo el historial
+ * entero y también desde el último checkpoint) y reporta las cuentas que no coinciden.
+ * Las cuentas se reparten entre varios hilos y cada una se verifica con su lock tomado, así
+ * una operación en curso no se ve a medias. Se puede correr al levantar con
+ * {@code banco.verificacion.al-iniciar=true}.
+ */
+@Component
+public class VerificadorSaldos {
+
+    private static final Logger log = LoggerFactory.getLogger(VerificadorSaldos.class);
+
+    private final CuentaDao cuentaDao;
+    private final MovimientoDao movimientoDao;
+    private final CuentaLockManager cuentaLockManager;
+    private final int paralelismo;
+    private final boolean alIniciar;
+
+    public VerificadorSaldos(CuentaDao cuentaDao, MovimientoDao movimientoDao, CuentaLockManager cuentaLockManager,
+                             @Value("${banco.verificacion.paralelismo:0}") int paralelismo,
+                             @Value("${banco.verificacion.al-iniciar:false}") boolean alIniciar) {
+        this.cuentaDao = cuentaDao;
+        this.movimientoDao = movimientoDao;
+        this.cuentaLockManager = cuentaLockManager;
+        // 0: un hilo por procesador
+        this.paralelismo = paralelismo > 0 ? paralelismo : Runtime.getRuntime().availableProcessors();
+        this.alIniciar = alIniciar;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void verificarAlIniciar() {
+        if (!alIniciar) {
+            return;
+        }
+        Resultado resultado = verificar();
+        if (resultado.getDiferencias().isEmpty()) {
+            log.info("Saldos verificados contra los movimientos: {}", resultado);
+        } else {
+            log.error("Saldos que no coinciden con los movimientos: {} {}", resultado, resultado.getDiferencias());
+        }
+    }
+
+    /**
+     * Reconstruye el saldo de todas las cuentas desde sus movimientos y lo compara con el guardado.
+     */
+    public Resultado verificar() {
+        long inicio = System.nanoTime();
+        long[] numerosCuenta = cuentaDao.exportarEntidades().stream().mapToLong(CuentaEntity::getId).toArray();
+        Queue<Diferencia> diferencias = new ConcurrentLinkedQueue<>();
+
+        // Pool propio para no ocupar el común con una verificación larga
+        ForkJoinPool pool = new ForkJoinPool(paralelismo);
+        try {
+            pool.submit(() -> Arrays.stream(numerosCuenta).parallel().forEach(numeroCuenta -> {
+                Diferencia diferencia = verificarCuenta(numeroCuenta);
+                if (diferencia != null) {
+                    diferencias.add(diferencia);
+                }
+            })).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Verificación interrumpida", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("No se pudieron verificar los saldos", e.getCause());
+        } finally {
+            pool.shutdown();
+        }
+
+        List<Diferencia> ordenadas = new ArrayList<>(diferencias);
+        ordenadas.sort(Comparator.comparingLong(Diferencia::getNumeroCuenta));
+        long milisegundos = (System.nanoTime() - inicio) / 1_000_000;
+        return new Resultado(numerosCuenta.length, ordenadas, milisegundos);
+    }
+
+    /**
+     * @return null si la cuenta coincide con sus movimientos o si se borró mientras tanto
+     */
+    private Diferencia verificarCuenta(long numeroCuenta) {
+        try {
+            return cuentaLockManager.conLock(numeroCuenta, () -> {
+                Long saldoCuenta = cuentaDao.findBalanceCentavos(numeroCuenta);
+                if (saldoCuenta == null) {
+                    return null;
+                }
+                long saldoMovimientos = movimientoDao.recalcularSaldo(numeroCuenta);
+                long saldoCheckpoint = movimientoDao.saldoSegunMovimientos(numeroCuenta);
+                if (saldoCuenta == saldoMovimientos && saldoCheckpoint == saldoMovimientos) {
+                    return null;
+                }
+                return new Diferencia(numeroCuenta, saldoCuenta, saldoMovimientos, saldoCheckpoint);
+            });
+        } catch (NoAlcanzaException | CantidadNegativaException e) {
+            // La verificación solo lee, no puede fallar por saldo ni por monto
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Resultado de una verificación: cuántas cuentas se revisaron y cuáles no coinciden.
+     */
+    public static class Resultado {
+
+        private final int cuentasVerificadas;
+        private final List<Diferencia> diferencias;
+        private final long milisegundos;
+
+        Resultado(int cuentasVerificadas, List<Diferencia> diferencias, long milisegundos) {
+            this.cuentasVerificadas = cuentasVerificadas;
+            this.diferencias = Collections.unmodifiableList(diferencias);
+            this.milisegundos = milisegundos;
+        }
+
+        public int getCuentasVerificadas() { return cuentasVerificadas; }
+        /** Cuentas que no coinciden, ordenadas por número */
+        public List<Diferencia> getDiferencias() { return diferencias; }
+        public long getMilisegundos() { return milisegundos; }
+
+        @Override
+        public String toString() {
+            return cuentasVerificadas + " cuentas, " + diferencias.size() + " diferencias, " + milisegundos + " ms";
+        }
+    }
+
+    /**
+     * Cuenta cuyo saldo guardado no coincide con sus movimientos. Los saldos están en centavos.
+     */
+    public static class Diferencia {
+
+        private final long numeroCuenta;
+        private final long saldoCuenta;
+        private final long saldoMovimientos;
+        private final long saldoCheckpoint;
+
+        Diferencia(long numeroCuenta, long saldoCuenta, long saldoMovimientos, long saldoCheckpoint) {
+            this.numeroCuenta = numeroCuenta;
+            this.saldoCuenta = saldoCuenta;
+            this.saldoMovimientos = saldoMovimientos;
+            this.saldoCheckpoint = saldoCheckpoint;
+        }
+
+        public long getNumeroCuenta() { return numeroCuenta; }
+        /** Saldo guardado en la cuenta */
+        public long getSaldoCuenta() { return saldoCuenta; }
+        /** Saldo recorriendo el historial entero */
+        public long getSaldoMovimientos() { return saldoMovimientos; }
+        /** Saldo desde el último checkpoint del historial */
+        public long getSaldoCheckpoint() { return saldoCheckpoint; }
+
+        @Override
+        public String toString() {
+            return "cuenta " + numeroCuenta + ": guardado=" + saldoCuenta + ", movimientos=" + saldoMovimientos
+                    + ", checkpoint=" + saldoCheckpoint;
+        }
+    }
+}
@@ -0,0 +1,88 @@
+package ar.edu.utn.frbb.tup.controller;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class RegistroIdempotenciaTest {
+
+    private final RegistroIdempotencia registro = new RegistroIdempotencia(24, 1000, 64);
+    private final AtomicInteger ejecuciones = new AtomicInteger();
+
+    private ResponseEntity<String> depositar() {
+        return ResponseEntity.ok("deposito " + ejecuciones.incrementAndGet());
+    }
+
+    @Test
+    public void testReintentoDevuelveLaRespuestaOriginal() {
+        ResponseEntity<String> primera = registro.ejecutar("deposito", "abc", "1:100", this::depositar);
+        ResponseEntity<String> reintento = registro.ejecutar("deposito", "abc", "1:100", this::depositar);
+
+        assertEquals("deposito 1", primera.getBody());
+        assertSame(primera, reintento);
+        assertEquals(1, ejecuciones.get());
+    }
+
+    @Test
+    public void testSinClaveSeEjecutaSiempre() {
+        registro.ejecutar("deposito", null, "1:100", this::depositar);
+        registro.ejecutar("deposito", null, "1:100", this::depositar);
+
+        assertEquals(2, ejecuciones.get());
+        assertEquals(0, registro.tamanio());
+    }
+
+    @Test
+    public void testClaveReusadaConOtrosDatos() {
+        registro.ejecutar("deposito", "abc", "1:100", this::depositar);
+
+        assertEquals(HttpStatus.UNPROCESSABLE_ENTITY,
+                registro.ejecutar("deposito", "abc", "1:200", this::depositar).getStatusCode());
+        // La misma clave en otro endpoint es otra operación
+        assertEquals(HttpStatus.OK, registro.ejecutar("retiro", "abc", "1:200", this::depositar).getStatusCode());
+        assertEquals(HttpStatus.BAD_REQUEST,
+                registro.ejecutar("deposito", "x".repeat(300), "1:100", this::depositar).getStatusCode());
+        assertEquals(2, ejecuciones.get());
+    }
+
+    @Test
+    public void testErroresDelServidorNoSeGuardan() {
+        registro.ejecutar("deposito", "abc", "1:100", () -> ResponseEntity.internalServerError().build());
+        assertThrows(IllegalStateException.class, () -> registro.ejecutar("deposito", "abc", "1:100", () -> {
+            throw new IllegalStateException("caída");
+        }));
+
+        assertEquals("deposito 1", registro.ejecutar("deposito", "abc", "1:100", this::depositar).getBody());
+    }
+
+    @Test
+    public void testReintentoMientrasSeEjecutaRecibeConflicto() throws Exception {
+        CountDownLatch ejecutando = new CountDownLatch(1);
+        CountDownLatch terminar = new CountDownLatch(1);
+        AtomicReference<ResponseEntity<String>> primera = new AtomicReference<>();
+        Thread hilo = new Thread(() -> primera.set(registro.ejecutar("deposito", "abc", "1:100", () -> {
+            ejecutando.countDown();
+            try {
+                terminar.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return depositar();
+        })));
+        hilo.start();
+        ejecutando.await();
+
+        assertEquals(HttpStatus.CONFLICT, registro.ejecutar("deposito", "abc", "1:100", this::depositar).getStatusCode());
+
+        terminar.countDown();
+        hilo.join();
+        assertSame(primera.get(), registro.ejecutar("deposito", "abc", "1:100", this::depositar));
+        assertEquals(1, ejecuciones.get());
+    }
+}
@@ -0,0 +1,94 @@
+package ar.edu.utn.frbb.tup.metricas;
+
+import ar.edu.utn.frbb.tup.model.Cuenta;
+import ar.edu.utn.frbb.tup.model.TipoCuenta;
+import ar.edu.utn.frbb.tup.model.TipoMoneda;
+import ar.edu.utn.frbb.tup.model.exception.NoAlcanzaException;
+import ar.edu.utn.frbb.tup.persistence.CuentaDao;
+import ar.edu.utn.frbb.tup.persistence.MovimientoDao;
+import ar.edu.utn.frbb.tup.service.CuentaLockManager;
+import ar.edu.utn.frbb.tup.service.CuentaService;
+import ar.edu.utn.frbb.tup.service.OperacionService;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.aop.framework.ProxyFactory;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class MetricasInterceptorTest {
+
+    private static final long NUMERO_CUENTA = 880000001L;
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final MetricasInterceptor interceptor = new MetricasInterceptor(registry);
+    private final MovimientoDao movimientoDao = new MovimientoDao();
+    private final CuentaDao cuentaDao = new CuentaDao(movimientoDao);
+
+    private OperacionService operacionService;
+
+    @BeforeEach
+    public void setUp() {
+        CuentaService cuentaService = new CuentaService();
+        ReflectionTestUtils.setField(cuentaService, "cuentaDao", cuentaDao);
+        OperacionService destino = new OperacionService();
+        ReflectionTestUtils.setField(destino, "cuentaDao", cuentaDao);
+        ReflectionTestUtils.setField(destino, "cuentaService", cuentaService);
+        ReflectionTestUtils.setField(destino, "cuentaLockManager", new CuentaLockManager());
+        operacionService = medir(destino);
+
+        Cuenta cuenta = new Cuenta();
+        cuenta.setNumeroCuenta(NUMERO_CUENTA);
+        cuenta.setTipoCuenta(TipoCuenta.CAJA_AHORRO);
+        cuenta.setMoneda(TipoMoneda.PESOS);
+        cuenta.setBalance(100);
+        cuentaDao.save(cuenta);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        cuentaDao.delete(NUMERO_CUENTA);
+    }
+
+    @Test
+    public void testMideLlamadasPorResultado() throws Exception {
+        operacionService.depositar(NUMERO_CUENTA, 50);
+        operacionService.depositar(NUMERO_CUENTA, 50);
+        assertThrows(NoAlcanzaException.class, () -> operacionService.retirar(NUMERO_CUENTA, 1000));
+
+        assertEquals(2, timer("OperacionService", "depositar", "ok").count());
+        assertEquals(1, timer("OperacionService", "retirar", "NoAlcanzaException").count());
+        assertEquals("servicio", timer("OperacionService", "depositar", "ok").getId().getTag("capa"));
+    }
+
+    @Test
+    public void testNoMideMetodosHeredadosNiExcluidos() {
+        MovimientoDao medido = medir(movimientoDao);
+
+        medido.contarMovimientos();
+        medido.contarRegistros();
+        medido.contarPorCuenta(NUMERO_CUENTA);
+
+        assertNull(registry.find(MetricasInterceptor.NOMBRE).tag("metodo", "contarMovimientos").timer());
+        assertNull(registry.find(MetricasInterceptor.NOMBRE).tag("metodo", "contarRegistros").timer());
+        assertEquals("dao", timer("MovimientoDao", "contarPorCuenta", "ok").getId().getTag("capa"));
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> T medir(T destino) {
+        ProxyFactory proxyFactory = new ProxyFactory(destino);
+        proxyFactory.setProxyTargetClass(true);
+        proxyFactory.addAdvice(interceptor);
+        return (T) proxyFactory.getProxy();
+    }
+
+    private Timer timer(String clase, String metodo, String resultado) {
+        Timer timer = registry.find(MetricasInterceptor.NOMBRE)
+                .tag("clase", clase).tag("metodo", metodo).tag("resultado", resultado).timer();
+        assertNotNull(timer);
+        return timer;
+    }
+}
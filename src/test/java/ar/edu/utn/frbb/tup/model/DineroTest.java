@@ -0,0 +1,72 @@
+package ar.edu.utn.frbb.tup.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.RoundingMode;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class DineroTest {
+
+    @Test
+    public void testConversionDesdeYHaciaDecimal() {
+        assertEquals(29, Dinero.deDecimal(0.29));
+        assertEquals(123456789, Dinero.deDecimal(1234567.89));
+        assertEquals(-105, Dinero.deDecimal(-1.05));
+        assertEquals(1234567.89, Dinero.aDecimal(123456789));
+
+        assertTrue(Dinero.esMontoExacto(0.29));
+        assertTrue(Dinero.esMontoExacto(1000.10));
+        assertFalse(Dinero.esMontoExacto(10.005));
+    }
+
+    @Test
+    public void testMillonDeDepositosNoAcumulaError() {
+        long centavos = 0;
+        double decimal = 0;
+        for (int i = 0; i < 1_000_000; i++) {
+            centavos = Dinero.sumar(centavos, Dinero.deDecimal(0.10));
+            decimal += 0.10;
+        }
+
+        assertEquals(10_000_000, centavos);
+        assertEquals("100000.00", Dinero.formatear(centavos));
+        // Con double la suma ya se corrió del valor exacto
+        assertNotEquals(100000.0, decimal);
+    }
+
+    @Test
+    public void testModosDeRedondeo() {
+        assertEquals(2, Dinero.redondear(2.5, RoundingMode.HALF_EVEN));
+        assertEquals(4, Dinero.redondear(3.5, RoundingMode.HALF_EVEN));
+        assertEquals(3, Dinero.redondear(2.5, RoundingMode.HALF_UP));
+        assertEquals(-3, Dinero.redondear(-2.5, RoundingMode.HALF_UP));
+        assertEquals(2, Dinero.redondear(2.5, RoundingMode.HALF_DOWN));
+        assertEquals(-2, Dinero.redondear(-2.7, RoundingMode.DOWN));
+        assertEquals(-3, Dinero.redondear(-2.1, RoundingMode.UP));
+        assertEquals(-3, Dinero.redondear(-2.1, RoundingMode.FLOOR));
+        assertEquals(-2, Dinero.redondear(-2.9, RoundingMode.CEILING));
+        assertEquals(7, Dinero.redondear(7.0, RoundingMode.UNNECESSARY));
+        assertThrows(IllegalArgumentException.class, () -> Dinero.redondear(7.5, RoundingMode.UNNECESSARY));
+    }
+
+    @Test
+    public void testInteresConRedondeoBancario() {
+        // 1250 centavos al 2% son 25 justos; 1225 al 2% son 24.5 y se redondea al par
+        assertEquals(25, Dinero.multiplicar(1250, 0.02, Dinero.REDONDEO_INTERES));
+        assertEquals(24, Dinero.multiplicar(1225, 0.02, Dinero.REDONDEO_INTERES));
+    }
+
+    @Test
+    public void testDesbordeFallaEnLugarDePerderPrecision() {
+        assertThrows(ArithmeticException.class, () -> Dinero.sumar(Long.MAX_VALUE, 1));
+        assertThrows(ArithmeticException.class, () -> Dinero.restar(Long.MIN_VALUE, 1));
+        assertThrows(IllegalArgumentException.class, () -> Dinero.deDecimal(1e300));
+    }
+
+    @Test
+    public void testFormatear() {
+        assertEquals("0.05", Dinero.formatear(5));
+        assertEquals("-1234.50", Dinero.formatear(-123450));
+    }
+}
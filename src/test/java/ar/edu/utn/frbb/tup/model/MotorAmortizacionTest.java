@@ -0,0 +1,81 @@
+package ar.edu.utn.frbb.tup.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class MotorAmortizacionTest {
+
+    private static final double TASA = 0.05;
+
+    @Test
+    public void testCuotaCoincideConLaFormulaFrancesa() {
+        for (int plazo = 3; plazo <= 60; plazo++) {
+            double tasaMensual = TASA / 12;
+            double factor = Math.pow(1 + tasaMensual, plazo);
+            long esperada = Math.round(10_000_000 * (tasaMensual * factor) / (factor - 1));
+
+            assertEquals(esperada, MotorAmortizacion.cuotaMensual(10_000_000, TASA, plazo), 1);
+        }
+    }
+
+    @Test
+    public void testCronogramaAmortizaTodoElCapital() {
+        TablaAmortizacion tabla = MotorAmortizacion.calcular(10_000_000, TASA, 12);
+
+        assertEquals(12, tabla.getPlazoMeses());
+        assertEquals(41667, tabla.getInteres(1));
+        assertEquals(tabla.getCuota(1), tabla.getCapital(1) + tabla.getInteres(1));
+        assertEquals(10_000_000 - tabla.getCapital(1), tabla.getSaldo(1));
+        assertEquals(0, tabla.getSaldo(12));
+
+        long capital = 0;
+        for (int cuota = 1; cuota <= 12; cuota++) {
+            capital += tabla.getCapital(cuota);
+            // El interés baja a medida que se amortiza capital
+            if (cuota > 1) {
+                assertTrue(tabla.getInteres(cuota) < tabla.getInteres(cuota - 1));
+            }
+        }
+        assertEquals(10_000_000, capital);
+        // Solo la última cuota puede diferir de la fija por redondeo
+        assertEquals(tabla.getCuota(1), tabla.getCuota(12), 5);
+    }
+
+    @Test
+    public void testTasaCeroRepartePartesIguales() {
+        TablaAmortizacion tabla = MotorAmortizacion.calcular(120_000, 0, 3);
+
+        assertEquals(40_000, tabla.getCuota(1));
+        assertEquals(0, tabla.getInteres(2));
+        assertEquals(0, tabla.getTotalIntereses());
+        assertEquals(0, tabla.getSaldo(3));
+    }
+
+    @Test
+    public void testPlazoFueraDeLaCacheSeCalculaIgual() {
+        double tasaMensual = TASA / 12;
+        double factor = Math.pow(1 + tasaMensual, 120);
+        long esperada = Math.round(5_000_000 * (tasaMensual * factor) / (factor - 1));
+
+        assertEquals(esperada, MotorAmortizacion.cuotaMensual(5_000_000, TASA, 120), 1);
+        assertThrows(IllegalArgumentException.class, () -> MotorAmortizacion.cuotaMensual(5_000_000, TASA, 0));
+    }
+
+    @Test
+    public void testPlanDePagosDelPrestamo() {
+        Prestamo prestamo = new Prestamo();
+        prestamo.setMontoPrestamo(30000);
+        prestamo.setPlazoMeses(6);
+
+        List<CuotaPrestamo> plan = prestamo.calcularAmortizacion().toCuotas();
+
+        assertEquals(6, plan.size());
+        assertEquals(1, plan.get(0).getCuotaNro());
+        assertEquals(prestamo.calcularCuotaMensual(), plan.get(0).getMonto(), 0.001);
+        assertEquals(0, plan.get(5).getSaldo(), 0.001);
+        assertNull(prestamo.getPlanPagos());
+    }
+}
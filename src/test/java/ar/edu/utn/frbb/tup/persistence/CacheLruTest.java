@@ -0,0 +1,67 @@
+package ar.edu.utn.frbb.tup.persistence;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CacheLruTest {
+
+    @Test
+    public void testDescartaLasMenosUsadas() {
+        CacheLru<Integer, String> cache = new CacheLru<>(8);
+        for (int i = 0; i < 8; i++) {
+            cache.guardar(i, "valor " + i);
+        }
+        // Las primeras se vuelven a usar, así que las que sobran son las del medio
+        cache.obtener(0);
+        cache.obtener(1);
+
+        cache.guardar(8, "valor 8");
+
+        assertEquals(6, cache.tamanio());
+        assertEquals("valor 0", cache.obtener(0));
+        assertEquals("valor 1", cache.obtener(1));
+        assertEquals("valor 8", cache.obtener(8));
+        int descartadas = 0;
+        for (int i = 2; i < 8; i++) {
+            if (cache.obtener(i) == null) {
+                descartadas++;
+            }
+        }
+        assertEquals(3, descartadas);
+    }
+
+    @Test
+    public void testDescartaPorPesoAunqueNoSeLlegueALaCantidadMaxima() {
+        CacheLru<Integer, String> cache = new CacheLru<>(100, 40, String::length);
+        for (int i = 0; i < 4; i++) {
+            cache.guardar(i, "0123456789");
+        }
+        cache.obtener(0);
+        assertEquals(40, cache.getPeso());
+
+        cache.guardar(4, "0123456789");
+
+        // Queda en tres cuartos del peso máximo, sin tocar la usada recién
+        assertEquals(3, cache.tamanio());
+        assertEquals(30, cache.getPeso());
+        assertNotNull(cache.obtener(0));
+        assertNotNull(cache.obtener(4));
+
+        cache.invalidar(4);
+        assertEquals(20, cache.getPeso());
+    }
+
+    @Test
+    public void testInvalidarYDeshabilitado() {
+        CacheLru<Integer, String> cache = new CacheLru<>(8);
+        cache.guardar(1, "uno");
+        cache.invalidar(1);
+        assertNull(cache.obtener(1));
+
+        CacheLru<Integer, String> deshabilitado = new CacheLru<>(0);
+        deshabilitado.guardar(1, "uno");
+        assertNull(deshabilitado.obtener(1));
+        assertThrows(IllegalArgumentException.class, () -> new CacheLru<>(-1));
+    }
+}
@@ -0,0 +1,114 @@
+package ar.edu.utn.frbb.tup.persistence;
+
+import ar.edu.utn.frbb.tup.model.Cliente;
+import ar.edu.utn.frbb.tup.model.Cuenta;
+import ar.edu.utn.frbb.tup.model.TipoCuenta;
+import ar.edu.utn.frbb.tup.model.TipoMoneda;
+import ar.edu.utn.frbb.tup.model.TipoPersona;
+import ar.edu.utn.frbb.tup.persistence.entity.BaseEntity;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ClienteDaoTest {
+
+    private static final long DNI = 41222333;
+    private static final long NUMERO_CUENTA = 880000100L;
+
+    private final CuentaDao cuentaDao = new CuentaDao(new MovimientoDao());
+    private final ClienteDao clienteDao = new ClienteDao();
+
+    public ClienteDaoTest() {
+        clienteDao.cuentaDao = cuentaDao;
+    }
+
+    @AfterEach
+    public void tearDown() {
+        for (long dni : new long[]{DNI, DNI + 1}) {
+            if (clienteDao.find(dni, false) != null) {
+                clienteDao.delete(dni);
+            }
+        }
+        if (cuentaDao.find(NUMERO_CUENTA) != null) {
+            cuentaDao.delete(NUMERO_CUENTA);
+        }
+    }
+
+    @Test
+    public void testCadaGuardadoIncrementaLaVersion() {
+        Cliente cliente = crearCliente("Ana");
+        clienteDao.save(cliente);
+        assertEquals(BaseEntity.VERSION_INICIAL, cliente.getVersion());
+
+        cliente.setTelefono("1111");
+        clienteDao.save(cliente);
+
+        assertEquals(BaseEntity.VERSION_INICIAL + 1, cliente.getVersion());
+        assertEquals(BaseEntity.VERSION_INICIAL + 1, clienteDao.find(DNI, false).getVersion());
+    }
+
+    @Test
+    public void testSaveSiNoCambioRechazaUnaLecturaVieja() {
+        assertTrue(clienteDao.saveSiNoCambio(crearCliente("Ana")));
+        Cliente primero = clienteDao.find(DNI, true);
+        Cliente segundo = clienteDao.find(DNI, true);
+
+        primero.setTelefono("1111");
+        assertTrue(clienteDao.saveSiNoCambio(primero));
+        segundo.setTelefono("2222");
+        assertFalse(clienteDao.saveSiNoCambio(segundo));
+
+        Cliente guardado = clienteDao.find(DNI, false);
+        assertEquals("1111", guardado.getTelefono());
+        assertEquals(primero.getVersion(), guardado.getVersion());
+    }
+
+    @Test
+    public void testSaveSiNoCambioNoPisaUnClienteQueYaExiste() {
+        assertTrue(clienteDao.saveSiNoCambio(crearCliente("Ana")));
+
+        assertFalse(clienteDao.saveSiNoCambio(crearCliente("Otra")));
+
+        assertEquals("Ana", clienteDao.find(DNI, false).getNombre());
+    }
+
+    @Test
+    public void testRecorrerEntregaLosClientesOrdenadosConSusCuentas() {
+        Cliente siguiente = crearCliente("Beto");
+        siguiente.setDni(DNI + 1);
+        clienteDao.save(siguiente);
+        Cliente cliente = crearCliente("Ana");
+        clienteDao.save(cliente);
+        Cuenta cuenta = new Cuenta();
+        cuenta.setNumeroCuenta(NUMERO_CUENTA);
+        cuenta.setTipoCuenta(TipoCuenta.CAJA_AHORRO);
+        cuenta.setMoneda(TipoMoneda.PESOS);
+        cuenta.setTitular(cliente);
+        cuentaDao.save(cuenta);
+
+        List<Cliente> recorridos = new ArrayList<>();
+        clienteDao.recorrer(DNI - 1, recorridos::add);
+
+        assertEquals(DNI, recorridos.get(0).getDni());
+        assertEquals(1, recorridos.get(0).getCuentas().size());
+        assertEquals(NUMERO_CUENTA, recorridos.get(0).getCuentas().iterator().next().getNumeroCuenta());
+        assertEquals(DNI + 1, recorridos.get(1).getDni());
+        assertTrue(recorridos.get(1).getCuentas().isEmpty());
+    }
+
+    private static Cliente crearCliente(String nombre) {
+        Cliente cliente = new Cliente();
+        cliente.setDni(DNI);
+        cliente.setNombre(nombre);
+        cliente.setApellido("Gómez");
+        cliente.setTipoPersona(TipoPersona.PERSONA_FISICA);
+        cliente.setFechaAlta(LocalDate.now());
+        cliente.setFechaNacimiento(LocalDate.of(1980, 1, 1));
+        return cliente;
+    }
+}
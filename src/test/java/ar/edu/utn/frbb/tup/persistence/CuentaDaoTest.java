@@ -0,0 +1,232 @@
+package ar.edu.utn.frbb.tup.persistence;
+
+import ar.edu.utn.frbb.tup.model.Cliente;
+import ar.edu.utn.frbb.tup.model.Cuenta;
+import ar.edu.utn.frbb.tup.model.Movimiento;
+import ar.edu.utn.frbb.tup.model.TipoCuenta;
+import ar.edu.utn.frbb.tup.model.TipoMoneda;
+import ar.edu.utn.frbb.tup.persistence.entity.BaseEntity;
+import ar.edu.utn.frbb.tup.persistence.entity.MovimientoEntity;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CuentaDaoTest {
+
+    private final CuentaDao cuentaDao = new CuentaDao(new MovimientoDao());
+
+    @Test
+    public void testGetCuentasByClienteUsaIndicePorTitular() {
+        Cliente titular = crearCliente(40111222);
+        Cuenta cuenta = crearCuenta(880000001L, titular);
+        cuentaDao.save(cuenta);
+
+        List<Cuenta> cuentas = cuentaDao.getCuentasByCliente(40111222);
+
+        assertEquals(1, cuentas.size());
+        assertEquals(880000001L, cuentas.get(0).getNumeroCuenta());
+    }
+
+    @Test
+    public void testIndiceSeActualizaAlCambiarTitularYAlEliminar() {
+        Cliente titularOriginal = crearCliente(40111333);
+        Cliente titularNuevo = crearCliente(40111444);
+        Cuenta cuenta = crearCuenta(880000002L, titularOriginal);
+        cuentaDao.save(cuenta);
+
+        cuenta.setTitular(titularNuevo);
+        cuentaDao.save(cuenta);
+
+        assertTrue(cuentaDao.getCuentasByCliente(40111333).isEmpty());
+        assertEquals(1, cuentaDao.getCuentasByCliente(40111444).size());
+
+        cuentaDao.delete(880000002L);
+
+        assertTrue(cuentaDao.getCuentasByCliente(40111444).isEmpty());
+        assertNull(cuentaDao.find(880000002L));
+    }
+
+    @Test
+    public void testDosInstanciasDelDaoUsanLosMismosLocksDeEscritura() {
+        CuentaDao otro = new CuentaDao(new MovimientoDao());
+
+        assertSame(cuentaDao.lockEscritura(880000004L), otro.lockEscritura(880000004L));
+        assertNotSame(cuentaDao.lockEscritura(880000004L), new MovimientoDao().lockEscritura(880000004L));
+    }
+
+    @Test
+    public void testReconstruirIndicesRecuperaElContenidoDeLaTabla() {
+        Cuenta cuenta = crearCuenta(880000003L, crearCliente(40111555));
+        cuentaDao.save(cuenta);
+
+        cuentaDao.reconstruirIndices();
+
+        assertEquals(1, cuentaDao.getCuentasByCliente(40111555).size());
+    }
+
+    @Test
+    public void testSaveAgregaSoloLosMovimientosNuevosAlHistorial() throws Exception {
+        Cuenta cuenta = crearCuenta(880000004L, crearCliente(40111666));
+        cuenta.depositar(100);
+        cuentaDao.save(cuenta);
+
+        cuenta.depositar(50);
+        cuentaDao.save(cuenta);
+
+        Cuenta cargada = cuentaDao.find(880000004L);
+        cargada.depositar(25);
+        cuentaDao.save(cargada);
+
+        List<Movimiento> historial = cuentaDao.findMovimientos(880000004L);
+        assertEquals(3, historial.size());
+        assertEquals(100, historial.get(0).getMonto());
+        assertEquals(50, historial.get(1).getMonto());
+        assertEquals(25, historial.get(2).getMonto());
+        assertTrue(cuentaDao.find(880000004L).getMovimientos().isEmpty());
+        assertEquals(175, cuentaDao.find(880000004L).getBalance());
+    }
+
+    @Test
+    public void testCacheEntregaCopiasIndependientes() throws Exception {
+        Cuenta cuenta = crearCuenta(880000005L, crearCliente(40111777));
+        cuenta.depositar(100);
+        cuentaDao.save(cuenta);
+        long aciertos = cuentaDao.getAciertosCache();
+
+        Cuenta primera = cuentaDao.find(880000005L);
+        primera.depositar(900);
+        Cuenta segunda = cuentaDao.find(880000005L);
+
+        assertEquals(aciertos + 2, cuentaDao.getAciertosCache());
+        assertNotSame(primera, segunda);
+        // Lo que se hizo sobre la primera copia sin guardarla no se ve en la segunda
+        assertEquals(100, segunda.getBalance());
+        assertTrue(segunda.getMovimientos().isEmpty());
+        assertEquals(40111777, segunda.getTitular().getDni());
+        assertEquals(cuenta.getFechaCreacion(), segunda.getFechaCreacion());
+    }
+
+    @Test
+    public void testCacheSigueLasEscriturasDeLaTabla() throws Exception {
+        Cuenta cuenta = crearCuenta(880000006L, crearCliente(40111888));
+        cuentaDao.save(cuenta);
+        cuentaDao.find(880000006L);
+
+        // Otra instancia del DAO escribe sobre la misma tabla sin pasar por este cache
+        CuentaDao otroDao = new CuentaDao(new MovimientoDao());
+        Cuenta modificada = otroDao.find(880000006L);
+        modificada.depositar(300);
+        otroDao.save(modificada);
+
+        long fallos = cuentaDao.getFallosCache();
+        assertEquals(300, cuentaDao.find(880000006L).getBalance());
+        assertEquals(fallos + 1, cuentaDao.getFallosCache());
+        assertEquals(300, cuentaDao.find(880000006L).getBalance());
+        assertEquals(fallos + 1, cuentaDao.getFallosCache());
+
+        otroDao.delete(880000006L);
+        assertNull(cuentaDao.find(880000006L));
+    }
+
+    @Test
+    public void testLasPatasDelAsientoSeVenJuntasSinEsperarAlDiario() throws Exception {
+        Cuenta origen = crearCuenta(880000010L, crearCliente(40112000));
+        origen.depositar(100);
+        cuentaDao.save(origen);
+        cuentaDao.save(crearCuenta(880000011L, crearCliente(40112001)));
+        CountDownLatch registrado = new CountDownLatch(1);
+        CountDownLatch liberar = new CountDownLatch(1);
+        cuentaDao.setDiario(new DiarioCambios() {
+            @Override
+            public Confirmacion registrarGuardado(String tabla, BaseEntity entidad) {
+                return Confirmacion.INMEDIATA;
+            }
+
+            @Override
+            public Confirmacion registrarBorrado(String tabla, long id) {
+                return Confirmacion.INMEDIATA;
+            }
+
+            @Override
+            public Confirmacion registrarMovimientos(long numeroCuenta, List<MovimientoEntity> movimientos) {
+                return Confirmacion.INMEDIATA;
+            }
+
+            @Override
+            public Confirmacion registrarAsiento(Asiento asiento) {
+                registrado.countDown();
+                return () -> {
+                    try {
+                        liberar.await();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                };
+            }
+        });
+        try {
+            Cuenta debito = cuentaDao.find(880000010L);
+            Cuenta credito = cuentaDao.find(880000011L);
+            debito.debitarDeCuenta(30);
+            credito.depositar(30);
+            Thread transferencia = new Thread(() -> cuentaDao.saveAll(List.of(debito, credito)));
+            transferencia.start();
+            assertTrue(registrado.await(10, TimeUnit.SECONDS));
+
+            // Con el asiento esperando al diario, las lecturas sin lock ya ven las dos patas
+            assertEquals(7000L, cuentaDao.findBalanceCentavos(880000010L));
+            assertEquals(3000L, cuentaDao.findBalanceCentavos(880000011L));
+
+            liberar.countDown();
+            transferencia.join();
+        } finally {
+            liberar.countDown();
+            cuentaDao.setDiario(DiarioCambios.NINGUNO);
+        }
+    }
+
+    @Test
+    public void testCacheDeshabilitado() {
+        CuentaDao sinCache = new CuentaDao(new MovimientoDao(), 0);
+        sinCache.save(crearCuenta(880000007L, crearCliente(40111999)));
+
+        assertNotNull(sinCache.find(880000007L));
+        assertEquals(0, sinCache.getAciertosCache());
+        assertEquals(0, sinCache.getTamanioCache());
+    }
+
+    @Test
+    public void testSaldoSeLeeDeLaTablaSinArmarLaCuenta() throws Exception {
+        Cuenta cuenta = crearCuenta(880000020L, crearCliente(40111999));
+        cuenta.depositar(12.34);
+        cuentaDao.save(cuenta);
+
+        assertEquals(1234L, cuentaDao.findBalanceCentavos(880000020L));
+        assertNull(cuentaDao.findBalanceCentavos(880000021L));
+
+        cuenta.debitarDeCuenta(2.34);
+        cuentaDao.save(cuenta);
+        assertEquals(1000L, cuentaDao.findBalanceCentavos(880000020L));
+        // Leer el saldo no deja nada en el historial
+        assertEquals(2, cuentaDao.findMovimientos(880000020L).size());
+    }
+
+    private Cliente crearCliente(long dni) {
+        Cliente cliente = new Cliente();
+        cliente.setDni(dni);
+        return cliente;
+    }
+
+    private Cuenta crearCuenta(long numeroCuenta, Cliente titular) {
+        Cuenta cuenta = new Cuenta();
+        cuenta.setNumeroCuenta(numeroCuenta);
+        cuenta.setTipoCuenta(TipoCuenta.CAJA_AHORRO);
+        cuenta.setMoneda(TipoMoneda.PESOS);
+        cuenta.setTitular(titular);
+        return cuenta;
+    }
+}
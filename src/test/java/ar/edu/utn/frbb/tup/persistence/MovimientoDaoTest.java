@@ -0,0 +1,140 @@
+package ar.edu.utn.frbb.tup.persistence;
+
+import ar.edu.utn.frbb.tup.model.Movimiento;
+import ar.edu.utn.frbb.tup.model.TipoOperacion;
+import ar.edu.utn.frbb.tup.persistence.entity.HistorialMovimientosEntity;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class MovimientoDaoTest {
+
+    private static final long NUMERO_CUENTA = 990000001L;
+    private static final LocalDateTime INICIO = LocalDateTime.of(2024, 1, 1, 10, 0);
+
+    private final MovimientoDao movimientoDao = new MovimientoDao();
+
+    @BeforeEach
+    public void setUp() {
+        movimientoDao.deleteByCuenta(NUMERO_CUENTA);
+        // 10 movimientos, uno por día, alternando depósitos y retiros
+        List<Movimiento> movimientos = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            TipoOperacion tipo = i % 2 == 0 ? TipoOperacion.DEPOSITO : TipoOperacion.RETIRO;
+            movimientos.add(new Movimiento(100L + i, INICIO.plusDays(i), tipo, i, NUMERO_CUENTA, null, null));
+        }
+        movimientoDao.agregar(NUMERO_CUENTA, movimientos);
+    }
+
+    @Test
+    public void testPaginacionPorCursor() {
+        List<Movimiento> primera = movimientoDao.findByCuenta(NUMERO_CUENTA, null, null, null, null, 4);
+        List<Movimiento> segunda = movimientoDao.findByCuenta(NUMERO_CUENTA, primera.get(3).getId(), null, null, null, 4);
+        List<Movimiento> tercera = movimientoDao.findByCuenta(NUMERO_CUENTA, segunda.get(3).getId(), null, null, null, 4);
+
+        assertEquals(100L, primera.get(0).getId());
+        assertEquals(104L, segunda.get(0).getId());
+        assertEquals(2, tercera.size());
+        assertEquals(109L, tercera.get(1).getId());
+    }
+
+    @Test
+    public void testFiltroPorRangoDeFechasInclusivo() {
+        List<Movimiento> movimientos = movimientoDao.findByCuenta(NUMERO_CUENTA, null,
+                INICIO.plusDays(2), INICIO.plusDays(5), null, Integer.MAX_VALUE);
+
+        assertEquals(4, movimientos.size());
+        assertEquals(102L, movimientos.get(0).getId());
+        assertEquals(105L, movimientos.get(3).getId());
+    }
+
+    @Test
+    public void testFiltroPorTipoConRangoYCursor() {
+        List<Movimiento> retiros = movimientoDao.findByCuenta(NUMERO_CUENTA, 101L,
+                null, INICIO.plusDays(7), TipoOperacion.RETIRO, Integer.MAX_VALUE);
+
+        assertEquals(3, retiros.size());
+        assertEquals(103L, retiros.get(0).getId());
+        assertEquals(105L, retiros.get(1).getId());
+        assertEquals(107L, retiros.get(2).getId());
+        assertTrue(retiros.stream().allMatch(m -> m.getTipoOperacion() == TipoOperacion.RETIRO));
+    }
+
+    @Test
+    public void testRecorrerEntregaLoMismoQueLaBusqueda() {
+        List<Movimiento> recorridos = new ArrayList<>();
+        int entregados = movimientoDao.recorrerPorCuenta(NUMERO_CUENTA, 101L,
+                null, INICIO.plusDays(7), TipoOperacion.RETIRO, Integer.MAX_VALUE, recorridos::add);
+
+        List<Movimiento> buscados = movimientoDao.findByCuenta(NUMERO_CUENTA, 101L,
+                null, INICIO.plusDays(7), TipoOperacion.RETIRO, Integer.MAX_VALUE);
+        assertEquals(3, entregados);
+        assertEquals(buscados.stream().map(Movimiento::getId).toList(),
+                recorridos.stream().map(Movimiento::getId).toList());
+    }
+
+    @Test
+    public void testSaldoSegunMovimientos() {
+        // Depósitos 0 + 2 + 4 + 6 + 8, retiros 1 + 3 + 5 + 7 + 9
+        assertEquals(-5, movimientoDao.saldoSegunMovimientos(NUMERO_CUENTA));
+        assertEquals(-5, movimientoDao.recalcularSaldo(NUMERO_CUENTA));
+        assertEquals(0, movimientoDao.saldoSegunMovimientos(990000999L));
+    }
+
+    @Test
+    public void testSaldoDesdeCheckpointCoincideConElHistorialEntero() {
+        long numeroCuenta = 990000002L;
+        movimientoDao.deleteByCuenta(numeroCuenta);
+        long esperado = 0;
+        long id = 1;
+        // Lotes de distinto tamaño, para que algunos crucen un checkpoint por la mitad
+        for (int lote = 0; lote < 50; lote++) {
+            List<Movimiento> movimientos = new ArrayList<>();
+            for (int i = 0; i < 7 + lote * 3; i++) {
+                TipoOperacion tipo = TipoOperacion.values()[(int) (id % TipoOperacion.values().length)];
+                movimientos.add(new Movimiento(id, INICIO, tipo, id, numeroCuenta, null, null));
+                esperado += tipo.efectoEnSaldo(id);
+                id++;
+            }
+            movimientoDao.agregar(numeroCuenta, movimientos);
+        }
+
+        assertTrue(movimientoDao.contarPorCuenta(numeroCuenta) > 3 * HistorialMovimientosEntity.INTERVALO_CHECKPOINT);
+        assertEquals(esperado, movimientoDao.recalcularSaldo(numeroCuenta));
+        assertEquals(esperado, movimientoDao.saldoSegunMovimientos(numeroCuenta));
+    }
+
+    @Test
+    public void testCuentaSinHistorial() {
+        assertTrue(movimientoDao.findByCuenta(990000999L, null, null, null, null, 10).isEmpty());
+        assertEquals(0, movimientoDao.contarPorCuenta(990000999L));
+    }
+
+    @Test
+    public void testTotalDeMovimientosSigueLasEscrituras() {
+        long numeroCuenta = 990000003L;
+        movimientoDao.deleteByCuenta(numeroCuenta);
+        long inicial = movimientoDao.contarMovimientos();
+
+        movimientoDao.agregar(numeroCuenta, List.of(
+                new Movimiento(200L, INICIO, TipoOperacion.DEPOSITO, 5, numeroCuenta, null, null),
+                new Movimiento(201L, INICIO.plusDays(1), TipoOperacion.RETIRO, 2, numeroCuenta, null, null)));
+        assertEquals(inicial + 2, movimientoDao.contarMovimientos());
+
+        movimientoDao.descartarMovimientos(numeroCuenta, 1);
+        assertEquals(inicial + 1, movimientoDao.contarMovimientos());
+
+        // Reaplicar lo que el historial ya tiene no suma de nuevo
+        movimientoDao.restaurarMovimientos(numeroCuenta, movimientoDao.getInMemoryDatabase()
+                .get(numeroCuenta).getMovimientos(0, 1));
+        assertEquals(inicial + 1, movimientoDao.contarMovimientos());
+
+        movimientoDao.deleteByCuenta(numeroCuenta);
+        assertEquals(inicial, movimientoDao.contarMovimientos());
+    }
+}
@@ -0,0 +1,59 @@
+package ar.edu.utn.frbb.tup.persistence;
+
+import ar.edu.utn.frbb.tup.model.CuotaPrestamo;
+import ar.edu.utn.frbb.tup.model.EstadoPrestamo;
+import ar.edu.utn.frbb.tup.model.Prestamo;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class PrestamoDaoTest {
+
+    private final PrestamoDao prestamoDao = new PrestamoDao();
+
+    @Test
+    public void testFindByNumeroClienteYEstadosFiltraPorIndices() {
+        Prestamo activo = crearPrestamo(50111222L, EstadoPrestamo.ACTIVO);
+        Prestamo pagado = crearPrestamo(50111222L, EstadoPrestamo.PAGADO);
+        Prestamo deOtroCliente = crearPrestamo(50111333L, EstadoPrestamo.ACTIVO);
+        prestamoDao.save(activo);
+        prestamoDao.save(pagado);
+        prestamoDao.save(deOtroCliente);
+
+        List<Prestamo> vigentes = prestamoDao.findByNumeroClienteYEstados(50111222L,
+                EnumSet.of(EstadoPrestamo.APROBADO, EstadoPrestamo.ACTIVO));
+
+        assertEquals(1, vigentes.size());
+        assertEquals(activo.getId(), vigentes.get(0).getId());
+        assertNull(vigentes.get(0).getPlanPagos());
+        assertEquals(2, prestamoDao.findByNumeroCliente(50111222L).size());
+    }
+
+    @Test
+    public void testCambioDeEstadoActualizaIndice() {
+        Prestamo prestamo = crearPrestamo(50111444L, EstadoPrestamo.ACTIVO);
+        prestamoDao.save(prestamo);
+
+        prestamo.setEstado(EstadoPrestamo.PAGADO);
+        prestamoDao.save(prestamo);
+
+        assertTrue(prestamoDao.findByNumeroClienteYEstados(50111444L, EnumSet.of(EstadoPrestamo.ACTIVO)).isEmpty());
+        assertEquals(1, prestamoDao.findByNumeroClienteYEstados(50111444L, EnumSet.of(EstadoPrestamo.PAGADO)).size());
+    }
+
+    private Prestamo crearPrestamo(long numeroCliente, EstadoPrestamo estado) {
+        Prestamo prestamo = new Prestamo();
+        prestamo.setNumeroCliente(numeroCliente);
+        prestamo.setMontoPrestamo(10000);
+        prestamo.setPlazoMeses(3);
+        prestamo.setMoneda("PESOS");
+        prestamo.setEstado(estado);
+        prestamo.setPlanPagos(Arrays.asList(new CuotaPrestamo(1, 3400), new CuotaPrestamo(2, 3400),
+                new CuotaPrestamo(3, 3400)));
+        return prestamo;
+    }
+}
@@ -0,0 +1,57 @@
+package ar.edu.utn.frbb.tup.persistence;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SecuenciaIdsTest {
+
+    private static final int HILOS = 8;
+    private static final int IDS_POR_HILO = 10_000;
+
+    @Test
+    public void testHilosConcurrentesNoRepitenIdsYQuedanDensos() throws InterruptedException {
+        SecuenciaIds secuencia = new SecuenciaIds();
+        Set<Long> ids = ConcurrentHashMap.newKeySet();
+
+        List<Thread> hilos = new ArrayList<>();
+        for (int h = 0; h < HILOS; h++) {
+            Thread hilo = new Thread(() -> {
+                for (int i = 0; i < IDS_POR_HILO; i++) {
+                    ids.add(secuencia.siguiente());
+                }
+            });
+            hilos.add(hilo);
+            hilo.start();
+        }
+        for (Thread hilo : hilos) {
+            hilo.join();
+        }
+
+        assertEquals(HILOS * IDS_POR_HILO, ids.size());
+        long maximo = ids.stream().mapToLong(Long::longValue).max().orElseThrow();
+        long minimo = ids.stream().mapToLong(Long::longValue).min().orElseThrow();
+        assertTrue(minimo >= 1);
+        // Los huecos se limitan a un bloque sin terminar por hilo
+        assertTrue(maximo <= (long) HILOS * IDS_POR_HILO + (long) HILOS * SecuenciaIds.TAMANIO_BLOQUE);
+    }
+
+    @Test
+    public void testReservarHastaDescartaLosBloquesYaTomados() {
+        SecuenciaIds secuencia = new SecuenciaIds();
+        assertEquals(1, secuencia.siguiente());
+
+        secuencia.reservarHasta(500);
+        assertEquals(501, secuencia.siguiente());
+        assertEquals(502, secuencia.siguiente());
+
+        // Un id menor al que ya se entregó no hace retroceder la secuencia
+        secuencia.reservarHasta(10);
+        assertEquals(503, secuencia.siguiente());
+    }
+}
@@ -0,0 +1,183 @@
+package ar.edu.utn.frbb.tup.persistence.wal;
+
+import ar.edu.utn.frbb.tup.model.EstadoPrestamo;
+import ar.edu.utn.frbb.tup.model.TipoCuenta;
+import ar.edu.utn.frbb.tup.model.TipoMoneda;
+import ar.edu.utn.frbb.tup.model.TipoOperacion;
+import ar.edu.utn.frbb.tup.model.TipoPersona;
+import ar.edu.utn.frbb.tup.persistence.entity.BaseEntity;
+import ar.edu.utn.frbb.tup.persistence.entity.ClienteEntity;
+import ar.edu.utn.frbb.tup.persistence.entity.CuentaEntity;
+import ar.edu.utn.frbb.tup.persistence.entity.MovimientoEntity;
+import ar.edu.utn.frbb.tup.persistence.entity.PrestamoEntity;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CodecEntidadesTest {
+
+    private static final LocalDateTime FECHA = LocalDateTime.of(2024, 3, 1, 10, 30);
+
+    @Test
+    public void testLasPosicionesDeLosEnumsGuardadosNoCambian() {
+        // Los archivos guardan ordinal() + 1: reordenar estas constantes corrompe los datos
+        assertEquals(0, TipoPersona.PERSONA_FISICA.ordinal());
+        assertEquals(1, TipoPersona.PERSONA_JURIDICA.ordinal());
+        assertEquals(0, TipoCuenta.CUENTA_CORRIENTE.ordinal());
+        assertEquals(1, TipoCuenta.CAJA_AHORRO.ordinal());
+        assertEquals(0, TipoMoneda.PESOS.ordinal());
+        assertEquals(1, TipoMoneda.DOLARES.ordinal());
+        assertEquals(0, TipoOperacion.DEPOSITO.ordinal());
+        assertEquals(1, TipoOperacion.RETIRO.ordinal());
+        assertEquals(2, TipoOperacion.TRANSFERENCIA_ENVIADA.ordinal());
+        assertEquals(3, TipoOperacion.TRANSFERENCIA_RECIBIDA.ordinal());
+        assertEquals(4, TipoOperacion.CONSULTA_SALDO.ordinal());
+        assertEquals(0, EstadoPrestamo.PENDIENTE.ordinal());
+        assertEquals(1, EstadoPrestamo.APROBADO.ordinal());
+        assertEquals(2, EstadoPrestamo.RECHAZADO.ordinal());
+        assertEquals(3, EstadoPrestamo.ACTIVO.ordinal());
+        assertEquals(4, EstadoPrestamo.PAGADO.ordinal());
+    }
+
+    @Test
+    public void testIdaYVueltaEnFormatoCompacto() throws IOException {
+        ClienteEntity cliente = new ClienteEntity(30111222L, TipoPersona.PERSONA_JURIDICA, "Ana", "Paz", "Calle 1",
+                "29112345678", "Nacion", LocalDate.of(2024, 1, 2), LocalDate.of(1990, 1, 1), List.of(1L, 2L));
+        CuentaEntity cuenta = new CuentaEntity(1L, null, FECHA, 12345, TipoCuenta.CAJA_AHORRO, TipoMoneda.DOLARES,
+                30111222L);
+        PrestamoEntity prestamo = new PrestamoEntity(9L, 30111222L, 5_000_000, 12, TipoMoneda.PESOS, 0.05, FECHA,
+                EstadoPrestamo.ACTIVO, 3, 3_800_000);
+
+        ClienteEntity clienteLeido = (ClienteEntity) ida(CodecEntidades.TABLA_CLIENTE, cliente);
+        CuentaEntity cuentaLeida = (CuentaEntity) ida(CodecEntidades.TABLA_CUENTA, cuenta);
+        PrestamoEntity prestamoLeido = (PrestamoEntity) ida(CodecEntidades.TABLA_PRESTAMO, prestamo);
+
+        assertEquals(TipoPersona.PERSONA_JURIDICA, clienteLeido.getTipoPersona());
+        assertEquals(List.of(1L, 2L), clienteLeido.getCuentas());
+        assertEquals(12345, cuentaLeida.getBalance());
+        assertEquals(TipoCuenta.CAJA_AHORRO, cuentaLeida.getTipoCuenta());
+        assertEquals(TipoMoneda.DOLARES, cuentaLeida.getTipoMoneda());
+        assertEquals(FECHA, cuentaLeida.getFechaCreacion());
+        assertEquals(TipoMoneda.PESOS, prestamoLeido.getMoneda());
+        assertEquals(EstadoPrestamo.ACTIVO, prestamoLeido.getEstado());
+        assertEquals(3_800_000, prestamoLeido.getSaldoRestante());
+
+        MovimientoEntity movimiento = new MovimientoEntity();
+        movimiento.setId(7L);
+        movimiento.setFechaHora(FECHA);
+        movimiento.setTipoOperacion(TipoOperacion.TRANSFERENCIA_RECIBIDA);
+        movimiento.setMonto(250);
+        movimiento.setCuentaOrigen(2L);
+        movimiento.setCuentaDestino(1L);
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        CodecEntidades.escribirMovimiento(new DataOutputStream(bytes), movimiento);
+        MovimientoEntity movimientoLeido = CodecEntidades.leerMovimiento(entrada(bytes), CodecEntidades.FORMATO_COMPACTO);
+        assertEquals(TipoOperacion.TRANSFERENCIA_RECIBIDA, movimientoLeido.getTipoOperacion());
+        assertEquals(250, movimientoLeido.getMonto());
+        assertNull(movimientoLeido.getDescripcion());
+    }
+
+    @Test
+    public void testLeeRegistrosEnFormatoDeTexto() throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeLong(30111222L);
+        out.writeBoolean(true);
+        out.writeUTF("F");
+        for (int i = 0; i < 5; i++) {
+            out.writeBoolean(false);
+        }
+        out.writeBoolean(false);
+        out.writeBoolean(false);
+        out.writeInt(0);
+        ClienteEntity cliente = (ClienteEntity) CodecEntidades.leerEntidad(entrada(bytes),
+                CodecEntidades.TABLA_CLIENTE, CodecEntidades.FORMATO_TEXTO);
+        assertEquals(TipoPersona.PERSONA_FISICA, cliente.getTipoPersona());
+
+        bytes = new ByteArrayOutputStream();
+        out = new DataOutputStream(bytes);
+        out.writeLong(9L);
+        out.writeBoolean(true);
+        out.writeLong(30111222L);
+        out.writeDouble(50000.0);
+        out.writeInt(12);
+        out.writeBoolean(true);
+        out.writeUTF("pesos");
+        out.writeDouble(0.05);
+        out.writeBoolean(false);
+        out.writeBoolean(true);
+        out.writeUTF("APROBADO");
+        out.writeInt(1);
+        out.writeInt(1);
+        out.writeDouble(4280.37);
+        out.writeInt(0);
+        out.writeDouble(50000.0);
+        PrestamoEntity prestamo = (PrestamoEntity) CodecEntidades.leerEntidad(entrada(bytes),
+                CodecEntidades.TABLA_PRESTAMO, CodecEntidades.FORMATO_TEXTO);
+        assertEquals(TipoMoneda.PESOS, prestamo.getMoneda());
+        assertEquals(EstadoPrestamo.APROBADO, prestamo.getEstado());
+        assertEquals(5_000_000, prestamo.getMontoPrestamo());
+        assertEquals(5_000_000, prestamo.getSaldoRestante());
+    }
+
+    @Test
+    public void testCadaEnumOcupaUnByte() throws IOException {
+        CuentaEntity cuenta = new CuentaEntity(1L, null, FECHA, 12345, TipoCuenta.CUENTA_CORRIENTE, TipoMoneda.DOLARES,
+                30111222L);
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        CodecEntidades.escribirEntidad(new DataOutputStream(bytes), CodecEntidades.TABLA_CUENTA, cuenta);
+
+        // número 8, nombre 1, fecha 13, saldo 8, tipo 1, moneda 1, titular 9;
+        // en el formato de texto el tipo y la moneda ocupaban 3 + largo del nombre cada uno
+        assertEquals(41, bytes.size());
+    }
+
+    @Test
+    public void testCodigoDeEnumDesconocidoEsUnError() throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeLong(1L);
+        out.writeBoolean(false);
+        out.writeBoolean(false);
+        out.writeLong(100);
+        out.writeByte(TipoCuenta.values().length + 1);
+        out.writeByte(1);
+        out.writeBoolean(false);
+
+        assertThrows(IOException.class, () -> CodecEntidades.leerEntidad(entrada(bytes),
+                CodecEntidades.TABLA_CUENTA, CodecEntidades.FORMATO_COMPACTO));
+    }
+
+    private static BaseEntity ida(byte tabla, BaseEntity entidad) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        CodecEntidades.escribirEntidad(new DataOutputStream(bytes), tabla, entidad);
+        return CodecEntidades.leerEntidad(entrada(bytes), tabla, CodecEntidades.FORMATO_COMPACTO);
+    }
+
+    @Test
+    public void testLectorBufferLeeLineasComoDataInputStream() {
+        byte[] texto = "uno\ndos\r\ntres\rcuatro".getBytes(StandardCharsets.ISO_8859_1);
+        LectorBuffer lector = new LectorBuffer(ByteBuffer.wrap(texto), 0);
+
+        assertEquals("uno", lector.readLine());
+        assertEquals("dos", lector.readLine());
+        assertEquals("tres", lector.readLine());
+        assertEquals("cuatro", lector.readLine());
+        assertNull(lector.readLine());
+    }
+
+    private static DataInputStream entrada(ByteArrayOutputStream bytes) {
+        return new DataInputStream(new ByteArrayInputStream(bytes.toByteArray()));
+    }
+}
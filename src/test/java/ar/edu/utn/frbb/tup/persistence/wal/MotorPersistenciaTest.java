@@ -0,0 +1,480 @@
+package ar.edu.utn.frbb.tup.persistence.wal;
+
+import ar.edu.utn.frbb.tup.model.Cliente;
+import ar.edu.utn.frbb.tup.model.Cuenta;
+import ar.edu.utn.frbb.tup.model.EstadoPrestamo;
+import ar.edu.utn.frbb.tup.model.Movimiento;
+import ar.edu.utn.frbb.tup.model.Prestamo;
+import ar.edu.utn.frbb.tup.model.TipoCuenta;
+import ar.edu.utn.frbb.tup.model.TipoMoneda;
+import ar.edu.utn.frbb.tup.model.TipoOperacion;
+import ar.edu.utn.frbb.tup.model.TipoPersona;
+import ar.edu.utn.frbb.tup.model.exception.PersistenciaNoDisponibleException;
+import ar.edu.utn.frbb.tup.persistence.AlmacenFrio;
+import ar.edu.utn.frbb.tup.persistence.ClienteDao;
+import ar.edu.utn.frbb.tup.persistence.CuentaDao;
+import ar.edu.utn.frbb.tup.persistence.DiarioCambios;
+import ar.edu.utn.frbb.tup.persistence.MovimientoDao;
+import ar.edu.utn.frbb.tup.persistence.PrestamoDao;
+import ar.edu.utn.frbb.tup.persistence.entity.BaseEntity;
+import ar.edu.utn.frbb.tup.persistence.entity.MovimientoEntity;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class MotorPersistenciaTest {
+
+    private static final long DNI = 30777111L;
+    private static final long NUMERO_CUENTA = 770000001L;
+    private static final long NUMERO_CUENTA_2 = 770000002L;
+    private static final long ID_PRESTAMO = 770000003L;
+    private static final long DNI_2 = 30777333L;
+    private static final long DNI_INTERMEDIO = 30777222L;
+
+    private final MovimientoDao movimientoDao = new MovimientoDao();
+    private final CuentaDao cuentaDao = new CuentaDao(movimientoDao);
+    private final ClienteDao clienteDao = new ClienteDao();
+    private final PrestamoDao prestamoDao = new PrestamoDao();
+
+    private Path directorio;
+
+    @BeforeEach
+    public void setUp() throws IOException {
+        directorio = Files.createTempDirectory("wal-test");
+        ReflectionTestUtils.setField(clienteDao, "cuentaDao", cuentaDao);
+        perderDatosEnMemoria();
+    }
+
+    @AfterEach
+    public void tearDown() throws IOException {
+        perderDatosEnMemoria();
+        clienteDao.setAlmacenFrio(null);
+        cuentaDao.setAlmacenFrio(null);
+        prestamoDao.setAlmacenFrio(null);
+        try (Stream<Path> archivos = Files.walk(directorio)) {
+            archivos.sorted(Comparator.reverseOrder()).forEach(archivo -> archivo.toFile().delete());
+        }
+    }
+
+    @Test
+    public void testRecuperaDesdeElWal() throws Exception {
+        MotorPersistencia motor = crearMotor();
+        motor.iniciar();
+        clienteDao.save(crearCliente());
+        Cuenta cuenta = crearCuenta(NUMERO_CUENTA);
+        cuenta.depositar(100);
+        cuenta.depositar(50);
+        cuentaDao.save(cuenta);
+        prestamoDao.save(crearPrestamo());
+        motor.detener();
+
+        perderDatosEnMemoria();
+        EstadisticasRecuperacion estadisticas = crearMotor().recuperar();
+
+        assertEquals(0, estadisticas.getSnapshot());
+        assertEquals(4, estadisticas.getRegistrosReproducidos());
+        Cliente cliente = clienteDao.find(DNI, false);
+        assertEquals("Ana", cliente.getNombre());
+        assertEquals(LocalDate.of(1990, 5, 17), cliente.getFechaNacimiento());
+        assertEquals(150, cuentaDao.find(NUMERO_CUENTA).getBalance());
+        assertEquals(2, cuentaDao.findMovimientos(NUMERO_CUENTA).size());
+        assertEquals(EstadoPrestamo.APROBADO, prestamoDao.find(ID_PRESTAMO).getEstado());
+        assertEquals(1, prestamoDao.findByNumeroCliente(DNI).size());
+    }
+
+    @Test
+    public void testRecuperaDesdeSnapshotMasLaColaDelWal() throws Exception {
+        MotorPersistencia motor = crearMotor();
+        motor.iniciar();
+        Cuenta cuenta = crearCuenta(NUMERO_CUENTA);
+        cuenta.depositar(100);
+        cuentaDao.save(cuenta);
+        motor.tomarSnapshot();
+        cuenta.depositar(25);
+        cuentaDao.save(cuenta);
+        clienteDao.save(crearCliente());
+        cuentaDao.save(crearCuenta(NUMERO_CUENTA_2));
+        cuentaDao.delete(NUMERO_CUENTA_2);
+        motor.detener();
+
+        perderDatosEnMemoria();
+        EstadisticasRecuperacion estadisticas = crearMotor().recuperar();
+
+        assertTrue(estadisticas.getSnapshot() > 0);
+        assertEquals(1, estadisticas.getSegmentosReproducidos());
+        assertEquals(125, cuentaDao.find(NUMERO_CUENTA).getBalance());
+        List<Movimiento> movimientos = cuentaDao.findMovimientos(NUMERO_CUENTA);
+        assertEquals(2, movimientos.size());
+        assertEquals(25, movimientos.get(1).getMonto());
+        assertNotNull(clienteDao.find(DNI, false));
+        assertNull(cuentaDao.find(NUMERO_CUENTA_2));
+    }
+
+    @Test
+    public void testRegistroCortadoAlFinalSeDescarta() throws Exception {
+        MotorPersistencia motor = crearMotor();
+        motor.iniciar();
+        Cuenta cuenta = crearCuenta(NUMERO_CUENTA);
+        cuenta.depositar(100);
+        cuentaDao.save(cuenta);
+        motor.detener();
+
+        // Simula una escritura cortada por una caída: una longitud sin el registro completo
+        Path segmento = WriteAheadLog.archivoSegmento(directorio, 1);
+        long tamanioValido = Files.size(segmento);
+        try (OutputStream out = Files.newOutputStream(segmento, StandardOpenOption.APPEND)) {
+            out.write(new byte[]{0, 0, 0, 40, 1, 2, 3});
+        }
+
+        perderDatosEnMemoria();
+        EstadisticasRecuperacion estadisticas = crearMotor().recuperar();
+
+        assertEquals(2, estadisticas.getRegistrosReproducidos());
+        assertEquals(100, cuentaDao.find(NUMERO_CUENTA).getBalance());
+        assertEquals(tamanioValido, Files.size(segmento));
+    }
+
+    @Test
+    public void testTransferenciaSeRecuperaEnteraONada() throws Exception {
+        MotorPersistencia motor = crearMotor();
+        motor.iniciar();
+        Cuenta origen = crearCuenta(NUMERO_CUENTA);
+        origen.depositar(100);
+        cuentaDao.save(origen);
+        Cuenta destino = crearCuenta(NUMERO_CUENTA_2);
+        destino.depositar(100);
+        cuentaDao.save(destino);
+        Path segmento = WriteAheadLog.archivoSegmento(directorio, 1);
+        long tamanioAntes = Files.size(segmento);
+        origen.transferirA(destino, 30);
+        cuentaDao.saveAll(List.of(origen, destino));
+        motor.detener();
+        long tamanioDespues = Files.size(segmento);
+
+        perderDatosEnMemoria();
+        EstadisticasRecuperacion estadisticas = crearMotor().recuperar();
+
+        // Las dos patas van en un solo registro
+        assertEquals(5, estadisticas.getRegistrosReproducidos());
+        assertEquals(70, cuentaDao.find(NUMERO_CUENTA).getBalance());
+        assertEquals(130, cuentaDao.find(NUMERO_CUENTA_2).getBalance());
+        assertEquals(TipoOperacion.TRANSFERENCIA_RECIBIDA,
+                cuentaDao.findMovimientos(NUMERO_CUENTA_2).get(1).getTipoOperacion());
+
+        // Una caída a mitad de la escritura del asiento no deja ninguna de las dos patas
+        try (FileChannel canal = FileChannel.open(segmento, StandardOpenOption.WRITE)) {
+            canal.truncate(tamanioAntes + (tamanioDespues - tamanioAntes) / 2);
+        }
+        perderDatosEnMemoria();
+        crearMotor().recuperar();
+
+        assertEquals(100, cuentaDao.find(NUMERO_CUENTA).getBalance());
+        assertEquals(100, cuentaDao.find(NUMERO_CUENTA_2).getBalance());
+        assertEquals(1, cuentaDao.findMovimientos(NUMERO_CUENTA).size());
+        assertEquals(1, cuentaDao.findMovimientos(NUMERO_CUENTA_2).size());
+    }
+
+    @Test
+    public void testRecuperarDosVecesNoDuplicaMovimientos() throws Exception {
+        MotorPersistencia motor = crearMotor();
+        motor.iniciar();
+        Cuenta cuenta = crearCuenta(NUMERO_CUENTA);
+        cuenta.depositar(100);
+        cuentaDao.save(cuenta);
+        motor.detener();
+
+        crearMotor().recuperar();
+
+        assertEquals(1, cuentaDao.findMovimientos(NUMERO_CUENTA).size());
+    }
+
+    @Test
+    public void testSnapshotSeSirveDesdeDiscoYSePromueveAlEscribir() throws Exception {
+        MotorPersistencia motor = crearMotor();
+        motor.iniciar();
+        clienteDao.save(crearCliente(DNI));
+        clienteDao.save(crearCliente(DNI_2));
+        Cuenta cuenta = crearCuenta(NUMERO_CUENTA);
+        cuenta.depositar(100);
+        cuentaDao.save(cuenta);
+        motor.tomarSnapshot();
+        motor.detener();
+
+        perderDatosEnMemoria();
+        EstadisticasRecuperacion estadisticas = crearMotor().recuperar();
+
+        assertEquals(0, estadisticas.getRegistrosReproducidos());
+        assertEquals(1, cuentaDao.getCuentasByCliente(DNI).size());
+        assertEquals(100, cuentaDao.find(NUMERO_CUENTA).getBalance());
+
+        int clientes = clienteDao.contarRegistros();
+        int cuentas = cuentaDao.contarRegistros();
+
+        // Un alta en memoria se intercala en orden con los clientes que siguen en disco
+        clienteDao.save(crearCliente(DNI_INTERMEDIO));
+        assertEquals(clientes + 1, clienteDao.contarRegistros());
+        List<Cliente> pagina = clienteDao.findPagina(DNI - 1, 10);
+        assertEquals(DNI, pagina.get(0).getDni());
+        assertEquals(DNI_INTERMEDIO, pagina.get(1).getDni());
+        assertEquals(DNI_2, pagina.get(2).getDni());
+        assertEquals(1, pagina.get(0).getCuentas().size());
+
+        // Escribir un registro frío lo pasa a memoria sin duplicarlo en los índices
+        Cuenta cargada = cuentaDao.find(NUMERO_CUENTA);
+        cargada.depositar(50);
+        cuentaDao.save(cargada);
+        assertEquals(150, cuentaDao.find(NUMERO_CUENTA).getBalance());
+        assertEquals(1, cuentaDao.getCuentasByCliente(DNI).size());
+        assertEquals(cuentas, cuentaDao.contarRegistros());
+
+        clienteDao.delete(DNI_2);
+        assertNull(clienteDao.find(DNI_2, false));
+        assertEquals(2, clienteDao.findPagina(DNI - 1, 10).size());
+        assertEquals(clientes, clienteDao.contarRegistros());
+    }
+
+    @Test
+    public void testLosIdsNuevosSiguenDespuesDeLosRecuperados() throws Exception {
+        MotorPersistencia motor = crearMotor();
+        motor.iniciar();
+        cuentaDao.save(crearCuenta(NUMERO_CUENTA));
+        prestamoDao.save(crearPrestamo());
+        motor.tomarSnapshot();
+        cuentaDao.save(crearCuenta(NUMERO_CUENTA + 5));
+        cuentaDao.delete(NUMERO_CUENTA + 5);
+        motor.detener();
+
+        perderDatosEnMemoria();
+        crearMotor().recuperar();
+
+        // La cuenta borrada tampoco vuelve a entregar su número
+        assertTrue(cuentaDao.siguienteNumeroCuenta() > NUMERO_CUENTA + 5);
+        Prestamo nuevo = crearPrestamo();
+        nuevo.setId(null);
+        prestamoDao.save(nuevo);
+        // Las tablas son compartidas: el préstamo nuevo no puede quedar para los otros tests
+        prestamoDao.restaurarBorrado(nuevo.getId());
+        assertTrue(nuevo.getId() > ID_PRESTAMO);
+    }
+
+    @Test
+    public void testElSnapshotGuardaLosIdsReservadosAunqueSeBorrenLasEntidades() throws Exception {
+        MotorPersistencia motor = crearMotor();
+        motor.iniciar();
+        cuentaDao.reservarIdsHasta(NUMERO_CUENTA_2);
+        long numeroBorrado = cuentaDao.siguienteNumeroCuenta();
+        cuentaDao.save(crearCuenta(numeroBorrado));
+        cuentaDao.delete(numeroBorrado);
+        motor.tomarSnapshot();
+        motor.detener();
+
+        // El WAL que sigue al snapshot está vacío: el número solo puede salir del encabezado
+        Path snapshot;
+        try (Stream<Path> archivos = Files.list(directorio)) {
+            snapshot = archivos.filter(archivo -> archivo.getFileName().toString().startsWith("snapshot-"))
+                    .findFirst().orElseThrow();
+        }
+        long[] ultimoNumeroCuenta = {0};
+        Snapshot.leer(snapshot, new LectorWal.Receptor() {
+            @Override
+            public void guardado(byte tabla, BaseEntity entidad) {
+            }
+
+            @Override
+            public void borrado(byte tabla, long id) {
+            }
+
+            @Override
+            public void movimientos(long numeroCuenta, List<MovimientoEntity> movimientos) {
+            }
+
+            @Override
+            public void almacenFrio(byte tabla, AlmacenFrio<? extends BaseEntity> almacen) {
+            }
+
+            @Override
+            public void idReservado(byte tabla, long ultimoId) {
+                if (tabla == CodecEntidades.TABLA_CUENTA) {
+                    ultimoNumeroCuenta[0] = ultimoId;
+                }
+            }
+        });
+
+        assertTrue(ultimoNumeroCuenta[0] >= numeroBorrado);
+    }
+
+    @Test
+    public void testRecuperaUnWalEscritoEnFormatoDeTexto() throws Exception {
+        // Segmento de la versión 1: enums como texto y montos como decimal
+        ByteArrayOutputStream cuenta = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(cuenta);
+        out.writeByte(WriteAheadLog.REGISTRO_GUARDADO);
+        out.writeByte(CodecEntidades.TABLA_CUENTA);
+        out.writeLong(NUMERO_CUENTA);
+        out.writeBoolean(false);
+        out.writeBoolean(true);
+        out.writeLong(1_700_000_000L);
+        out.writeInt(0);
+        out.writeDouble(100.10);
+        out.writeBoolean(true);
+        out.writeUTF("CAJA_AHORRO");
+        out.writeBoolean(true);
+        out.writeUTF("DOLARES");
+        out.writeBoolean(true);
+        out.writeLong(DNI);
+
+        ByteArrayOutputStream movimientos = new ByteArrayOutputStream();
+        out = new DataOutputStream(movimientos);
+        out.writeByte(WriteAheadLog.REGISTRO_MOVIMIENTOS);
+        out.writeLong(NUMERO_CUENTA);
+        out.writeInt(1);
+        out.writeLong(1);
+        out.writeBoolean(false);
+        out.writeBoolean(true);
+        out.writeUTF("DEPOSITO");
+        out.writeDouble(100.10);
+        out.writeBoolean(true);
+        out.writeLong(NUMERO_CUENTA);
+        out.writeBoolean(false);
+        out.writeBoolean(false);
+
+        ByteArrayOutputStream segmento = new ByteArrayOutputStream();
+        out = new DataOutputStream(segmento);
+        out.writeInt(WriteAheadLog.MAGICO);
+        out.writeInt(1);
+        for (ByteArrayOutputStream registro : List.of(cuenta, movimientos)) {
+            CRC32 crc = new CRC32();
+            crc.update(registro.toByteArray());
+            out.writeInt(registro.size());
+            out.writeInt((int) crc.getValue());
+            out.write(registro.toByteArray());
+        }
+        Files.write(WriteAheadLog.archivoSegmento(directorio, 1), segmento.toByteArray());
+
+        EstadisticasRecuperacion estadisticas = crearMotor().recuperar();
+
+        assertEquals(2, estadisticas.getRegistrosReproducidos());
+        Cuenta recuperada = cuentaDao.find(NUMERO_CUENTA);
+        assertEquals(10010, recuperada.getBalanceCentavos());
+        assertEquals(TipoMoneda.DOLARES, recuperada.getMoneda());
+        assertEquals(TipoOperacion.DEPOSITO, cuentaDao.findMovimientos(NUMERO_CUENTA).get(0).getTipoOperacion());
+
+        // Lo que se escriba de ahora en más va en el formato compacto, en un segmento nuevo
+        MotorPersistencia motor = crearMotor();
+        motor.iniciar();
+        recuperada.depositar(1);
+        cuentaDao.save(recuperada);
+        motor.detener();
+        perderDatosEnMemoria();
+        crearMotor().recuperar();
+        assertEquals(10110, cuentaDao.find(NUMERO_CUENTA).getBalanceCentavos());
+    }
+
+    @Test
+    public void testSiElWalFallaLasEscriturasNoQuedanEnMemoria() throws Exception {
+        Cuenta origen = crearCuenta(NUMERO_CUENTA);
+        origen.depositar(100);
+        cuentaDao.save(origen);
+        Cuenta destino = crearCuenta(NUMERO_CUENTA_2);
+        cuentaDao.save(destino);
+        WriteAheadLog wal = new WriteAheadLog(directorio, PoliticaFsync.SIEMPRE, 10, 1);
+        cuentaDao.setDiario(wal);
+        movimientoDao.setDiario(wal);
+        try {
+            // Cerrado, rechaza cualquier registro como después de una falla de disco
+            wal.close();
+
+            Cuenta conDeposito = cuentaDao.find(NUMERO_CUENTA);
+            conDeposito.depositar(40);
+            assertThrows(PersistenciaNoDisponibleException.class, () -> cuentaDao.save(conDeposito));
+
+            Cuenta debito = cuentaDao.find(NUMERO_CUENTA);
+            Cuenta credito = cuentaDao.find(NUMERO_CUENTA_2);
+            debito.debitarDeCuenta(30);
+            credito.depositar(30);
+            assertThrows(PersistenciaNoDisponibleException.class, () -> cuentaDao.saveAll(List.of(debito, credito)));
+
+            assertThrows(PersistenciaNoDisponibleException.class, () -> cuentaDao.delete(NUMERO_CUENTA_2));
+        } finally {
+            cuentaDao.setDiario(DiarioCambios.NINGUNO);
+            movimientoDao.setDiario(DiarioCambios.NINGUNO);
+        }
+
+        assertEquals(10000L, cuentaDao.findBalanceCentavos(NUMERO_CUENTA));
+        assertEquals(1, movimientoDao.contarPorCuenta(NUMERO_CUENTA));
+        assertEquals(0L, cuentaDao.findBalanceCentavos(NUMERO_CUENTA_2));
+        assertEquals(0, movimientoDao.contarPorCuenta(NUMERO_CUENTA_2));
+        assertEquals(2, cuentaDao.getCuentasByCliente(DNI).size());
+        assertEquals(10000L, cuentaDao.find(NUMERO_CUENTA).getBalanceCentavos());
+    }
+
+    private MotorPersistencia crearMotor() {
+        return new MotorPersistencia(clienteDao, cuentaDao, prestamoDao, movimientoDao,
+                directorio.toString(), PoliticaFsync.SIEMPRE, 10, 3600, 64);
+    }
+
+    private void perderDatosEnMemoria() {
+        clienteDao.restaurarBorrado(DNI);
+        clienteDao.restaurarBorrado(DNI_2);
+        clienteDao.restaurarBorrado(DNI_INTERMEDIO);
+        cuentaDao.restaurarBorrado(NUMERO_CUENTA);
+        cuentaDao.restaurarBorrado(NUMERO_CUENTA_2);
+        movimientoDao.restaurarBorrado(NUMERO_CUENTA);
+        movimientoDao.restaurarBorrado(NUMERO_CUENTA_2);
+        prestamoDao.restaurarBorrado(ID_PRESTAMO);
+    }
+
+    private Cliente crearCliente() {
+        return crearCliente(DNI);
+    }
+
+    private Cliente crearCliente(long dni) {
+        Cliente cliente = new Cliente();
+        cliente.setDni(dni);
+        cliente.setNombre("Ana");
+        cliente.setApellido("Pérez");
+        cliente.setTipoPersona(TipoPersona.PERSONA_FISICA);
+        cliente.setFechaNacimiento(LocalDate.of(1990, 5, 17));
+        cliente.setFechaAlta(LocalDate.of(2024, 1, 2));
+        return cliente;
+    }
+
+    private Cuenta crearCuenta(long numeroCuenta) {
+        Cliente titular = new Cliente();
+        titular.setDni(DNI);
+        Cuenta cuenta = new Cuenta();
+        cuenta.setNumeroCuenta(numeroCuenta);
+        cuenta.setTipoCuenta(TipoCuenta.CAJA_AHORRO);
+        cuenta.setMoneda(TipoMoneda.PESOS);
+        cuenta.setTitular(titular);
+        return cuenta;
+    }
+
+    private Prestamo crearPrestamo() {
+        Prestamo prestamo = new Prestamo();
+        prestamo.setId(ID_PRESTAMO);
+        prestamo.setNumeroCliente(DNI);
+        prestamo.setMontoPrestamo(10000);
+        prestamo.setPlazoMeses(12);
+        prestamo.setMoneda("PESOS");
+        prestamo.setEstado(EstadoPrestamo.APROBADO);
+        return prestamo;
+    }
+}
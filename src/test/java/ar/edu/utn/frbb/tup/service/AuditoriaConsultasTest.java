@@ -0,0 +1,68 @@
+package ar.edu.utn.frbb.tup.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class AuditoriaConsultasTest {
+
+    private Path directorio;
+
+    @BeforeEach
+    public void setUp() throws IOException {
+        directorio = Files.createTempDirectory("auditoria-test");
+    }
+
+    @AfterEach
+    public void tearDown() throws IOException {
+        try (Stream<Path> archivos = Files.walk(directorio)) {
+            archivos.sorted(Comparator.reverseOrder()).forEach(archivo -> archivo.toFile().delete());
+        }
+    }
+
+    @Test
+    public void testDetenerEscribeLasConsultasPendientes() throws Exception {
+        AuditoriaConsultas auditoria = new AuditoriaConsultas(directorio.toString(), 90, 10_000);
+        auditoria.iniciar();
+        for (int i = 0; i < 5_000; i++) {
+            auditoria.registrar(1000 + i % 10);
+        }
+        auditoria.detener();
+
+        List<String> lineas = Files.readAllLines(AuditoriaConsultas.archivoDelDia(directorio, LocalDate.now()));
+        assertEquals(5_000 - auditoria.getDescartadas(), lineas.size());
+        assertEquals(lineas.size(), auditoria.getEscritas());
+        assertEquals(0, auditoria.getPendientes());
+        assertTrue(lineas.get(0).endsWith(";1000"));
+
+        // Detenida, ya no acepta consultas
+        auditoria.registrar(1000);
+        assertEquals(5_000 - lineas.size() + 1, auditoria.getDescartadas());
+    }
+
+    @Test
+    public void testBorraLosArchivosVencidos() throws Exception {
+        Path vencido = AuditoriaConsultas.archivoDelDia(directorio, LocalDate.now().minusDays(31));
+        Path vigente = AuditoriaConsultas.archivoDelDia(directorio, LocalDate.now().minusDays(29));
+        Files.writeString(vencido, "2000-01-01T00:00;1\n");
+        Files.writeString(vigente, "2000-01-01T00:00;1\n");
+
+        AuditoriaConsultas auditoria = new AuditoriaConsultas(directorio.toString(), 30, 100);
+        auditoria.iniciar();
+        auditoria.registrar(1);
+        auditoria.detener();
+
+        assertFalse(Files.exists(vencido));
+        assertTrue(Files.exists(vigente));
+    }
+}
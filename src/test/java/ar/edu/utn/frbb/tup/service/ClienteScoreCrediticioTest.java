@@ -0,0 +1,99 @@
+package ar.edu.utn.frbb.tup.service;
+
+import ar.edu.utn.frbb.tup.service.ScoreCrediticioService.ScoreResultado;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ClienteScoreCrediticioTest {
+
+    private static final long DNI = 12345678;
+
+    @Test
+    public void testSegundaConsultaSaleDelCache() {
+        BureauDePrueba bureau = new BureauDePrueba();
+        ClienteScoreCrediticio cliente = new ClienteScoreCrediticio(bureau, 1000, 4, 300, 100);
+
+        ScoreResultado primero = cliente.evaluarScore(DNI).join();
+        ScoreResultado segundo = cliente.evaluarScore(DNI).join();
+
+        assertSame(primero, segundo);
+        assertEquals(1, bureau.consultas.get());
+
+        cliente.invalidar(DNI);
+        cliente.evaluarScore(DNI).join();
+        assertEquals(2, bureau.consultas.get());
+    }
+
+    @Test
+    public void testConsultasSimultaneasCompartenLaLlamada() {
+        BureauDePrueba bureau = new BureauDePrueba();
+        bureau.respuesta = new CompletableFuture<>();
+        ClienteScoreCrediticio cliente = new ClienteScoreCrediticio(bureau, 1000, 4, 300, 100);
+
+        CompletableFuture<ScoreResultado> primera = cliente.evaluarScore(DNI);
+        CompletableFuture<ScoreResultado> segunda = cliente.evaluarScore(DNI);
+        bureau.respuesta.complete(new ScoreResultado(8, true, "Buena calificación crediticia"));
+
+        assertEquals(8, primera.join().getScore());
+        assertEquals(8, segunda.join().getScore());
+        assertEquals(1, bureau.consultas.get());
+    }
+
+    @Test
+    public void testBulkheadRechazaLasConsultasQueSobran() {
+        BureauDePrueba bureau = new BureauDePrueba();
+        bureau.respuesta = new CompletableFuture<>();
+        ClienteScoreCrediticio cliente = new ClienteScoreCrediticio(bureau, 1000, 1, 300, 100);
+
+        CompletableFuture<ScoreResultado> enCurso = cliente.evaluarScore(DNI);
+        CompletionException error = assertThrows(CompletionException.class,
+                () -> cliente.evaluarScore(DNI + 1).join());
+
+        assertTrue(error.getCause() instanceof RejectedExecutionException);
+        assertEquals(1, bureau.consultas.get());
+
+        // Al responder el bureau se libera el lugar
+        bureau.respuesta.complete(new ScoreResultado(3, false, "Calificación crediticia deficiente"));
+        enCurso.join();
+        bureau.respuesta = null;
+        assertNotNull(cliente.evaluarScore(DNI + 1).join());
+    }
+
+    @Test
+    public void testBureauQueNoRespondeVencePorTimeout() {
+        BureauDePrueba bureau = new BureauDePrueba();
+        bureau.respuesta = new CompletableFuture<>();
+        ClienteScoreCrediticio cliente = new ClienteScoreCrediticio(bureau, 50, 1, 300, 100);
+
+        CompletionException error = assertThrows(CompletionException.class,
+                () -> cliente.evaluarScore(DNI).join());
+
+        assertTrue(error.getCause() instanceof TimeoutException);
+        // El timeout devolvió el permiso y no quedó nada en el cache
+        bureau.respuesta = null;
+        assertNotNull(cliente.evaluarScore(DNI).join());
+        assertEquals(2, bureau.consultas.get());
+    }
+
+    /**
+     * Bureau que cuenta las consultas y responde con {@code respuesta}, o en el acto si es null.
+     */
+    private static class BureauDePrueba extends ScoreCrediticioService {
+        private final AtomicInteger consultas = new AtomicInteger();
+        private volatile CompletableFuture<ScoreResultado> respuesta;
+
+        @Override
+        public CompletableFuture<ScoreResultado> consultarScore(long dni) {
+            consultas.incrementAndGet();
+            CompletableFuture<ScoreResultado> pendiente = respuesta;
+            return pendiente != null ? pendiente : CompletableFuture.completedFuture(evaluarScore(dni));
+        }
+    }
+}
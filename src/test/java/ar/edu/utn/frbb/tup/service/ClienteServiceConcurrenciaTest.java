@@ -0,0 +1,167 @@
+package ar.edu.utn.frbb.tup.service;
+
+import ar.edu.utn.frbb.tup.model.Cliente;
+import ar.edu.utn.frbb.tup.model.Cuenta;
+import ar.edu.utn.frbb.tup.model.TipoCuenta;
+import ar.edu.utn.frbb.tup.model.TipoMoneda;
+import ar.edu.utn.frbb.tup.model.TipoPersona;
+import ar.edu.utn.frbb.tup.model.dto.ClienteDto;
+import ar.edu.utn.frbb.tup.model.dto.CuentaDto;
+import ar.edu.utn.frbb.tup.model.exception.TipoCuentaAlreadyExistsException;
+import ar.edu.utn.frbb.tup.persistence.ClienteDao;
+import ar.edu.utn.frbb.tup.persistence.CuentaDao;
+import ar.edu.utn.frbb.tup.persistence.MovimientoDao;
+import ar.edu.utn.frbb.tup.persistence.entity.ClienteEntity;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Modificaciones simultáneas de un mismo cliente sobre DAOs reales (sin mocks):
+ * actualizaciones de datos mezcladas con altas de cuentas no se pisan entre sí, y dos altas
+ * del mismo tipo de cuenta no pasan las dos la validación.
+ */
+public class ClienteServiceConcurrenciaTest {
+
+    private static final int HILOS = 4;
+    private static final int OPERACIONES_POR_HILO = 100;
+    private static final long DNI = 41222444;
+    private static final long PRIMER_NUMERO_CUENTA = 990_000_000L;
+
+    private CuentaDao cuentaDao;
+    private ClienteDao clienteDao;
+    private ClienteService clienteService;
+
+    @BeforeEach
+    public void setUp() {
+        cuentaDao = new CuentaDao(new MovimientoDao());
+        clienteDao = new ClienteDao();
+        ReflectionTestUtils.setField(clienteDao, "cuentaDao", cuentaDao);
+        clienteService = new ClienteService(clienteDao);
+
+        Cliente cliente = new Cliente();
+        cliente.setDni(DNI);
+        cliente.setNombre("Ana");
+        cliente.setApellido("Gómez");
+        cliente.setTipoPersona(TipoPersona.PERSONA_FISICA);
+        cliente.setFechaAlta(LocalDate.now());
+        cliente.setFechaNacimiento(LocalDate.of(1980, 1, 1));
+        clienteDao.save(cliente);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        for (Cuenta cuenta : cuentaDao.getCuentasByCliente(DNI)) {
+            cuentaDao.delete(cuenta.getNumeroCuenta());
+        }
+        clienteDao.delete(DNI);
+    }
+
+    @Test
+    public void testActualizacionesYAltasDeCuentasSimultaneasNoSePierden() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(HILOS);
+        CountDownLatch largada = new CountDownLatch(1);
+        List<Future<?>> resultados = new ArrayList<>();
+        for (int h = 0; h < HILOS; h++) {
+            int hilo = h;
+            resultados.add(executor.submit(() -> {
+                largada.await();
+                for (int i = 0; i < OPERACIONES_POR_HILO; i++) {
+                    if (hilo % 2 == 0) {
+                        clienteService.actualizarCliente(DNI, datos("tel-" + hilo + "-" + i));
+                    } else {
+                        Cuenta cuenta = new Cuenta();
+                        cuenta.setNumeroCuenta(PRIMER_NUMERO_CUENTA + hilo * OPERACIONES_POR_HILO + i);
+                        cuenta.setTipoCuenta(TipoCuenta.CAJA_AHORRO);
+                        cuenta.setMoneda(TipoMoneda.PESOS);
+                        Cliente titular = new Cliente();
+                        titular.setDni(DNI);
+                        cuenta.setTitular(titular);
+                        cuentaDao.save(cuenta);
+                        clienteService.asociarCuenta(DNI, cuenta);
+                    }
+                }
+                return null;
+            }));
+        }
+        largada.countDown();
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(60, TimeUnit.SECONDS));
+        for (Future<?> resultado : resultados) {
+            resultado.get();
+        }
+
+        ClienteEntity guardado = clienteDao.exportarEntidades().stream()
+                .filter(entidad -> entidad.getId() == DNI)
+                .findFirst().orElseThrow();
+        // Ninguna actualización de datos pisó una cuenta asociada al mismo tiempo
+        assertEquals(HILOS / 2 * OPERACIONES_POR_HILO, guardado.getCuentas().size());
+        assertTrue(guardado.getTelefono().startsWith("tel-"));
+        // Cada actualización guarda una vez; asociar no guarda si una actualización ya tomó la cuenta
+        assertTrue(guardado.getVersion() >= 1 + HILOS / 2 * OPERACIONES_POR_HILO);
+        assertTrue(guardado.getVersion() <= 1 + HILOS * OPERACIONES_POR_HILO);
+    }
+
+    @Test
+    public void testAltasSimultaneasDelMismoTipoCreanUnaSolaCuenta() throws Exception {
+        CuentaService cuentaService = new CuentaService();
+        cuentaService.cuentaDao = cuentaDao;
+        cuentaService.clienteService = clienteService;
+        cuentaService.cuentaLockManager = new CuentaLockManager();
+        CuentaDto dto = new CuentaDto();
+        dto.setTipoCuenta("CAJA_AHORRO");
+        dto.setTipoMoneda("PESOS");
+        dto.setDniTitular(DNI);
+
+        ExecutorService executor = Executors.newFixedThreadPool(HILOS);
+        CountDownLatch largada = new CountDownLatch(1);
+        List<Future<Boolean>> resultados = new ArrayList<>();
+        for (int h = 0; h < HILOS; h++) {
+            resultados.add(executor.submit(() -> {
+                largada.await();
+                try {
+                    cuentaService.darDeAltaCuenta(dto);
+                    return true;
+                } catch (TipoCuentaAlreadyExistsException e) {
+                    return false;
+                }
+            }));
+        }
+        largada.countDown();
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(60, TimeUnit.SECONDS));
+        int creadas = 0;
+        for (Future<Boolean> resultado : resultados) {
+            if (resultado.get()) {
+                creadas++;
+            }
+        }
+
+        assertEquals(1, creadas);
+        assertEquals(1, cuentaDao.getCuentasByCliente(DNI).size());
+        assertTrue(clienteDao.tieneCuentaGuardada(DNI, cuentaDao.getCuentasByCliente(DNI).get(0).getNumeroCuenta()));
+    }
+
+    private static ClienteDto datos(String telefono) {
+        ClienteDto dto = new ClienteDto();
+        dto.setNombre("Ana");
+        dto.setApellido("Gómez");
+        dto.setDireccion("Calle 1");
+        dto.setTelefono(telefono);
+        dto.setBanco("Banco Test");
+        dto.setTipoPersona("F");
+        return dto;
+    }
+}
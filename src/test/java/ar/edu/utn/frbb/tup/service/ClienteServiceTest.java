@@ -63,9 +63,11 @@ public class ClienteServiceTest {
         cliente.setTipoPersona("F");
         cliente.setBanco("Banco Test");
         
+        when(clienteDao.saveSiNoCambio(any(Cliente.class))).thenReturn(true);
+
         Cliente clienteEntity = clienteService.darDeAltaCliente(cliente);
 
-        verify(clienteDao, times(1)).save(clienteEntity);
+        verify(clienteDao, times(1)).saveSiNoCambio(clienteEntity);
         assertEquals("Juan", clienteEntity.getNombre());
         assertEquals("Pérez", clienteEntity.getApellido());
         assertEquals("Calle Falsa 123", clienteEntity.getDireccion());
@@ -220,6 +222,7 @@ public class ClienteServiceTest {
         datosActualizados.setFechaNacimiento("1985-01-01");
 
         when(clienteDao.find(12345678, true)).thenReturn(clienteExistente);
+        when(clienteDao.saveSiNoCambio(clienteExistente)).thenReturn(true);
 
         Cliente clienteActualizado = clienteService.actualizarCliente(12345678, datosActualizados);
 
@@ -227,7 +230,7 @@ public class ClienteServiceTest {
         assertEquals("Apellido Actualizado", clienteActualizado.getApellido());
         assertEquals("Nueva Dirección 456", clienteActualizado.getDireccion());
         assertEquals("9876543210", clienteActualizado.getTelefono());
-        verify(clienteDao, times(1)).save(clienteActualizado);
+        verify(clienteDao, times(1)).saveSiNoCambio(clienteActualizado);
     }
 
     @Test
@@ -260,4 +263,24 @@ public class ClienteServiceTest {
         assertEquals(2, clientesObtenidos.size());
         verify(clienteDao, times(1)).findAll();
     }
-}
\ No newline at end of file
+
+    @Test
+    public void testObtenerClientesPaginados() {
+        Cliente cliente = new Cliente();
+        cliente.setDni(33333333);
+
+        when(clienteDao.findPagina(22222222L, 1)).thenReturn(Arrays.asList(cliente));
+
+        List<Cliente> pagina = clienteService.obtenerClientes(22222222L, 1);
+
+        assertEquals(1, pagina.size());
+        assertEquals(33333333, pagina.get(0).getDni());
+    }
+
+    @Test
+    public void testObtenerClientesLimiteInvalido() {
+        assertThrows(IllegalArgumentException.class, () -> clienteService.obtenerClientes(null, 0));
+        assertThrows(IllegalArgumentException.class,
+                () -> clienteService.obtenerClientes(null, ClienteService.LIMITE_MAXIMO_PAGINA + 1));
+    }
+}
@@ -0,0 +1,150 @@
+package ar.edu.utn.frbb.tup.service;
+
+import ar.edu.utn.frbb.tup.model.Cuenta;
+import ar.edu.utn.frbb.tup.model.TipoCuenta;
+import ar.edu.utn.frbb.tup.model.TipoMoneda;
+import ar.edu.utn.frbb.tup.model.dto.OperacionDto;
+import ar.edu.utn.frbb.tup.model.exception.NoAlcanzaException;
+import ar.edu.utn.frbb.tup.persistence.CuentaDao;
+import ar.edu.utn.frbb.tup.persistence.MovimientoDao;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Stress test de las operaciones concurrentes sobre cuentas reales (sin mocks).
+ * Verifica que no se pierdan actualizaciones y que las transferencias conserven el dinero.
+ */
+public class OperacionServiceConcurrenciaTest {
+
+    private static final int HILOS = 8;
+    private static final int OPERACIONES_POR_HILO = 2000;
+    private static final int CANTIDAD_CUENTAS = 10;
+    private static final long PRIMER_NUMERO_CUENTA = 770_000_000L;
+
+    private CuentaDao cuentaDao;
+    private OperacionService operacionService;
+
+    @BeforeEach
+    public void setUp() {
+        cuentaDao = new CuentaDao(new MovimientoDao());
+        CuentaService cuentaService = new CuentaService();
+        cuentaService.cuentaDao = cuentaDao;
+        cuentaService.cuentaLockManager = new CuentaLockManager();
+
+        operacionService = new OperacionService();
+        ReflectionTestUtils.setField(operacionService, "cuentaDao", cuentaDao);
+        ReflectionTestUtils.setField(operacionService, "cuentaService", cuentaService);
+        ReflectionTestUtils.setField(operacionService, "cuentaLockManager", cuentaService.cuentaLockManager);
+
+        for (int i = 0; i < CANTIDAD_CUENTAS; i++) {
+            Cuenta cuenta = new Cuenta();
+            cuenta.setNumeroCuenta(PRIMER_NUMERO_CUENTA + i);
+            cuenta.setTipoCuenta(TipoCuenta.CAJA_AHORRO);
+            cuenta.setMoneda(TipoMoneda.PESOS);
+            cuenta.setBalance(10000);
+            cuentaDao.save(cuenta);
+        }
+    }
+
+    @Test
+    public void testDepositosConcurrentesNoPierdenActualizaciones() throws Exception {
+        long numeroCuenta = PRIMER_NUMERO_CUENTA;
+
+        ejecutarEnParalelo(() -> operacionService.depositar(numeroCuenta, 1));
+
+        assertEquals(10000 + HILOS * OPERACIONES_POR_HILO, cuentaDao.find(numeroCuenta).getBalance());
+    }
+
+    @Test
+    public void testTransferenciasConcurrentesConservanElTotal() throws Exception {
+        double totalInicial = sumarBalances();
+
+        ejecutarEnParalelo(() -> {
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            long origen = PRIMER_NUMERO_CUENTA + random.nextInt(CANTIDAD_CUENTAS);
+            long destino = PRIMER_NUMERO_CUENTA + random.nextInt(CANTIDAD_CUENTAS);
+            if (origen == destino) {
+                return;
+            }
+            try {
+                operacionService.transferir(origen, destino, 1 + random.nextInt(50));
+            } catch (NoAlcanzaException e) {
+                // Sin saldo suficiente: la transferencia no se aplica
+            }
+        });
+
+        assertEquals(totalInicial, sumarBalances());
+    }
+
+    @Test
+    public void testLotesConcurrentesConservanElTotal() throws Exception {
+        double totalInicial = sumarBalances();
+
+        ejecutarEnParalelo(() -> {
+            // Lotes con cuentas superpuestas en distinto orden: los locks se toman ordenados
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            List<OperacionDto> lote = new ArrayList<>();
+            for (int i = 0; i < 4; i++) {
+                long origen = PRIMER_NUMERO_CUENTA + random.nextInt(CANTIDAD_CUENTAS);
+                long destino = PRIMER_NUMERO_CUENTA + random.nextInt(CANTIDAD_CUENTAS);
+                if (origen != destino) {
+                    OperacionDto transferencia = new OperacionDto();
+                    transferencia.setTipoOperacion("TRANSFERENCIA");
+                    transferencia.setNumeroCuenta(origen);
+                    transferencia.setNumeroCuentaDestino(destino);
+                    transferencia.setMonto(1 + random.nextInt(50));
+                    lote.add(transferencia);
+                }
+            }
+            operacionService.ejecutarLote(lote, random.nextBoolean());
+        });
+
+        assertEquals(totalInicial, sumarBalances());
+    }
+
+    private double sumarBalances() {
+        double total = 0;
+        for (int i = 0; i < CANTIDAD_CUENTAS; i++) {
+            total += cuentaDao.find(PRIMER_NUMERO_CUENTA + i).getBalance();
+        }
+        return total;
+    }
+
+    private void ejecutarEnParalelo(Operacion operacion) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(HILOS);
+        CountDownLatch largada = new CountDownLatch(1);
+        List<Future<?>> resultados = new ArrayList<>();
+        for (int h = 0; h < HILOS; h++) {
+            resultados.add(executor.submit(() -> {
+                largada.await();
+                for (int i = 0; i < OPERACIONES_POR_HILO; i++) {
+                    operacion.ejecutar();
+                }
+                return null;
+            }));
+        }
+        largada.countDown();
+        for (Future<?> resultado : resultados) {
+            resultado.get();
+        }
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+    }
+
+    @FunctionalInterface
+    private interface Operacion {
+        void ejecutar() throws Exception;
+    }
+}
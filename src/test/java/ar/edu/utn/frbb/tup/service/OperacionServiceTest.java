@@ -1,6 +1,8 @@
 package ar.edu.utn.frbb.tup.service;
 
 import ar.edu.utn.frbb.tup.model.*;
+import ar.edu.utn.frbb.tup.model.dto.OperacionDto;
+import ar.edu.utn.frbb.tup.model.dto.ResultadoOperacionDto;
 import ar.edu.utn.frbb.tup.model.exception.CantidadNegativaException;
 import ar.edu.utn.frbb.tup.model.exception.NoAlcanzaException;
 import ar.edu.utn.frbb.tup.persistence.CuentaDao;
@@ -11,8 +13,11 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 
+import java.util.List;
+
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
 
@@ -26,6 +31,9 @@ public class OperacionServiceTest {
     @Mock
     private CuentaService cuentaService;
 
+    @Spy
+    private CuentaLockManager cuentaLockManager = new CuentaLockManager();
+
     @InjectMocks
     private OperacionService operacionService;
 
@@ -136,8 +144,7 @@ public class OperacionServiceTest {
         assertEquals(TipoOperacion.TRANSFERENCIA_ENVIADA, cuentaOrigen.getMovimientos().get(0).getTipoOperacion());
         assertEquals(TipoOperacion.TRANSFERENCIA_RECIBIDA, cuentaDestino.getMovimientos().get(0).getTipoOperacion());
         
-        verify(cuentaDao, times(1)).save(cuentaOrigen);
-        verify(cuentaDao, times(1)).save(cuentaDestino);
+        verify(cuentaDao, times(1)).saveAll(List.of(cuentaOrigen, cuentaDestino));
     }
 
     @Test
@@ -217,4 +224,81 @@ public class OperacionServiceTest {
         assertThrows(CantidadNegativaException.class, 
             () -> operacionService.transferir(123456789L, 987654321L, -300));
     }
-}
\ No newline at end of file
+
+    @Test
+    public void testEjecutarLoteGuardaCadaCuentaUnaVez() {
+        Cuenta cuentaOrigen = new Cuenta();
+        cuentaOrigen.setNumeroCuenta(111111111);
+        cuentaOrigen.setBalance(1000);
+        cuentaOrigen.setMoneda(TipoMoneda.PESOS);
+
+        Cuenta cuentaDestino = new Cuenta();
+        cuentaDestino.setNumeroCuenta(222222222);
+        cuentaDestino.setBalance(0);
+        cuentaDestino.setMoneda(TipoMoneda.PESOS);
+
+        when(cuentaService.find(111111111L)).thenReturn(cuentaOrigen);
+        when(cuentaService.find(222222222L)).thenReturn(cuentaDestino);
+
+        List<ResultadoOperacionDto> resultados = operacionService.ejecutarLote(List.of(
+                operacion("DEPOSITO", 111111111L, null, 500),
+                operacion("RETIRO", 111111111L, null, 200),
+                operacion("TRANSFERENCIA", 111111111L, 222222222L, 300)), false);
+
+        assertEquals(3, resultados.size());
+        assertTrue(resultados.stream().allMatch(r -> ResultadoOperacionDto.OK.equals(r.getEstado())));
+        assertEquals(1000, cuentaOrigen.getBalance());
+        assertEquals(300, cuentaDestino.getBalance());
+        assertEquals(3, cuentaOrigen.getMovimientos().size());
+        verify(cuentaService, times(1)).find(111111111L);
+        verify(cuentaDao, times(1)).saveAll(List.of(cuentaOrigen, cuentaDestino));
+    }
+
+    @Test
+    public void testEjecutarLoteNoAtomicoInformaErrores() {
+        Cuenta cuenta = new Cuenta();
+        cuenta.setNumeroCuenta(333333333);
+        cuenta.setBalance(100);
+
+        when(cuentaService.find(333333333L)).thenReturn(cuenta);
+        when(cuentaService.find(444444444L)).thenReturn(null);
+
+        List<ResultadoOperacionDto> resultados = operacionService.ejecutarLote(List.of(
+                operacion("DEPOSITO", 333333333L, null, 50),
+                operacion("RETIRO", 333333333L, null, 1000),
+                operacion("DEPOSITO", 444444444L, null, 50)), false);
+
+        assertEquals(ResultadoOperacionDto.OK, resultados.get(0).getEstado());
+        assertEquals(ResultadoOperacionDto.ERROR, resultados.get(1).getEstado());
+        assertEquals("Saldo insuficiente", resultados.get(1).getMensaje());
+        assertEquals(ResultadoOperacionDto.ERROR, resultados.get(2).getEstado());
+        assertEquals(150, cuenta.getBalance());
+        verify(cuentaDao, times(1)).saveAll(List.of(cuenta));
+    }
+
+    @Test
+    public void testEjecutarLoteAtomicoNoGuardaSiFalla() {
+        Cuenta cuenta = new Cuenta();
+        cuenta.setNumeroCuenta(555555555);
+        cuenta.setBalance(100);
+
+        when(cuentaService.find(555555555L)).thenReturn(cuenta);
+
+        List<ResultadoOperacionDto> resultados = operacionService.ejecutarLote(List.of(
+                operacion("DEPOSITO", 555555555L, null, 50),
+                operacion("RETIRO", 555555555L, null, 1000)), true);
+
+        assertEquals(ResultadoOperacionDto.NO_APLICADA, resultados.get(0).getEstado());
+        assertEquals(ResultadoOperacionDto.ERROR, resultados.get(1).getEstado());
+        verify(cuentaDao, never()).saveAll(anyList());
+    }
+
+    private OperacionDto operacion(String tipo, Long numeroCuenta, Long numeroCuentaDestino, double monto) {
+        OperacionDto operacion = new OperacionDto();
+        operacion.setTipoOperacion(tipo);
+        operacion.setNumeroCuenta(numeroCuenta);
+        operacion.setNumeroCuentaDestino(numeroCuentaDestino);
+        operacion.setMonto(monto);
+        return operacion;
+    }
+}
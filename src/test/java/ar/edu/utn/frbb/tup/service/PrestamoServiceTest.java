@@ -13,6 +13,9 @@ import org.mockito.MockitoAnnotations;
 import org.mockito.junit.jupiter.MockitoExtension;
 
 import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeoutException;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
@@ -32,7 +35,7 @@ public class PrestamoServiceTest {
     private CuentaService cuentaService;
 
     @Mock
-    private ScoreCrediticioService scoreCrediticioService;
+    private ClienteScoreCrediticio clienteScoreCrediticio;
 
     @InjectMocks
     private PrestamoService prestamoService;
@@ -62,7 +65,7 @@ public class PrestamoServiceTest {
 
         when(clienteService.buscarClientePorDni(12345678)).thenReturn(cliente);
         when(cuentaService.getCuentasByCliente(12345678)).thenReturn(Arrays.asList(cuenta));
-        when(scoreCrediticioService.evaluarScore(12345678)).thenReturn(scoreResultado);
+        when(clienteScoreCrediticio.evaluarScore(12345678)).thenReturn(CompletableFuture.completedFuture(scoreResultado));
 
         PrestamoResponseDto response = prestamoService.solicitarPrestamo(request);
 
@@ -111,7 +114,7 @@ public class PrestamoServiceTest {
 
         when(clienteService.buscarClientePorDni(12345679)).thenReturn(cliente);
         when(cuentaService.getCuentasByCliente(12345679)).thenReturn(Arrays.asList(cuenta));
-        when(scoreCrediticioService.evaluarScore(12345679)).thenReturn(scoreResultado);
+        when(clienteScoreCrediticio.evaluarScore(12345679)).thenReturn(CompletableFuture.completedFuture(scoreResultado));
 
         PrestamoResponseDto response = prestamoService.solicitarPrestamo(request);
 
@@ -120,6 +123,32 @@ public class PrestamoServiceTest {
         assertNull(response.getPlanPagos());
     }
 
+    @Test
+    public void testSolicitarPrestamoBureauSinRespuesta() {
+        PrestamoRequestDto request = new PrestamoRequestDto();
+        request.setNumeroCliente(12345680);
+        request.setMontoPrestamo(100000);
+        request.setPlazoMeses(12);
+        request.setMoneda("PESOS");
+
+        Cliente cliente = new Cliente();
+        cliente.setDni(12345680);
+
+        Cuenta cuenta = new Cuenta();
+        cuenta.setMoneda(TipoMoneda.PESOS);
+
+        when(clienteService.buscarClientePorDni(12345680)).thenReturn(cliente);
+        when(cuentaService.getCuentasByCliente(12345680)).thenReturn(Arrays.asList(cuenta));
+        when(clienteScoreCrediticio.evaluarScore(12345680))
+                .thenReturn(CompletableFuture.failedFuture(new TimeoutException()));
+
+        PrestamoResponseDto response = prestamoService.solicitarPrestamo(request);
+
+        assertEquals("RECHAZADO", response.getEstado());
+        assertTrue(response.getMensaje().contains("No se pudo consultar su calificación crediticia"));
+        verify(prestamoDao, never()).save(any(Prestamo.class));
+    }
+
     @Test
     public void testSolicitarPrestamoSinCuentaEnMoneda() {
         PrestamoRequestDto request = new PrestamoRequestDto();
@@ -157,15 +186,10 @@ public class PrestamoServiceTest {
         prestamo1.setSaldoRestante(75000);
         prestamo1.setEstado(EstadoPrestamo.ACTIVO);
 
-        Prestamo prestamo2 = new Prestamo();
-        prestamo2.setMontoPrestamo(50000);
-        prestamo2.setPlazoMeses(6);
-        prestamo2.setPagosRealizados(6);
-        prestamo2.setSaldoRestante(0);
-        prestamo2.setEstado(EstadoPrestamo.PAGADO);
-
         when(clienteService.buscarClientePorDni(numeroCliente)).thenReturn(cliente);
-        when(prestamoDao.findByNumeroCliente(numeroCliente)).thenReturn(Arrays.asList(prestamo1, prestamo2));
+        when(prestamoDao.findByNumeroClienteYEstados(numeroCliente,
+                EnumSet.of(EstadoPrestamo.APROBADO, EstadoPrestamo.ACTIVO)))
+                .thenReturn(Arrays.asList(prestamo1));
 
         ConsultaPrestamosDto response = prestamoService.consultarPrestamos(numeroCliente);
 
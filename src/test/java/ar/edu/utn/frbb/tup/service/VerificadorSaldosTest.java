@@ -0,0 +1,77 @@
+package ar.edu.utn.frbb.tup.service;
+
+import ar.edu.utn.frbb.tup.model.Cuenta;
+import ar.edu.utn.frbb.tup.model.TipoCuenta;
+import ar.edu.utn.frbb.tup.model.TipoMoneda;
+import ar.edu.utn.frbb.tup.persistence.CuentaDao;
+import ar.edu.utn.frbb.tup.persistence.MovimientoDao;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class VerificadorSaldosTest {
+
+    private static final int CANTIDAD_CUENTAS = 200;
+    private static final long PRIMER_NUMERO_CUENTA = 660_000_000L;
+
+    private final MovimientoDao movimientoDao = new MovimientoDao();
+    private final CuentaDao cuentaDao = new CuentaDao(movimientoDao);
+    private final VerificadorSaldos verificador =
+            new VerificadorSaldos(cuentaDao, movimientoDao, new CuentaLockManager(), 4, false);
+
+    @AfterEach
+    public void tearDown() {
+        for (int i = 0; i < CANTIDAD_CUENTAS; i++) {
+            if (cuentaDao.findBalanceCentavos(PRIMER_NUMERO_CUENTA + i) != null) {
+                cuentaDao.delete(PRIMER_NUMERO_CUENTA + i);
+            }
+            movimientoDao.deleteByCuenta(PRIMER_NUMERO_CUENTA + i);
+        }
+    }
+
+    @Test
+    public void testReportaSoloLasCuentasQueNoCoincidenConSusMovimientos() throws Exception {
+        for (int i = 0; i < CANTIDAD_CUENTAS; i++) {
+            Cuenta cuenta = nuevaCuenta(PRIMER_NUMERO_CUENTA + i);
+            cuenta.depositar(100 + i);
+            cuentaDao.save(cuenta);
+        }
+        for (int i = 0; i < CANTIDAD_CUENTAS - 1; i++) {
+            Cuenta origen = cuentaDao.find(PRIMER_NUMERO_CUENTA + i);
+            Cuenta destino = cuentaDao.find(PRIMER_NUMERO_CUENTA + i + 1);
+            origen.transferirA(destino, 50);
+            origen.debitarDeCuenta(10);
+            cuentaDao.save(origen);
+            cuentaDao.save(destino);
+        }
+        // Saldo cambiado sin el movimiento que lo explique
+        Cuenta alterada = cuentaDao.find(PRIMER_NUMERO_CUENTA + 7);
+        alterada.setBalanceCentavos(alterada.getBalanceCentavos() + 1);
+        cuentaDao.save(alterada);
+
+        VerificadorSaldos.Resultado resultado = verificador.verificar();
+
+        assertTrue(resultado.getCuentasVerificadas() >= CANTIDAD_CUENTAS);
+        List<VerificadorSaldos.Diferencia> propias = resultado.getDiferencias().stream()
+                .filter(diferencia -> diferencia.getNumeroCuenta() >= PRIMER_NUMERO_CUENTA
+                        && diferencia.getNumeroCuenta() < PRIMER_NUMERO_CUENTA + CANTIDAD_CUENTAS)
+                .collect(Collectors.toList());
+        assertEquals(1, propias.size());
+        VerificadorSaldos.Diferencia diferencia = propias.get(0);
+        assertEquals(PRIMER_NUMERO_CUENTA + 7, diferencia.getNumeroCuenta());
+        assertEquals(diferencia.getSaldoMovimientos() + 1, diferencia.getSaldoCuenta());
+        assertEquals(diferencia.getSaldoMovimientos(), diferencia.getSaldoCheckpoint());
+    }
+
+    private static Cuenta nuevaCuenta(long numeroCuenta) {
+        Cuenta cuenta = new Cuenta();
+        cuenta.setNumeroCuenta(numeroCuenta);
+        cuenta.setTipoCuenta(TipoCuenta.CAJA_AHORRO);
+        cuenta.setMoneda(TipoMoneda.PESOS);
+        return cuenta;
+    }
+}